@@ -1,7 +1,13 @@
 package io.github.imsejin.common.io;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Supplier;
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
@@ -17,7 +23,15 @@ public abstract class AbstractResource implements Resource {
     @EqualsAndHashCode.Include
     private final String name;
 
-    private final InputStream inputStream;
+    /**
+     * Supplier of content, which supplies the same stream every time
+     * if this is created with {@link InputStream}.
+     * <p>
+     * If it is {@link Closeable}, it is closed with this resource.
+     */
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final Supplier<InputStream> inputStreamSupplier;
 
     @EqualsAndHashCode.Include
     private final long size;
@@ -25,12 +39,63 @@ public abstract class AbstractResource implements Resource {
     @EqualsAndHashCode.Include
     private final boolean directory;
 
+    private final Map<DigestAlgorithm, String> digests;
+
     protected AbstractResource(String path, String name, InputStream inputStream, long size, boolean directory) {
+        this(path, name, () -> inputStream, size, directory, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a resource whose content can be read repeatedly.
+     *
+     * @param path                path
+     * @param name                name
+     * @param inputStreamSupplier supplier of a new stream of the content, which supplies {@code null} for directory
+     * @param size                size
+     * @param directory           whether it is directory
+     * @param digests             digests of the content
+     */
+    protected AbstractResource(String path, String name, Supplier<InputStream> inputStreamSupplier,
+            long size, boolean directory, Map<DigestAlgorithm, String> digests) {
         this.path = path;
         this.name = name;
-        this.inputStream = inputStream;
+        this.inputStreamSupplier = inputStreamSupplier;
         this.size = size;
         this.directory = directory;
+        this.digests = digests;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return this.inputStreamSupplier.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> This is releasable if the supplier of content is {@link Closeable}.
+     */
+    @Override
+    public boolean isReleasable() {
+        return this.inputStreamSupplier instanceof Closeable;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> This closes the supplier of content if it is {@link Closeable}.
+     */
+    @Override
+    public void close() {
+        if (!(this.inputStreamSupplier instanceof Closeable)) {
+            return;
+        }
+
+        try {
+            ((Closeable) this.inputStreamSupplier).close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to release content of resource: " + this.path, e);
+        }
     }
 
 }
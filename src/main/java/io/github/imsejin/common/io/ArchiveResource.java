@@ -2,6 +2,9 @@ package io.github.imsejin.common.io;
 
 import java.io.InputStream;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -19,7 +22,15 @@ public abstract class ArchiveResource extends AbstractResource {
             String path, String name, InputStream inputStream,
             long size, boolean directory, long lastModifiedMilliTime
     ) {
-        super(path, name, inputStream, size, directory);
+        this(path, name, () -> inputStream, size, directory, lastModifiedMilliTime, Collections.emptyMap());
+    }
+
+    public ArchiveResource(
+            String path, String name, Supplier<InputStream> inputStreamSupplier,
+            long size, boolean directory, long lastModifiedMilliTime,
+            Map<DigestAlgorithm, String> digests
+    ) {
+        super(path, name, inputStreamSupplier, size, directory, digests);
         this.lastModifiedTime = Instant.ofEpochMilli(lastModifiedMilliTime);
     }
 
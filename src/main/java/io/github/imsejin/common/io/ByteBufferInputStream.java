@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io;
+
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+import io.github.imsejin.common.assertion.Asserts;
+
+/**
+ * Input stream that reads the remaining bytes of {@link ByteBuffer}.
+ *
+ * <p> This reads the buffer from its position to its limit and moves the position,
+ * so give a {@link ByteBuffer#duplicate() duplicate} of the buffer which is shared.
+ */
+public class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private int mark;
+
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        Asserts.that(buffer)
+                .describedAs("ByteBufferInputStream.buffer is not allowed to be null")
+                .isNotNull();
+
+        this.buffer = buffer;
+        this.mark = buffer.position();
+    }
+
+    @Override
+    public int read() {
+        return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (!this.buffer.hasRemaining()) {
+            return -1;
+        }
+
+        int count = Math.min(length, this.buffer.remaining());
+        this.buffer.get(bytes, offset, count);
+
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        if (n <= 0) {
+            return 0;
+        }
+
+        int count = (int) Math.min(n, this.buffer.remaining());
+        // Casts to Buffer for compatibility with Java 8, whose ByteBuffer doesn't override it.
+        ((Buffer) this.buffer).position(this.buffer.position() + count);
+
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return this.buffer.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        this.mark = this.buffer.position();
+    }
+
+    @Override
+    public synchronized void reset() {
+        ((Buffer) this.buffer).position(this.mark);
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Resource of content in a single-stream compressor, which has no metadata of the content
+ * such as lz4, snappy and bzip2.
+ */
+@Getter
+@ToString(callSuper = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = true)
+public class CompressedResource extends AbstractResource {
+
+    @EqualsAndHashCode.Include
+    private final long compressedSize;
+
+    public CompressedResource(
+            String name, Supplier<InputStream> inputStreamSupplier,
+            long size, long compressedSize, Map<DigestAlgorithm, String> digests
+    ) {
+        super(name, name, inputStreamSupplier, size, false, digests);
+        this.compressedSize = compressedSize;
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io;
+
+import java.util.zip.Checksum;
+
+/**
+ * CRC-32C(Castagnoli) checksum.
+ *
+ * <p> This is the same as {@code java.util.zip.CRC32C} since Java 9,
+ * which is implemented with slicing-by-8 for Java 8.
+ */
+final class Crc32c implements Checksum {
+
+    /**
+     * Reversed polynomial of CRC-32C.
+     */
+    private static final int POLYNOMIAL = 0x82F63B78;
+
+    private static final int[][] TABLES = new int[8][256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 1) == 0 ? crc >>> 1 : (crc >>> 1) ^ POLYNOMIAL;
+            }
+            TABLES[0][i] = crc;
+        }
+
+        for (int i = 0; i < 256; i++) {
+            for (int t = 1; t < 8; t++) {
+                int previous = TABLES[t - 1][i];
+                TABLES[t][i] = (previous >>> 8) ^ TABLES[0][previous & 0xFF];
+            }
+        }
+    }
+
+    private int crc = 0xFFFFFFFF;
+
+    @Override
+    public void update(int b) {
+        this.crc = (this.crc >>> 8) ^ TABLES[0][(this.crc ^ b) & 0xFF];
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+        int[][] t = TABLES;
+        int value = this.crc;
+        int i = off;
+        int end = off + len;
+
+        for (; end - i >= 8; i += 8) {
+            int low = value ^ (b[i] & 0xFF | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24);
+            value = t[7][low & 0xFF] ^ t[6][(low >>> 8) & 0xFF] ^ t[5][(low >>> 16) & 0xFF] ^ t[4][low >>> 24]
+                    ^ t[3][b[i + 4] & 0xFF] ^ t[2][b[i + 5] & 0xFF] ^ t[1][b[i + 6] & 0xFF] ^ t[0][b[i + 7] & 0xFF];
+        }
+        for (; i < end; i++) {
+            value = (value >>> 8) ^ t[0][(value ^ b[i]) & 0xFF];
+        }
+
+        this.crc = value;
+    }
+
+    @Override
+    public long getValue() {
+        return ~this.crc & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public void reset() {
+        this.crc = 0xFFFFFFFF;
+    }
+
+}
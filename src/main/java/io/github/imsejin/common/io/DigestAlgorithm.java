@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.Checksum;
+
+/**
+ * Algorithm of digest for content of resource.
+ *
+ * <p> Digest is represented as lowercase hexadecimal string;
+ * checksum is 8 digits in big-endian order.
+ *
+ * @see DigestingInputStream
+ */
+public enum DigestAlgorithm {
+
+    /**
+     * CRC-32C(Castagnoli), which is the cheapest one.
+     */
+    CRC32C {
+        @Override
+        Digest newDigest() {
+            return new ChecksumDigest(new Crc32c());
+        }
+    },
+
+    MD5 {
+        @Override
+        Digest newDigest() {
+            return new MessageDigestDigest("MD5");
+        }
+    },
+
+    SHA_256 {
+        @Override
+        Digest newDigest() {
+            return new MessageDigestDigest("SHA-256");
+        }
+    };
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    abstract Digest newDigest();
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Accumulator of digest.
+     */
+    interface Digest {
+        void update(byte[] b, int off, int len);
+
+        String getValue();
+    }
+
+    private static final class ChecksumDigest implements Digest {
+        private final Checksum checksum;
+
+        private ChecksumDigest(Checksum checksum) {
+            this.checksum = checksum;
+        }
+
+        @Override
+        public void update(byte[] b, int off, int len) {
+            this.checksum.update(b, off, len);
+        }
+
+        @Override
+        public String getValue() {
+            long value = this.checksum.getValue();
+            byte[] bytes = {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+            return toHexString(bytes);
+        }
+    }
+
+    private static final class MessageDigestDigest implements Digest {
+        private final MessageDigest messageDigest;
+
+        private MessageDigestDigest(String algorithm) {
+            try {
+                this.messageDigest = MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                // Every implementation of the Java platform is required to support MD5 and SHA-256.
+                throw new IllegalStateException("Unsupported digest algorithm: " + algorithm, e);
+            }
+        }
+
+        @Override
+        public void update(byte[] b, int off, int len) {
+            this.messageDigest.update(b, off, len);
+        }
+
+        @Override
+        public String getValue() {
+            return toHexString(this.messageDigest.digest());
+        }
+    }
+
+    private static String toHexString(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >>> 4) & 0x0F];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0x0F];
+        }
+
+        return new String(chars);
+    }
+
+}
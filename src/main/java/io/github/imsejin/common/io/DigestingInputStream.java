@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.DigestAlgorithm.Digest;
+
+/**
+ * Input stream that computes digests of the bytes passing through it.
+ *
+ * <pre>{@code
+ *     DigestingInputStream in = new DigestingInputStream(source, EnumSet.of(CRC32C, SHA_256));
+ *     // Consumes the stream.
+ *     Map<DigestAlgorithm, String> digests = in.getDigests();
+ * }</pre>
+ *
+ * <p> Skipped bytes are also digested, so this doesn't support {@link #mark(int)}.
+ */
+public class DigestingInputStream extends FilterInputStream {
+
+    private final Map<DigestAlgorithm, Digest> digests = new EnumMap<>(DigestAlgorithm.class);
+
+    public DigestingInputStream(InputStream in, Collection<DigestAlgorithm> algorithms) {
+        super(in);
+
+        Asserts.that(in)
+                .describedAs("DigestingInputStream.in is not allowed to be null")
+                .isNotNull();
+        Asserts.that(algorithms)
+                .describedAs("DigestingInputStream.algorithms is not allowed to be null or contain null")
+                .isNotNull()
+                .doesNotContainNull();
+
+        for (DigestAlgorithm algorithm : algorithms) {
+            this.digests.put(algorithm, algorithm.newDigest());
+        }
+    }
+
+    /**
+     * Computes digests of the rest of the stream.
+     *
+     * @param in         input stream, which is not closed
+     * @param algorithms algorithms of digest
+     * @return digests
+     * @throws IOException if failed to read the stream
+     */
+    public static Map<DigestAlgorithm, String> digest(InputStream in, Collection<DigestAlgorithm> algorithms)
+            throws IOException {
+        DigestingInputStream digestingIn = new DigestingInputStream(in, algorithms);
+
+        byte[] buffer = new byte[16384];
+        while (digestingIn.read(buffer) != -1) {
+            // Digests only.
+        }
+
+        return digestingIn.getDigests();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value != -1) {
+            byte[] b = {(byte) value};
+            for (Digest digest : this.digests.values()) {
+                digest.update(b, 0, 1);
+            }
+        }
+
+        return value;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            for (Digest digest : this.digests.values()) {
+                digest.update(b, off, n);
+            }
+        }
+
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(16384, Math.max(n, 1))];
+
+        long remaining = n;
+        while (remaining > 0) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                break;
+            }
+
+            remaining -= read;
+        }
+
+        return n - remaining;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        // Not supported.
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("DigestingInputStream doesn't support reset()");
+    }
+
+    /**
+     * Returns digests of the bytes which have been read so far.
+     *
+     * <p> This finishes the digests, so it should be called once after the stream is consumed.
+     *
+     * @return digests
+     */
+    public Map<DigestAlgorithm, String> getDigests() {
+        Map<DigestAlgorithm, String> values = new EnumMap<>(DigestAlgorithm.class);
+        this.digests.forEach((algorithm, digest) -> values.put(algorithm, digest.getValue()));
+
+        return Collections.unmodifiableMap(values);
+    }
+
+}
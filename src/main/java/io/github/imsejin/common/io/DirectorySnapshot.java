@@ -0,0 +1,440 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.util.FileUtils;
+
+/**
+ * Snapshot of regular files in a directory, which records their path, size, last modified time
+ * and optionally digest of content.
+ *
+ * <p> Files are kept in parallel arrays sorted by their relative path, so that two snapshots
+ * are compared in linear time by merging them.
+ *
+ * <pre>{@code
+ *     DirectorySnapshot previous = DirectorySnapshot.readFrom(snapshotFile);
+ *     DirectorySnapshot current = DirectorySnapshot.take(directory);
+ *
+ *     DirectorySnapshot.Diff diff = current.diff(previous);
+ *     diff.getModified().forEach(this::process);
+ *     current.writeTo(snapshotFile);
+ * }</pre>
+ */
+public final class DirectorySnapshot {
+
+    private static final int MAGIC_NUMBER = 0x44534E50; // "DSNP"
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path root;
+
+    @Nullable
+    private final DigestAlgorithm digestAlgorithm;
+
+    /**
+     * Relative paths of files separated by {@code /}, which are sorted.
+     */
+    private final String[] paths;
+
+    private final long[] sizes;
+
+    private final long[] modifiedMilliTimes;
+
+    /**
+     * Digests of files, or {@code null} if digest algorithm is not given.
+     */
+    @Nullable
+    private final byte[][] digests;
+
+    private DirectorySnapshot(Path root, @Nullable DigestAlgorithm digestAlgorithm, String[] paths,
+            long[] sizes, long[] modifiedMilliTimes, @Nullable byte[][] digests) {
+        this.root = root;
+        this.digestAlgorithm = digestAlgorithm;
+        this.paths = paths;
+        this.sizes = sizes;
+        this.modifiedMilliTimes = modifiedMilliTimes;
+        this.digests = digests;
+    }
+
+    /**
+     * Takes a snapshot of regular files in the directory.
+     *
+     * @param root directory
+     * @return snapshot
+     */
+    public static DirectorySnapshot take(Path root) {
+        return take(root, null);
+    }
+
+    /**
+     * Takes a snapshot of regular files in the directory with digests of their content.
+     *
+     * <p> Digest detects modification which keeps size and last modified time,
+     * but costs reading all the files.
+     *
+     * @param root            directory
+     * @param digestAlgorithm algorithm of digest, or {@code null} not to compute digests
+     * @return snapshot
+     */
+    public static DirectorySnapshot take(Path root, @Nullable DigestAlgorithm digestAlgorithm) {
+        Asserts.that(root)
+                .describedAs("Invalid path to take snapshot: {0}", root)
+                .isNotNull()
+                .describedAs("It is not a directory: {0}", root)
+                .isDirectory();
+
+        // Sorts files by their relative path.
+        SortedMap<String, Path> files = new TreeMap<>();
+        for (Path file : FileUtils.findAllFiles(root)) {
+            files.put(toRelativePath(root, file), file);
+        }
+
+        int count = files.size();
+        String[] paths = files.keySet().toArray(new String[0]);
+        Path[] sortedFiles = files.values().toArray(new Path[0]);
+
+        long[] sizes = new long[count];
+        long[] modifiedMilliTimes = new long[count];
+        byte[][] digests = digestAlgorithm == null ? null : new byte[count][];
+        for (int i = 0; i < count; i++) {
+            BasicFileAttributes attributes = FileUtils.getFileAttributes(sortedFiles[i]);
+            sizes[i] = attributes.size();
+            modifiedMilliTimes[i] = attributes.lastModifiedTime().toMillis();
+
+            if (digests != null) {
+                digests[i] = digest(sortedFiles[i], digestAlgorithm);
+            }
+        }
+
+        return new DirectorySnapshot(root, digestAlgorithm, paths, sizes, modifiedMilliTimes, digests);
+    }
+
+    /**
+     * Reads a snapshot which is written by {@link #writeTo(Path)}.
+     *
+     * @param file file of snapshot
+     * @return snapshot
+     */
+    public static DirectorySnapshot readFrom(Path file) {
+        Asserts.that(file)
+                .describedAs("Invalid path to read snapshot: {0}", file)
+                .isNotNull()
+                .describedAs("It is not a regular file: {0}", file)
+                .isRegularFile();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC_NUMBER) {
+                throw new IllegalStateException("Invalid format of directory snapshot: " + file);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported version(" + version + ") of directory snapshot: " + file);
+            }
+
+            Path root = file.getFileSystem().getPath(in.readUTF());
+            String algorithmName = in.readUTF();
+            DigestAlgorithm digestAlgorithm = algorithmName.isEmpty() ? null : DigestAlgorithm.valueOf(algorithmName);
+
+            int count = in.readInt();
+            String[] paths = new String[count];
+            long[] sizes = new long[count];
+            long[] modifiedMilliTimes = new long[count];
+            byte[][] digests = digestAlgorithm == null ? null : new byte[count][];
+
+            byte[] previous = new byte[0];
+            for (int i = 0; i < count; i++) {
+                // Path shares its prefix with the previous one, which is sorted.
+                int prefixLength = readVarInt(in);
+                byte[] suffix = new byte[readVarInt(in)];
+                in.readFully(suffix);
+
+                byte[] path = Arrays.copyOf(previous, prefixLength + suffix.length);
+                System.arraycopy(suffix, 0, path, prefixLength, suffix.length);
+                paths[i] = new String(path, StandardCharsets.UTF_8);
+                previous = path;
+
+                sizes[i] = in.readLong();
+                modifiedMilliTimes[i] = in.readLong();
+
+                if (digests != null) {
+                    digests[i] = new byte[readVarInt(in)];
+                    in.readFully(digests[i]);
+                }
+            }
+
+            return new DirectorySnapshot(root, digestAlgorithm, paths, sizes, modifiedMilliTimes, digests);
+
+        } catch (EOFException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid format of directory snapshot: " + file, e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read directory snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * Writes this snapshot into the file in binary format.
+     *
+     * @param file file of snapshot, which is overwritten if it exists
+     */
+    public void writeTo(Path file) {
+        Asserts.that(file)
+                .describedAs("Invalid path to write snapshot: {0}", file)
+                .isNotNull();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC_NUMBER);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(this.root.toString());
+            out.writeUTF(this.digestAlgorithm == null ? "" : this.digestAlgorithm.name());
+            out.writeInt(this.paths.length);
+
+            byte[] previous = new byte[0];
+            for (int i = 0; i < this.paths.length; i++) {
+                byte[] path = this.paths[i].getBytes(StandardCharsets.UTF_8);
+                int prefixLength = commonPrefixLength(previous, path);
+                writeVarInt(out, prefixLength);
+                writeVarInt(out, path.length - prefixLength);
+                out.write(path, prefixLength, path.length - prefixLength);
+                previous = path;
+
+                out.writeLong(this.sizes[i]);
+                out.writeLong(this.modifiedMilliTimes[i]);
+
+                if (this.digests != null) {
+                    writeVarInt(out, this.digests[i].length);
+                    out.write(this.digests[i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write directory snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * Compares this snapshot with the previous one.
+     *
+     * <p> File is regarded as modified if its size or last modified time is changed.
+     * If both snapshots have digests of the same algorithm, only digest is compared instead,
+     * so touched file whose content is not changed is not regarded as modified.
+     *
+     * @param previous previous snapshot
+     * @return difference from the previous snapshot to this
+     */
+    public Diff diff(DirectorySnapshot previous) {
+        Asserts.that(previous)
+                .describedAs("Previous snapshot is not allowed to be null")
+                .isNotNull();
+
+        boolean digestComparable = this.digests != null && previous.digests != null
+                && this.digestAlgorithm == previous.digestAlgorithm;
+
+        Set<Path> added = new LinkedHashSet<>();
+        Set<Path> removed = new LinkedHashSet<>();
+        Set<Path> modified = new LinkedHashSet<>();
+
+        int i = 0;
+        int j = 0;
+        while (i < this.paths.length || j < previous.paths.length) {
+            int result;
+            if (i == this.paths.length) {
+                result = 1;
+            } else if (j == previous.paths.length) {
+                result = -1;
+            } else {
+                result = this.paths[i].compareTo(previous.paths[j]);
+            }
+
+            if (result < 0) {
+                added.add(toPath(this.paths[i++]));
+            } else if (result > 0) {
+                removed.add(toPath(previous.paths[j++]));
+            } else {
+                boolean changed = digestComparable
+                        ? !Arrays.equals(this.digests[i], previous.digests[j])
+                        : this.sizes[i] != previous.sizes[j]
+                        || this.modifiedMilliTimes[i] != previous.modifiedMilliTimes[j];
+
+                if (changed) {
+                    modified.add(toPath(this.paths[i]));
+                }
+                i++;
+                j++;
+            }
+        }
+
+        return new Diff(added, removed, modified);
+    }
+
+    /**
+     * Returns the directory of which this snapshot is taken.
+     *
+     * @return directory
+     */
+    public Path getRoot() {
+        return this.root;
+    }
+
+    /**
+     * Returns the algorithm of digests in this snapshot.
+     *
+     * @return algorithm of digest, or {@code null} if digests are not computed
+     */
+    @Nullable
+    public DigestAlgorithm getDigestAlgorithm() {
+        return this.digestAlgorithm;
+    }
+
+    /**
+     * Returns the number of files in this snapshot.
+     *
+     * @return number of files
+     */
+    public int size() {
+        return this.paths.length;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private Path toPath(String relativePath) {
+        return this.root.getFileSystem().getPath(relativePath);
+    }
+
+    private static String toRelativePath(Path root, Path file) {
+        Path relativePath = root.relativize(file);
+
+        StringBuilder sb = new StringBuilder();
+        for (Path name : relativePath) {
+            if (sb.length() > 0) {
+                sb.append('/');
+            }
+            sb.append(name);
+        }
+
+        return sb.toString();
+    }
+
+    private static byte[] digest(Path file, DigestAlgorithm digestAlgorithm) {
+        String hex;
+        try (InputStream in = Files.newInputStream(file)) {
+            hex = DigestingInputStream.digest(in, EnumSet.of(digestAlgorithm)).get(digestAlgorithm);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to compute digest of file: " + file, e);
+        }
+
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+
+        return bytes;
+    }
+
+    private static int commonPrefixLength(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return i;
+            }
+        }
+
+        return length;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("Malformed variable-length integer");
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Difference between two snapshots, whose paths are relative to the directory in sorted order.
+     */
+    public static final class Diff {
+        private final Set<Path> added;
+
+        private final Set<Path> removed;
+
+        private final Set<Path> modified;
+
+        private Diff(Set<Path> added, Set<Path> removed, Set<Path> modified) {
+            this.added = Collections.unmodifiableSet(added);
+            this.removed = Collections.unmodifiableSet(removed);
+            this.modified = Collections.unmodifiableSet(modified);
+        }
+
+        public Set<Path> getAdded() {
+            return this.added;
+        }
+
+        public Set<Path> getRemoved() {
+            return this.removed;
+        }
+
+        public Set<Path> getModified() {
+            return this.modified;
+        }
+
+        /**
+         * Returns whether no file is added, removed or modified.
+         *
+         * @return whether there is no change
+         */
+        public boolean isEmpty() {
+            return this.added.isEmpty() && this.removed.isEmpty() && this.modified.isEmpty();
+        }
+    }
+
+}
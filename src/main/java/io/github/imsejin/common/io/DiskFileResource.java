@@ -4,6 +4,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -19,20 +23,27 @@ public class DiskFileResource extends AbstractResource {
     @EqualsAndHashCode.Include
     private final Path realPath;
 
-    private DiskFileResource(String path, String name, InputStream inputStream,
-                             long size, boolean directory, Path realPath) {
-        super(path, name, inputStream, size, directory);
+    private final Instant lastModifiedTime;
+
+    private DiskFileResource(String path, String name, long size, boolean directory, Path realPath,
+                             long lastModifiedMilliTime, Map<DigestAlgorithm, String> digests) {
+        super(path, name, () -> null, size, directory, digests);
         this.realPath = realPath;
+        this.lastModifiedTime = Instant.ofEpochMilli(lastModifiedMilliTime);
     }
 
     public static DiskFileResource from(Path realPath) {
+        return from(realPath, Collections.emptyMap());
+    }
+
+    public static DiskFileResource from(Path realPath, Map<DigestAlgorithm, String> digests) {
         try {
             String path = realPath.toString();
             String name = FilenameUtils.getName(path);
-            boolean directory = Files.isDirectory(realPath);
-            long size = Files.size(realPath);
+            BasicFileAttributes attributes = Files.readAttributes(realPath, BasicFileAttributes.class);
 
-            return new DiskFileResource(path, name, null, size, directory, realPath);
+            return new DiskFileResource(path, name, attributes.size(), attributes.isDirectory(), realPath,
+                    attributes.lastModifiedTime().toMillis(), digests);
         } catch (IOException e) {
             throw new IllegalStateException("Failed to instantiate DiskFileResource from path: " + realPath, e);
         }
@@ -2,6 +2,9 @@ package io.github.imsejin.common.io;
 
 import java.io.InputStream;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -20,7 +23,15 @@ public class GzipResource extends AbstractResource {
             String name, InputStream inputStream,
             long size, long compressedSize, long lastModifiedMilliTime
     ) {
-        super(name, name, inputStream, size, false);
+        this(name, () -> inputStream, size, compressedSize, lastModifiedMilliTime, Collections.emptyMap());
+    }
+
+    public GzipResource(
+            String name, Supplier<InputStream> inputStreamSupplier,
+            long size, long compressedSize, long lastModifiedMilliTime,
+            Map<DigestAlgorithm, String> digests
+    ) {
+        super(name, name, inputStreamSupplier, size, false, digests);
         this.compressedSize = compressedSize;
         this.lastModifiedTime = Instant.ofEpochMilli(lastModifiedMilliTime);
     }
@@ -1,8 +1,11 @@
 package io.github.imsejin.common.io;
 
+import java.io.Closeable;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
 
-public interface Resource {
+public interface Resource extends Closeable {
 
     String getPath();
 
@@ -14,4 +17,32 @@ public interface Resource {
 
     boolean isDirectory();
 
+    /**
+     * Returns digests of the content, which are computed while the resource is found.
+     *
+     * @return digests, or empty map if they are not computed
+     * @see DigestAlgorithm
+     */
+    default Map<DigestAlgorithm, String> getDigests() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Returns whether this holds the content in storage apart from its source, which {@link #close()} releases.
+     *
+     * @return whether this should be closed after use
+     */
+    default boolean isReleasable() {
+        return false;
+    }
+
+    /**
+     * Releases storage which holds the content apart from its source, such as temporary file.
+     *
+     * <p> Content can't be read after this is closed. Closing it again has no effect.
+     */
+    @Override
+    default void close() {
+    }
+
 }
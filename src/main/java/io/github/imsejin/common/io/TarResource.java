@@ -17,15 +17,62 @@
 package io.github.imsejin.common.io;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.Nullable;
 
 import lombok.ToString;
 
 @ToString(callSuper = true)
 public class TarResource extends ArchiveResource {
 
+    /**
+     * Read-only content, which is a slice of memory-mapped archive file.
+     */
+    @Nullable
+    @ToString.Exclude
+    private final ByteBuffer content;
+
     public TarResource(String path, String name, InputStream inputStream,
             long size, boolean directory, long lastModifiedMilliTime) {
         super(path, name, inputStream, size, directory, lastModifiedMilliTime);
+        this.content = null;
+    }
+
+    public TarResource(String path, String name, Supplier<InputStream> inputStreamSupplier,
+            long size, boolean directory, long lastModifiedMilliTime, Map<DigestAlgorithm, String> digests) {
+        super(path, name, inputStreamSupplier, size, directory, lastModifiedMilliTime, digests);
+        this.content = null;
+    }
+
+    /**
+     * Creates a resource of regular file, whose content is read from the buffer without copy.
+     *
+     * @param path                  path
+     * @param name                  name
+     * @param content               read-only content, which is never modified
+     * @param lastModifiedMilliTime last modified time
+     * @param digests               digests of the content
+     */
+    public TarResource(String path, String name, ByteBuffer content,
+            long lastModifiedMilliTime, Map<DigestAlgorithm, String> digests) {
+        super(path, name, () -> new ByteBufferInputStream(content.duplicate()), content.remaining(), false,
+                lastModifiedMilliTime, digests);
+        this.content = content;
+    }
+
+    /**
+     * Returns content of this resource without copy, only if it is read from memory-mapped archive file.
+     *
+     * <p> The returned buffer is read-only, and has its own position and limit.
+     *
+     * @return read-only content, or {@code null} if it is not memory-mapped
+     */
+    @Nullable
+    public ByteBuffer getContent() {
+        return this.content == null ? null : this.content.asReadOnlyBuffer();
     }
 
 }
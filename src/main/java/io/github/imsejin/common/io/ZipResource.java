@@ -17,6 +17,8 @@
 package io.github.imsejin.common.io;
 
 import java.io.InputStream;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import lombok.ToString;
 
@@ -28,4 +30,9 @@ public class ZipResource extends ArchiveResource {
         super(path, name, inputStream, size, directory, lastModifiedMilliTime);
     }
 
+    public ZipResource(String path, String name, Supplier<InputStream> inputStreamSupplier,
+            long size, boolean directory, long lastModifiedMilliTime, Map<DigestAlgorithm, String> digests) {
+        super(path, name, inputStreamSupplier, size, directory, lastModifiedMilliTime, digests);
+    }
+
 }
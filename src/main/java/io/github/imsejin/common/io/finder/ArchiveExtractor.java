@@ -0,0 +1,334 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writer of archive entries to files, which overlaps decompression with writes.
+ *
+ * <p> The caller thread reads entries of archive sequentially and hands out chunks of them
+ * to the writer threads, which write each chunk at its own position of file.
+ * Entries which are stored as-is in the archive file are transferred from the archive file
+ * to the target file by {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+ * without copying them to the heap.
+ *
+ * <p> Entries of the same target, such as duplicate entries of tar appended by {@code tar --append},
+ * are written one after another, so that the later entry is never mixed with chunks of the earlier one.
+ */
+final class ArchiveExtractor implements Closeable {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Maximum number of chunks per writer, which are read but not written yet.
+     */
+    private static final int MAX_PENDING_CHUNKS_PER_WRITER = 4;
+
+    private final ExecutorService writers;
+
+    /**
+     * Bounds memory of chunks in the queue of writers, blocking the caller thread when writers are behind.
+     */
+    private final Semaphore pendingChunks;
+
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    /**
+     * Targets which are being written, whose entries are removed when they are closed.
+     */
+    private final Map<Path, FileTarget> fileTargets = new ConcurrentHashMap<>();
+
+    ArchiveExtractor(int writerCount) {
+        this.writers = Executors.newFixedThreadPool(writerCount, runnable -> {
+            Thread thread = new Thread(runnable, "archive-extractor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pendingChunks = new Semaphore(writerCount * MAX_PENDING_CHUNKS_PER_WRITER);
+    }
+
+    /**
+     * Writes the rest of stream to the target file.
+     *
+     * @param in                    stream of entry
+     * @param target                target file
+     * @param lastModifiedMilliTime last modified time of entry
+     * @throws IOException if failed to read the stream or any writer has failed
+     */
+    void write(InputStream in, Path target, long lastModifiedMilliTime) throws IOException {
+        checkError();
+
+        FileChannel channel = open(target);
+        // Held by the caller thread until the entry is read to the end.
+        FileTarget fileTarget = new FileTarget(channel, target, lastModifiedMilliTime);
+        this.fileTargets.put(target, fileTarget);
+
+        try {
+            long position = 0;
+            while (true) {
+                byte[] chunk = new byte[CHUNK_SIZE];
+                int length = readFully(in, chunk);
+                if (length == 0) {
+                    break;
+                }
+
+                long chunkPosition = position;
+                position += length;
+
+                fileTarget.pending.incrementAndGet();
+                submit(() -> {
+                    ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, length);
+                    long offset = chunkPosition;
+                    while (buffer.hasRemaining()) {
+                        offset += channel.write(buffer, offset);
+                    }
+                }, fileTarget);
+
+                if (length < CHUNK_SIZE) {
+                    break;
+                }
+            }
+        } finally {
+            fileTarget.release();
+        }
+    }
+
+    /**
+     * Transfers the range of source file to the target file.
+     *
+     * @param source                channel of archive file
+     * @param offset                offset of entry in the archive file
+     * @param size                  size of entry
+     * @param target                target file
+     * @param lastModifiedMilliTime last modified time of entry
+     * @throws IOException if any writer has failed
+     */
+    void transfer(FileChannel source, long offset, long size, Path target, long lastModifiedMilliTime)
+            throws IOException {
+        checkError();
+
+        FileChannel channel = open(target);
+        FileTarget fileTarget = new FileTarget(channel, target, lastModifiedMilliTime);
+        this.fileTargets.put(target, fileTarget);
+
+        try {
+            fileTarget.pending.incrementAndGet();
+            submit(() -> {
+                // Positional transfer doesn't change position of source, so it is shared by writers.
+                long transferred = 0;
+                while (transferred < size) {
+                    long count = source.transferTo(offset + transferred, size - transferred, channel);
+                    if (count <= 0) {
+                        throw new IOException("Unexpected end of archive file while extracting: " + target);
+                    }
+                    transferred += count;
+                }
+            }, fileTarget);
+        } finally {
+            fileTarget.release();
+        }
+    }
+
+    /**
+     * Waits for writers to finish all the chunks.
+     *
+     * @throws IOException if any writer has failed
+     */
+    void await() throws IOException {
+        this.writers.shutdown();
+
+        try {
+            while (!this.writers.awaitTermination(1, TimeUnit.SECONDS)) {
+                checkError();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for writers to finish");
+        }
+
+        checkError();
+    }
+
+    @Override
+    public void close() {
+        List<Runnable> abandonedTasks = this.writers.shutdownNow();
+        if (abandonedTasks.isEmpty()) {
+            return;
+        }
+
+        // Runs abandoned tasks without writing, so that files held by them are closed.
+        this.error.compareAndSet(null, new InterruptedIOException("Extraction is aborted"));
+        abandonedTasks.forEach(Runnable::run);
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private FileChannel open(Path target) throws IOException {
+        // Waits for the earlier entry of the same target, because opening it truncates the file being written.
+        FileTarget previous = this.fileTargets.get(target);
+        if (previous != null) {
+            try {
+                previous.closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for writers: " + target);
+            }
+
+            checkError();
+        }
+
+        // Doesn't follow symbolic link, which is able to point outside of the target directory.
+        return FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int offset = 0;
+        while (offset < buffer.length) {
+            int length = in.read(buffer, offset, buffer.length - offset);
+            if (length == -1) {
+                break;
+            }
+            offset += length;
+        }
+
+        return offset;
+    }
+
+    private void submit(Task task, FileTarget fileTarget) throws IOException {
+        try {
+            this.pendingChunks.acquire();
+        } catch (InterruptedException e) {
+            fileTarget.pending.decrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for writers: " + fileTarget.path);
+        }
+
+        try {
+            this.writers.execute(() -> {
+                try {
+                    if (this.error.get() == null) {
+                        task.run();
+                    }
+                } catch (Throwable t) {
+                    this.error.compareAndSet(null, t);
+                } finally {
+                    this.pendingChunks.release();
+                    fileTarget.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.pendingChunks.release();
+            fileTarget.pending.decrementAndGet();
+            throw new IOException("Writers are already shut down: " + fileTarget.path, e);
+        }
+
+        checkError();
+    }
+
+    private void checkError() throws IOException {
+        Throwable t = this.error.get();
+        if (t == null) {
+            return;
+        }
+
+        if (t instanceof IOException) {
+            throw new IOException("Failed to write entry of archive: " + t.getMessage(), t);
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+
+        throw new IllegalStateException(t);
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws IOException;
+    }
+
+    /**
+     * File which is being written by writers.
+     *
+     * <p> The last one who releases it, either caller thread or writer, closes the file
+     * and sets its last modified time, because writing changes the time.
+     */
+    private final class FileTarget {
+        private final FileChannel channel;
+
+        private final Path path;
+
+        private final long lastModifiedMilliTime;
+
+        /**
+         * Number of holders, which starts at one for the caller thread.
+         */
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        private FileTarget(FileChannel channel, Path path, long lastModifiedMilliTime) {
+            this.channel = channel;
+            this.path = path;
+            this.lastModifiedMilliTime = lastModifiedMilliTime;
+        }
+
+        private void release() {
+            if (this.pending.decrementAndGet() != 0) {
+                return;
+            }
+
+            try {
+                this.channel.close();
+                Files.setLastModifiedTime(this.path, FileTime.fromMillis(this.lastModifiedMilliTime));
+            } catch (IOException e) {
+                error.compareAndSet(null, e);
+            } finally {
+                fileTargets.remove(this.path, this);
+                this.closed.countDown();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarUtils;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorInputStream;
+import org.jetbrains.annotations.Nullable;
+
+import io.github.imsejin.common.assertion.Asserts;
+
+/**
+ * Format of archive or compressor, which is detected by its magic bytes.
+ */
+public enum ArchiveFormat {
+
+    ZIP(true),
+
+    TAR(true),
+
+    GZIP(false),
+
+    TAR_GZIP(true),
+
+    LZ4(false),
+
+    TAR_LZ4(true),
+
+    SNAPPY(false),
+
+    BZIP2(false),
+
+    TAR_BZIP2(true);
+
+    /**
+     * Number of bytes to peek for detecting a format.
+     * <p>
+     * Tar header has its magic at offset 257, so a whole header block is needed.
+     */
+    static final int SIGNATURE_SIZE = 512;
+
+    /**
+     * Maximum number of compressed bytes to be read ahead
+     * while peeking the first decompressed tar header in gzip.
+     */
+    static final int READ_AHEAD_LIMIT = 64 * 1024;
+
+    /**
+     * Maximum number of compressed bytes to be read ahead
+     * while peeking the first decompressed tar header in bzip2.
+     * <p>
+     * Bzip2 decompresses a block of up to 900 KB at once, which can be slightly
+     * larger when it is compressed from incompressible data.
+     */
+    static final int BZIP2_READ_AHEAD_LIMIT = 1024 * 1024;
+
+    private final boolean archive;
+
+    ArchiveFormat(boolean archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * Returns whether this format contains multiple entries.
+     *
+     * @return whether this format is an archive
+     */
+    public boolean isArchive() {
+        return this.archive;
+    }
+
+    /**
+     * Detects a format of the stream by its magic bytes.
+     *
+     * <p> This peeks the first bytes and resets the stream to the position before calling this,
+     * so the stream can be consumed again without reopening it.
+     *
+     * @param in stream that supports {@link InputStream#mark(int)}
+     * @return format of the stream or {@code null} if it is unknown
+     * @throws IOException if failed to read the stream
+     */
+    @Nullable
+    public static ArchiveFormat detect(InputStream in) throws IOException {
+        Asserts.that(in)
+                .describedAs("ArchiveFormat.detect cannot take null as stream")
+                .isNotNull()
+                .describedAs("ArchiveFormat.detect requires stream to support mark: {0}", in)
+                .is(InputStream::markSupported);
+
+        byte[] signature = new byte[SIGNATURE_SIZE];
+        in.mark(SIGNATURE_SIZE);
+        int length;
+        try {
+            length = readFully(in, signature);
+        } finally {
+            in.reset();
+        }
+
+        if (ZipArchiveInputStream.matches(signature, length)) {
+            return ZIP;
+        }
+        if (isTar(signature, length)) {
+            return TAR;
+        }
+        if (GzipCompressorInputStream.matches(signature, length)) {
+            return isCompressedTar(in, GZIP, READ_AHEAD_LIMIT) ? TAR_GZIP : GZIP;
+        }
+        if (FramedLZ4CompressorInputStream.matches(signature, length)) {
+            return isCompressedTar(in, LZ4, READ_AHEAD_LIMIT) ? TAR_LZ4 : LZ4;
+        }
+        // Bzip2 has only 3 bytes of magic, so block size following it is also verified.
+        if (BZip2CompressorInputStream.matches(signature, length) && length > 3
+                && signature[3] >= '1' && signature[3] <= '9') {
+            return isCompressedTar(in, BZIP2, BZIP2_READ_AHEAD_LIMIT) ? TAR_BZIP2 : BZIP2;
+        }
+        if (FramedSnappyCompressorInputStream.matches(signature, length)) {
+            return SNAPPY;
+        }
+
+        return null;
+    }
+
+    /**
+     * Peeks the first decompressed block to tell compressed tar from plain compressor.
+     */
+    private static boolean isCompressedTar(InputStream in, ArchiveFormat format, int readAheadLimit)
+            throws IOException {
+        byte[] signature = new byte[SIGNATURE_SIZE];
+        int length;
+
+        in.mark(readAheadLimit);
+        try (InputStream compressorIn = openCompressor(new NonClosingInputStream(in), format)) {
+            length = readFully(compressorIn, signature);
+        } catch (IOException e) {
+            // Corrupted or truncated compressor is regarded as plain compressor, which will fail on being read.
+            return false;
+        } finally {
+            in.reset();
+        }
+
+        return isTar(signature, length);
+    }
+
+    private static InputStream openCompressor(InputStream in, ArchiveFormat format) throws IOException {
+        switch (format) {
+            case GZIP:
+                return new GzipCompressorInputStream(in);
+            case LZ4:
+                return new FramedLZ4CompressorInputStream(in);
+            case BZIP2:
+                return new BZip2CompressorInputStream(in);
+            default:
+                throw new IllegalArgumentException("Unsupported compressor format: " + format);
+        }
+    }
+
+    private static boolean isTar(byte[] signature, int length) {
+        if (TarArchiveInputStream.matches(signature, length)) {
+            return true;
+        }
+
+        if (length < SIGNATURE_SIZE || signature[0] == 0) {
+            return false;
+        }
+
+        // Old tar(V7) has no magic, so its header is verified by checksum instead.
+        try {
+            return TarUtils.verifyCheckSum(signature);
+        } catch (IllegalArgumentException e) {
+            // Checksum field is not octal.
+            return false;
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int offset = 0;
+        while (offset < buffer.length) {
+            int read = in.read(buffer, offset, buffer.length - offset);
+            if (read == -1) {
+                break;
+            }
+
+            offset += read;
+        }
+
+        return offset;
+    }
+
+}
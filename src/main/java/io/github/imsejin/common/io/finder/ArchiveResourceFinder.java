@@ -16,12 +16,26 @@
 
 package io.github.imsejin.common.io.finder;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveInputStream;
@@ -29,7 +43,10 @@ import org.jetbrains.annotations.Nullable;
 
 import io.github.imsejin.common.assertion.Asserts;
 import io.github.imsejin.common.io.ArchiveResource;
+import io.github.imsejin.common.io.DigestAlgorithm;
+import io.github.imsejin.common.io.DigestingInputStream;
 import io.github.imsejin.common.io.Resource;
+import io.github.imsejin.common.util.FilenameUtils;
 
 public abstract class ArchiveResourceFinder<
         R extends ArchiveResource,
@@ -37,6 +54,159 @@ public abstract class ArchiveResourceFinder<
         I extends ArchiveInputStream>
         implements ResourceFinder {
 
+    /**
+     * Default maximum depth of nested archives to be expanded.
+     */
+    public static final int DEFAULT_MAX_NESTED_DEPTH = 3;
+
+    /**
+     * Default number of threads to write files on extraction.
+     */
+    public static final int DEFAULT_EXTRACTION_WRITER_COUNT = 2;
+
+    /**
+     * Whether to expand nested archives in the archive.
+     */
+    protected final boolean recursive;
+
+    protected final Predicate<ArchiveEntry> filter;
+
+    protected final Charset charset;
+
+    /**
+     * Maximum depth of nested archives to be expanded.
+     * <p>
+     * Nested archive deeper than this is regarded as a regular file.
+     */
+    private int maxNestedDepth = DEFAULT_MAX_NESTED_DEPTH;
+
+    /**
+     * Maximum total size of entries to be read from nested archives.
+     */
+    private long maxNestedSize = Long.MAX_VALUE;
+
+    /**
+     * Algorithms of digests to be computed while entries are read.
+     */
+    private Set<DigestAlgorithm> digestAlgorithms = EnumSet.noneOf(DigestAlgorithm.class);
+
+    /**
+     * Number of threads to write files on extraction.
+     */
+    private int extractionWriterCount = DEFAULT_EXTRACTION_WRITER_COUNT;
+
+    /**
+     * Maximum size of entry to be kept in memory.
+     */
+    private long memoryThreshold = Long.MAX_VALUE;
+
+    /**
+     * Directory of temporary files for entries larger than {@link #memoryThreshold}.
+     */
+    @Nullable
+    private Path spillDirectory;
+
+    protected ArchiveResourceFinder(boolean recursive, Predicate<ArchiveEntry> filter, Charset charset) {
+        this.recursive = recursive;
+        this.filter = filter;
+        this.charset = charset;
+    }
+
+    /**
+     * Sets the maximum depth of nested archives to be expanded when this finder is recursive.
+     *
+     * @param maxNestedDepth maximum depth of nested archives
+     */
+    public void setMaxNestedDepth(int maxNestedDepth) {
+        Asserts.that(maxNestedDepth)
+                .describedAs("ArchiveResourceFinder.maxNestedDepth must be zero or positive, but it is {0}", maxNestedDepth)
+                .isZeroOrPositive();
+
+        this.maxNestedDepth = maxNestedDepth;
+    }
+
+    /**
+     * Sets the maximum total size of entries to be read from nested archives when this finder is recursive.
+     *
+     * <p> Entries of nested archives are kept in memory,
+     * so this bounds the memory which is used for expanding them.
+     *
+     * @param maxNestedSize maximum total size of entries in nested archives
+     */
+    public void setMaxNestedSize(long maxNestedSize) {
+        Asserts.that(maxNestedSize)
+                .describedAs("ArchiveResourceFinder.maxNestedSize must be zero or positive, but it is {0}", maxNestedSize)
+                .isZeroOrPositive();
+
+        this.maxNestedSize = maxNestedSize;
+    }
+
+    /**
+     * Sets algorithms of digests to be computed while entries are read,
+     * which are given by {@link Resource#getDigests()}.
+     *
+     * @param digestAlgorithms algorithms of digest
+     */
+    public void setDigestAlgorithms(DigestAlgorithm... digestAlgorithms) {
+        Asserts.that(digestAlgorithms)
+                .describedAs("ArchiveResourceFinder.digestAlgorithms is not allowed to be null or contain null")
+                .isNotNull()
+                .doesNotContainNull();
+
+        Set<DigestAlgorithm> algorithms = EnumSet.noneOf(DigestAlgorithm.class);
+        algorithms.addAll(Arrays.asList(digestAlgorithms));
+        this.digestAlgorithms = algorithms;
+    }
+
+    /**
+     * Sets the number of threads to write files on extraction, while the caller thread decompresses entries.
+     *
+     * @param extractionWriterCount number of threads to write files
+     * @see #extractTo(Path, Path)
+     */
+    public void setExtractionWriterCount(int extractionWriterCount) {
+        Asserts.that(extractionWriterCount)
+                .describedAs("ArchiveResourceFinder.extractionWriterCount must be positive, but it is {0}",
+                        extractionWriterCount)
+                .isPositive();
+
+        this.extractionWriterCount = extractionWriterCount;
+    }
+
+    /**
+     * Sets the maximum size of entry to be kept in memory.
+     *
+     * <p> Content of entry larger than this is spooled to a temporary file instead of heap,
+     * and {@link Resource#getInputStream()} reads the file. The file is deleted when
+     * the resource is {@link Resource#close() closed}, so close resources after use.
+     * By default, all entries are kept in memory.
+     *
+     * @param memoryThreshold maximum size of entry in memory
+     * @see #setSpillDirectory(Path)
+     */
+    public void setMemoryThreshold(long memoryThreshold) {
+        Asserts.that(memoryThreshold)
+                .describedAs("ArchiveResourceFinder.memoryThreshold must be zero or positive, but it is {0}",
+                        memoryThreshold)
+                .isZeroOrPositive();
+
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    /**
+     * Sets the directory of temporary files for entries larger than the memory threshold.
+     *
+     * @param spillDirectory directory of temporary files, or {@code null} for the default temporary directory
+     * @see #setMemoryThreshold(long)
+     */
+    public void setSpillDirectory(@Nullable Path spillDirectory) {
+        Asserts.that(spillDirectory)
+                .describedAs("ArchiveResourceFinder.spillDirectory must be a directory: {0}", spillDirectory)
+                .is(it -> it == null || Files.isDirectory(it));
+
+        this.spillDirectory = spillDirectory;
+    }
+
     @Override
     public List<Resource> getResources(Path path) {
         Asserts.that(path)
@@ -49,37 +219,447 @@ public abstract class ArchiveResourceFinder<
                 .describedAs("Cannot read file: {0}", path)
                 .is(Files::isReadable);
 
-        try (I in = getArchiveInputStream(Files.newInputStream(path))) {
-            List<Resource> resources = new ArrayList<>();
+        try {
+            return findResources(path);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read archive file: " + path, e);
+        }
+    }
+
+    /**
+     * Finds resources in the archive file, which is already validated.
+     *
+     * @param path path of archive
+     * @return resources
+     * @throws IOException if failed to read the file
+     */
+    List<Resource> findResources(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return getResources(in);
+        }
+    }
+
+    /**
+     * Finds resources in the stream of archive, which is already opened.
+     *
+     * @param in stream of archive
+     * @return resources
+     * @throws IOException if failed to read the stream
+     */
+    List<Resource> getResources(InputStream in) throws IOException {
+        List<Resource> resources = new ArrayList<>();
+        try (I archiveIn = getArchiveInputStream(in)) {
+            findResources(archiveIn, "", 0, new NestedSize(), resources);
+
+            return resources;
+        } catch (IOException | RuntimeException e) {
+            // Deletes temporary files of the resources which are already found.
+            resources.forEach(Resource::close);
+            throw e;
+        }
+    }
+
+    /**
+     * Lists resources of entries in the archive without reading their content.
+     *
+     * <p> Each resource has path, name, size and last modified time of entry, but no content;
+     * {@link Resource#getInputStream()} returns {@code null}. Entries are read from the index of archive
+     * or by skipping their content, so this takes time in proportion to the number of entries rather than
+     * size of the archive, unless the archive is compressed as a whole like tar.gz.
+     * Nested archives are not expanded, and filter of this finder is applied to entries.
+     *
+     * @param path path of archive
+     * @return resources without content
+     */
+    public List<R> listResources(Path path) {
+        Asserts.that(path)
+                .describedAs("Invalid path to list resources: {0}", path)
+                .isNotNull()
+                .describedAs("No such path exists: {0}", path)
+                .exists()
+                .describedAs("It is not a regular file: {0}", path)
+                .isRegularFile()
+                .describedAs("Cannot read file: {0}", path)
+                .is(Files::isReadable);
+
+        try {
+            return listEntries(path);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read archive file: " + path, e);
+        }
+    }
+
+    /**
+     * Lists resources of entries in the archive file, which is already validated.
+     *
+     * <p> This reads the archive as a stream, whose content of entries is skipped.
+     *
+     * @param path path of archive
+     * @return resources without content
+     * @throws IOException if failed to read the file
+     */
+    List<R> listEntries(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path);
+             I archiveIn = getArchiveInputStream(in)) {
+            List<R> resources = new ArrayList<>();
+            while (true) {
+                E entry = getNextArchiveEntry(archiveIn);
+                if (entry == null) {
+                    break;
+                }
+
+                if (this.filter.test(entry)) {
+                    resources.add(getMetadataResource(entry));
+                }
+            }
+
+            return resources;
+        }
+    }
+
+    /**
+     * Returns a resource of the entry, which has no content.
+     *
+     * @param entry entry
+     * @return resource without content
+     */
+    R getMetadataResource(E entry) {
+        String name = FilenameUtils.getName(entry.getName());
+        long modifiedMilliTime = entry.getLastModifiedDate().getTime();
+
+        return createArchiveResource(entry.getName(), name, () -> null, entry.getSize(), entry.isDirectory(),
+                modifiedMilliTime, Collections.emptyMap());
+    }
+
+    /**
+     * Extracts entries of archive into the target directory, preserving their last modified time.
+     *
+     * <p> Entries are streamed to files without being kept in memory; the caller thread decompresses them
+     * and writer threads write them, so that decompression and writes overlap. Entries which are stored
+     * uncompressed in the archive file are transferred from the file to the target without user-space copy.
+     *
+     * <p> Nested archives are extracted as regular files, and filter of this finder is applied to entries.
+     * Entry whose path escapes the target directory, such as {@code ../evil.sh}, is rejected
+     * before any file is written for it.
+     *
+     * <p> Entries of symbolic link and hard link are skipped rather than created, because their targets
+     * are able to point outside of the target directory. They are neither written as regular files,
+     * nor included in the returned paths. Entry whose path is the same as the earlier one overwrites it
+     * as {@code tar} does.
+     *
+     * @param path      path of archive
+     * @param targetDir directory to extract entries into, which is created if it doesn't exist
+     * @return paths of extracted files and directories in the order of entries
+     */
+    public List<Path> extractTo(Path path, Path targetDir) {
+        Asserts.that(path)
+                .describedAs("Invalid path to extract: {0}", path)
+                .isNotNull()
+                .describedAs("No such path exists: {0}", path)
+                .exists()
+                .describedAs("It is not a regular file: {0}", path)
+                .isRegularFile()
+                .describedAs("Cannot read file: {0}", path)
+                .is(Files::isReadable);
+        Asserts.that(targetDir)
+                .describedAs("Invalid directory to extract into: {0}", targetDir)
+                .isNotNull()
+                .describedAs("It is not a directory: {0}", targetDir)
+                .is(it -> !Files.exists(it) || Files.isDirectory(it));
+
+        Path root = targetDir.toAbsolutePath().normalize();
+        List<Path> extractedPaths = new ArrayList<>();
+        Map<Path, Long> directoryTimes = new LinkedHashMap<>();
+
+        try (InputStream in = Files.newInputStream(path);
+             I archiveIn = getArchiveInputStream(in);
+             FileChannel source = FileChannel.open(path, StandardOpenOption.READ);
+             ArchiveExtractor extractor = new ArchiveExtractor(this.extractionWriterCount)) {
+            Files.createDirectories(root);
+            boolean storedAsIs = isStoredAsIs(path);
 
-            // java.nio.charset.MalformedInputException: Input length = 1
-            // java.nio.charset.CharsetDecoder.decode
             while (true) {
-                E entry = getNextArchiveEntry(in);
+                E entry = getNextArchiveEntry(archiveIn);
                 if (entry == null) {
                     break;
                 }
+                if (!this.filter.test(entry) || isLink(entry)) {
+                    continue;
+                }
+
+                Path target = root.resolve(entry.getName()).normalize();
+                if (!target.startsWith(root)) {
+                    throw new IllegalStateException("Entry is outside of the target directory: " + entry.getName());
+                }
+                // Skips entry of the target directory itself such as "./".
+                if (target.equals(root)) {
+                    continue;
+                }
 
-                R resource = getArchiveResource(entry, in);
-                if (resource == null) {
+                long modifiedMilliTime = entry.getLastModifiedDate().getTime();
+                extractedPaths.add(target);
+
+                if (entry.isDirectory()) {
+                    Files.createDirectories(target);
+                    directoryTimes.put(target, modifiedMilliTime);
                     continue;
                 }
 
-                resources.add(resource);
+                Files.createDirectories(target.getParent());
+
+                long dataOffset = storedAsIs ? getDataOffset(archiveIn, entry) : -1;
+                if (dataOffset >= 0) {
+                    extractor.transfer(source, dataOffset, entry.getSize(), target, modifiedMilliTime);
+                } else {
+                    extractor.write(archiveIn, target, modifiedMilliTime);
+                }
             }
 
-            return resources;
+            extractor.await();
+
+            // Sets time of directories at last, because creating files in them changes it.
+            for (Map.Entry<Path, Long> entry : directoryTimes.entrySet()) {
+                Files.setLastModifiedTime(entry.getKey(), FileTime.fromMillis(entry.getValue()));
+            }
+
+            return extractedPaths;
+
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to extract archive file: " + path, e);
+        }
+    }
+
+    private void findResources(I in, String parentPath, int depth, NestedSize nestedSize, List<Resource> resources)
+            throws IOException {
+        // java.nio.charset.MalformedInputException: Input length = 1
+        // java.nio.charset.CharsetDecoder.decode
+        while (true) {
+            E entry = getNextArchiveEntry(in);
+            if (entry == null) {
+                break;
+            }
+
+            InputStream entryIn = in;
+            if (this.recursive && !entry.isDirectory() && depth < this.maxNestedDepth) {
+                // Peeks magic bytes of the entry without consuming them.
+                entryIn = new BufferedInputStream(new NonClosingInputStream(in));
+                ArchiveFormat format = ArchiveFormat.detect(entryIn);
+
+                if (format != null && format.isArchive()) {
+                    String nestedPath = parentPath + entry.getName() + '/';
+                    findNestedResources(getNestedFinder(format), entryIn, nestedPath, depth + 1, nestedSize, resources);
+                    continue;
+                }
+            }
+
+            if (!this.filter.test(entry)) {
+                continue;
+            }
+
+            R resource = getArchiveResource(parentPath, entry, entryIn, depth > 0 ? nestedSize : null);
+            resources.add(resource);
+        }
+    }
+
+    /**
+     * Finds resources in the entry if it is a nested archive to be expanded.
+     *
+     * <p> Stream that supports {@link InputStream#mark(int)} is reset after detecting the format,
+     * so that it can be read again as content of the entry if it is not expanded.
+     *
+     * @param in        stream of entry
+     * @param path      path of entry
+     * @param resources resources to add to
+     * @return whether the entry is expanded as a nested archive, if not, the stream is partially consumed
+     * unless it supports mark
+     * @throws IOException if failed to read the stream
+     */
+    boolean findNestedResources(InputStream in, String path, List<Resource> resources) throws IOException {
+        if (!this.recursive || this.maxNestedDepth == 0) {
+            return false;
+        }
+
+        InputStream entryIn = in.markSupported() ? in : new BufferedInputStream(in);
+        ArchiveFormat format = ArchiveFormat.detect(entryIn);
+        if (format == null || !format.isArchive()) {
+            return false;
+        }
+
+        findNestedResources(getNestedFinder(format), entryIn, path + '/', 1, new NestedSize(), resources);
+        return true;
+    }
+
+    private static <N extends ArchiveInputStream<?>> void findNestedResources(
+            ArchiveResourceFinder<?, ?, N> finder, InputStream in, String parentPath,
+            int depth, NestedSize nestedSize, List<Resource> resources) throws IOException {
+        try (N nestedIn = finder.getArchiveInputStream(in)) {
+            finder.findResources(nestedIn, parentPath, depth, nestedSize, resources);
+        }
+    }
+
+    private ArchiveResourceFinder<?, ?, ?> getNestedFinder(ArchiveFormat format) {
+        ArchiveResourceFinder<?, ?, ?> finder;
+        switch (format) {
+            case ZIP:
+                finder = new ZipResourceFinder(true, this.filter, this.charset);
+                break;
+            case TAR:
+                finder = new TarResourceFinder(true, this.filter, this.charset);
+                break;
+            case TAR_GZIP:
+                finder = new TarGzipResourceFinder(true, this.filter, this.charset);
+                break;
+            case TAR_LZ4:
+                finder = new TarLz4ResourceFinder(true, this.filter, this.charset);
+                break;
+            case TAR_BZIP2:
+                finder = new TarBZip2ResourceFinder(true, this.filter, this.charset);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported archive format: " + format);
+        }
+
+        finder.maxNestedDepth = this.maxNestedDepth;
+        finder.maxNestedSize = this.maxNestedSize;
+        finder.digestAlgorithms = this.digestAlgorithms;
+        finder.memoryThreshold = this.memoryThreshold;
+        finder.spillDirectory = this.spillDirectory;
+
+        return finder;
+    }
+
+    R getArchiveResource(String parentPath, E entry, InputStream in, @Nullable NestedSize nestedSize)
+            throws IOException {
+        String path = parentPath + entry.getName();
+        String name = FilenameUtils.getName(path);
+        long modifiedMilliTime = entry.getLastModifiedDate().getTime();
+
+        if (entry.isDirectory()) {
+            return createArchiveResource(path, name, () -> null, entry.getSize(), true, modifiedMilliTime,
+                    Collections.emptyMap());
+        }
+
+        // Digests the entry while reading it, instead of reading it again.
+        DigestingInputStream digestingIn = null;
+        if (!this.digestAlgorithms.isEmpty()) {
+            digestingIn = new DigestingInputStream(in, this.digestAlgorithms);
+            in = digestingIn;
+        }
+
+        // Hands out a new stream every time over the content which is never modified.
+        SpillingOutputStream out = new SpillingOutputStream(this.memoryThreshold, this.spillDirectory);
+        Supplier<InputStream> content;
+        try {
+            byte[] buffer = new byte[16384];
+            int offset;
+            while ((offset = in.read(buffer)) != -1) {
+                if (nestedSize != null) {
+                    nestedSize.add(offset, this.maxNestedSize);
+                }
+
+                out.write(buffer, 0, offset);
+            }
+
+            content = out.toContent();
+        } catch (IOException | RuntimeException e) {
+            out.discard();
+            throw e;
+        }
+
+        Map<DigestAlgorithm, String> digests = digestingIn == null ? Collections.emptyMap() : digestingIn.getDigests();
+        return createArchiveResource(path, name, content, out.getSize(), false, modifiedMilliTime, digests);
+    }
 
+    /**
+     * Computes digests of the content with algorithms of this finder.
+     *
+     * @param bytes content
+     * @return digests, or empty map if no algorithm is set
+     */
+    protected Map<DigestAlgorithm, String> digest(byte[] bytes) {
+        if (this.digestAlgorithms.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        try {
+            return digest(new ByteArrayInputStream(bytes));
         } catch (IOException e) {
-            throw new IllegalStateException("Failed to read tar file: " + path, e);
+            // ByteArrayInputStream never throws IOException.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Computes digests of the rest of the stream with algorithms of this finder.
+     *
+     * @param in stream of content
+     * @return digests, or empty map if no algorithm is set
+     * @throws IOException if failed to read the stream
+     */
+    Map<DigestAlgorithm, String> digest(InputStream in) throws IOException {
+        if (this.digestAlgorithms.isEmpty()) {
+            return Collections.emptyMap();
         }
+
+        return DigestingInputStream.digest(in, this.digestAlgorithms);
+    }
+
+    /**
+     * Returns the offset of entry data in the archive file, only if the data is stored as-is
+     * and contiguously in it. The offset is used to transfer the data on extraction without decompression.
+     *
+     * @param in    stream of archive, which is positioned at the start of entry data
+     * @param entry entry
+     * @return offset of entry data in the archive file, or {@code -1} if it is not stored as-is
+     */
+    protected long getDataOffset(I in, E entry) {
+        return -1;
+    }
+
+    /**
+     * Returns whether the entry is symbolic link or hard link, which is skipped on extraction.
+     *
+     * @param entry entry
+     * @return whether it is link
+     */
+    protected boolean isLink(E entry) {
+        return false;
+    }
+
+    /**
+     * Returns whether the archive file holds entries as {@link #getArchiveInputStream(InputStream)} reads them,
+     * so that offsets given by {@link #getDataOffset(ArchiveInputStream, ArchiveEntry)} point into the file.
+     *
+     * @param path path of archive
+     * @return whether the archive file is not compressed as a whole
+     * @throws IOException if failed to read the file
+     */
+    boolean isStoredAsIs(Path path) throws IOException {
+        return true;
     }
 
     protected abstract E getNextArchiveEntry(I in) throws IOException;
 
-    @Nullable
-    protected abstract R getArchiveResource(E entry, I in) throws IOException;
+    protected abstract R createArchiveResource(String path, String name, Supplier<InputStream> inputStreamSupplier,
+            long size, boolean directory, long lastModifiedMilliTime, Map<DigestAlgorithm, String> digests);
 
     protected abstract I getArchiveInputStream(InputStream in) throws IOException;
 
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Accumulated size of entries which are read from nested archives.
+     */
+    static class NestedSize {
+        private long value;
+
+        private void add(long size, long max) {
+            this.value += size;
+
+            if (this.value > max) {
+                throw new IllegalStateException("Entries in nested archives exceed the maximum size: " + max);
+            }
+        }
+    }
+
 }
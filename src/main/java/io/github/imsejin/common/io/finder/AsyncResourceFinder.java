@@ -0,0 +1,427 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.Resource;
+
+/**
+ * Asynchronous facade of {@link ResourceFinder}.
+ *
+ * <p> Resources are found on the given executor, but no more than the maximum concurrency
+ * at once; the other requests wait in queue without occupying threads of the executor.
+ * This makes it safe to use unbounded executor, such as virtual threads on Java 21.
+ *
+ * <pre>{@code
+ *     ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+ *     AsyncResourceFinder resourceFinder = new AsyncResourceFinder(new TarGzipResourceFinder(false), executor, 32);
+ *
+ *     CompletableFuture<Map<Path, List<Resource>>> future = resourceFinder.findAllAsync(paths);
+ * }</pre>
+ *
+ * <p> {@link #subscribe(Collection, int, Subscriber)} streams resources with backpressure,
+ * whose {@link Subscriber} and {@link Subscription} are the same as ones of
+ * {@code java.util.concurrent.Flow} since Java 9.
+ */
+public class AsyncResourceFinder {
+
+    /**
+     * Default maximum number of paths to be scanned at once.
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 16;
+
+    private final ResourceFinder delegate;
+
+    private final Executor executor;
+
+    private final int maxConcurrency;
+
+    /**
+     * Scans waiting for running ones to be finished.
+     */
+    private final Queue<Scan> waitingScans = new ArrayDeque<>();
+
+    private int runningScanCount;
+
+    public AsyncResourceFinder(ResourceFinder delegate, Executor executor) {
+        this(delegate, executor, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    public AsyncResourceFinder(ResourceFinder delegate, Executor executor, int maxConcurrency) {
+        Asserts.that(delegate)
+                .describedAs("AsyncResourceFinder.delegate is not allowed to be null")
+                .isNotNull();
+        Asserts.that(executor)
+                .describedAs("AsyncResourceFinder.executor is not allowed to be null")
+                .isNotNull();
+        Asserts.that(maxConcurrency)
+                .describedAs("AsyncResourceFinder.maxConcurrency must be positive, but it is {0}", maxConcurrency)
+                .isPositive();
+
+        this.delegate = delegate;
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Finds resources of the path asynchronously.
+     *
+     * @param path path to find resources
+     * @return future of resources
+     */
+    public CompletableFuture<List<Resource>> findAsync(Path path) {
+        Asserts.that(path)
+                .describedAs("Invalid path to find resources: {0}", path)
+                .isNotNull();
+
+        return schedule(path);
+    }
+
+    /**
+     * Finds resources of the paths concurrently.
+     *
+     * <p> The future is completed exceptionally if finding resources of any path is failed.
+     *
+     * @param paths paths to find resources
+     * @return future of resources per path in the order of the given paths
+     */
+    public CompletableFuture<Map<Path, List<Resource>>> findAllAsync(Collection<Path> paths) {
+        Asserts.that(paths)
+                .describedAs("Invalid paths to find resources: {0}", paths)
+                .isNotNull()
+                .doesNotContainNull();
+
+        Map<Path, CompletableFuture<List<Resource>>> futures = new LinkedHashMap<>();
+        for (Path path : paths) {
+            futures.computeIfAbsent(path, this::schedule);
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            Map<Path, List<Resource>> resources = new LinkedHashMap<>();
+            futures.forEach((path, future) -> resources.put(path, future.join()));
+
+            return Collections.unmodifiableMap(resources);
+        });
+    }
+
+    /**
+     * Streams resources of the paths to the subscriber with backpressure.
+     *
+     * <p> Paths are scanned ahead only while the resources which are not requested yet
+     * are fewer than the buffer size, so slow subscriber doesn't cause unbounded buffering.
+     * Resources of each path are emitted contiguously in their order,
+     * but paths are emitted in the order they are scanned.
+     *
+     * @param paths      paths to find resources
+     * @param bufferSize number of resources to be buffered ahead of demand
+     * @param subscriber subscriber
+     */
+    public void subscribe(Collection<Path> paths, int bufferSize, Subscriber subscriber) {
+        Asserts.that(paths)
+                .describedAs("Invalid paths to find resources: {0}", paths)
+                .isNotNull()
+                .doesNotContainNull();
+        Asserts.that(bufferSize)
+                .describedAs("AsyncResourceFinder.bufferSize must be positive, but it is {0}", bufferSize)
+                .isPositive();
+        Asserts.that(subscriber)
+                .describedAs("AsyncResourceFinder.subscriber is not allowed to be null")
+                .isNotNull();
+
+        ResourceSubscription subscription = new ResourceSubscription(new ArrayList<>(paths), bufferSize, subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.drain();
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private CompletableFuture<List<Resource>> schedule(Path path) {
+        Scan scan = new Scan(path);
+
+        boolean runnable;
+        synchronized (this.waitingScans) {
+            runnable = this.runningScanCount < this.maxConcurrency;
+            if (runnable) {
+                this.runningScanCount++;
+            } else {
+                this.waitingScans.add(scan);
+            }
+        }
+
+        if (runnable) {
+            execute(scan);
+        }
+
+        return scan.future;
+    }
+
+    private void execute(Scan scan) {
+        try {
+            this.executor.execute(scan);
+        } catch (RejectedExecutionException e) {
+            scan.future.completeExceptionally(e);
+            onScanFinished();
+        }
+    }
+
+    private void onScanFinished() {
+        Scan next;
+        synchronized (this.waitingScans) {
+            next = this.waitingScans.poll();
+            if (next == null) {
+                this.runningScanCount--;
+            }
+        }
+
+        // Hands over the slot to the waiting scan.
+        if (next != null) {
+            execute(next);
+        }
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Receiver of resources, which is the same as {@code java.util.concurrent.Flow.Subscriber}.
+     *
+     * <p> Methods are never called concurrently.
+     */
+    public interface Subscriber {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(Resource resource);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * Link between {@link Subscriber} and the stream of resources,
+     * which is the same as {@code java.util.concurrent.Flow.Subscription}.
+     */
+    public interface Subscription {
+        /**
+         * Adds demand for resources.
+         *
+         * @param n number of resources, which must be positive
+         */
+        void request(long n);
+
+        /**
+         * Stops emitting resources. Scans in progress are not interrupted.
+         */
+        void cancel();
+    }
+
+    private final class Scan implements Runnable {
+        private final Path path;
+
+        private final CompletableFuture<List<Resource>> future = new CompletableFuture<>();
+
+        private Scan(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.future.complete(delegate.getResources(this.path));
+            } catch (Throwable t) {
+                this.future.completeExceptionally(t);
+            } finally {
+                onScanFinished();
+            }
+        }
+    }
+
+    private final class ResourceSubscription implements Subscription {
+        private final Iterator<Path> paths;
+
+        private final int bufferSize;
+
+        private final Subscriber subscriber;
+
+        private final Deque<Resource> buffer = new ArrayDeque<>();
+
+        /**
+         * Serializes signals to subscriber; only a thread which increments this from zero emits them.
+         */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private long demand;
+
+        private int inFlightCount;
+
+        private Throwable error;
+
+        private boolean cancelled;
+
+        private boolean terminated;
+
+        private ResourceSubscription(List<Path> paths, int bufferSize, Subscriber subscriber) {
+            this.paths = paths.iterator();
+            this.bufferSize = bufferSize;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (n <= 0) {
+                    if (this.error == null) {
+                        this.error = new IllegalArgumentException("Subscription.request must be positive, but it is " + n);
+                    }
+                } else {
+                    // Caps at Long.MAX_VALUE, which means unbounded demand.
+                    this.demand = this.demand + n < 0 ? Long.MAX_VALUE : this.demand + n;
+                }
+            }
+
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            List<Resource> discarded;
+            synchronized (this) {
+                this.cancelled = true;
+                discarded = new ArrayList<>(this.buffer);
+                this.buffer.clear();
+            }
+
+            // Releases resources which will never be emitted, such as spilled files.
+            discarded.forEach(Resource::close);
+        }
+
+        private void drain() {
+            if (this.wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                while (true) {
+                    Resource next = null;
+                    Throwable failure = null;
+                    boolean completed = false;
+                    List<Path> pathsToScan = new ArrayList<>();
+                    List<Resource> discarded = Collections.emptyList();
+
+                    synchronized (this) {
+                        if (this.cancelled || this.terminated) {
+                            return;
+                        }
+
+                        if (this.error != null) {
+                            this.terminated = true;
+                            failure = this.error;
+                            discarded = new ArrayList<>(this.buffer);
+                            this.buffer.clear();
+                        } else if (this.demand > 0 && !this.buffer.isEmpty()) {
+                            next = this.buffer.poll();
+                            if (this.demand != Long.MAX_VALUE) {
+                                this.demand--;
+                            }
+                        } else {
+                            while (this.inFlightCount < maxConcurrency && this.buffer.size() < this.bufferSize
+                                    && this.paths.hasNext()) {
+                                pathsToScan.add(this.paths.next());
+                                this.inFlightCount++;
+                            }
+
+                            if (this.inFlightCount == 0 && this.buffer.isEmpty() && !this.paths.hasNext()) {
+                                this.terminated = true;
+                                completed = true;
+                            }
+                        }
+                    }
+
+                    if (failure != null) {
+                        discarded.forEach(Resource::close);
+                        this.subscriber.onError(failure);
+                        return;
+                    }
+                    if (completed) {
+                        this.subscriber.onComplete();
+                        return;
+                    }
+                    if (next != null) {
+                        this.subscriber.onNext(next);
+                        continue;
+                    }
+
+                    for (Path path : pathsToScan) {
+                        scan(path);
+                    }
+                    break;
+                }
+
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void scan(Path path) {
+            schedule(path).whenComplete((resources, throwable) -> {
+                boolean discarded = false;
+                synchronized (this) {
+                    this.inFlightCount--;
+
+                    if (throwable != null) {
+                        if (this.error == null) {
+                            this.error = unwrap(throwable);
+                        }
+                    } else if (this.cancelled || this.terminated || this.error != null) {
+                        discarded = true;
+                    } else {
+                        this.buffer.addAll(resources);
+                    }
+                }
+
+                // Releases resources of scan which finishes after cancellation or failure.
+                if (discarded) {
+                    resources.forEach(Resource::close);
+                }
+
+                drain();
+            });
+        }
+    }
+
+}
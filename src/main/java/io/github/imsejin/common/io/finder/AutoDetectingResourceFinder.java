@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.jetbrains.annotations.Nullable;
+
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.DigestAlgorithm;
+import io.github.imsejin.common.io.DiskFileResource;
+import io.github.imsejin.common.io.Resource;
+
+/**
+ * Resource finder that detects a format of file by its magic bytes, not by its extension.
+ *
+ * <p> This opens a file once and peeks the first bytes of it, then dispatches the stream
+ * to the finder of the detected format without reopening or re-reading it.
+ *
+ * <ul>
+ *     <li>zip: {@link ZipResourceFinder}</li>
+ *     <li>tar: {@link TarResourceFinder}</li>
+ *     <li>tar.gz: {@link TarGzipResourceFinder}</li>
+ *     <li>tar.lz4: {@link TarLz4ResourceFinder}</li>
+ *     <li>tar.bz2: {@link TarBZip2ResourceFinder}</li>
+ *     <li>gzip: {@link GzipResourceFinder}</li>
+ *     <li>lz4: {@link Lz4ResourceFinder}</li>
+ *     <li>snappy: {@link SnappyResourceFinder}</li>
+ *     <li>bzip2: {@link BZip2ResourceFinder}</li>
+ *     <li>otherwise: {@link DiskFileResource} of the file itself</li>
+ * </ul>
+ */
+public class AutoDetectingResourceFinder implements ResourceFinder {
+
+    /**
+     * Buffer size that covers read-ahead for peeking decompressed tar header in gzip,
+     * so that detection is done within the first fill of buffer.
+     */
+    private static final int BUFFER_SIZE = ArchiveFormat.READ_AHEAD_LIMIT;
+
+    private final ZipResourceFinder zipResourceFinder;
+
+    private final TarResourceFinder tarResourceFinder;
+
+    private final TarGzipResourceFinder tarGzipResourceFinder;
+
+    private final TarLz4ResourceFinder tarLz4ResourceFinder;
+
+    private final TarBZip2ResourceFinder tarBZip2ResourceFinder;
+
+    private final GzipResourceFinder gzipResourceFinder;
+
+    private final Lz4ResourceFinder lz4ResourceFinder;
+
+    private final SnappyResourceFinder snappyResourceFinder;
+
+    private final BZip2ResourceFinder bzip2ResourceFinder;
+
+    public AutoDetectingResourceFinder(boolean recursive) {
+        this(recursive, entry -> true, StandardCharsets.UTF_8);
+    }
+
+    public AutoDetectingResourceFinder(boolean recursive, Predicate<ArchiveEntry> filter) {
+        this(recursive, filter, StandardCharsets.UTF_8);
+    }
+
+    public AutoDetectingResourceFinder(boolean recursive, Predicate<ArchiveEntry> filter, Charset charset) {
+        this.zipResourceFinder = new ZipResourceFinder(recursive, filter, charset);
+        this.tarResourceFinder = new TarResourceFinder(recursive, filter, charset);
+        this.tarGzipResourceFinder = new TarGzipResourceFinder(recursive, filter, charset);
+        this.tarLz4ResourceFinder = new TarLz4ResourceFinder(recursive, filter, charset);
+        this.tarBZip2ResourceFinder = new TarBZip2ResourceFinder(recursive, filter, charset);
+        this.gzipResourceFinder = new GzipResourceFinder();
+        this.lz4ResourceFinder = new Lz4ResourceFinder();
+        this.snappyResourceFinder = new SnappyResourceFinder();
+        this.bzip2ResourceFinder = new BZip2ResourceFinder();
+    }
+
+    /**
+     * Sets algorithms of digests to be computed for archive and compressor,
+     * which are given by {@link Resource#getDigests()}.
+     *
+     * @param digestAlgorithms algorithms of digest
+     */
+    public void setDigestAlgorithms(DigestAlgorithm... digestAlgorithms) {
+        this.zipResourceFinder.setDigestAlgorithms(digestAlgorithms);
+        this.tarResourceFinder.setDigestAlgorithms(digestAlgorithms);
+        this.tarGzipResourceFinder.setDigestAlgorithms(digestAlgorithms);
+        this.tarLz4ResourceFinder.setDigestAlgorithms(digestAlgorithms);
+        this.tarBZip2ResourceFinder.setDigestAlgorithms(digestAlgorithms);
+        this.gzipResourceFinder.setDigestAlgorithms(digestAlgorithms);
+        this.lz4ResourceFinder.setDigestAlgorithms(digestAlgorithms);
+        this.snappyResourceFinder.setDigestAlgorithms(digestAlgorithms);
+        this.bzip2ResourceFinder.setDigestAlgorithms(digestAlgorithms);
+    }
+
+    @Override
+    public List<Resource> getResources(Path path) {
+        Asserts.that(path)
+                .describedAs("Invalid path to find resources: {0}", path)
+                .isNotNull()
+                .describedAs("No such path exists: {0}", path)
+                .exists()
+                .describedAs("It is not a regular file: {0}", path)
+                .isRegularFile()
+                .describedAs("Cannot read file: {0}", path)
+                .is(Files::isReadable);
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE)) {
+            ArchiveFormat format = ArchiveFormat.detect(in);
+            return getResources(path, in, format);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read file: " + path, e);
+        }
+    }
+
+    private List<Resource> getResources(Path path, InputStream in, @Nullable ArchiveFormat format) throws IOException {
+        if (format == null) {
+            Resource resource = DiskFileResource.from(path);
+            return Collections.singletonList(resource);
+        }
+
+        switch (format) {
+            case ZIP:
+                return this.zipResourceFinder.getResources(in);
+            case TAR:
+                return this.tarResourceFinder.getResources(in);
+            case TAR_GZIP:
+                return this.tarGzipResourceFinder.getResources(in);
+            case TAR_LZ4:
+                return this.tarLz4ResourceFinder.getResources(in);
+            case TAR_BZIP2:
+                return this.tarBZip2ResourceFinder.getResources(in);
+            case GZIP:
+                return this.gzipResourceFinder.getResources(path, in);
+            case LZ4:
+                return this.lz4ResourceFinder.getResources(path, in);
+            case SNAPPY:
+                return this.snappyResourceFinder.getResources(path, in);
+            case BZIP2:
+                return this.bzip2ResourceFinder.getResources(path, in);
+            default:
+                throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.DiskFileResource;
+import io.github.imsejin.common.io.Resource;
+
+/**
+ * Resource finder that caches resources found by other finder.
+ *
+ * <p> Resources are cached per real path of file, and they are reused
+ * as long as the size and the last modified time of the file are unchanged.
+ * Resources of directory are not cached, because they can't tell whether files in it are changed.
+ * The cache is bounded by the total weight of resources, which is the size of content
+ * held in memory, and evicts the least recently used ones first.
+ *
+ * <p> Resources of the finder to be wrapped should be able to hand out a new stream
+ * whenever {@link Resource#getInputStream()} is called, like resources of the finders
+ * in this package do; content of them is shared by all the streams.
+ *
+ * <p> Resources which are {@link Resource#isReleasable() releasable}, such as entries spilled
+ * to temporary files, are not cached; they are given to the caller who closes them as usual.
+ * So cached resources hold nothing to release, and closing them doesn't affect the cache
+ * nor the other callers sharing them.
+ *
+ * <pre>{@code
+ *     ResourceFinder resourceFinder = new CachingResourceFinder(new TarGzipResourceFinder(false), 64 * 1024 * 1024);
+ *     List<Resource> resources = resourceFinder.getResources(path);
+ * }</pre>
+ */
+public class CachingResourceFinder implements ResourceFinder {
+
+    /**
+     * Weight of resource excluding its content.
+     */
+    private static final long RESOURCE_OVERHEAD = 128;
+
+    private final ResourceFinder delegate;
+
+    private final long maximumWeight;
+
+    /**
+     * Cache in access order, whose eldest entry is the least recently used.
+     */
+    private final LinkedHashMap<Path, Entry> cache = new LinkedHashMap<>(16, 0.75F, true);
+
+    private long weight;
+
+    public CachingResourceFinder(ResourceFinder delegate, long maximumWeight) {
+        Asserts.that(delegate)
+                .describedAs("CachingResourceFinder.delegate is not allowed to be null")
+                .isNotNull();
+        Asserts.that(maximumWeight)
+                .describedAs("CachingResourceFinder.maximumWeight must be zero or positive, but it is {0}", maximumWeight)
+                .isZeroOrPositive();
+
+        this.delegate = delegate;
+        this.maximumWeight = maximumWeight;
+    }
+
+    @Override
+    public List<Resource> getResources(Path path) {
+        Asserts.that(path)
+                .describedAs("Invalid path to find resources: {0}", path)
+                .isNotNull()
+                .describedAs("No such path exists: {0}", path)
+                .exists();
+
+        Path realPath;
+        BasicFileAttributes attributes;
+        try {
+            realPath = path.toRealPath();
+            attributes = Files.readAttributes(realPath, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read attributes of path: " + path, e);
+        }
+
+        // Size and last modified time of directory don't change when a file in it is modified.
+        if (attributes.isDirectory()) {
+            return this.delegate.getResources(path);
+        }
+
+        long size = attributes.size();
+        long modifiedMilliTime = attributes.lastModifiedTime().toMillis();
+
+        List<Resource> cached = get(realPath, size, modifiedMilliTime);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Finds resources out of lock, so that other files are not blocked.
+        List<Resource> resources = Collections.unmodifiableList(this.delegate.getResources(path));
+
+        // Releasable resources are owned by the caller, because the caller may close them.
+        if (resources.stream().noneMatch(Resource::isReleasable)) {
+            put(realPath, new Entry(size, modifiedMilliTime, resources));
+        }
+
+        return resources;
+    }
+
+    /**
+     * Returns the total weight of cached resources.
+     *
+     * @return total weight
+     */
+    public synchronized long getWeight() {
+        return this.weight;
+    }
+
+    /**
+     * Discards the cached resources of the path.
+     *
+     * @param path path of file
+     */
+    public void invalidate(Path path) {
+        Path realPath;
+        try {
+            realPath = path.toRealPath();
+        } catch (IOException e) {
+            // Discards the entry even if file doesn't exist anymore.
+            realPath = path.toAbsolutePath().normalize();
+        }
+
+        synchronized (this) {
+            Entry entry = this.cache.remove(realPath);
+            if (entry != null) {
+                this.weight -= entry.weight;
+            }
+        }
+    }
+
+    /**
+     * Discards all the cached resources.
+     */
+    public synchronized void invalidateAll() {
+        this.cache.clear();
+        this.weight = 0;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    @Nullable
+    private synchronized List<Resource> get(Path realPath, long size, long modifiedMilliTime) {
+        Entry entry = this.cache.get(realPath);
+        if (entry == null) {
+            return null;
+        }
+
+        // File has been changed since it was cached.
+        if (entry.size != size || entry.modifiedMilliTime != modifiedMilliTime) {
+            this.cache.remove(realPath);
+            this.weight -= entry.weight;
+            return null;
+        }
+
+        return entry.resources;
+    }
+
+    private synchronized void put(Path realPath, Entry entry) {
+        // Doesn't cache resources heavier than the cache itself.
+        if (entry.weight > this.maximumWeight) {
+            return;
+        }
+
+        Entry previous = this.cache.put(realPath, entry);
+        if (previous != null) {
+            this.weight -= previous.weight;
+        }
+        this.weight += entry.weight;
+
+        Iterator<Entry> iterator = this.cache.values().iterator();
+        while (this.weight > this.maximumWeight && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            this.weight -= eldest.weight;
+        }
+    }
+
+    private static long weigh(List<Resource> resources) {
+        long weight = 0;
+        for (Resource resource : resources) {
+            weight += RESOURCE_OVERHEAD;
+
+            // Content of directory, file on disk and temporary file is not held in memory.
+            if (!resource.isDirectory() && !(resource instanceof DiskFileResource) && !resource.isReleasable()) {
+                weight += Math.max(resource.getSize(), 0);
+            }
+        }
+
+        return weight;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private static final class Entry {
+        private final long size;
+
+        private final long modifiedMilliTime;
+
+        private final List<Resource> resources;
+
+        private final long weight;
+
+        private Entry(long size, long modifiedMilliTime, List<Resource> resources) {
+            this.size = size;
+            this.modifiedMilliTime = modifiedMilliTime;
+            this.resources = resources;
+            this.weight = weigh(resources);
+        }
+    }
+
+}
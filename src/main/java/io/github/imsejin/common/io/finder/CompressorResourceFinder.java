@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.apache.commons.compress.utils.InputStreamStatistics;
+
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.CompressedResource;
+import io.github.imsejin.common.io.DigestAlgorithm;
+import io.github.imsejin.common.io.DigestingInputStream;
+import io.github.imsejin.common.io.Resource;
+import io.github.imsejin.common.util.FilenameUtils;
+
+/**
+ * Resource finder for single-stream compressor, which has a content without its name.
+ *
+ * <p> Name of resource is the file name without its last extension, such as {@code a.txt} of {@code a.txt.bz2}.
+ * Concatenated streams are decompressed and concatenated as a content.
+ *
+ * @param <I> type of compressor input stream
+ */
+public abstract class CompressorResourceFinder<I extends CompressorInputStream & InputStreamStatistics>
+        implements ResourceFinder {
+
+    /**
+     * Algorithms of digests to be computed while decompressing.
+     */
+    private Set<DigestAlgorithm> digestAlgorithms = EnumSet.noneOf(DigestAlgorithm.class);
+
+    /**
+     * Sets algorithms of digests to be computed for decompressed content,
+     * which are given by {@link Resource#getDigests()}.
+     *
+     * @param digestAlgorithms algorithms of digest
+     */
+    public void setDigestAlgorithms(DigestAlgorithm... digestAlgorithms) {
+        Asserts.that(digestAlgorithms)
+                .describedAs("CompressorResourceFinder.digestAlgorithms is not allowed to be null or contain null")
+                .isNotNull()
+                .doesNotContainNull();
+
+        Set<DigestAlgorithm> algorithms = EnumSet.noneOf(DigestAlgorithm.class);
+        algorithms.addAll(Arrays.asList(digestAlgorithms));
+        this.digestAlgorithms = algorithms;
+    }
+
+    @Override
+    public List<Resource> getResources(Path path) {
+        Asserts.that(path)
+                .describedAs("Invalid path to find resources: {0}", path)
+                .isNotNull()
+                .describedAs("No such path exists: {0}", path)
+                .exists()
+                .describedAs("It is not a regular file: {0}", path)
+                .isRegularFile()
+                .describedAs("Cannot read file: {0}", path)
+                .is(Files::isReadable);
+
+        try (InputStream in = Files.newInputStream(path)) {
+            return getResources(path, in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read compressor: " + path, e);
+        }
+    }
+
+    /**
+     * Finds a resource in the stream of compressor, which is already opened from the path.
+     *
+     * @param path path of compressor, whose name is used for name of resource
+     * @param in   stream of compressor
+     * @return resource
+     * @throws IOException if failed to read the stream
+     */
+    List<Resource> getResources(Path path, InputStream in) throws IOException {
+        try (I compressorIn = getCompressorInputStream(in);
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            // Digests the content while decompressing it, instead of reading it again.
+            DigestingInputStream digestingIn = new DigestingInputStream(compressorIn, this.digestAlgorithms);
+
+            byte[] buffer = new byte[16384];
+            int offset;
+            while ((offset = digestingIn.read(buffer)) != -1) {
+                out.write(buffer, 0, offset);
+            }
+
+            String fileName = FilenameUtils.getBaseName(FilenameUtils.getName(path.toString()));
+            byte[] bytes = out.toByteArray();
+            CompressedResource resource = new CompressedResource(fileName, () -> new ByteArrayInputStream(bytes),
+                    bytes.length, compressorIn.getCompressedCount(), digestingIn.getDigests());
+
+            return Collections.singletonList(resource);
+        }
+    }
+
+    /**
+     * Returns a stream which decompresses the stream of compressor, including concatenated streams.
+     *
+     * @param in stream of compressor
+     * @return stream of decompressed content
+     * @throws IOException if failed to read header of the stream
+     */
+    protected abstract I getCompressorInputStream(InputStream in) throws IOException;
+
+}
@@ -0,0 +1,571 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Decoder for raw deflate stream(RFC 1951), which can be resumed at any block boundary.
+ *
+ * <p> {@link java.util.zip.Inflater} cannot start decoding at a bit offset which is not aligned,
+ * nor let us know where a block ends. This decoder exposes its bit position and sliding window
+ * at block boundaries, so that decoding can be resumed there later with the window as dictionary.
+ *
+ * @see <a href="https://github.com/madler/zlib/blob/master/examples/zran.c">zran.c</a>
+ */
+final class DeflateDecoder {
+
+    /**
+     * Size of sliding window, which is the maximum distance of back-reference.
+     */
+    static final int WINDOW_SIZE = 32 * 1024;
+
+    private static final int WINDOW_MASK = WINDOW_SIZE - 1;
+
+    private static final int MAX_BITS = 15;
+
+    /**
+     * Number of bits to decode Huffman code at once with lookup table.
+     */
+    private static final int FAST_BITS = 9;
+
+    private static final int[] LENGTH_BASES = {
+            3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31,
+            35, 43, 51, 59, 67, 83, 99, 115, 131, 163, 195, 227, 258};
+
+    private static final int[] LENGTH_EXTRA_BITS = {
+            0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2,
+            3, 3, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 0};
+
+    private static final int[] DISTANCE_BASES = {
+            1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129, 193,
+            257, 385, 513, 769, 1025, 1537, 2049, 3073, 4097, 6145, 8193, 12289, 16385, 24577};
+
+    private static final int[] DISTANCE_EXTRA_BITS = {
+            0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6,
+            7, 7, 8, 8, 9, 9, 10, 10, 11, 11, 12, 12, 13, 13};
+
+    /**
+     * Order of code length codes in header of dynamic block.
+     */
+    private static final int[] CODE_LENGTH_ORDER = {16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1, 15};
+
+    private static final Huffman FIXED_LITERAL_LENGTH;
+
+    private static final Huffman FIXED_DISTANCE;
+
+    static {
+        try {
+            FIXED_LITERAL_LENGTH = new Huffman(fixedLengths(288), 288);
+            FIXED_DISTANCE = new Huffman(fixedLengths(30), 30);
+        } catch (ZipException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static int[] fixedLengths(int count) {
+        int[] lengths = new int[count];
+        for (int i = 0; i < lengths.length; i++) {
+            // Distance codes are all 5 bits.
+            lengths[i] = count == 30 ? 5 : i < 144 ? 8 : i < 256 ? 9 : i < 280 ? 7 : 8;
+        }
+
+        return lengths;
+    }
+
+    private final InputStream in;
+
+    /**
+     * Offset of the first byte in the stream.
+     */
+    private final long baseOffset;
+
+    /**
+     * Number of bytes which are read from the stream.
+     */
+    private long inputBytes;
+
+    private long bitBuffer;
+
+    private int bitCount;
+
+    /**
+     * Number of zero bits which are padded after the end of stream.
+     */
+    private int paddedBits;
+
+    private final byte[] window = new byte[WINDOW_SIZE];
+
+    private int windowPosition;
+
+    /**
+     * Number of valid bytes in window, which is at most {@link #WINDOW_SIZE}.
+     */
+    private int windowLength;
+
+    private State state = State.HEADER;
+
+    private boolean lastBlock;
+
+    private int storedRemaining;
+
+    private Huffman literalLength;
+
+    private Huffman distance;
+
+    private int copyLength;
+
+    private int copyDistance;
+
+    /**
+     * Creates a decoder that starts at the block boundary.
+     *
+     * @param in         stream positioned at {@code baseOffset}
+     * @param baseOffset offset of the first byte in the stream
+     * @param skipBits   number of bits to skip in the first byte
+     * @param dictionary window preceding the block, which has at most {@link #WINDOW_SIZE} bytes
+     * @throws IOException if failed to read the stream
+     */
+    DeflateDecoder(InputStream in, long baseOffset, int skipBits, byte[] dictionary) throws IOException {
+        this.in = in;
+        this.baseOffset = baseOffset;
+
+        if (skipBits > 0) {
+            dropBits(peekBits(skipBits), skipBits);
+        }
+
+        int length = Math.min(dictionary.length, WINDOW_SIZE);
+        System.arraycopy(dictionary, dictionary.length - length, this.window, 0, length);
+        this.windowPosition = length & WINDOW_MASK;
+        this.windowLength = length;
+    }
+
+    /**
+     * Returns the absolute position of the next bit to be decoded.
+     *
+     * @return bit position in the stream
+     */
+    long getBitPosition() {
+        return (this.baseOffset + this.inputBytes) * 8 - this.bitCount + this.paddedBits;
+    }
+
+    /**
+     * Returns whether the next bit is the start of a block header.
+     *
+     * @return whether it is at block boundary
+     */
+    boolean isAtBlockBoundary() {
+        return this.state == State.HEADER;
+    }
+
+    /**
+     * Returns whether the last block has been decoded.
+     *
+     * @return whether it is finished
+     */
+    boolean isFinished() {
+        return this.state == State.FINISHED;
+    }
+
+    /**
+     * Returns a copy of the window, which is the last decoded bytes at most {@link #WINDOW_SIZE}.
+     *
+     * @return sliding window
+     */
+    byte[] getWindow() {
+        byte[] copy = new byte[this.windowLength];
+        int start = (this.windowPosition - this.windowLength) & WINDOW_MASK;
+        int head = Math.min(this.windowLength, WINDOW_SIZE - start);
+
+        System.arraycopy(this.window, start, copy, 0, head);
+        System.arraycopy(this.window, 0, copy, head, this.windowLength - head);
+
+        return copy;
+    }
+
+    /**
+     * Prepares for decoding the next deflate stream, such as the next member of gzip.
+     * Its window is cleared.
+     */
+    void reset() {
+        this.state = State.HEADER;
+        this.lastBlock = false;
+        this.windowPosition = 0;
+        this.windowLength = 0;
+    }
+
+    /**
+     * Discards the remaining bits of the current byte.
+     */
+    void alignToByte() {
+        int remainder = this.bitCount & 7;
+        this.bitBuffer >>>= remainder;
+        this.bitCount -= remainder;
+    }
+
+    /**
+     * Reads a byte aligned on byte boundary.
+     *
+     * @return byte value or {@code -1} if there is no more byte
+     * @throws IOException if failed to read the stream
+     */
+    int readAlignedByte() throws IOException {
+        alignToByte();
+
+        long peeked = peekBits(8);
+        if (this.bitCount - this.paddedBits < 8) {
+            return -1;
+        }
+
+        dropBits(peeked, 8);
+        return (int) peeked & 0xFF;
+    }
+
+    /**
+     * Decodes bytes until the buffer is full or the end of block.
+     *
+     * <p> This returns early at the end of block, so that caller can check {@link #isAtBlockBoundary()}.
+     *
+     * @param b   buffer
+     * @param off offset of buffer
+     * @param len maximum number of bytes
+     * @return number of decoded bytes or {@code -1} if the last block has been decoded
+     * @throws IOException if failed to read the stream or it is malformed
+     */
+    int read(byte[] b, int off, int len) throws IOException {
+        if (this.state == State.FINISHED) {
+            return -1;
+        }
+
+        int n = 0;
+        while (n < len) {
+            if (this.copyLength > 0) {
+                int count = Math.min(this.copyLength, len - n);
+                for (int i = 0; i < count; i++) {
+                    byte value = this.window[(this.windowPosition - this.copyDistance) & WINDOW_MASK];
+                    b[off + n++] = value;
+                    this.window[this.windowPosition] = value;
+                    this.windowPosition = (this.windowPosition + 1) & WINDOW_MASK;
+                }
+
+                this.copyLength -= count;
+                this.windowLength = Math.min(this.windowLength + count, WINDOW_SIZE);
+                continue;
+            }
+
+            switch (this.state) {
+                case HEADER:
+                    if (n > 0) {
+                        // Stops at block boundary.
+                        return n;
+                    }
+
+                    readBlockHeader();
+                    break;
+
+                case STORED:
+                    if (this.storedRemaining == 0) {
+                        endBlock();
+                        break;
+                    }
+
+                    int value = (int) bits(8);
+                    write(b, off + n++, (byte) value);
+                    this.storedRemaining--;
+                    break;
+
+                case HUFFMAN:
+                    int symbol = decode(this.literalLength);
+                    if (symbol < 256) {
+                        write(b, off + n++, (byte) symbol);
+                    } else if (symbol == 256) {
+                        endBlock();
+                    } else {
+                        symbol -= 257;
+                        if (symbol >= LENGTH_BASES.length) {
+                            throw new ZipException("Invalid length symbol in deflate stream: " + (symbol + 257));
+                        }
+                        int length = LENGTH_BASES[symbol] + (int) bits(LENGTH_EXTRA_BITS[symbol]);
+
+                        int distanceSymbol = decode(this.distance);
+                        if (distanceSymbol >= DISTANCE_BASES.length) {
+                            throw new ZipException("Invalid distance symbol in deflate stream: " + distanceSymbol);
+                        }
+                        int dist = DISTANCE_BASES[distanceSymbol] + (int) bits(DISTANCE_EXTRA_BITS[distanceSymbol]);
+                        if (dist > this.windowLength) {
+                            throw new ZipException("Distance too far back in deflate stream: " + dist);
+                        }
+
+                        this.copyLength = length;
+                        this.copyDistance = dist;
+                    }
+                    break;
+
+                default:
+                    return n == 0 ? -1 : n;
+            }
+        }
+
+        return n;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private void write(byte[] b, int index, byte value) {
+        b[index] = value;
+        this.window[this.windowPosition] = value;
+        this.windowPosition = (this.windowPosition + 1) & WINDOW_MASK;
+        if (this.windowLength < WINDOW_SIZE) {
+            this.windowLength++;
+        }
+    }
+
+    private void endBlock() {
+        this.state = this.lastBlock ? State.FINISHED : State.HEADER;
+    }
+
+    private void readBlockHeader() throws IOException {
+        int header = (int) bits(3);
+        this.lastBlock = (header & 1) == 1;
+
+        switch (header >>> 1) {
+            case 0:
+                alignToByte();
+                int length = (int) bits(16);
+                int complement = (int) bits(16);
+                if (length != (~complement & 0xFFFF)) {
+                    throw new ZipException("Invalid stored block length in deflate stream");
+                }
+
+                this.storedRemaining = length;
+                this.state = State.STORED;
+                break;
+
+            case 1:
+                this.literalLength = FIXED_LITERAL_LENGTH;
+                this.distance = FIXED_DISTANCE;
+                this.state = State.HUFFMAN;
+                break;
+
+            case 2:
+                readDynamicTables();
+                this.state = State.HUFFMAN;
+                break;
+
+            default:
+                throw new ZipException("Invalid block type in deflate stream");
+        }
+    }
+
+    private void readDynamicTables() throws IOException {
+        int literalLengthCount = (int) bits(5) + 257;
+        int distanceCount = (int) bits(5) + 1;
+        int codeLengthCount = (int) bits(4) + 4;
+
+        int[] codeLengths = new int[19];
+        for (int i = 0; i < codeLengthCount; i++) {
+            codeLengths[CODE_LENGTH_ORDER[i]] = (int) bits(3);
+        }
+        Huffman codeLength = new Huffman(codeLengths, codeLengths.length);
+
+        int[] lengths = new int[literalLengthCount + distanceCount];
+        int index = 0;
+        while (index < lengths.length) {
+            int symbol = decode(codeLength);
+            if (symbol < 16) {
+                lengths[index++] = symbol;
+                continue;
+            }
+
+            int value = 0;
+            int repeat;
+            if (symbol == 16) {
+                if (index == 0) {
+                    throw new ZipException("Invalid repeat of code length in deflate stream");
+                }
+                value = lengths[index - 1];
+                repeat = 3 + (int) bits(2);
+            } else if (symbol == 17) {
+                repeat = 3 + (int) bits(3);
+            } else {
+                repeat = 11 + (int) bits(7);
+            }
+
+            if (index + repeat > lengths.length) {
+                throw new ZipException("Too many code lengths in deflate stream");
+            }
+            while (repeat-- > 0) {
+                lengths[index++] = value;
+            }
+        }
+
+        if (lengths[256] == 0) {
+            throw new ZipException("Missing end-of-block code in deflate stream");
+        }
+
+        int[] distanceLengths = new int[distanceCount];
+        System.arraycopy(lengths, literalLengthCount, distanceLengths, 0, distanceCount);
+
+        this.literalLength = new Huffman(lengths, literalLengthCount);
+        this.distance = new Huffman(distanceLengths, distanceCount);
+    }
+
+    private int decode(Huffman huffman) throws IOException {
+        long peeked = peekBits(MAX_BITS);
+
+        int entry = huffman.fastTable[(int) peeked & ((1 << FAST_BITS) - 1)];
+        if (entry != 0) {
+            int length = entry & 0xF;
+            dropBits(peeked, length);
+            return entry >>> 4;
+        }
+
+        // Decodes bit by bit for the long code, which is rare.
+        int code = 0;
+        int first = 0;
+        int index = 0;
+        for (int length = 1; length <= MAX_BITS; length++) {
+            code |= (int) (peeked >>> (length - 1)) & 1;
+            int count = huffman.counts[length];
+            if (code - count < first) {
+                dropBits(peeked, length);
+                return huffman.symbols[index + (code - first)];
+            }
+
+            index += count;
+            first += count;
+            first <<= 1;
+            code <<= 1;
+        }
+
+        throw new ZipException("Invalid Huffman code in deflate stream");
+    }
+
+    private long bits(int count) throws IOException {
+        if (count == 0) {
+            return 0;
+        }
+
+        long peeked = peekBits(count);
+        dropBits(peeked, count);
+
+        return peeked & ((1L << count) - 1);
+    }
+
+    private long peekBits(int count) throws IOException {
+        while (this.bitCount < count) {
+            int value = this.in.read();
+            if (value == -1) {
+                // Pads zero bits, which are not allowed to be consumed.
+                value = 0;
+                this.paddedBits += 8;
+            } else {
+                this.inputBytes++;
+            }
+
+            this.bitBuffer |= (long) value << this.bitCount;
+            this.bitCount += 8;
+        }
+
+        return this.bitBuffer;
+    }
+
+    private void dropBits(long peeked, int count) throws IOException {
+        if (this.bitCount - count < this.paddedBits) {
+            throw new EOFException("Unexpected end of deflate stream");
+        }
+
+        this.bitBuffer = peeked >>> count;
+        this.bitCount -= count;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private enum State {
+        HEADER, STORED, HUFFMAN, FINISHED
+    }
+
+    /**
+     * Canonical Huffman code.
+     */
+    private static final class Huffman {
+        /**
+         * Number of codes for each code length.
+         */
+        private final int[] counts = new int[MAX_BITS + 1];
+
+        /**
+         * Symbols ordered by code.
+         */
+        private final int[] symbols;
+
+        /**
+         * Lookup table indexed by bit-reversed code, whose entry is {@code symbol << 4 | length}.
+         * Zero means that the code is longer than {@link #FAST_BITS}.
+         */
+        private final int[] fastTable = new int[1 << FAST_BITS];
+
+        private Huffman(int[] lengths, int count) throws ZipException {
+            this.symbols = new int[count];
+
+            for (int i = 0; i < count; i++) {
+                this.counts[lengths[i]]++;
+            }
+            this.counts[0] = 0;
+
+            int left = 1;
+            for (int length = 1; length <= MAX_BITS; length++) {
+                left <<= 1;
+                left -= this.counts[length];
+                if (left < 0) {
+                    throw new ZipException("Over-subscribed Huffman code in deflate stream");
+                }
+            }
+
+            int[] offsets = new int[MAX_BITS + 2];
+            for (int length = 1; length <= MAX_BITS; length++) {
+                offsets[length + 1] = offsets[length] + this.counts[length];
+            }
+            for (int symbol = 0; symbol < count; symbol++) {
+                if (lengths[symbol] != 0) {
+                    this.symbols[offsets[lengths[symbol]]++] = symbol;
+                }
+            }
+
+            int code = 0;
+            int index = 0;
+            for (int length = 1; length <= FAST_BITS; length++) {
+                for (int i = 0; i < this.counts[length]; i++) {
+                    int reversed = Integer.reverse(code) >>> (32 - length);
+                    int entry = this.symbols[index] << 4 | length;
+                    for (int j = reversed; j < this.fastTable.length; j += 1 << length) {
+                        this.fastTable[j] = entry;
+                    }
+
+                    code++;
+                    index++;
+                }
+
+                code <<= 1;
+            }
+        }
+    }
+
+}
@@ -1,14 +1,27 @@
 package io.github.imsejin.common.io.finder;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+import org.jetbrains.annotations.Nullable;
+
 import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.DigestAlgorithm;
+import io.github.imsejin.common.io.DigestingInputStream;
 import io.github.imsejin.common.io.DiskFileResource;
 import io.github.imsejin.common.io.Resource;
 
@@ -20,6 +33,17 @@ public class DiskFileResourceFinder implements ResourceFinder {
 
     private final Predicate<Path> filter;
 
+    /**
+     * Algorithms of digests to be computed for regular files.
+     */
+    private Set<DigestAlgorithm> digestAlgorithms = EnumSet.noneOf(DigestAlgorithm.class);
+
+    /**
+     * Executor which computes digests of files concurrently, or {@code null} to compute them sequentially.
+     */
+    @Nullable
+    private ExecutorService digestExecutor;
+
     public DiskFileResourceFinder(boolean recursive) {
         this(recursive, entry -> true);
     }
@@ -29,6 +53,35 @@ public class DiskFileResourceFinder implements ResourceFinder {
         this.filter = filter;
     }
 
+    /**
+     * Sets algorithms of digests to be computed for regular files,
+     * which are given by {@link Resource#getDigests()}.
+     *
+     * @param digestAlgorithms algorithms of digest
+     */
+    public void setDigestAlgorithms(DigestAlgorithm... digestAlgorithms) {
+        Asserts.that(digestAlgorithms)
+                .describedAs("DiskFileResourceFinder.digestAlgorithms is not allowed to be null or contain null")
+                .isNotNull()
+                .doesNotContainNull();
+
+        Set<DigestAlgorithm> algorithms = EnumSet.noneOf(DigestAlgorithm.class);
+        algorithms.addAll(Arrays.asList(digestAlgorithms));
+        this.digestAlgorithms = algorithms;
+    }
+
+    /**
+     * Sets the executor which computes digests of files concurrently,
+     * so that large tree is fingerprinted across cores.
+     *
+     * <p> The executor is not shut down by this finder.
+     *
+     * @param digestExecutor executor, or {@code null} to compute digests sequentially
+     */
+    public void setDigestExecutor(@Nullable ExecutorService digestExecutor) {
+        this.digestExecutor = digestExecutor;
+    }
+
     @Override
     public List<Resource> getResources(Path path) {
         Asserts.that(path)
@@ -38,7 +91,7 @@ public class DiskFileResourceFinder implements ResourceFinder {
                 .exists();
 
         if (!Files.isDirectory(path)) {
-            Resource resource = DiskFileResource.from(path);
+            Resource resource = toResource(path);
             return Collections.singletonList(resource);
         }
 
@@ -54,8 +107,66 @@ public class DiskFileResourceFinder implements ResourceFinder {
             throw new IllegalStateException("Failed to visit location: " + path, e);
         }
 
-        return stream.filter(this.filter).map(DiskFileResource::from)
-                .collect(collectingAndThen(toList(), Collections::unmodifiableList));
+        if (this.digestAlgorithms.isEmpty() || this.digestExecutor == null) {
+            try (Stream<Path> paths = stream) {
+                return paths.filter(this.filter).map(this::toResource)
+                        .collect(collectingAndThen(toList(), Collections::unmodifiableList));
+            }
+        }
+
+        List<Path> paths;
+        try (Stream<Path> it = stream) {
+            paths = it.filter(this.filter).collect(toList());
+        }
+
+        return toResourcesInParallel(paths, this.digestExecutor);
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private List<Resource> toResourcesInParallel(List<Path> paths, ExecutorService executor) {
+        List<Future<Resource>> futures = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            futures.add(executor.submit(() -> toResource(path)));
+        }
+
+        List<Resource> resources = new ArrayList<>(paths.size());
+        try {
+            for (Future<Resource> future : futures) {
+                resources.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing digests of files", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new IllegalStateException("Failed to compute digests of files", cause);
+        } finally {
+            for (Future<Resource> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        return Collections.unmodifiableList(resources);
+    }
+
+    private Resource toResource(Path path) {
+        if (this.digestAlgorithms.isEmpty() || Files.isDirectory(path)) {
+            return DiskFileResource.from(path);
+        }
+
+        Map<DigestAlgorithm, String> digests;
+        try (InputStream in = Files.newInputStream(path)) {
+            digests = DigestingInputStream.digest(in, this.digestAlgorithms);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to compute digests of file: " + path, e);
+        }
+
+        return DiskFileResource.from(path, digests);
     }
 
 }
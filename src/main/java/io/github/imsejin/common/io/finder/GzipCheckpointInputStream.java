@@ -0,0 +1,225 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipException;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.github.imsejin.common.io.finder.TarGzipIndex.Checkpoint;
+
+/**
+ * Gzip decompressor that records checkpoints while decompressing,
+ * or resumes decompression at one of them.
+ *
+ * <p> This reads all members of multi-member gzip.
+ */
+final class GzipCheckpointInputStream extends InputStream {
+
+    private final DeflateDecoder decoder;
+
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Checkpoints to be recorded, or {@code null} if this doesn't record.
+     */
+    @Nullable
+    private final List<Checkpoint> checkpoints;
+
+    private final long span;
+
+    private long position;
+
+    private long memberSize;
+
+    /**
+     * Whether to verify the trailer of the current member.
+     * It is impossible on the member which is resumed in the middle.
+     */
+    private boolean verifiable;
+
+    private boolean finished;
+
+    /**
+     * Creates a stream that decompresses from the start of gzip, recording checkpoints.
+     *
+     * @param in          stream of gzip file
+     * @param span        minimum distance between checkpoints in decompressed bytes
+     * @param checkpoints list to which recorded checkpoints are added
+     * @throws IOException if failed to read the stream or it is not gzip
+     */
+    GzipCheckpointInputStream(InputStream in, long span, List<Checkpoint> checkpoints) throws IOException {
+        this.decoder = new DeflateDecoder(in, 0, 0, new byte[0]);
+        this.checkpoints = checkpoints;
+        this.span = span;
+        this.verifiable = true;
+
+        int id1 = this.decoder.readAlignedByte();
+        if (id1 == -1) {
+            throw new EOFException("Empty gzip stream");
+        }
+        readHeader(id1);
+    }
+
+    /**
+     * Creates a stream that resumes decompression at the checkpoint.
+     *
+     * @param in         stream of gzip file, which is positioned at {@link Checkpoint#getCompressedOffset()}
+     * @param checkpoint checkpoint to resume at
+     * @throws IOException if failed to read the stream
+     */
+    GzipCheckpointInputStream(InputStream in, Checkpoint checkpoint) throws IOException {
+        this.decoder = new DeflateDecoder(in, checkpoint.getCompressedOffset(),
+                checkpoint.getBitOffset(), checkpoint.getWindow());
+        this.checkpoints = null;
+        this.span = 0;
+        this.position = checkpoint.getUncompressedOffset();
+        this.verifiable = false;
+    }
+
+    /**
+     * Returns the offset of the next byte in decompressed stream.
+     *
+     * @return decompressed position
+     */
+    long getPosition() {
+        return this.position;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return n == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (!this.finished) {
+            if (this.checkpoints != null && this.decoder.isAtBlockBoundary()) {
+                recordCheckpoint();
+            }
+
+            int n = this.decoder.read(b, off, len);
+            if (n == -1) {
+                finishMember();
+                continue;
+            }
+
+            this.crc.update(b, off, n);
+            this.memberSize += n;
+            this.position += n;
+
+            return n;
+        }
+
+        return -1;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[16384];
+
+        long remaining = n;
+        while (remaining > 0) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                break;
+            }
+
+            remaining -= read;
+        }
+
+        return n - remaining;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private void recordCheckpoint() {
+        int size = this.checkpoints.size();
+        if (size > 0 && this.position - this.checkpoints.get(size - 1).getUncompressedOffset() < this.span) {
+            return;
+        }
+
+        long bitPosition = this.decoder.getBitPosition();
+        this.checkpoints.add(Checkpoint.capture(bitPosition >>> 3, (int) (bitPosition & 7),
+                this.position, this.decoder.getWindow()));
+    }
+
+    private void finishMember() throws IOException {
+        long expectedCrc = readUnsignedInt();
+        long expectedSize = readUnsignedInt();
+
+        if (this.verifiable) {
+            if (expectedCrc != this.crc.getValue()) {
+                throw new ZipException("Corrupted gzip member: CRC32 mismatch");
+            }
+            if (expectedSize != (this.memberSize & 0xFFFFFFFFL)) {
+                throw new ZipException("Corrupted gzip member: size mismatch");
+            }
+        }
+
+        // Regards anything but the next member as the end, like padding with zero.
+        int id1 = this.decoder.readAlignedByte();
+        if (id1 != 0x1F) {
+            this.finished = true;
+            return;
+        }
+
+        readHeader(id1);
+        this.decoder.reset();
+        this.crc.reset();
+        this.memberSize = 0;
+        this.verifiable = true;
+    }
+
+    private void readHeader(int id1) throws IOException {
+        // Gives back the first byte which has been already read.
+        boolean[] consumed = {false};
+        GzipHeader.read(() -> {
+            if (consumed[0]) {
+                return readByte();
+            }
+
+            consumed[0] = true;
+            return id1;
+        });
+    }
+
+    private long readUnsignedInt() throws IOException {
+        return (readByte() | readByte() << 8 | readByte() << 16 | (long) readByte() << 24) & 0xFFFFFFFFL;
+    }
+
+    private int readByte() throws IOException {
+        int value = this.decoder.readAlignedByte();
+        if (value == -1) {
+            throw new EOFException("Unexpected end of gzip stream");
+        }
+
+        return value;
+    }
+
+}
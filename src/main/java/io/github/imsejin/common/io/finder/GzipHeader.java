@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipException;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Header of gzip member(RFC 1952).
+ */
+final class GzipHeader {
+
+    private static final int FLAG_HEADER_CRC = 0x02;
+
+    private static final int FLAG_EXTRA = 0x04;
+
+    private static final int FLAG_NAME = 0x08;
+
+    private static final int FLAG_COMMENT = 0x10;
+
+    /**
+     * Reserved flags, which must be zero.
+     */
+    static final int FLAG_RESERVED = 0xE0;
+
+    /**
+     * Modification time in milliseconds, which is zero if unavailable.
+     */
+    final long modifiedMilliTime;
+
+    @Nullable
+    final String fileName;
+
+    /**
+     * Total size of this member, which is given by BGZF extra field "BC",
+     * or {@code -1} if it is not BGZF.
+     */
+    final long blockSize;
+
+    /**
+     * Number of bytes of this header.
+     */
+    final int length;
+
+    private GzipHeader(long modifiedMilliTime, @Nullable String fileName, long blockSize, int length) {
+        this.modifiedMilliTime = modifiedMilliTime;
+        this.fileName = fileName;
+        this.blockSize = blockSize;
+        this.length = length;
+    }
+
+    /**
+     * Reads a header.
+     *
+     * @param in source of bytes, which throws {@link java.io.EOFException} at the end
+     * @return header
+     * @throws IOException if failed to read or it is not gzip
+     */
+    static GzipHeader read(ByteReader in) throws IOException {
+        if (in.read() != 0x1F || in.read() != 0x8B) {
+            throw new ZipException("Not in gzip format");
+        }
+        if (in.read() != 8) {
+            throw new ZipException("Unsupported compression method of gzip");
+        }
+
+        int flags = in.read();
+        if ((flags & FLAG_RESERVED) != 0) {
+            throw new ZipException("Reserved flags are set in gzip header");
+        }
+
+        long modifiedTime = in.read() | in.read() << 8 | in.read() << 16 | (long) in.read() << 24;
+        // Skips XFL(1) and OS(1).
+        in.read();
+        in.read();
+        int length = 10;
+
+        long blockSize = -1;
+        if ((flags & FLAG_EXTRA) != 0) {
+            int extraLength = in.read() | in.read() << 8;
+            length += 2 + extraLength;
+
+            // Finds subfield "BC" of BGZF, whose data is the total block size minus 1.
+            int remaining = extraLength;
+            while (remaining >= 4) {
+                int id1 = in.read();
+                int id2 = in.read();
+                int subfieldLength = in.read() | in.read() << 8;
+                remaining -= 4;
+
+                if (id1 == 'B' && id2 == 'C' && subfieldLength == 2 && remaining >= 2) {
+                    blockSize = (in.read() | in.read() << 8) + 1;
+                    remaining -= 2;
+                    continue;
+                }
+
+                int skip = Math.min(subfieldLength, remaining);
+                for (int i = 0; i < skip; i++) {
+                    in.read();
+                }
+                remaining -= skip;
+            }
+            for (int i = 0; i < remaining; i++) {
+                in.read();
+            }
+        }
+
+        String fileName = null;
+        if ((flags & FLAG_NAME) != 0) {
+            ByteArrayOutputStream name = new ByteArrayOutputStream();
+            int value;
+            while ((value = in.read()) != 0) {
+                name.write(value);
+            }
+            length += name.size() + 1;
+
+            // RFC 1952 specifies ISO-8859-1 for file name.
+            fileName = new String(name.toByteArray(), StandardCharsets.ISO_8859_1);
+        }
+        if ((flags & FLAG_COMMENT) != 0) {
+            while (in.read() != 0) {
+                length++;
+            }
+            length++;
+        }
+        if ((flags & FLAG_HEADER_CRC) != 0) {
+            in.read();
+            in.read();
+            length += 2;
+        }
+
+        return new GzipHeader(modifiedTime * 1000, fileName, blockSize, length);
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Source of unsigned bytes.
+     */
+    @FunctionalInterface
+    interface ByteReader {
+        int read() throws IOException;
+    }
+
+}
@@ -19,21 +19,83 @@ package io.github.imsejin.common.io.finder;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.jetbrains.annotations.Nullable;
 
 import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.DigestAlgorithm;
+import io.github.imsejin.common.io.DigestingInputStream;
 import io.github.imsejin.common.io.GzipResource;
 import io.github.imsejin.common.io.Resource;
 import io.github.imsejin.common.util.FilenameUtils;
 import io.github.imsejin.common.util.StringUtils;
 
+/**
+ * Resource finder for gzip file.
+ *
+ * <p> This decompresses all members of multi-member gzip and concatenates them.
+ * Zeros after the last member are ignored as padding.
+ * If an executor is given, the members are decompressed concurrently, which makes
+ * a difference for gzip split into many members, such as BGZF.
+ */
 public class GzipResourceFinder implements ResourceFinder {
 
+    @Nullable
+    private final ExecutorService executor;
+
+    /**
+     * Algorithms of digests to be computed while decompressing.
+     */
+    private Set<DigestAlgorithm> digestAlgorithms = EnumSet.noneOf(DigestAlgorithm.class);
+
+    public GzipResourceFinder() {
+        this.executor = null;
+    }
+
+    /**
+     * Creates a finder that decompresses members of gzip concurrently.
+     *
+     * <p> The executor is not shut down by this finder.
+     *
+     * @param executor executor which decompresses members
+     */
+    public GzipResourceFinder(ExecutorService executor) {
+        Asserts.that(executor)
+                .describedAs("GzipResourceFinder.executor is not allowed to be null")
+                .isNotNull()
+                .describedAs("GzipResourceFinder.executor is not allowed to be shut down")
+                .isNot(ExecutorService::isShutdown);
+
+        this.executor = executor;
+    }
+
+    /**
+     * Sets algorithms of digests to be computed for decompressed content,
+     * which are given by {@link Resource#getDigests()}.
+     *
+     * @param digestAlgorithms algorithms of digest
+     */
+    public void setDigestAlgorithms(DigestAlgorithm... digestAlgorithms) {
+        Asserts.that(digestAlgorithms)
+                .describedAs("GzipResourceFinder.digestAlgorithms is not allowed to be null or contain null")
+                .isNotNull()
+                .doesNotContainNull();
+
+        Set<DigestAlgorithm> algorithms = EnumSet.noneOf(DigestAlgorithm.class);
+        algorithms.addAll(Arrays.asList(digestAlgorithms));
+        this.digestAlgorithms = algorithms;
+    }
+
     @Override
     public List<Resource> getResources(Path path) {
         Asserts.that(path)
@@ -46,24 +108,64 @@ public class GzipResourceFinder implements ResourceFinder {
                 .describedAs("Cannot read file: {0}", path)
                 .is(Files::isReadable);
 
-        try (GzipCompressorInputStream in = new GzipCompressorInputStream(Files.newInputStream(path));
+        if (this.executor != null) {
+            return findInParallel(path, this.executor, this.digestAlgorithms);
+        }
+
+        try (InputStream in = Files.newInputStream(path)) {
+            return getResources(path, in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read gzip compressor: " + path, e);
+        }
+    }
+
+    /**
+     * Finds a resource in the stream of gzip, which is already opened from the path.
+     *
+     * <p> This always decompresses sequentially, because the stream cannot be read at random positions.
+     *
+     * @param path path of gzip, whose name is used if gzip header has no file name
+     * @param in   stream of gzip
+     * @return resource
+     * @throws IOException if failed to read the stream
+     */
+    List<Resource> getResources(Path path, InputStream in) throws IOException {
+        try (MultiMemberGzipInputStream gzipIn = new MultiMemberGzipInputStream(in);
              ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            // Digests the content while decompressing it, instead of reading it again.
+            DigestingInputStream digestingIn = new DigestingInputStream(gzipIn, this.digestAlgorithms);
+
             byte[] buffer = new byte[16384];
             int offset;
-            while ((offset = in.read(buffer)) != -1) {
+            while ((offset = digestingIn.read(buffer)) != -1) {
                 out.write(buffer, 0, offset);
             }
 
-            String fileName = in.getMetaData().getFilename();
-            if (StringUtils.isNullOrEmpty(fileName)) {
-                String name = FilenameUtils.getName(path.toString());
-                fileName = FilenameUtils.getBaseName(name);
-            }
-
-            long modifiedMilliTime = in.getMetaData().getModificationTime();
+            String fileName = getFileName(path, gzipIn.getMetaData().getFilename());
+            long modifiedMilliTime = gzipIn.getMetaData().getModificationTime();
             byte[] bytes = out.toByteArray();
-            GzipResource resource = new GzipResource(fileName, new ByteArrayInputStream(bytes),
-                    bytes.length, in.getCompressedCount(), modifiedMilliTime);
+            GzipResource resource = new GzipResource(fileName, () -> new ByteArrayInputStream(bytes),
+                    bytes.length, gzipIn.getCompressedSize(), modifiedMilliTime, digestingIn.getDigests());
+
+            return Collections.singletonList(resource);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private static List<Resource> findInParallel(Path path, ExecutorService executor,
+            Set<DigestAlgorithm> digestAlgorithms) {
+        try {
+            ParallelGzipDecompressor.Result result = new ParallelGzipDecompressor(executor).decompress(path);
+            byte[] bytes = result.bytes;
+            String fileName = getFileName(path, result.header.fileName);
+
+            // Members are decompressed out of order, so digests are computed after they are concatenated.
+            Map<DigestAlgorithm, String> digests = DigestingInputStream.digest(
+                    new ByteArrayInputStream(bytes), digestAlgorithms);
+
+            GzipResource resource = new GzipResource(fileName, () -> new ByteArrayInputStream(bytes),
+                    bytes.length, result.compressedSize, result.header.modifiedMilliTime, digests);
 
             return Collections.singletonList(resource);
 
@@ -72,4 +174,13 @@ public class GzipResourceFinder implements ResourceFinder {
         }
     }
 
+    private static String getFileName(Path path, @Nullable String fileName) {
+        if (!StringUtils.isNullOrEmpty(fileName)) {
+            return fileName;
+        }
+
+        String name = FilenameUtils.getName(path.toString());
+        return FilenameUtils.getBaseName(name);
+    }
+
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipException;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Gzip decompressor that reads all members of multi-member gzip one by one.
+ *
+ * <p> Unlike {@link GzipCompressorInputStream} which decompresses concatenated members by itself,
+ * this regards zeros after the last member as padding, like gzip(1) does, and counts
+ * compressed bytes up to the end of the last member. Any other bytes after it are garbage.
+ * {@link ParallelGzipDecompressor} follows the same rules.
+ */
+final class MultiMemberGzipInputStream extends InputStream {
+
+    private final InputStream source;
+
+    private final PositionInputStream in;
+
+    private final GzipParameters metaData;
+
+    /**
+     * Stream of the current member, or {@code null} if all members are read.
+     */
+    @Nullable
+    private GzipCompressorInputStream member;
+
+    private long compressedSize;
+
+    /**
+     * Creates a stream that decompresses gzip.
+     *
+     * @param in stream of gzip
+     * @throws IOException if failed to read the stream or it is not gzip
+     */
+    MultiMemberGzipInputStream(InputStream in) throws IOException {
+        // GzipCompressorInputStream positions mark-supporting stream exactly at the end of member.
+        this.source = in.markSupported() ? in : new BufferedInputStream(in, 65536);
+        this.in = new PositionInputStream(this.source);
+        this.member = new GzipCompressorInputStream(this.in, false);
+        this.metaData = this.member.getMetaData();
+    }
+
+    /**
+     * Returns the metadata in header of the first member.
+     *
+     * @return metadata of gzip
+     */
+    GzipParameters getMetaData() {
+        return this.metaData;
+    }
+
+    /**
+     * Returns the number of compressed bytes of members which are read, excluding padding.
+     *
+     * @return compressed size
+     */
+    long getCompressedSize() {
+        return this.compressedSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n;
+        do {
+            n = read(b, 0, 1);
+        } while (n == 0);
+
+        return n == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (this.member != null) {
+            int n = this.member.read(b, off, len);
+            if (n != -1) {
+                return n;
+            }
+
+            this.member.close();
+            this.compressedSize = this.in.position;
+            this.member = nextMember();
+        }
+
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.member != null) {
+            this.member.close();
+            this.member = null;
+        }
+
+        this.source.close();
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    @Nullable
+    private GzipCompressorInputStream nextMember() throws IOException {
+        this.in.mark(1);
+        int b = this.in.read();
+        if (b == 0x1F) {
+            this.in.reset();
+            return new GzipCompressorInputStream(this.in, false);
+        }
+
+        while (b == 0) {
+            b = this.in.read();
+        }
+        if (b != -1) {
+            throw new ZipException("Garbage after a valid gzip stream at offset: " + this.compressedSize);
+        }
+
+        return null;
+    }
+
+    /**
+     * Input stream that counts bytes read through it, which follows mark and reset.
+     *
+     * <p> This ignores {@link #close()}, because streams of members close it one after another.
+     */
+    private static final class PositionInputStream extends FilterInputStream {
+        private long position;
+
+        private long markedPosition;
+
+        private PositionInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                this.position++;
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                this.position += n;
+            }
+
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            this.position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            super.mark(readLimit);
+            this.markedPosition = this.position;
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            super.reset();
+            this.position = this.markedPosition;
+        }
+
+        @Override
+        public void close() {
+            // Leaves the underlying stream open.
+        }
+    }
+
+}
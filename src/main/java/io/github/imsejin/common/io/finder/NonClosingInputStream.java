@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that ignores {@link #close()} and hides {@link #mark(int)} of the underlying stream.
+ *
+ * <p> This protects an outer stream of archive from being closed by nested stream wrapping it,
+ * and its mark from being moved by nested stream, like {@code GzipCompressorInputStream}
+ * which marks the stream on its own if supported.
+ */
+class NonClosingInputStream extends FilterInputStream {
+
+    NonClosingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public void close() {
+        // Leaves the underlying stream open.
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        // Keeps the mark of the underlying stream.
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("NonClosingInputStream doesn't support reset()");
+    }
+
+}
@@ -0,0 +1,498 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decompressor that inflates members of multi-member gzip concurrently.
+ *
+ * <p> Boundaries of members are given by the block sizes of BGZF when the first member
+ * has them. Otherwise, the first member is inflated ahead, and if it is followed by another one,
+ * every position after it that looks like a member header is a candidate, which is inflated
+ * speculatively; only members whose trailer is verified and which follow the previous member
+ * exactly are taken. The signature of header appears in compressed data about once every 16 MiB,
+ * so the wasted work on false candidates is negligible.
+ *
+ * <p> Only as many members as threads of the executor are inflated ahead of the one to be written,
+ * which bounds memory and leaves the executor to other tasks. All the tasks stop reading the file
+ * before {@link #decompress(Path)} returns.
+ *
+ * <p> Decompressed members are concatenated in order. Single-member gzip is decompressed
+ * by a single thread as usual without speculation, because deflate stream cannot be split
+ * without decoding it. Zeros after the last member are ignored as padding,
+ * as {@link MultiMemberGzipInputStream} does.
+ */
+final class ParallelGzipDecompressor {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int TRAILER_SIZE = 8;
+
+    private final ExecutorService executor;
+
+    /**
+     * Maximum number of candidates to be inflated ahead.
+     */
+    private final int windowSize;
+
+    ParallelGzipDecompressor(ExecutorService executor) {
+        this.executor = executor;
+        this.windowSize = getParallelism(executor);
+    }
+
+    /**
+     * Decompresses all members of gzip file.
+     *
+     * @param path gzip file
+     * @return decompressed content and header of the first member
+     * @throws IOException if failed to read or decompress the file
+     */
+    Result decompress(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            GzipHeader header = readHeader(channel, 0);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            long end;
+            if (header.blockSize == -1) {
+                // Most of gzip has a single member, which leaves nothing to speculate on.
+                Member first = inflate(channel, 0, () -> false);
+                out.write(first.bytes, 0, first.bytes.length);
+
+                end = isPadding(channel, first.end, fileSize)
+                        ? first.end
+                        : inflateAll(channel, findCandidates(channel, first.end, fileSize), first.end, fileSize, out);
+            } else {
+                end = inflateAll(channel, findBlocks(channel, fileSize, header.blockSize), 0, fileSize, out);
+            }
+
+            return new Result(out.toByteArray(), header, end);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the number of threads of the executor, or the number of processors if it is unknown or unbounded.
+     */
+    private static int getParallelism(ExecutorService executor) {
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        if (executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor threadPool = (ThreadPoolExecutor) executor;
+            return Math.min(threadPool.getMaximumPoolSize(), Math.max(threadPool.getCorePoolSize(), processors));
+        }
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        }
+
+        return processors;
+    }
+
+    /**
+     * Inflates members at the candidates concurrently, and writes them in order from the start.
+     *
+     * @return end of the last member
+     */
+    private long inflateAll(FileChannel channel, List<Long> candidates, long start, long fileSize,
+                            ByteArrayOutputStream out) throws IOException {
+        List<Speculation> speculations = new ArrayList<>();
+        try {
+            return concatenate(channel, candidates, speculations, start, fileSize, out);
+        } finally {
+            // Tasks read the channel, which is closed after this returns.
+            for (Speculation speculation : speculations) {
+                speculation.abandon();
+            }
+            for (Speculation speculation : speculations) {
+                speculation.awaitStop();
+            }
+        }
+    }
+
+    private long concatenate(FileChannel channel, List<Long> candidates, List<Speculation> speculations,
+                             long start, long fileSize, ByteArrayOutputStream out) throws IOException {
+        Deque<Speculation> window = new ArrayDeque<>(this.windowSize);
+        int index = 0;
+        long next = start;
+        while (true) {
+            // Inflates only a few candidates ahead, so that memory and the executor are not flooded.
+            while (window.size() < this.windowSize && index < candidates.size()) {
+                long candidate = candidates.get(index++);
+
+                // False candidate in the middle of the previous member.
+                if (candidate < next) {
+                    continue;
+                }
+
+                Speculation speculation = new Speculation(candidate);
+                speculation.future = this.executor.submit(() -> speculation.run(channel));
+                speculations.add(speculation);
+                window.add(speculation);
+            }
+
+            Speculation head = window.peekFirst();
+            if (head == null || head.candidate > next) {
+                break;
+            }
+
+            window.removeFirst();
+            if (head.candidate < next) {
+                head.abandon();
+                continue;
+            }
+
+            Member member = await(head.future);
+            if (member.error != null) {
+                throw member.error;
+            }
+
+            out.write(member.bytes, 0, member.bytes.length);
+            next = member.end;
+        }
+
+        if (!isPadding(channel, next, fileSize)) {
+            throw new ZipException("Garbage after a valid gzip stream at offset: " + next);
+        }
+
+        return next;
+    }
+
+    private static Member await(Future<Member> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decompressing gzip members");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to decompress gzip member", e.getCause());
+        }
+    }
+
+    private static List<Long> findBlocks(FileChannel channel, long fileSize, long firstBlockSize) throws IOException {
+        List<Long> blocks = new ArrayList<>();
+        blocks.add(0L);
+
+        long position = firstBlockSize;
+        ByteBuffer id = ByteBuffer.allocate(1);
+        while (position < fileSize) {
+            // Leaves padding after the last block to be verified by the caller.
+            ((Buffer) id).clear();
+            if (readFully(channel, id, position) == 1 && id.get(0) == 0) {
+                break;
+            }
+
+            GzipHeader header = readHeader(channel, position);
+            if (header.blockSize == -1) {
+                throw new ZipException("BGZF block size is missing at offset: " + position);
+            }
+
+            blocks.add(position);
+            position += header.blockSize;
+        }
+
+        return blocks;
+    }
+
+    private static List<Long> findCandidates(FileChannel channel, long start, long fileSize) throws IOException {
+        List<Long> candidates = new ArrayList<>();
+
+        // Overlaps the last 3 bytes of the previous chunk to find signature across chunks.
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE + 3);
+        long chunkStart = start;
+        while (chunkStart < fileSize) {
+            ((Buffer) buffer).clear();
+            int length = readFully(channel, buffer, chunkStart);
+            if (length < 4) {
+                break;
+            }
+
+            byte[] bytes = buffer.array();
+            for (int i = 0; i <= length - 4; i++) {
+                if (bytes[i] == 0x1F && bytes[i + 1] == (byte) 0x8B && bytes[i + 2] == 8
+                        && (bytes[i + 3] & GzipHeader.FLAG_RESERVED) == 0) {
+                    candidates.add(chunkStart + i);
+                }
+            }
+
+            chunkStart += length - 3;
+        }
+
+        return candidates;
+    }
+
+    private static Member inflate(FileChannel channel, long start, BooleanSupplier abandoned) throws IOException {
+        GzipHeader header = readHeader(channel, start);
+
+        Inflater inflater = new Inflater(true);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+            byte[] output = new byte[BUFFER_SIZE];
+            CRC32 crc = new CRC32();
+
+            long position = start + header.length;
+            while (!inflater.finished()) {
+                if (abandoned.getAsBoolean()) {
+                    throw new InterruptedIOException("Inflating gzip member is abandoned at offset: " + start);
+                }
+                if (inflater.needsInput()) {
+                    ((Buffer) input).clear();
+                    int n = channel.read(input, position);
+                    if (n <= 0) {
+                        throw new EOFException("Unexpected end of gzip member at offset: " + start);
+                    }
+
+                    inflater.setInput(input.array(), 0, n);
+                    position += n;
+                }
+                if (inflater.needsDictionary()) {
+                    throw new ZipException("Invalid deflate stream in gzip member at offset: " + start);
+                }
+
+                int n = inflater.inflate(output);
+                crc.update(output, 0, n);
+                out.write(output, 0, n);
+            }
+
+            long deflateEnd = position - inflater.getRemaining();
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            if (readFully(channel, trailer, deflateEnd) < TRAILER_SIZE) {
+                throw new EOFException("Unexpected end of gzip member at offset: " + start);
+            }
+
+            byte[] t = trailer.array();
+            long expectedCrc = toUnsignedInt(t, 0);
+            long expectedSize = toUnsignedInt(t, 4);
+            if (expectedCrc != crc.getValue()) {
+                throw new ZipException("Corrupted gzip member: CRC32 mismatch at offset: " + start);
+            }
+            if (expectedSize != (out.size() & 0xFFFFFFFFL)) {
+                throw new ZipException("Corrupted gzip member: size mismatch at offset: " + start);
+            }
+
+            return new Member(out.toByteArray(), deflateEnd + TRAILER_SIZE);
+
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid deflate stream in gzip member at offset: " + start);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Returns whether the bytes from the position to the end of file are all zero, which are padding.
+     */
+    private static boolean isPadding(FileChannel channel, long position, long fileSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, Math.max(fileSize - position, 0)));
+        while (position < fileSize) {
+            ((Buffer) buffer).clear();
+            int length = readFully(channel, buffer, position);
+            if (length == 0) {
+                break;
+            }
+
+            byte[] bytes = buffer.array();
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != 0) {
+                    return false;
+                }
+            }
+
+            position += length;
+        }
+
+        return true;
+    }
+
+    private static GzipHeader readHeader(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        ((Buffer) buffer).limit(0);
+        long[] offset = {position};
+
+        return GzipHeader.read(() -> {
+            if (!buffer.hasRemaining()) {
+                ((Buffer) buffer).clear();
+                int n = channel.read(buffer, offset[0]);
+                ((Buffer) buffer).flip();
+                if (n <= 0) {
+                    throw new EOFException("Unexpected end of gzip header at offset: " + position);
+                }
+
+                offset[0] += n;
+            }
+
+            return buffer.get() & 0xFF;
+        });
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + total);
+            if (n <= 0) {
+                break;
+            }
+
+            total += n;
+        }
+
+        return total;
+    }
+
+    private static long toUnsignedInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF | (bytes[offset + 1] & 0xFF) << 8
+                | (bytes[offset + 2] & 0xFF) << 16 | (long) (bytes[offset + 3] & 0xFF) << 24) & 0xFFFFFFFFL;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    static final class Result {
+        final byte[] bytes;
+
+        final GzipHeader header;
+
+        /**
+         * Number of compressed bytes of members, excluding padding.
+         */
+        final long compressedSize;
+
+        private Result(byte[] bytes, GzipHeader header, long compressedSize) {
+            this.bytes = bytes;
+            this.header = header;
+            this.compressedSize = compressedSize;
+        }
+    }
+
+    /**
+     * Task which inflates a member at the candidate, which is possibly not a member.
+     */
+    private static final class Speculation {
+        private static final int QUEUED = 0;
+
+        private static final int RUNNING = 1;
+
+        private static final int SKIPPED = 2;
+
+        private final long candidate;
+
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private volatile boolean abandoned;
+
+        private Future<Member> future;
+
+        private Speculation(long candidate) {
+            this.candidate = candidate;
+        }
+
+        private Member run(FileChannel channel) {
+            if (!this.state.compareAndSet(QUEUED, RUNNING)) {
+                return new Member(new InterruptedIOException("Inflating gzip member is skipped at offset: "
+                        + this.candidate));
+            }
+
+            try {
+                return inflate(channel, this.candidate, () -> this.abandoned);
+            } catch (IOException e) {
+                return new Member(e);
+            }
+        }
+
+        /**
+         * Makes the task stop inflating as soon as possible.
+         */
+        private void abandon() {
+            this.abandoned = true;
+        }
+
+        /**
+         * Waits until the task doesn't read the channel anymore, unless it has not started.
+         */
+        private void awaitStop() {
+            if (this.state.compareAndSet(QUEUED, SKIPPED)) {
+                this.future.cancel(false);
+                return;
+            }
+
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    this.future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException e) {
+                    break;
+                }
+            }
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class Member {
+        private final byte[] bytes;
+
+        private final long end;
+
+        @Nullable
+        private final IOException error;
+
+        private Member(byte[] bytes, long end) {
+            this.bytes = bytes;
+            this.end = end;
+            this.error = null;
+        }
+
+        private Member(IOException error) {
+            this.bytes = null;
+            this.end = -1;
+            this.error = error;
+        }
+    }
+
+}
@@ -0,0 +1,608 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.Nullable;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.Resource;
+
+/**
+ * Searcher for a literal or regular expression in content of resources,
+ * which are found by any {@link ResourceFinder} such as archives and directory trees.
+ *
+ * <pre>{@code
+ *     ResourceSearcher searcher = new ResourceSearcher(new AutoDetectingResourceFinder(true), 8);
+ *     List<ResourceSearcher.Match> matches = searcher.search(paths, "OutOfMemoryError", 100);
+ * }</pre>
+ *
+ * <p> Paths and resources are searched concurrently, and content is streamed through
+ * a matcher over bytes without being decoded into string as a whole.
+ *
+ * <ul>
+ *     <li>Literal is encoded with the charset of this searcher, and found by Boyer-Moore-Horspool
+ *     regardless of lines.</li>
+ *     <li>Regular expression is matched on each line, whose bytes are regarded as ISO-8859-1 characters.
+ *     So it matches ASCII as it is, but non-ASCII characters in UTF-8 should be searched as literal.
+ *     Line longer than {@value #MAX_LINE_LENGTH} bytes is matched by the segment of that size.</li>
+ * </ul>
+ *
+ * <p> Threads are created for each search and terminated after it.
+ */
+public class ResourceSearcher {
+
+    /**
+     * Maximum number of bytes of a line to be matched with regular expression at once.
+     */
+    public static final int MAX_LINE_LENGTH = 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ResourceFinder resourceFinder;
+
+    private final int parallelism;
+
+    private final Charset charset;
+
+    public ResourceSearcher(ResourceFinder resourceFinder, int parallelism) {
+        this(resourceFinder, parallelism, StandardCharsets.UTF_8);
+    }
+
+    public ResourceSearcher(ResourceFinder resourceFinder, int parallelism, Charset charset) {
+        Asserts.that(resourceFinder)
+                .describedAs("ResourceSearcher.resourceFinder is not allowed to be null")
+                .isNotNull();
+        Asserts.that(parallelism)
+                .describedAs("ResourceSearcher.parallelism must be positive, but it is {0}", parallelism)
+                .isPositive();
+        Asserts.that(charset)
+                .describedAs("ResourceSearcher.charset is not allowed to be null")
+                .isNotNull();
+
+        this.resourceFinder = resourceFinder;
+        this.parallelism = parallelism;
+        this.charset = charset;
+    }
+
+    /**
+     * Searches the literal in resources of the paths.
+     *
+     * @param paths      paths to find resources
+     * @param literal    literal to search for
+     * @param maxMatches maximum number of matches, after which searching is stopped
+     * @return matches in the order they are found
+     */
+    public List<Match> search(Collection<Path> paths, String literal, int maxMatches) {
+        List<Match> matches = new ArrayList<>();
+        search(paths, literal, maxMatches, matches::add);
+
+        return matches;
+    }
+
+    /**
+     * Searches the literal in resources of the paths, and notifies matches as they are found.
+     *
+     * @param paths      paths to find resources
+     * @param literal    literal to search for
+     * @param maxMatches maximum number of matches, after which searching is stopped
+     * @param listener   listener of match, which is never called concurrently
+     */
+    public void search(Collection<Path> paths, String literal, int maxMatches, Consumer<Match> listener) {
+        Asserts.that(literal)
+                .describedAs("ResourceSearcher.literal is not allowed to be null or empty")
+                .isNotNull()
+                .isNotEmpty();
+
+        byte[] bytes = literal.getBytes(this.charset);
+        search(paths, maxMatches, listener, () -> new LiteralScanner(bytes));
+    }
+
+    /**
+     * Searches the regular expression in resources of the paths.
+     *
+     * @param paths      paths to find resources
+     * @param pattern    regular expression to search for
+     * @param maxMatches maximum number of matches, after which searching is stopped
+     * @return matches in the order they are found
+     */
+    public List<Match> search(Collection<Path> paths, Pattern pattern, int maxMatches) {
+        List<Match> matches = new ArrayList<>();
+        search(paths, pattern, maxMatches, matches::add);
+
+        return matches;
+    }
+
+    /**
+     * Searches the regular expression in resources of the paths, and notifies matches as they are found.
+     *
+     * @param paths      paths to find resources
+     * @param pattern    regular expression to search for
+     * @param maxMatches maximum number of matches, after which searching is stopped
+     * @param listener   listener of match, which is never called concurrently
+     */
+    public void search(Collection<Path> paths, Pattern pattern, int maxMatches, Consumer<Match> listener) {
+        Asserts.that(pattern)
+                .describedAs("ResourceSearcher.pattern is not allowed to be null")
+                .isNotNull();
+
+        search(paths, maxMatches, listener, () -> new RegexScanner(pattern));
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private void search(Collection<Path> paths, int maxMatches, Consumer<Match> listener,
+            ScannerFactory scannerFactory) {
+        Asserts.that(paths)
+                .describedAs("Invalid paths to search: {0}", paths)
+                .isNotNull()
+                .doesNotContainNull();
+        Asserts.that(maxMatches)
+                .describedAs("ResourceSearcher.maxMatches must be positive, but it is {0}", maxMatches)
+                .isPositive();
+        Asserts.that(listener)
+                .describedAs("ResourceSearcher.listener is not allowed to be null")
+                .isNotNull();
+
+        if (paths.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, getClass().getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Search search = new Search(executor, scannerFactory, maxMatches, listener, paths.size());
+        try {
+            for (Path path : paths) {
+                search.submit(() -> search.searchPath(path));
+            }
+
+            search.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching resources", e);
+        } finally {
+            search.stop();
+
+            // Tasks which are never started still release their resources.
+            for (Runnable task : executor.shutdownNow()) {
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * State of a search, which is shared by its tasks.
+     */
+    private final class Search {
+        private final ExecutorService executor;
+
+        private final ScannerFactory scannerFactory;
+
+        private final int maxMatches;
+
+        private final Consumer<Match> listener;
+
+        /**
+         * Number of tasks which are submitted but not finished.
+         */
+        private final AtomicInteger pendingCount;
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private final AtomicReference<RuntimeException> error = new AtomicReference<>();
+
+        private int matchCount;
+
+        private volatile boolean stopped;
+
+        private Search(ExecutorService executor, ScannerFactory scannerFactory, int maxMatches,
+                Consumer<Match> listener, int taskCount) {
+            this.executor = executor;
+            this.scannerFactory = scannerFactory;
+            this.maxMatches = maxMatches;
+            this.listener = listener;
+            this.pendingCount = new AtomicInteger(taskCount);
+        }
+
+        private void submit(Runnable task) {
+            submit(task, null);
+        }
+
+        /**
+         * Submits the task, whose cleanup is run whether the task is run or skipped.
+         */
+        private void submit(Runnable task, @Nullable Runnable cleanup) {
+            try {
+                this.executor.execute(() -> {
+                    try {
+                        if (!this.stopped) {
+                            task.run();
+                        }
+                    } catch (RuntimeException e) {
+                        this.error.compareAndSet(null, e);
+                        stop();
+                    } finally {
+                        cleanUp(cleanup);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Executor is shut down after the search is stopped.
+                cleanUp(cleanup);
+            }
+        }
+
+        private void cleanUp(@Nullable Runnable cleanup) {
+            try {
+                if (cleanup != null) {
+                    cleanup.run();
+                }
+            } catch (RuntimeException e) {
+                this.error.compareAndSet(null, e);
+                stop();
+            } finally {
+                if (this.pendingCount.decrementAndGet() == 0) {
+                    this.finished.countDown();
+                }
+            }
+        }
+
+        private void await() throws InterruptedException {
+            this.finished.await();
+
+            RuntimeException e = this.error.get();
+            if (e != null) {
+                throw e;
+            }
+        }
+
+        private void stop() {
+            this.stopped = true;
+            this.finished.countDown();
+        }
+
+        private void searchPath(Path path) {
+            List<Resource> resources = resourceFinder.getResources(path);
+
+            // Registers the tasks before this task is finished, so that the search doesn't end before them.
+            this.pendingCount.addAndGet(resources.size());
+            for (Resource resource : resources) {
+                submit(() -> searchResource(path, resource), resource::close);
+            }
+        }
+
+        private void searchResource(Path path, Resource resource) {
+            if (resource.isDirectory()) {
+                return;
+            }
+
+            try (InputStream in = resource.getInputStream()) {
+                if (in == null) {
+                    return;
+                }
+
+                this.scannerFactory.create().scan(in, (offset, lineNumber) -> {
+                    if (this.stopped) {
+                        return false;
+                    }
+
+                    return report(new Match(path, resource.getPath(), offset, lineNumber));
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to search resource: " + resource.getPath(), e);
+            }
+        }
+
+        private synchronized boolean report(Match match) {
+            if (this.matchCount >= this.maxMatches) {
+                return false;
+            }
+
+            this.listener.accept(match);
+            this.matchCount++;
+
+            if (this.matchCount == this.maxMatches) {
+                stop();
+                return false;
+            }
+
+            return true;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ScannerFactory {
+        Scanner create();
+    }
+
+    /**
+     * Matcher over bytes of a stream.
+     */
+    private interface Scanner {
+        void scan(InputStream in, Sink sink) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Sink {
+        /**
+         * Accepts a match.
+         *
+         * @param offset     offset of the match in content
+         * @param lineNumber line number of the match, starting from 1
+         * @return whether to continue scanning
+         */
+        boolean accept(long offset, long lineNumber);
+    }
+
+    /**
+     * Scanner of literal with Boyer-Moore-Horspool, which finds non-overlapping occurrences.
+     */
+    private static final class LiteralScanner implements Scanner {
+        private final byte[] needle;
+
+        private final int[] shifts = new int[256];
+
+        private LiteralScanner(byte[] needle) {
+            this.needle = needle;
+
+            int last = needle.length - 1;
+            Arrays.fill(this.shifts, needle.length);
+            for (int i = 0; i < last; i++) {
+                this.shifts[needle[i] & 0xFF] = last - i;
+            }
+        }
+
+        @Override
+        public void scan(InputStream in, Sink sink) throws IOException {
+            int needleLength = this.needle.length;
+            int last = needleLength - 1;
+            byte[] buffer = new byte[Math.max(BUFFER_SIZE, needleLength * 2)];
+
+            // Offset of the first byte of buffer in content.
+            long bufferOffset = 0;
+            int length = 0;
+            long lineNumber = 1;
+            // Position in buffer until which line feeds are counted.
+            int counted = 0;
+
+            int read;
+            while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+
+                int i = 0;
+                while (i <= length - needleLength) {
+                    int j = last;
+                    while (j >= 0 && buffer[i + j] == this.needle[j]) {
+                        j--;
+                    }
+
+                    if (j < 0) {
+                        lineNumber += countLineFeeds(buffer, counted, i);
+                        counted = i;
+                        if (!sink.accept(bufferOffset + i, lineNumber)) {
+                            return;
+                        }
+
+                        i += needleLength;
+                    } else {
+                        i += this.shifts[buffer[i + last] & 0xFF];
+                    }
+                }
+
+                // Keeps the tail which can be the start of occurrence.
+                int keep = Math.min(i, length);
+                lineNumber += countLineFeeds(buffer, counted, keep);
+                System.arraycopy(buffer, keep, buffer, 0, length - keep);
+                bufferOffset += keep;
+                length -= keep;
+                counted = 0;
+            }
+        }
+    }
+
+    /**
+     * Scanner of regular expression, which matches each line.
+     */
+    private static final class RegexScanner implements Scanner {
+        private final Pattern pattern;
+
+        private RegexScanner(Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        public void scan(InputStream in, Sink sink) throws IOException {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            byte[] line = new byte[BUFFER_SIZE];
+            int lineLength = 0;
+            // Offset of the first byte of line in content.
+            long lineOffset = 0;
+            long lineNumber = 1;
+
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                int start = 0;
+                for (int i = 0; i < read; i++) {
+                    boolean lineFeed = buffer[i] == '\n';
+                    if (!lineFeed && lineLength + (i - start) < MAX_LINE_LENGTH) {
+                        continue;
+                    }
+
+                    line = append(line, lineLength, buffer, start, i - start);
+                    lineLength += i - start;
+                    if (!match(line, lineLength, lineOffset, lineNumber, sink)) {
+                        return;
+                    }
+
+                    lineOffset += lineLength;
+                    lineLength = 0;
+                    start = i;
+                    if (lineFeed) {
+                        // Excludes the line feed from the next line.
+                        lineOffset++;
+                        lineNumber++;
+                        start++;
+                    }
+                }
+
+                line = append(line, lineLength, buffer, start, read - start);
+                lineLength += read - start;
+            }
+
+            if (lineLength > 0) {
+                match(line, lineLength, lineOffset, lineNumber, sink);
+            }
+        }
+
+        private boolean match(byte[] line, int length, long lineOffset, long lineNumber, Sink sink) {
+            // Excludes carriage return of CRLF.
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+
+            Matcher matcher = this.pattern.matcher(new Latin1Sequence(line, 0, length));
+            while (matcher.find()) {
+                if (!sink.accept(lineOffset + matcher.start(), lineNumber)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private static byte[] append(byte[] line, int lineLength, byte[] bytes, int offset, int length) {
+            if (lineLength + length > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+            }
+
+            System.arraycopy(bytes, offset, line, lineLength, length);
+            return line;
+        }
+    }
+
+    /**
+     * View of bytes as ISO-8859-1 characters, without decoding them.
+     */
+    private static final class Latin1Sequence implements CharSequence {
+        private final byte[] bytes;
+
+        private final int offset;
+
+        private final int length;
+
+        private Latin1Sequence(byte[] bytes, int offset, int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return this.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (this.bytes[this.offset + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new Latin1Sequence(this.bytes, this.offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(this.bytes, this.offset, this.length, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static int countLineFeeds(byte[] bytes, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == '\n') {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Occurrence of pattern in content of resource.
+     */
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    public static final class Match {
+        /**
+         * Path which the resource is found from.
+         */
+        private final Path path;
+
+        /**
+         * Path of the resource.
+         */
+        private final String resourcePath;
+
+        /**
+         * Offset of the occurrence in bytes of content.
+         */
+        private final long offset;
+
+        /**
+         * Line number of the occurrence, starting from 1.
+         */
+        private final long lineNumber;
+
+        private Match(Path path, String resourcePath, long offset, long lineNumber) {
+            this.path = path;
+            this.resourcePath = resourcePath;
+            this.offset = offset;
+            this.lineNumber = lineNumber;
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Output stream that keeps bytes in memory until they exceed the threshold,
+ * and then spools all of them to a temporary file.
+ *
+ * <p> Temporary file is deleted when its content is closed. As a fallback for content which is not closed,
+ * the file is deleted after the content becomes unreachable, on the next spill, or on exit of JVM.
+ * Unlike {@link java.io.File#deleteOnExit()}, which keeps every path until exit, a single shutdown hook
+ * deletes only files of content which is still not closed.
+ */
+final class SpillingOutputStream extends OutputStream {
+
+    /**
+     * Queue of content which became unreachable, whose temporary file is left.
+     */
+    private static final ReferenceQueue<SpilledContent> UNREACHABLE_CONTENTS = new ReferenceQueue<>();
+
+    /**
+     * References to content which is not closed yet, which must be reachable until they are enqueued.
+     */
+    private static final Set<ContentReference> CONTENT_REFERENCES = ConcurrentHashMap.newKeySet();
+
+    private final long threshold;
+
+    @Nullable
+    private final Path directory;
+
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+
+    @Nullable
+    private Path file;
+
+    @Nullable
+    private OutputStream fileOut;
+
+    private long size;
+
+    /**
+     * @param threshold maximum number of bytes to be kept in memory
+     * @param directory directory of temporary file, or {@code null} for the default temporary directory
+     */
+    SpillingOutputStream(long threshold, @Nullable Path directory) {
+        this.threshold = threshold;
+        this.directory = directory;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (this.fileOut == null && this.size + length > this.threshold) {
+            spill();
+        }
+
+        if (this.fileOut == null) {
+            this.memory.write(bytes, offset, length);
+        } else {
+            this.fileOut.write(bytes, offset, length);
+        }
+
+        this.size += length;
+    }
+
+    long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Closes this and returns the content which is written.
+     *
+     * <p> The content is {@link Closeable} if it is spilled, which deletes the temporary file on close.
+     *
+     * @return supplier of new stream of the content
+     * @throws IOException if failed to close the temporary file
+     */
+    Supplier<InputStream> toContent() throws IOException {
+        close();
+
+        if (this.file == null) {
+            byte[] bytes = this.memory.toByteArray();
+            return () -> new ByteArrayInputStream(bytes);
+        }
+
+        SpilledContent content = new SpilledContent(this.file);
+        content.reference = new ContentReference(content);
+        CONTENT_REFERENCES.add(content.reference);
+        ShutdownHook.register();
+
+        return content;
+    }
+
+    /**
+     * Closes this and deletes the temporary file if it is spilled, when the content is not used.
+     */
+    void discard() {
+        try {
+            close();
+            if (this.file != null) {
+                Files.deleteIfExists(this.file);
+            }
+        } catch (IOException ignored) {
+            // Leaves the temporary file which can't be deleted.
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.fileOut != null) {
+            this.fileOut.close();
+        }
+    }
+
+    private void spill() throws IOException {
+        deleteUnreachableContents();
+
+        this.file = this.directory == null
+                ? Files.createTempFile("archive-entry-", ".tmp")
+                : Files.createTempFile(this.directory, "archive-entry-", ".tmp");
+        this.fileOut = Files.newOutputStream(this.file);
+
+        this.memory.writeTo(this.fileOut);
+        this.memory = new ByteArrayOutputStream(0);
+    }
+
+    /**
+     * Deletes temporary files of content which became unreachable without being closed.
+     */
+    private static void deleteUnreachableContents() {
+        Reference<? extends SpilledContent> reference;
+        while ((reference = UNREACHABLE_CONTENTS.poll()) != null) {
+            ((ContentReference) reference).delete();
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Content in temporary file, which is deleted on close.
+     */
+    private static final class SpilledContent implements Supplier<InputStream>, Closeable {
+        private final Path file;
+
+        private ContentReference reference;
+
+        private volatile boolean closed;
+
+        private SpilledContent(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public InputStream get() {
+            if (this.closed) {
+                throw new IllegalStateException("Content is already released: " + this.file);
+            }
+
+            try {
+                return Files.newInputStream(this.file);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read spilled content: " + this.file, e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.closed = true;
+            CONTENT_REFERENCES.remove(this.reference);
+            this.reference.clear();
+            Files.deleteIfExists(this.file);
+        }
+    }
+
+    /**
+     * Shutdown hook which deletes temporary files of content which is not closed until exit of JVM.
+     * It is registered once when this class is initialized on the first spill.
+     */
+    private static final class ShutdownHook {
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                for (ContentReference reference : CONTENT_REFERENCES) {
+                    reference.delete();
+                }
+            }, SpillingOutputStream.class.getSimpleName()));
+        }
+
+        private static void register() {
+            // Initializes this class, which registers the hook.
+        }
+    }
+
+    /**
+     * Reference to content, which deletes its temporary file after the content becomes unreachable.
+     */
+    private static final class ContentReference extends PhantomReference<SpilledContent> {
+        private final Path file;
+
+        private ContentReference(SpilledContent content) {
+            super(content, UNREACHABLE_CONTENTS);
+            this.file = content.file;
+        }
+
+        private void delete() {
+            CONTENT_REFERENCES.remove(this);
+
+            try {
+                Files.deleteIfExists(this.file);
+            } catch (IOException ignored) {
+                // Leaves the temporary file which can't be deleted, such as one opened on Windows.
+            }
+        }
+    }
+
+}
@@ -0,0 +1,478 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import io.github.imsejin.common.assertion.Asserts;
+
+/**
+ * Index of tar.gz for random access to its entries.
+ *
+ * <p> This records checkpoints of decompression at intervals, which consist of position in gzip
+ * and the last 32KiB of decompressed data, and offsets of tar entries in decompressed data.
+ * With this, a single entry can be read by decompressing from the nearest checkpoint preceding it,
+ * instead of from the start of file.
+ *
+ * <pre>{@code
+ *     TarGzipIndex index = TarGzipIndex.build(path);
+ *     index.write(indexPath);
+ *
+ *     // Later on
+ *     TarGzipIndex index = TarGzipIndex.read(indexPath);
+ *     TarResource resource = new TarGzipResourceFinder(false).getResource(path, index, "usr/bin/temp-file.log");
+ * }</pre>
+ *
+ * @see <a href="https://github.com/madler/zlib/blob/master/examples/zran.c">zran.c</a>
+ */
+public final class TarGzipIndex {
+
+    /**
+     * Default minimum distance between checkpoints in decompressed bytes.
+     */
+    public static final long DEFAULT_SPAN = 4L * 1024 * 1024;
+
+    /**
+     * Magic number of index file: "TGZI".
+     */
+    private static final int MAGIC = 0x54475A49;
+
+    /**
+     * Version of index file, which is increased when the format is changed.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Size of gzip file when this index is built.
+     */
+    private final long fileSize;
+
+    /**
+     * Last modified time of gzip file when this index is built.
+     */
+    private final long lastModifiedMilliTime;
+
+    /**
+     * Checkpoints ordered by decompressed offset.
+     */
+    private final List<Checkpoint> checkpoints;
+
+    private final Map<String, Entry> entries;
+
+    private TarGzipIndex(long fileSize, long lastModifiedMilliTime,
+                         List<Checkpoint> checkpoints, Map<String, Entry> entries) {
+        this.fileSize = fileSize;
+        this.lastModifiedMilliTime = lastModifiedMilliTime;
+        this.checkpoints = checkpoints;
+        this.entries = entries;
+    }
+
+    /**
+     * Builds an index of tar.gz with default span and UTF-8 entry names.
+     *
+     * @param path path of tar.gz
+     * @return index
+     */
+    public static TarGzipIndex build(Path path) {
+        return build(path, DEFAULT_SPAN, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builds an index of tar.gz, decompressing the whole file once.
+     *
+     * @param path    path of tar.gz
+     * @param span    minimum distance between checkpoints in decompressed bytes
+     * @param charset charset of entry names
+     * @return index
+     */
+    public static TarGzipIndex build(Path path, long span, Charset charset) {
+        Asserts.that(path)
+                .describedAs("Invalid path to build index: {0}", path)
+                .isNotNull()
+                .describedAs("No such path exists: {0}", path)
+                .exists()
+                .describedAs("It is not a regular file: {0}", path)
+                .isRegularFile();
+        Asserts.that(span)
+                .describedAs("TarGzipIndex.span must be positive, but it is {0}", span)
+                .isPositive();
+        Asserts.that(charset)
+                .describedAs("TarGzipIndex.charset is not allowed to be null")
+                .isNotNull();
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 65536)) {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            List<Checkpoint> checkpoints = new ArrayList<>();
+            Map<String, Entry> entries = new LinkedHashMap<>();
+
+            GzipCheckpointInputStream gzipIn = new GzipCheckpointInputStream(in, span, checkpoints);
+            TarArchiveInputStream tarIn = new TarArchiveInputStream(gzipIn, charset.name());
+
+            TarArchiveEntry tarEntry;
+            while ((tarEntry = tarIn.getNextEntry()) != null) {
+                Entry entry = new Entry(tarEntry.getName(), gzipIn.getPosition(), tarEntry.getSize(),
+                        tarEntry.isDirectory(), tarEntry.getLastModifiedDate().getTime());
+                entries.put(entry.path, entry);
+            }
+
+            return new TarGzipIndex(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                    Collections.unmodifiableList(checkpoints), Collections.unmodifiableMap(entries));
+
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to build index of tar.gz: " + path, e);
+        }
+    }
+
+    /**
+     * Reads an index from the file.
+     *
+     * @param indexPath path of index file
+     * @return index
+     */
+    public static TarGzipIndex read(Path indexPath) {
+        Asserts.that(indexPath)
+                .describedAs("Invalid path to read index: {0}", indexPath)
+                .isNotNull()
+                .describedAs("No such path exists: {0}", indexPath)
+                .exists();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("It is not an index of tar.gz: " + indexPath);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported version of tar.gz index: " + version);
+            }
+
+            long fileSize = in.readLong();
+            long lastModifiedMilliTime = in.readLong();
+
+            int checkpointCount = in.readInt();
+            List<Checkpoint> checkpoints = new ArrayList<>(checkpointCount);
+            for (int i = 0; i < checkpointCount; i++) {
+                long compressedOffset = in.readLong();
+                int bitOffset = in.readByte();
+                long uncompressedOffset = in.readLong();
+                byte[] compressedWindow = new byte[in.readInt()];
+                in.readFully(compressedWindow);
+
+                checkpoints.add(new Checkpoint(compressedOffset, bitOffset, uncompressedOffset, compressedWindow));
+            }
+
+            int entryCount = in.readInt();
+            Map<String, Entry> entries = new LinkedHashMap<>();
+            for (int i = 0; i < entryCount; i++) {
+                Entry entry = new Entry(readString(in), in.readLong(), in.readLong(), in.readBoolean(), in.readLong());
+                entries.put(entry.path, entry);
+            }
+
+            return new TarGzipIndex(fileSize, lastModifiedMilliTime,
+                    Collections.unmodifiableList(checkpoints), Collections.unmodifiableMap(entries));
+
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read index of tar.gz: " + indexPath, e);
+        }
+    }
+
+    /**
+     * Writes this index to the file, such as a sidecar of tar.gz.
+     *
+     * @param indexPath path of index file
+     */
+    public void write(Path indexPath) {
+        Asserts.that(indexPath)
+                .describedAs("Invalid path to write index: {0}", indexPath)
+                .isNotNull();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(this.fileSize);
+            out.writeLong(this.lastModifiedMilliTime);
+
+            out.writeInt(this.checkpoints.size());
+            for (Checkpoint checkpoint : this.checkpoints) {
+                out.writeLong(checkpoint.compressedOffset);
+                out.writeByte(checkpoint.bitOffset);
+                out.writeLong(checkpoint.uncompressedOffset);
+                out.writeInt(checkpoint.compressedWindow.length);
+                out.write(checkpoint.compressedWindow);
+            }
+
+            out.writeInt(this.entries.size());
+            for (Entry entry : this.entries.values()) {
+                writeString(out, entry.path);
+                out.writeLong(entry.dataOffset);
+                out.writeLong(entry.size);
+                out.writeBoolean(entry.directory);
+                out.writeLong(entry.lastModifiedMilliTime);
+            }
+
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write index of tar.gz: " + indexPath, e);
+        }
+    }
+
+    /**
+     * Returns whether this index is built from the file as it is now.
+     * It is judged by size and last modified time of the file.
+     *
+     * @param path path of tar.gz
+     * @return whether the file is not changed after building this index
+     */
+    public boolean isUpToDate(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.size() == this.fileSize
+                    && attributes.lastModifiedTime().toMillis() == this.lastModifiedMilliTime;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of checkpoints.
+     *
+     * @return number of checkpoints
+     */
+    public int getCheckpointCount() {
+        return this.checkpoints.size();
+    }
+
+    /**
+     * Returns paths of all entries in tar.
+     *
+     * @return paths of entries
+     */
+    public Set<String> getEntryPaths() {
+        return this.entries.keySet();
+    }
+
+    @Nullable
+    Entry getEntry(String path) {
+        return this.entries.get(path);
+    }
+
+    /**
+     * Opens a decompressed stream starting at the offset,
+     * which decompresses from the nearest checkpoint preceding the offset.
+     *
+     * @param path   path of tar.gz
+     * @param offset offset in decompressed data
+     * @return decompressed stream
+     * @throws IOException if failed to read the file
+     */
+    InputStream openStream(Path path, long offset) throws IOException {
+        Checkpoint checkpoint = findCheckpoint(offset);
+
+        SeekableByteChannel channel = Files.newByteChannel(path);
+        try {
+            channel.position(checkpoint.compressedOffset);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel), 65536);
+
+            GzipCheckpointInputStream gzipIn = new GzipCheckpointInputStream(in, checkpoint);
+            long distance = offset - checkpoint.uncompressedOffset;
+            if (gzipIn.skip(distance) != distance) {
+                throw new IOException("Unexpected end of tar.gz while seeking to offset: " + offset);
+            }
+
+            return new FilterInputStream(gzipIn) {
+                @Override
+                public void close() throws IOException {
+                    channel.close();
+                }
+            };
+
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private Checkpoint findCheckpoint(long offset) {
+        int low = 0;
+        int high = this.checkpoints.size() - 1;
+
+        // Finds the last checkpoint whose offset is less than or equal to the given offset.
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (this.checkpoints.get(mid).uncompressedOffset <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return this.checkpoints.get(low);
+    }
+
+    /**
+     * Writes the string as UTF-8 bytes prefixed with their length.
+     *
+     * <p> Unlike {@link DataOutputStream#writeUTF(String)}, this is not limited to 65535 bytes,
+     * so that long entry names of PAX header can be written.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid length of string in index: " + length);
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Position where decompression can be resumed, which is always at the start of deflate block.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    static final class Checkpoint {
+        /**
+         * Offset of byte in gzip, which contains the first bit of the block.
+         */
+        private final long compressedOffset;
+
+        /**
+         * Offset of the first bit of the block in the byte.
+         */
+        private final int bitOffset;
+
+        private final long uncompressedOffset;
+
+        /**
+         * Deflated window to save memory and space of index file.
+         */
+        @Getter(AccessLevel.NONE)
+        private final byte[] compressedWindow;
+
+        private Checkpoint(long compressedOffset, int bitOffset, long uncompressedOffset, byte[] compressedWindow) {
+            this.compressedOffset = compressedOffset;
+            this.bitOffset = bitOffset;
+            this.uncompressedOffset = uncompressedOffset;
+            this.compressedWindow = compressedWindow;
+        }
+
+        static Checkpoint capture(long compressedOffset, int bitOffset, long uncompressedOffset, byte[] window) {
+            return new Checkpoint(compressedOffset, bitOffset, uncompressedOffset, deflate(window));
+        }
+
+        byte[] getWindow() {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(this.compressedWindow);
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream(DeflateDecoder.WINDOW_SIZE);
+                byte[] buffer = new byte[8192];
+                while (!inflater.finished()) {
+                    int n = inflater.inflate(buffer);
+                    if (n == 0 && !inflater.finished() && inflater.needsInput()) {
+                        throw new IllegalStateException("Corrupted window of checkpoint in tar.gz index");
+                    }
+
+                    out.write(buffer, 0, n);
+                }
+
+                return out.toByteArray();
+
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupted window of checkpoint in tar.gz index", e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        private static byte[] deflate(byte[] window) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(window);
+                deflater.finish();
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(buffer);
+                    out.write(buffer, 0, n);
+                }
+
+                return out.toByteArray();
+
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Entry of tar, whose data starts at the offset in decompressed data.
+     */
+    static final class Entry {
+        final String path;
+        final long dataOffset;
+        final long size;
+        final boolean directory;
+        final long lastModifiedMilliTime;
+
+        private Entry(String path, long dataOffset, long size, boolean directory, long lastModifiedMilliTime) {
+            this.path = path;
+            this.dataOffset = dataOffset;
+            this.size = size;
+            this.directory = directory;
+            this.lastModifiedMilliTime = lastModifiedMilliTime;
+        }
+    }
+
+}
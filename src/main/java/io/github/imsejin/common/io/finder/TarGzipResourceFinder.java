@@ -16,15 +16,26 @@
 
 package io.github.imsejin.common.io.finder;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.function.Predicate;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.utils.IOUtils;
+import org.jetbrains.annotations.Nullable;
+
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.TarResource;
+import io.github.imsejin.common.io.finder.TarGzipIndex.Entry;
+import io.github.imsejin.common.util.FilenameUtils;
 
 public class TarGzipResourceFinder extends TarResourceFinder {
 
@@ -40,6 +51,80 @@ public class TarGzipResourceFinder extends TarResourceFinder {
         super(recursive, filter, charset);
     }
 
+    /**
+     * Builds an index of tar.gz for random access to its entries.
+     *
+     * @param path path of tar.gz
+     * @return index
+     * @see #getResource(Path, TarGzipIndex, String)
+     */
+    public TarGzipIndex buildIndex(Path path) {
+        return TarGzipIndex.build(path, TarGzipIndex.DEFAULT_SPAN, this.charset);
+    }
+
+    /**
+     * Returns a resource of the entry in tar.gz, which is found with the index.
+     *
+     * <p> This decompresses only from the nearest checkpoint preceding the entry,
+     * instead of from the start of file.
+     *
+     * @param path      path of tar.gz
+     * @param index     index of the tar.gz
+     * @param entryPath path of entry in tar
+     * @return resource of the entry or {@code null} if no such entry
+     */
+    @Nullable
+    public TarResource getResource(Path path, TarGzipIndex index, String entryPath) {
+        Asserts.that(path)
+                .describedAs("Invalid path to find resource: {0}", path)
+                .isNotNull()
+                .describedAs("No such path exists: {0}", path)
+                .exists();
+        Asserts.that(index)
+                .describedAs("TarGzipIndex is not allowed to be null")
+                .isNotNull()
+                .describedAs("TarGzipIndex is out of date with file: {0}", path)
+                .is(it -> it.isUpToDate(path));
+
+        Entry entry = index.getEntry(entryPath);
+        if (entry == null) {
+            return null;
+        }
+
+        String name = FilenameUtils.getName(entry.path);
+        if (entry.directory) {
+            return new TarResource(entry.path, name, () -> null, entry.size, true, entry.lastModifiedMilliTime,
+                    Collections.emptyMap());
+        }
+
+        Asserts.that(entry.size)
+                .describedAs("Entry is too large to be read into memory: {0}", entry.path)
+                .isLessThanOrEqualTo((long) Integer.MAX_VALUE);
+
+        try (InputStream in = index.openStream(path, entry.dataOffset)) {
+            byte[] bytes = IOUtils.readRange(in, (int) entry.size);
+            if (bytes.length != entry.size) {
+                throw new IOException("Unexpected end of entry: " + entry.path);
+            }
+
+            return new TarResource(entry.path, name, () -> new ByteArrayInputStream(bytes),
+                    entry.size, false, entry.lastModifiedMilliTime, digest(bytes));
+
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read entry of tar.gz with index: " + entryPath, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Tar is compressed as a whole in tar.gz, so no entry is stored as-is.
+     */
+    @Override
+    protected long getDataOffset(TarArchiveInputStream in, TarArchiveEntry entry) {
+        return -1;
+    }
+
     @Override
     protected TarArchiveInputStream getArchiveInputStream(InputStream in) throws IOException {
         return super.getArchiveInputStream(new GzipCompressorInputStream(in));
@@ -16,28 +16,47 @@
 
 package io.github.imsejin.common.io.finder;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarFile;
 
+import io.github.imsejin.common.io.ByteBufferInputStream;
+import io.github.imsejin.common.io.DigestAlgorithm;
+import io.github.imsejin.common.io.Resource;
 import io.github.imsejin.common.io.TarResource;
 import io.github.imsejin.common.util.FilenameUtils;
 
 public class TarResourceFinder extends ArchiveResourceFinder<TarResource, TarArchiveEntry, TarArchiveInputStream> {
 
-    protected final boolean recursive;
+    /**
+     * Size of region which is mapped into memory at once.
+     */
+    static final long MAPPING_WINDOW_SIZE = 1L << 30;
 
-    protected final Predicate<ArchiveEntry> filter;
-
-    protected final Charset charset;
+    /**
+     * Whether to map the archive file into memory instead of copying entries into heap.
+     */
+    private boolean memoryMapped;
 
     public TarResourceFinder(boolean recursive) {
         this(recursive, entry -> true, StandardCharsets.UTF_8);
@@ -48,44 +67,147 @@ public class TarResourceFinder extends ArchiveResourceFinder<TarResource, TarArc
     }
 
     public TarResourceFinder(boolean recursive, Predicate<ArchiveEntry> filter, Charset charset) {
-        this.recursive = recursive;
-        this.filter = filter;
-        this.charset = charset;
+        super(recursive, filter, charset);
     }
 
-    @Override
-    protected TarArchiveEntry getNextArchiveEntry(TarArchiveInputStream in) throws IOException {
-        return in.getNextTarEntry();
+    /**
+     * Sets whether to map the archive file into memory, instead of copying content of entries into heap.
+     *
+     * <p> If it is enabled, headers are read by seeking the file without reading content of entries,
+     * and each resource is {@link TarResource} whose {@link TarResource#getContent() content} is
+     * a read-only slice of the mapping. Pages of the mapping are loaded by the operating system on access,
+     * and shared with other processes mapping the same file through the page cache.
+     *
+     * <p> This applies only to the archive file which is plain tar by its magic bytes, so compressed tar
+     * is read as usual even if this is enabled, whether the finder is for the compression or not.
+     * The archive file must not be modified while the resources are used.
+     * Entry larger than 2 GiB and sparse entry can't be a slice, so they are copied into heap as usual.
+     *
+     * @param memoryMapped whether to map the archive file into memory
+     */
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
     }
 
     @Override
-    protected TarResource getArchiveResource(TarArchiveEntry entry, TarArchiveInputStream in) throws IOException {
-        if (!this.filter.test(entry)) {
-            return null;
+    List<Resource> findResources(Path path) throws IOException {
+        // Offsets of entries in compressed tar don't point into the archive file.
+        if (!this.memoryMapped || !isPlainTar(path)) {
+            return super.findResources(path);
         }
 
-        String path = entry.getName();
-        String name = FilenameUtils.getName(path);
-        boolean directory = entry.isDirectory();
-        long size = entry.getSize();
-        long modifiedMilliTime = entry.getLastModifiedDate().getTime();
+        try (TarFile tarFile = new TarFile(path, this.charset.name());
+             FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedRegions regions = new MappedRegions(channel);
+            List<Resource> resources = new ArrayList<>();
+
+            for (TarArchiveEntry entry : tarFile.getEntries()) {
+                String name = entry.getName();
+                long modifiedMilliTime = entry.getLastModifiedDate().getTime();
+
+                if (entry.isDirectory()) {
+                    if (this.filter.test(entry)) {
+                        resources.add(getMetadataResource(entry));
+                    }
+                    continue;
+                }
+
+                if (entry.isSparse() || entry.getSize() > Integer.MAX_VALUE) {
+                    if (this.filter.test(entry)) {
+                        try (InputStream in = tarFile.getInputStream(entry)) {
+                            resources.add(getArchiveResource("", entry, in, null));
+                        }
+                    }
+                    continue;
+                }
 
-        if (directory) {
-            return new TarResource(path, name, null, size, true, modifiedMilliTime);
+                ByteBuffer content = regions.slice(entry.getDataOffset(), (int) entry.getSize());
+                if (findNestedResources(new ByteBufferInputStream(content.duplicate()), name, resources)) {
+                    continue;
+                }
+                if (!this.filter.test(entry)) {
+                    continue;
+                }
+
+                Map<DigestAlgorithm, String> digests = digest(new ByteBufferInputStream(content.duplicate()));
+                resources.add(new TarResource(name, FilenameUtils.getName(name), content, modifiedMilliTime, digests));
+            }
+
+            return resources;
         }
+    }
 
-        byte[] bytes;
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            byte[] buffer = new byte[16384];
-            int offset;
-            while ((offset = in.read(buffer)) != -1) {
-                out.write(buffer, 0, offset);
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Plain tar is read by seeking over content of entries, with their sizes in headers.
+     */
+    @Override
+    List<TarResource> listEntries(Path path) throws IOException {
+        if (!isPlainTar(path)) {
+            return super.listEntries(path);
+        }
+
+        try (TarFile tarFile = new TarFile(path, this.charset.name())) {
+            List<TarResource> resources = new ArrayList<>();
+            for (TarArchiveEntry entry : tarFile.getEntries()) {
+                if (this.filter.test(entry)) {
+                    resources.add(getMetadataResource(entry));
+                }
             }
 
-            bytes = out.toByteArray();
+            return resources;
+        }
+    }
+
+    /**
+     * Returns whether the file is plain tar by its magic bytes, whose entries can be read as-is.
+     *
+     * @param path path of archive
+     * @return whether the file is not compressed
+     * @throws IOException if failed to read the file
+     */
+    static boolean isPlainTar(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return ArchiveFormat.detect(in) == ArchiveFormat.TAR;
         }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Subclass for compressed tar inherits this, so it is decided by magic bytes of the file,
+     * not by the finder.
+     */
+    @Override
+    boolean isStoredAsIs(Path path) throws IOException {
+        return isPlainTar(path);
+    }
 
-        return new TarResource(path, name, new ByteArrayInputStream(bytes), size, false, modifiedMilliTime);
+    @Override
+    protected TarArchiveEntry getNextArchiveEntry(TarArchiveInputStream in) throws IOException {
+        return in.getNextTarEntry();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Data of entry in tar follows its header as-is, except for sparse entry.
+     */
+    @Override
+    protected long getDataOffset(TarArchiveInputStream in, TarArchiveEntry entry) {
+        return entry.isSparse() ? -1 : in.getBytesRead();
+    }
+
+    @Override
+    protected boolean isLink(TarArchiveEntry entry) {
+        return entry.isSymbolicLink() || entry.isLink();
+    }
+
+    @Override
+    protected TarResource createArchiveResource(String path, String name, Supplier<InputStream> inputStreamSupplier,
+            long size, boolean directory, long lastModifiedMilliTime, Map<DigestAlgorithm, String> digests) {
+        return new TarResource(path, name, inputStreamSupplier, size, directory, lastModifiedMilliTime, digests);
     }
 
     @Override
@@ -93,4 +215,52 @@ public class TarResourceFinder extends ArchiveResourceFinder<TarResource, TarArc
         return new TarArchiveInputStream(in, this.charset.name());
     }
 
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Regions of file which are mapped into memory on demand.
+     *
+     * <p> A file is mapped by fixed-size windows, because a mapping can't be larger than 2 GiB.
+     * Slice across the boundary of windows is mapped on its own.
+     */
+    private static final class MappedRegions {
+        private final FileChannel channel;
+
+        private final MappedByteBuffer[] windows;
+
+        private MappedRegions(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.windows = new MappedByteBuffer[(int) ((channel.size() + MAPPING_WINDOW_SIZE - 1) / MAPPING_WINDOW_SIZE)];
+        }
+
+        private ByteBuffer slice(long offset, int size) throws IOException {
+            if (size == 0) {
+                return ByteBuffer.allocate(0).asReadOnlyBuffer();
+            }
+
+            int index = (int) (offset / MAPPING_WINDOW_SIZE);
+            long windowOffset = index * MAPPING_WINDOW_SIZE;
+
+            if (offset + size > windowOffset + MAPPING_WINDOW_SIZE) {
+                return this.channel.map(MapMode.READ_ONLY, offset, size).asReadOnlyBuffer();
+            }
+
+            MappedByteBuffer window = this.windows[index];
+            if (window == null) {
+                long windowSize = Math.min(MAPPING_WINDOW_SIZE, this.channel.size() - windowOffset);
+                window = this.channel.map(MapMode.READ_ONLY, windowOffset, windowSize);
+                this.windows[index] = window;
+            }
+
+            // Casts for compatibility with Java 8, whose ByteBuffer and MappedByteBuffer don't override them;
+            // MappedByteBuffer#duplicate() exists since Java 17.
+            ByteBuffer buffer = ((ByteBuffer) window).duplicate();
+            int position = (int) (offset - windowOffset);
+            ((Buffer) buffer).limit(position + size);
+            ((Buffer) buffer).position(position);
+
+            return buffer.slice().asReadOnlyBuffer();
+        }
+    }
+
 }
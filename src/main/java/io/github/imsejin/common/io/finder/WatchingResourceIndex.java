@@ -0,0 +1,495 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.DiskFileResource;
+import io.github.imsejin.common.io.Resource;
+
+/**
+ * Index of files in a directory, which is kept up to date with {@link WatchService}.
+ *
+ * <p> This scans the directory once, then updates the index on events of file system
+ * on a background thread instead of scanning the directory again. Events can be lost
+ * when the file system emits too many of them, so the index is reconciled with
+ * a full scan on overflow and periodically.
+ *
+ * <p> {@link #getResources()} returns the same snapshot without scanning or copying
+ * until the index is changed. Resources are sorted by their path.
+ *
+ * <pre>{@code
+ *     try (WatchingResourceIndex index = new WatchingResourceIndex(Paths.get("/data"), true)) {
+ *         List<Resource> resources = index.getResources();
+ *     }
+ * }</pre>
+ */
+public class WatchingResourceIndex implements ResourceFinder, Closeable {
+
+    /**
+     * Default interval of reconciliation with a full scan.
+     */
+    public static final Duration DEFAULT_RECONCILIATION_INTERVAL = Duration.ofMinutes(1);
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final Path root;
+
+    private final boolean recursive;
+
+    private final Predicate<Path> filter;
+
+    private final long reconciliationIntervalMillis;
+
+    private final WatchService watchService;
+
+    /**
+     * Keys of directories which are watched.
+     */
+    private final Map<Path, WatchKey> watchKeys = new HashMap<>();
+
+    /**
+     * Resources sorted by components of their path, so that descendants of path follow it contiguously.
+     */
+    private final NavigableMap<Path, DiskFileResource> resources =
+            new ConcurrentSkipListMap<>(WatchingResourceIndex::compare);
+
+    /**
+     * Serializes updates of the index from the watcher thread and {@link #reconcile()}.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Incremented after every change of the index.
+     */
+    private volatile long version;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(-1, Collections.emptyList()));
+
+    private volatile boolean closed;
+
+    public WatchingResourceIndex(Path root, boolean recursive) {
+        this(root, recursive, path -> true, DEFAULT_RECONCILIATION_INTERVAL);
+    }
+
+    public WatchingResourceIndex(Path root, boolean recursive, Predicate<Path> filter) {
+        this(root, recursive, filter, DEFAULT_RECONCILIATION_INTERVAL);
+    }
+
+    public WatchingResourceIndex(Path root, boolean recursive, Predicate<Path> filter,
+            Duration reconciliationInterval) {
+        Asserts.that(root)
+                .describedAs("Invalid path to index: {0}", root)
+                .isNotNull()
+                .describedAs("It is not a directory: {0}", root)
+                .isDirectory();
+        Asserts.that(filter)
+                .describedAs("WatchingResourceIndex.filter is not allowed to be null")
+                .isNotNull();
+        Asserts.that(reconciliationInterval)
+                .describedAs("WatchingResourceIndex.reconciliationInterval must be positive, but it is {0}",
+                        reconciliationInterval)
+                .isNotNull()
+                .isPositive();
+
+        this.root = root.toAbsolutePath().normalize();
+        this.recursive = recursive;
+        this.filter = filter;
+        this.reconciliationIntervalMillis = reconciliationInterval.toMillis();
+
+        try {
+            this.watchService = this.root.getFileSystem().newWatchService();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to watch location: " + this.root, e);
+        }
+
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            closeQuietly();
+            throw e;
+        }
+
+        Thread watcher = new Thread(this::watch, "watching-resource-index");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Returns resources of all the files in the index.
+     *
+     * @return snapshot of resources, which is the same instance until the index is changed
+     */
+    public List<Resource> getResources() {
+        checkNotClosed();
+
+        long currentVersion = this.version;
+        Snapshot current = this.snapshot.get();
+        if (current.version == currentVersion) {
+            return current.resources;
+        }
+
+        List<Resource> resources = Collections.unmodifiableList(new ArrayList<>(this.resources.values()));
+        // Publishes only if the index is not changed while copying it.
+        if (this.version == currentVersion) {
+            this.snapshot.compareAndSet(current, new Snapshot(currentVersion, resources));
+        }
+
+        return resources;
+    }
+
+    /**
+     * Returns resources of the path and files under it in the index.
+     *
+     * @param path path in the indexed directory
+     * @return resources, which are empty if the path doesn't exist in the index
+     */
+    @Override
+    public List<Resource> getResources(Path path) {
+        Asserts.that(path)
+                .describedAs("Invalid path to find resources: {0}", path)
+                .isNotNull();
+        checkNotClosed();
+
+        Path normalized = path.toAbsolutePath().normalize();
+        Asserts.that(normalized)
+                .describedAs("Path is not in the indexed directory({0}): {1}", this.root, path)
+                .is(it -> it.startsWith(this.root));
+
+        if (normalized.equals(this.root)) {
+            return getResources();
+        }
+
+        List<Resource> resources = new ArrayList<>(subtree(normalized).values());
+        return Collections.unmodifiableList(resources);
+    }
+
+    /**
+     * Returns the number of changes applied to the index, which is useful to detect changes cheaply.
+     *
+     * @return version of the index
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Reconciles the index with a full scan of the directory, which is done periodically
+     * and on overflow of events.
+     */
+    public void reconcile() {
+        synchronized (this.lock) {
+            Map<Path, DiskFileResource> scanned = new HashMap<>();
+            if (Files.isDirectory(this.root)) {
+                try {
+                    scan(this.root, scanned);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to visit location: " + this.root, e);
+                }
+            }
+
+            boolean changed = this.resources.keySet().retainAll(scanned.keySet());
+            for (DiskFileResource resource : scanned.values()) {
+                changed |= update(resource);
+            }
+            this.watchKeys.values().removeIf(it -> !it.isValid());
+
+            if (changed) {
+                this.version++;
+            }
+        }
+    }
+
+    /**
+     * Stops watching the directory.
+     */
+    @Override
+    public void close() {
+        closeQuietly();
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private void checkNotClosed() {
+        Asserts.that(this.closed)
+                .describedAs("WatchingResourceIndex is already closed: {0}", this.root)
+                .isFalse();
+    }
+
+    private void closeQuietly() {
+        this.closed = true;
+
+        try {
+            // Wakes up the watcher thread with ClosedWatchServiceException.
+            this.watchService.close();
+        } catch (IOException ignored) {
+            // Nothing to do.
+        }
+    }
+
+    /**
+     * Scans the directory and registers directories to be watched.
+     */
+    private void scan(Path directory, Map<Path, DiskFileResource> scanned) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                boolean start = dir.equals(directory);
+                if (!start && !recursive) {
+                    put(dir, scanned);
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                if (!register(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                put(dir, scanned);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                put(file, scanned);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                // File is deleted while scanning.
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void put(Path path, Map<Path, DiskFileResource> resources) {
+        if (!this.filter.test(path)) {
+            return;
+        }
+
+        try {
+            resources.put(path, DiskFileResource.from(path));
+        } catch (IllegalStateException ignored) {
+            // File is deleted while scanning.
+        }
+    }
+
+    /**
+     * @return {@code false} if the directory is deleted
+     */
+    private boolean register(Path directory) throws IOException {
+        WatchKey key = this.watchKeys.get(directory);
+        if (key != null && key.isValid()) {
+            return true;
+        }
+
+        try {
+            key = directory.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+
+        this.watchKeys.put(directory, key);
+        return true;
+    }
+
+    /**
+     * @return whether the index is changed
+     */
+    private boolean update(DiskFileResource resource) {
+        DiskFileResource previous = this.resources.put(resource.getRealPath(), resource);
+
+        // DiskFileResource#equals doesn't tell a file which is rewritten at the same size.
+        return previous == null
+                || previous.isDirectory() != resource.isDirectory()
+                || previous.getSize() != resource.getSize()
+                || !previous.getLastModifiedTime().equals(resource.getLastModifiedTime());
+    }
+
+    private void watch() {
+        long nextReconciliation = System.currentTimeMillis() + this.reconciliationIntervalMillis;
+
+        while (!this.closed) {
+            try {
+                long timeout = Math.max(0, nextReconciliation - System.currentTimeMillis());
+                WatchKey key = this.watchService.poll(timeout, TimeUnit.MILLISECONDS);
+
+                boolean overflow = key != null && !handle(key);
+                if (overflow || System.currentTimeMillis() >= nextReconciliation) {
+                    reconcile();
+                    nextReconciliation = System.currentTimeMillis() + this.reconciliationIntervalMillis;
+                }
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // Recovers from unexpected state with reconciliation soon, but not in a busy loop.
+                nextReconciliation = Math.min(nextReconciliation, System.currentTimeMillis() + RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Applies events of the key to the index.
+     *
+     * @return {@code false} if events are lost, so reconciliation is needed
+     */
+    private boolean handle(WatchKey key) {
+        synchronized (this.lock) {
+            Path directory = (Path) key.watchable();
+
+            boolean intact = true;
+            boolean changed = false;
+            Map<Path, DiskFileResource> created = new HashMap<>();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    intact = false;
+                    continue;
+                }
+
+                Path path = directory.resolve((Path) event.context());
+                if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    changed |= remove(path);
+                } else if (this.recursive && Files.isDirectory(path)) {
+                    try {
+                        // Scans the new directory, whose files may be created before it is registered.
+                        scan(path, created);
+                    } catch (IOException e) {
+                        intact = false;
+                    }
+                } else {
+                    put(path, created);
+                }
+            }
+
+            // Size of directory is changed with its children.
+            put(directory, created);
+
+            for (DiskFileResource resource : created.values()) {
+                changed |= update(resource);
+            }
+
+            if (!key.reset()) {
+                changed |= remove(directory);
+            }
+
+            if (changed) {
+                this.version++;
+            }
+
+            return intact;
+        }
+    }
+
+    /**
+     * Removes the path and its descendants from the index.
+     *
+     * @return whether the index is changed
+     */
+    private boolean remove(Path path) {
+        Map<Path, DiskFileResource> subtree = subtree(path);
+        boolean changed = !subtree.isEmpty();
+        subtree.clear();
+
+        for (Iterator<Map.Entry<Path, WatchKey>> it = this.watchKeys.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, WatchKey> entry = it.next();
+            if (entry.getKey().startsWith(path)) {
+                entry.getValue().cancel();
+                it.remove();
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Returns view of the path and its descendants in the index.
+     */
+    private NavigableMap<Path, DiskFileResource> subtree(Path path) {
+        Path last = path;
+        for (Path key : this.resources.tailMap(path, true).keySet()) {
+            if (!key.startsWith(path)) {
+                break;
+            }
+            last = key;
+        }
+
+        return this.resources.subMap(path, true, last, true);
+    }
+
+    /**
+     * Compares paths by their components, instead of their string.
+     * <p>
+     * For example, {@code a/b/c} precedes {@code a/b-c}, so that descendants of {@code a/b}
+     * are contiguous.
+     */
+    private static int compare(Path path1, Path path2) {
+        int count = Math.min(path1.getNameCount(), path2.getNameCount());
+        for (int i = 0; i < count; i++) {
+            int result = path1.getName(i).compareTo(path2.getName(i));
+            if (result != 0) {
+                return result;
+            }
+        }
+
+        if (path1.getNameCount() != path2.getNameCount()) {
+            return Integer.compare(path1.getNameCount(), path2.getNameCount());
+        }
+
+        // Distinguishes roots such as drive letter on Windows.
+        return path1.compareTo(path2);
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private static final class Snapshot {
+        private final long version;
+
+        private final List<Resource> resources;
+
+        private Snapshot(long version, List<Resource> resources) {
+            this.version = version;
+            this.resources = resources;
+        }
+    }
+
+}
@@ -16,28 +16,42 @@
 
 package io.github.imsejin.common.io.finder;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.DigestAlgorithm;
+import io.github.imsejin.common.io.Resource;
 import io.github.imsejin.common.io.ZipResource;
-import io.github.imsejin.common.util.FilenameUtils;
 
 public class ZipResourceFinder extends ArchiveResourceFinder<ZipResource, ZipArchiveEntry, ZipArchiveInputStream> {
 
-    protected final boolean recursive;
-
-    protected final Predicate<ArchiveEntry> filter;
-
-    protected final Charset charset;
+    /**
+     * Number of threads to inflate entries in parallel.
+     */
+    private int parallelism = 1;
 
     public ZipResourceFinder(boolean recursive) {
         this(recursive, entry -> true, StandardCharsets.UTF_8);
@@ -48,44 +62,191 @@ public class ZipResourceFinder extends ArchiveResourceFinder<ZipResource, ZipArc
     }
 
     public ZipResourceFinder(boolean recursive, Predicate<ArchiveEntry> filter, Charset charset) {
-        this.recursive = recursive;
-        this.filter = filter;
-        this.charset = charset;
+        super(recursive, filter, charset);
+    }
+
+    /**
+     * Sets the number of threads to inflate entries of zip file in parallel.
+     *
+     * <p> If it is greater than 1, entries are listed from the central directory of zip file,
+     * and each of them is read and inflated on its own position of the file by one of the threads,
+     * because entries of zip are compressed independently. Resources are in the order of
+     * the central directory regardless of which thread reads them first.
+     *
+     * <p> Threads are created for each finding and terminated after it.
+     *
+     * @param parallelism number of threads, {@code 1} to read entries sequentially from the stream
+     */
+    public void setParallelism(int parallelism) {
+        Asserts.that(parallelism)
+                .describedAs("ZipResourceFinder.parallelism must be positive, but it is {0}", parallelism)
+                .isPositive();
+
+        this.parallelism = parallelism;
     }
 
     @Override
-    protected ZipArchiveEntry getNextArchiveEntry(ZipArchiveInputStream in) throws IOException {
-        return in.getNextZipEntry();
+    List<Resource> findResources(Path path) throws IOException {
+        if (this.parallelism == 1) {
+            return super.findResources(path);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, getClass().getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (ZipFile zipFile = ZipFile.builder().setPath(path).setCharset(this.charset).get()) {
+            List<Future<List<Resource>>> futures = new ArrayList<>();
+            AtomicBoolean aborted = new AtomicBoolean();
+            boolean completed = false;
+            try {
+                for (ZipArchiveEntry entry : Collections.list(zipFile.getEntries())) {
+                    futures.add(executor.submit(() -> aborted.get()
+                            ? Collections.<Resource>emptyList()
+                            : findResources(zipFile, entry)));
+                }
+
+                List<Resource> resources = new ArrayList<>();
+                for (Future<List<Resource>> future : futures) {
+                    resources.addAll(future.get());
+                }
+
+                completed = true;
+                return resources;
+
+            } finally {
+                // Workers must finish before the zip file is closed. They are not cancelled,
+                // because cancelled worker which is already running still finds resources.
+                aborted.set(!completed);
+                executor.shutdown();
+                awaitTermination(executor);
+
+                if (!completed) {
+                    // Deletes temporary files of the resources which are already found.
+                    for (Future<List<Resource>> future : futures) {
+                        release(future);
+                    }
+                }
+            }
+
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new IOException("Failed to inflate entry of zip", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading archive file: " + path, e);
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Entries are read from the central directory of zip file.
+     */
     @Override
-    protected ZipResource getArchiveResource(ZipArchiveEntry entry, ZipArchiveInputStream in) throws IOException {
-        if (!this.filter.test(entry)) {
-            return null;
+    List<ZipResource> listEntries(Path path) throws IOException {
+        try (ZipFile zipFile = ZipFile.builder().setPath(path).setCharset(this.charset).get()) {
+            List<ZipResource> resources = new ArrayList<>();
+            for (ZipArchiveEntry entry : Collections.list(zipFile.getEntries())) {
+                if (this.filter.test(entry)) {
+                    resources.add(getMetadataResource(entry));
+                }
+            }
+
+            return resources;
+        }
+    }
+
+    private List<Resource> findResources(ZipFile zipFile, ZipArchiveEntry entry) throws IOException {
+        List<Resource> resources = new ArrayList<>();
+        boolean nestable = !entry.isDirectory() && this.recursive;
+        if (!nestable && !this.filter.test(entry)) {
+            return resources;
         }
 
-        String path = entry.getName();
-        String name = FilenameUtils.getName(path);
-        boolean directory = entry.isDirectory();
-        long size = entry.getSize();
-        long modifiedMilliTime = entry.getLastModifiedDate().getTime();
+        // Detects format of the entry on the buffer, and reads it as content if it is not expanded,
+        // so that the entry is inflated only once.
+        try (InputStream in = new BufferedInputStream(zipFile.getInputStream(entry))) {
+            if (nestable && findNestedResources(in, entry.getName(), resources)) {
+                return resources;
+            }
+            if (this.filter.test(entry)) {
+                resources.add(getArchiveResource("", entry, in, null));
+            }
+
+            return resources;
 
-        if (directory) {
-            return new ZipResource(path, name, null, size, true, modifiedMilliTime);
+        } catch (IOException | RuntimeException e) {
+            // Deletes temporary files of the resources in nested archive which are already found.
+            resources.forEach(Resource::close);
+            throw e;
         }
+    }
 
-        byte[] bytes;
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            byte[] buffer = new byte[16384];
-            int offset;
-            while ((offset = in.read(buffer)) != -1) {
-                out.write(buffer, 0, offset);
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
             }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void release(Future<List<Resource>> future) {
+        try {
+            future.get().forEach(Resource::close);
+        } catch (ExecutionException | InterruptedException | RuntimeException ignored) {
+            // Failed worker has already released its resources.
+        }
+    }
 
-            bytes = out.toByteArray();
+    @Override
+    protected ZipArchiveEntry getNextArchiveEntry(ZipArchiveInputStream in) throws IOException {
+        return in.getNextZipEntry();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Only data of entry with method {@code STORED}, whose size is known from its local header, is as-is.
+     */
+    @Override
+    protected long getDataOffset(ZipArchiveInputStream in, ZipArchiveEntry entry) {
+        if (entry.getMethod() != ZipEntry.STORED || entry.getSize() < 0) {
+            return -1;
         }
 
-        return new ZipResource(path, name, new ByteArrayInputStream(bytes), size, false, modifiedMilliTime);
+        return entry.getDataOffset();
+    }
+
+    @Override
+    protected boolean isLink(ZipArchiveEntry entry) {
+        return entry.isUnixSymlink();
+    }
+
+    @Override
+    protected ZipResource createArchiveResource(String path, String name, Supplier<InputStream> inputStreamSupplier,
+            long size, boolean directory, long lastModifiedMilliTime, Map<DigestAlgorithm, String> digests) {
+        return new ZipResource(path, name, inputStreamSupplier, size, directory, lastModifiedMilliTime, digests);
     }
 
     @Override
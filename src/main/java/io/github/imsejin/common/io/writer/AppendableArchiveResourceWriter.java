@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.writer;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.Resource;
+
+/**
+ * Archive resource writer that also appends resources to the existing archive file.
+ *
+ * <p> Entries in the archive are left as they are, so that appending costs
+ * in proportion to the new resources rather than to the size of archive.
+ */
+public abstract class AppendableArchiveResourceWriter extends ArchiveResourceWriter {
+
+    protected AppendableArchiveResourceWriter(int parallelism, Charset charset) {
+        super(parallelism, charset);
+    }
+
+    /**
+     * Appends resources to the existing archive file.
+     *
+     * <p> The archive must not be read or written by others while appending.
+     *
+     * @param path      path of archive file
+     * @param resources resources to append
+     */
+    public void append(Path path, Iterable<? extends Resource> resources) {
+        Asserts.that(path)
+                .describedAs("Invalid path to append resources: {0}", path)
+                .isNotNull()
+                .describedAs("It is not a regular file: {0}", path)
+                .is(Files::isRegularFile);
+        Asserts.that(resources)
+                .describedAs("Invalid resources to append: {0}", resources)
+                .isNotNull();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            append(path, channel, resources);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to append to archive file: " + path, e);
+        }
+    }
+
+    /**
+     * Appends resources to the archive file through its channel.
+     *
+     * @param path      path of archive file
+     * @param channel   channel of archive file, which is readable and writable
+     * @param resources resources to append
+     * @throws IOException if failed to read resource or archive
+     */
+    protected abstract void append(Path path, FileChannel channel, Iterable<? extends Resource> resources)
+            throws IOException;
+
+}
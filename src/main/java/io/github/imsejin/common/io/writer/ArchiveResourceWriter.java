@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.writer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.ArchiveResource;
+import io.github.imsejin.common.io.DiskFileResource;
+import io.github.imsejin.common.io.GzipResource;
+import io.github.imsejin.common.io.Resource;
+
+/**
+ * Resource writer that compresses resources into an archive on multiple threads.
+ *
+ * <p> Threads are created for each writing and terminated after it, so that
+ * the writing never competes with tasks of other executor.
+ */
+public abstract class ArchiveResourceWriter implements ResourceWriter {
+
+    protected final int parallelism;
+
+    protected final Charset charset;
+
+    /**
+     * Function that returns name of entry in archive for resource.
+     */
+    private Function<? super Resource, String> entryNameMapper = Resource::getPath;
+
+    protected ArchiveResourceWriter(int parallelism, Charset charset) {
+        Asserts.that(parallelism)
+                .describedAs("ArchiveResourceWriter.parallelism must be positive, but it is {0}", parallelism)
+                .isPositive();
+        Asserts.that(charset)
+                .describedAs("ArchiveResourceWriter.charset is not allowed to be null")
+                .isNotNull();
+
+        this.parallelism = parallelism;
+        this.charset = charset;
+    }
+
+    /**
+     * Sets function that returns name of entry in archive for resource.
+     * Path of resource is used as it is by default.
+     *
+     * <pre>{@code
+     *     writer.setEntryNameMapper(it -> baseDir.relativize(Paths.get(it.getPath())).toString());
+     * }</pre>
+     *
+     * @param entryNameMapper function that returns name of entry
+     */
+    public void setEntryNameMapper(Function<? super Resource, String> entryNameMapper) {
+        Asserts.that(entryNameMapper)
+                .describedAs("ArchiveResourceWriter.entryNameMapper is not allowed to be null")
+                .isNotNull();
+
+        this.entryNameMapper = entryNameMapper;
+    }
+
+    @Override
+    public void write(Path path, Iterable<? extends Resource> resources) {
+        Asserts.that(path)
+                .describedAs("Invalid path to write resources: {0}", path)
+                .isNotNull()
+                .describedAs("It is a directory: {0}", path)
+                .isNot(Files::isDirectory);
+        Asserts.that(resources)
+                .describedAs("Invalid resources to write: {0}", resources)
+                .isNotNull();
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, getClass().getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(out, resources, executor);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write archive file: " + path, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing archive file: " + path, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns name of entry for resource, whose separators are normalized to {@code /}.
+     * Name of directory ends with {@code /}.
+     *
+     * @param resource resource
+     * @return name of entry
+     */
+    protected String getEntryName(Resource resource) {
+        String name = this.entryNameMapper.apply(resource);
+        Asserts.that(name)
+                .describedAs("Entry name of resource is not allowed to be null or blank: {0}", resource)
+                .isNotNull()
+                .hasText();
+
+        name = name.replace('\\', '/');
+        while (name.startsWith("/")) {
+            name = name.substring(1);
+        }
+
+        // Prevents the archive from escaping the directory where it is extracted into.
+        Asserts.that(name)
+                .describedAs("Entry name of resource is not allowed to contain '..': {0}", name)
+                .isNot(it -> ("/" + it + "/").contains("/../"));
+
+        if (resource.isDirectory() && !name.endsWith("/")) {
+            name += "/";
+        }
+
+        return name;
+    }
+
+    /**
+     * Returns the last modified time of resource, or the current time if it is unknown.
+     *
+     * @param resource resource
+     * @return last modified time in milliseconds
+     * @throws IOException if failed to read attributes of file
+     */
+    protected static long getLastModifiedMilliTime(Resource resource) throws IOException {
+        if (resource instanceof ArchiveResource) {
+            return ((ArchiveResource) resource).getLastModifiedTime().toEpochMilli();
+        }
+        if (resource instanceof GzipResource) {
+            return ((GzipResource) resource).getLastModifiedTime().toEpochMilli();
+        }
+        if (resource instanceof DiskFileResource) {
+            return Files.getLastModifiedTime(((DiskFileResource) resource).getRealPath()).toMillis();
+        }
+
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Returns a new stream of content of resource, which is empty for directory.
+     *
+     * @param resource resource
+     * @return stream of content
+     */
+    protected static InputStream getInputStream(Resource resource) {
+        InputStream in = resource.isDirectory() ? null : resource.getInputStream();
+        return in == null ? new ByteArrayInputStream(new byte[0]) : in;
+    }
+
+    /**
+     * Writes resources into the stream of archive file.
+     *
+     * @param out       stream of archive file
+     * @param resources resources
+     * @param executor  executor that is created for this writing, which can be shut down by this
+     * @throws IOException          if failed to read resource or write archive
+     * @throws InterruptedException if interrupted while waiting for compression
+     */
+    protected abstract void write(OutputStream out, Iterable<? extends Resource> resources, ExecutorService executor)
+            throws IOException, InterruptedException;
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.writer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Output stream that compresses blocks of content into a single gzip member on multiple threads,
+ * in the same way as <a href="https://zlib.net/pigz/">pigz</a>.
+ *
+ * <p> Each block is deflated independently with the last 32 KiB of its preceding block as dictionary,
+ * so that compression ratio is nearly the same as sequential one. Blocks except the last one
+ * end with sync flush on byte boundary, which makes the compressed blocks a valid deflate stream
+ * when they are concatenated. Therefore, any gzip decompressor reads the output.
+ */
+final class ParallelGzipOutputStream extends OutputStream {
+
+    static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final byte[] HEADER = {
+            // ID1, ID2, CM(deflate), FLG, MTIME(unknown), XFL, OS(unknown)
+            0x1F, (byte) 0x8B, 8, 0, 0, 0, 0, 0, 0, (byte) 0xFF,
+    };
+
+    private final OutputStream out;
+
+    private final ExecutorService executor;
+
+    private final int level;
+
+    private final int maxPendingBlockCount;
+
+    /**
+     * Compressed blocks in the order of content, which are written when they are done.
+     */
+    private final Queue<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+    private final CRC32 crc = new CRC32();
+
+    private byte[] block;
+
+    private int blockLength;
+
+    @Nullable
+    private byte[] dictionary;
+
+    private long totalLength;
+
+    private boolean closed;
+
+    /**
+     * @param out         stream to write gzip into
+     * @param executor    executor to compress blocks
+     * @param parallelism number of blocks to be compressed at once
+     * @param blockSize   size of uncompressed block
+     * @param level       compression level of deflate
+     * @throws IOException if failed to write header of gzip
+     */
+    ParallelGzipOutputStream(OutputStream out, ExecutorService executor, int parallelism, int blockSize, int level)
+            throws IOException {
+        this.out = out;
+        this.executor = executor;
+        this.level = level;
+        // Keeps threads busy while the first block in queue is being written.
+        this.maxPendingBlockCount = parallelism * 2;
+        this.block = new byte[blockSize];
+
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream is already closed");
+        }
+
+        this.crc.update(b, off, len);
+        this.totalLength += len;
+
+        while (len > 0) {
+            int length = Math.min(len, this.block.length - this.blockLength);
+            System.arraycopy(b, off, this.block, this.blockLength, length);
+            this.blockLength += length;
+            off += length;
+            len -= length;
+
+            if (this.blockLength == this.block.length) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    /**
+     * Finishes compression and writes trailer of gzip, then closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+
+        try {
+            submitBlock(true);
+            while (!this.pendingBlocks.isEmpty()) {
+                writeFirstBlock();
+            }
+
+            // CRC32 and ISIZE in little endian.
+            writeIntLE(this.crc.getValue());
+            writeIntLE(this.totalLength);
+        } finally {
+            for (Future<byte[]> future : this.pendingBlocks) {
+                future.cancel(true);
+            }
+            this.out.close();
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private void submitBlock(boolean last) throws IOException {
+        byte[] input = Arrays.copyOf(this.block, this.blockLength);
+        byte[] dictionary = this.dictionary;
+        this.pendingBlocks.add(this.executor.submit(() -> deflate(input, dictionary, last)));
+
+        if (input.length >= DICTIONARY_SIZE) {
+            this.dictionary = Arrays.copyOfRange(input, input.length - DICTIONARY_SIZE, input.length);
+        } else if (input.length > 0) {
+            // Joins with the tail of the previous dictionary.
+            byte[] previous = dictionary == null ? new byte[0] : dictionary;
+            int keep = Math.min(previous.length, DICTIONARY_SIZE - input.length);
+            byte[] joined = Arrays.copyOfRange(previous, previous.length - keep, previous.length + input.length);
+            System.arraycopy(input, 0, joined, keep, input.length);
+            this.dictionary = joined;
+        }
+        this.blockLength = 0;
+
+        while (this.pendingBlocks.size() >= this.maxPendingBlockCount) {
+            writeFirstBlock();
+        }
+    }
+
+    private void writeFirstBlock() throws IOException {
+        Future<byte[]> future = this.pendingBlocks.peek();
+        try {
+            byte[] compressed = future.get();
+            this.pendingBlocks.poll();
+            this.out.write(compressed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing gzip");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress block of gzip", e.getCause());
+        }
+    }
+
+    private byte[] deflate(byte[] input, @Nullable byte[] dictionary, boolean last) {
+        Deflater deflater = new Deflater(this.level, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(input);
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(input.length / 2 + 64);
+            byte[] buffer = new byte[16384];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(buffer);
+                    compressed.write(buffer, 0, length);
+                }
+            } else {
+                // Sync flush aligns the end of block to byte boundary without finishing the deflate stream.
+                int length;
+                do {
+                    length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, length);
+                } while (length == buffer.length);
+            }
+
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeIntLE(long value) throws IOException {
+        for (int i = 0; i < 4; i++) {
+            this.out.write((int) (value >>> (i * 8)) & 0xFF);
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.writer;
+
+import java.nio.file.Path;
+
+import io.github.imsejin.common.io.Resource;
+
+public interface ResourceWriter {
+
+    /**
+     * Writes resources into the file, which is overwritten if it exists.
+     *
+     * @param path      path of file to write
+     * @param resources resources to write in order
+     */
+    void write(Path path, Iterable<? extends Resource> resources);
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.writer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.function.Function;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+
+import io.github.imsejin.common.io.Resource;
+
+/**
+ * Writer that writes resources as entries of tar, which is shared by writers of tar and tar.gz.
+ */
+final class TarEntryWriter {
+
+    private final Charset charset;
+
+    /**
+     * Function that returns name of entry for resource.
+     */
+    private final Function<Resource, String> entryNameFunction;
+
+    TarEntryWriter(Charset charset, Function<Resource, String> entryNameFunction) {
+        this.charset = charset;
+        this.entryNameFunction = entryNameFunction;
+    }
+
+    /**
+     * Writes resources as entries of tar into the stream, and closes it.
+     *
+     * @param out       stream to write tar into
+     * @param resources resources
+     * @throws IOException if failed to read resource or write tar
+     */
+    void write(OutputStream out, Iterable<? extends Resource> resources) throws IOException {
+        try (TarArchiveOutputStream tarOut = new TarArchiveOutputStream(out, this.charset.name())) {
+            tarOut.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            tarOut.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+
+            for (Resource resource : resources) {
+                TarArchiveEntry entry = new TarArchiveEntry(this.entryNameFunction.apply(resource));
+                entry.setModTime(ArchiveResourceWriter.getLastModifiedMilliTime(resource));
+
+                if (resource.isDirectory()) {
+                    tarOut.putArchiveEntry(entry);
+                    tarOut.closeArchiveEntry();
+                    continue;
+                }
+
+                entry.setSize(resource.getSize());
+                tarOut.putArchiveEntry(entry);
+                try (InputStream in = ArchiveResourceWriter.getInputStream(resource)) {
+                    byte[] buffer = new byte[16384];
+                    int length;
+                    while ((length = in.read(buffer)) != -1) {
+                        tarOut.write(buffer, 0, length);
+                    }
+                }
+                tarOut.closeArchiveEntry();
+            }
+        }
+    }
+
+}
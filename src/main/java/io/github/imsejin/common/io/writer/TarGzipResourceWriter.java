@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.writer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
+
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.io.Resource;
+
+/**
+ * Resource writer for tar.gz.
+ *
+ * <p> Tar is written sequentially, and gzip compresses blocks of it on multiple threads
+ * into a single gzip member, which is compatible with any gzip decompressor.
+ *
+ * <p> This doesn't support appending, because the end-of-archive marker of tar
+ * cannot be overwritten without decompressing the whole tar.gz.
+ */
+public class TarGzipResourceWriter extends ArchiveResourceWriter {
+
+    private int blockSize = ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE;
+
+    public TarGzipResourceWriter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public TarGzipResourceWriter(int parallelism) {
+        this(parallelism, StandardCharsets.UTF_8);
+    }
+
+    public TarGzipResourceWriter(int parallelism, Charset charset) {
+        super(parallelism, charset);
+    }
+
+    /**
+     * Sets size of uncompressed block which is compressed on a thread.
+     *
+     * <p> Smaller block is compressed with less latency,
+     * but costs more on the boundaries of blocks.
+     *
+     * @param blockSize size of block, which is at least 32 KiB
+     */
+    public void setBlockSize(int blockSize) {
+        Asserts.that(blockSize)
+                .describedAs("TarGzipResourceWriter.blockSize must be at least 32 KiB, but it is {0}", blockSize)
+                .isGreaterThanOrEqualTo(32 * 1024);
+
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    protected void write(OutputStream out, Iterable<? extends Resource> resources, ExecutorService executor)
+            throws IOException {
+        OutputStream gzipOut = new ParallelGzipOutputStream(new BufferedOutputStream(out), executor,
+                this.parallelism, this.blockSize, Deflater.DEFAULT_COMPRESSION);
+
+        new TarEntryWriter(this.charset, this::getEntryName).write(gzipOut, resources);
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.writer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.compress.archivers.tar.TarFile;
+
+import io.github.imsejin.common.io.Resource;
+
+/**
+ * Resource writer for tar.
+ *
+ * <p> Tar is written sequentially, so that this doesn't use threads.
+ * Resources can be appended to the existing tar without rewriting its entries,
+ * because entries are written over the end-of-archive marker.
+ */
+public class TarResourceWriter extends AppendableArchiveResourceWriter {
+
+    public TarResourceWriter() {
+        this(StandardCharsets.UTF_8);
+    }
+
+    public TarResourceWriter(Charset charset) {
+        super(1, charset);
+    }
+
+    @Override
+    protected void write(OutputStream out, Iterable<? extends Resource> resources, ExecutorService executor)
+            throws IOException {
+        new TarEntryWriter(this.charset, this::getEntryName).write(new BufferedOutputStream(out), resources);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Entries are written from the end of the last entry, which overwrites
+     * the end-of-archive marker. Entry whose name is the same as the existing one
+     * is appended as well, and it takes precedence over the existing one on extraction
+     * as {@code tar --append} does.
+     *
+     * <p> Names of entries are validated before writing. If appending is failed,
+     * the end-of-archive marker is written after the existing entries again,
+     * so that the tar is left with only them.
+     */
+    @Override
+    protected void append(Path path, FileChannel channel, Iterable<? extends Resource> resources) throws IOException {
+        for (Resource resource : resources) {
+            getEntryName(resource);
+        }
+
+        long end = 0;
+        try (TarFile tarFile = new TarFile(path, this.charset.name())) {
+            for (TarArchiveEntry entry : tarFile.getEntries()) {
+                long recordSize = TarConstants.DEFAULT_RCDSIZE;
+                long paddedSize = (entry.getSize() + recordSize - 1) / recordSize * recordSize;
+                end = Math.max(end, entry.getDataOffset() + paddedSize);
+            }
+        }
+
+        channel.truncate(end);
+        channel.position(end);
+
+        try {
+            // Closing the stream closes the channel, which is allowed to be closed again.
+            new TarEntryWriter(this.charset, this::getEntryName)
+                    .write(new BufferedOutputStream(Channels.newOutputStream(channel)), resources);
+        } catch (IOException | RuntimeException e) {
+            try (FileChannel restoring = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                restoring.truncate(end);
+
+                // End-of-archive marker consists of two records filled with zero.
+                ByteBuffer marker = ByteBuffer.allocate(TarConstants.DEFAULT_RCDSIZE * 2);
+                while (marker.hasRemaining()) {
+                    restoring.write(marker, end + marker.position());
+                }
+            } catch (IOException ex) {
+                e.addSuppressed(ex);
+            }
+
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,405 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.writer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ZipUtil;
+
+import io.github.imsejin.common.io.Resource;
+
+/**
+ * Appender that writes entries over the central directory of the existing zip
+ * and then rewrites the central directory, leaving the existing entries as they are.
+ *
+ * <p> Entry whose name is the same as the existing one is appended as well, so that every entry
+ * still has its record in the central directory, which streaming readers depend on.
+ *
+ * <p> If appending is failed, {@link #restore()} rewrites the central directory of the existing entries
+ * at its original position, because the new entries have already overwritten it.
+ */
+final class ZipAppender {
+
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034B50;
+
+    private static final int CENTRAL_FILE_HEADER_SIGNATURE = 0x02014B50;
+
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054B50;
+
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064B50;
+
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE = 0x07064B50;
+
+    private static final int LOCAL_FILE_HEADER_LENGTH = 30;
+
+    private static final int CENTRAL_FILE_HEADER_LENGTH = 46;
+
+    private static final int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LENGTH = 56;
+
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH = 20;
+
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    private static final int ZIP64_EXTRA_FIELD_ID = 0x0001;
+
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private static final int ZIP64_MAGIC_SHORT = 0xFFFF;
+
+    /**
+     * Size of content from which local file header reserves zip64 extra field,
+     * which leaves room for deflated data larger than its content.
+     */
+    private static final long ZIP64_SIZE_THRESHOLD = 0xFF000000L;
+
+    private static final int VERSION_DEFAULT = 20;
+
+    private static final int VERSION_ZIP64 = 45;
+
+    private static final int FLAG_UTF8 = 1 << 11;
+
+    private static final int DOS_DIRECTORY_ATTRIBUTE = 0x10;
+
+    private final FileChannel channel;
+
+    private final Charset charset;
+
+    /**
+     * Records of central directory in order of entries.
+     */
+    private final List<byte[]> records = new ArrayList<>();
+
+    private byte[] comment;
+
+    /**
+     * Number of the existing entries.
+     */
+    private int entryCount;
+
+    /**
+     * Offset of the existing central directory.
+     */
+    private long directoryOffset;
+
+    private long position;
+
+    ZipAppender(FileChannel channel, Charset charset) {
+        this.channel = channel;
+        this.charset = charset;
+    }
+
+    /**
+     * Reads the central directory of zip, whose position becomes the start of new entries.
+     *
+     * @throws IOException if failed to read zip or it is not zip
+     */
+    void open() throws IOException {
+        long fileSize = this.channel.size();
+        int tailLength = (int) Math.min(fileSize, END_OF_CENTRAL_DIRECTORY_LENGTH + MAX_COMMENT_LENGTH);
+        ByteBuffer tail = read(fileSize - tailLength, tailLength);
+
+        int index = -1;
+        for (int i = tailLength - END_OF_CENTRAL_DIRECTORY_LENGTH; i >= 0; i--) {
+            if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE
+                    && i + END_OF_CENTRAL_DIRECTORY_LENGTH + Short.toUnsignedInt(tail.getShort(i + 20)) <= tailLength) {
+                index = i;
+                break;
+            }
+        }
+        if (index == -1) {
+            throw new IOException("End of central directory is not found");
+        }
+
+        long endPosition = fileSize - tailLength + index;
+        long directorySize = Integer.toUnsignedLong(tail.getInt(index + 12));
+        long directoryOffset = Integer.toUnsignedLong(tail.getInt(index + 16));
+        this.comment = new byte[Short.toUnsignedInt(tail.getShort(index + 20))];
+        ((Buffer) tail).position(index + END_OF_CENTRAL_DIRECTORY_LENGTH);
+        tail.get(this.comment);
+
+        if (endPosition >= ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH) {
+            ByteBuffer locator = read(endPosition - ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH,
+                    ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH);
+            if (locator.getInt(0) == ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE) {
+                ByteBuffer zip64End = read(locator.getLong(8), ZIP64_END_OF_CENTRAL_DIRECTORY_LENGTH);
+                if (zip64End.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                    throw new IOException("Zip64 end of central directory is corrupted");
+                }
+
+                directorySize = zip64End.getLong(40);
+                directoryOffset = zip64End.getLong(48);
+            }
+        }
+
+        if (directorySize > Integer.MAX_VALUE) {
+            throw new IOException("Central directory is too large: " + directorySize);
+        }
+
+        ByteBuffer directory = read(directoryOffset, (int) directorySize);
+        while (directory.hasRemaining()) {
+            int offset = directory.position();
+            if (directory.remaining() < CENTRAL_FILE_HEADER_LENGTH
+                    || directory.getInt(offset) != CENTRAL_FILE_HEADER_SIGNATURE) {
+                throw new IOException("Central directory is corrupted at: " + (directoryOffset + offset));
+            }
+
+            int recordLength = CENTRAL_FILE_HEADER_LENGTH + Short.toUnsignedInt(directory.getShort(offset + 28))
+                    + Short.toUnsignedInt(directory.getShort(offset + 30))
+                    + Short.toUnsignedInt(directory.getShort(offset + 32));
+
+            byte[] record = new byte[recordLength];
+            directory.get(record);
+            this.records.add(record);
+        }
+
+        this.entryCount = this.records.size();
+        this.directoryOffset = directoryOffset;
+        this.position = directoryOffset;
+    }
+
+    /**
+     * Writes entry of resource, whose data is deflated unless it is directory.
+     *
+     * @param name     name of entry
+     * @param time     last modified time in milliseconds
+     * @param resource resource
+     * @throws IOException if failed to read resource or write zip
+     */
+    void append(String name, long time, Resource resource) throws IOException {
+        byte[] nameBytes = name.getBytes(this.charset);
+        boolean directory = resource.isDirectory();
+        boolean localZip64 = !directory && (resource.getSize() < 0 || resource.getSize() >= ZIP64_SIZE_THRESHOLD);
+        int flags = this.charset.equals(StandardCharsets.UTF_8) ? FLAG_UTF8 : 0;
+        int method = directory ? ZipEntry.STORED : ZipEntry.DEFLATED;
+        byte[] dosTime = ZipUtil.toDosTime(time);
+
+        // Writes local file header, whose CRC and sizes are filled after data is written.
+        long headerOffset = this.position;
+        ByteBuffer header = allocate(LOCAL_FILE_HEADER_LENGTH + nameBytes.length + (localZip64 ? 20 : 0));
+        header.putInt(LOCAL_FILE_HEADER_SIGNATURE)
+                .putShort((short) (localZip64 ? VERSION_ZIP64 : VERSION_DEFAULT))
+                .putShort((short) flags)
+                .putShort((short) method)
+                .put(dosTime)
+                .putInt(0)
+                .putInt(0)
+                .putInt(0)
+                .putShort((short) nameBytes.length)
+                .putShort((short) (localZip64 ? 20 : 0))
+                .put(nameBytes);
+        if (localZip64) {
+            header.putShort((short) ZIP64_EXTRA_FIELD_ID).putShort((short) 16).putLong(0).putLong(0);
+        }
+        write(header);
+
+        CRC32 crc = new CRC32();
+        long size = 0;
+        if (!directory) {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            this.channel.position(this.position);
+
+            // Doesn't close the stream, because it closes the channel.
+            OutputStream out = new DeflaterOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(this.channel)), deflater, 16384);
+            try (InputStream in = ArchiveResourceWriter.getInputStream(resource)) {
+                byte[] buffer = new byte[16384];
+                int length;
+                while ((length = in.read(buffer)) != -1) {
+                    crc.update(buffer, 0, length);
+                    out.write(buffer, 0, length);
+                    size += length;
+                }
+                ((DeflaterOutputStream) out).finish();
+                out.flush();
+            } finally {
+                deflater.end();
+            }
+
+            this.position = this.channel.position();
+        }
+
+        long compressedSize = this.position - headerOffset - header.capacity();
+        if (!localZip64 && (size >= ZIP64_MAGIC || compressedSize >= ZIP64_MAGIC)) {
+            throw new IOException("Entry exceeds 4 GiB unlike size of its resource: " + name);
+        }
+
+        // Fills CRC and sizes in local file header.
+        ByteBuffer sizes = allocate(12)
+                .putInt((int) crc.getValue())
+                .putInt((int) (localZip64 ? ZIP64_MAGIC : compressedSize))
+                .putInt((int) (localZip64 ? ZIP64_MAGIC : size));
+        writeAt(sizes, headerOffset + 14);
+        if (localZip64) {
+            writeAt(allocate(16).putLong(size).putLong(compressedSize),
+                    headerOffset + LOCAL_FILE_HEADER_LENGTH + nameBytes.length + 4);
+        }
+
+        // Keeps record of central directory, which has zip64 extra field only for the overflowed values.
+        boolean sizeOverflowed = size >= ZIP64_MAGIC;
+        boolean compressedSizeOverflowed = compressedSize >= ZIP64_MAGIC;
+        boolean offsetOverflowed = headerOffset >= ZIP64_MAGIC;
+        int extraLength = (sizeOverflowed ? 8 : 0) + (compressedSizeOverflowed ? 8 : 0) + (offsetOverflowed ? 8 : 0);
+        if (extraLength > 0) {
+            extraLength += 4;
+        }
+        int version = localZip64 || extraLength > 0 ? VERSION_ZIP64 : VERSION_DEFAULT;
+
+        ByteBuffer record = allocate(CENTRAL_FILE_HEADER_LENGTH + nameBytes.length + extraLength);
+        record.putInt(CENTRAL_FILE_HEADER_SIGNATURE)
+                .putShort((short) version)
+                .putShort((short) version)
+                .putShort((short) flags)
+                .putShort((short) method)
+                .put(dosTime)
+                .putInt((int) crc.getValue())
+                .putInt((int) (compressedSizeOverflowed ? ZIP64_MAGIC : compressedSize))
+                .putInt((int) (sizeOverflowed ? ZIP64_MAGIC : size))
+                .putShort((short) nameBytes.length)
+                .putShort((short) extraLength)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putInt(directory ? DOS_DIRECTORY_ATTRIBUTE : 0)
+                .putInt((int) (offsetOverflowed ? ZIP64_MAGIC : headerOffset))
+                .put(nameBytes);
+        if (extraLength > 0) {
+            record.putShort((short) ZIP64_EXTRA_FIELD_ID).putShort((short) (extraLength - 4));
+            if (sizeOverflowed) {
+                record.putLong(size);
+            }
+            if (compressedSizeOverflowed) {
+                record.putLong(compressedSize);
+            }
+            if (offsetOverflowed) {
+                record.putLong(headerOffset);
+            }
+        }
+
+        this.records.add(record.array());
+    }
+
+    /**
+     * Writes the central directory after the appended entries, and truncates the rest of zip.
+     *
+     * @throws IOException if failed to write zip
+     */
+    void finish() throws IOException {
+        long directoryOffset = this.position;
+        for (byte[] record : this.records) {
+            write(allocate(record.length).put(record));
+        }
+        long directorySize = this.position - directoryOffset;
+        long entryCount = this.records.size();
+
+        boolean zip64 = entryCount >= ZIP64_MAGIC_SHORT || directorySize >= ZIP64_MAGIC
+                || directoryOffset >= ZIP64_MAGIC;
+        if (zip64) {
+            long zip64EndOffset = this.position;
+            ByteBuffer zip64End = allocate(ZIP64_END_OF_CENTRAL_DIRECTORY_LENGTH
+                    + ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH);
+            zip64End.putInt(ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE)
+                    .putLong(ZIP64_END_OF_CENTRAL_DIRECTORY_LENGTH - 12)
+                    .putShort((short) VERSION_ZIP64)
+                    .putShort((short) VERSION_ZIP64)
+                    .putInt(0)
+                    .putInt(0)
+                    .putLong(entryCount)
+                    .putLong(entryCount)
+                    .putLong(directorySize)
+                    .putLong(directoryOffset);
+            zip64End.putInt(ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE)
+                    .putInt(0)
+                    .putLong(zip64EndOffset)
+                    .putInt(1);
+            write(zip64End);
+        }
+
+        ByteBuffer end = allocate(END_OF_CENTRAL_DIRECTORY_LENGTH + this.comment.length);
+        end.putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) (zip64 ? ZIP64_MAGIC_SHORT : entryCount))
+                .putShort((short) (zip64 ? ZIP64_MAGIC_SHORT : entryCount))
+                .putInt((int) (zip64 ? ZIP64_MAGIC : directorySize))
+                .putInt((int) (zip64 ? ZIP64_MAGIC : directoryOffset))
+                .putShort((short) this.comment.length)
+                .put(this.comment);
+        write(end);
+
+        this.channel.truncate(this.position);
+    }
+
+    /**
+     * Rewrites the central directory of the existing entries at its original position,
+     * which discards the appended entries.
+     *
+     * @throws IOException if failed to write zip
+     */
+    void restore() throws IOException {
+        this.records.subList(this.entryCount, this.records.size()).clear();
+        this.position = this.directoryOffset;
+
+        finish();
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = allocate(length);
+        while (buffer.hasRemaining()) {
+            if (this.channel.read(buffer, offset + buffer.position()) == -1) {
+                throw new IOException("Unexpected end of zip at: " + (offset + buffer.position()));
+            }
+        }
+
+        ((Buffer) buffer).flip();
+        return buffer;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        writeAt(buffer, this.position);
+        this.position += buffer.capacity();
+    }
+
+    private void writeAt(ByteBuffer buffer, long offset) throws IOException {
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer, offset + buffer.position());
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.parallel.InputStreamSupplier;
+
+import io.github.imsejin.common.io.Resource;
+
+/**
+ * Resource writer for zip.
+ *
+ * <p> Each entry is deflated independently on one of threads into a temporary file,
+ * then the entries are gathered into zip in the order of resources.
+ * This uses {@link ParallelScatterZipCreator} of commons-compress.
+ *
+ * <p> Resources can be appended to the existing zip without rewriting its entries,
+ * because only the central directory is rewritten after the new entries.
+ */
+public class ZipResourceWriter extends AppendableArchiveResourceWriter {
+
+    public ZipResourceWriter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ZipResourceWriter(int parallelism) {
+        this(parallelism, StandardCharsets.UTF_8);
+    }
+
+    public ZipResourceWriter(int parallelism, Charset charset) {
+        super(parallelism, charset);
+    }
+
+    @Override
+    protected void write(OutputStream out, Iterable<? extends Resource> resources, ExecutorService executor)
+            throws IOException, InterruptedException {
+        // The creator shuts down executor after writing.
+        ParallelScatterZipCreator creator = new ParallelScatterZipCreator(executor);
+
+        for (Resource resource : resources) {
+            ZipArchiveEntry entry = new ZipArchiveEntry(getEntryName(resource));
+            entry.setMethod(resource.isDirectory() ? ZipEntry.STORED : ZipEntry.DEFLATED);
+            entry.setTime(getLastModifiedMilliTime(resource));
+            if (resource.isDirectory()) {
+                entry.setSize(0);
+                entry.setCrc(0);
+            }
+
+            InputStreamSupplier supplier = () -> getInputStream(resource);
+            creator.addArchiveEntry(entry, supplier);
+        }
+
+        try (ZipArchiveOutputStream zipOut = new ZipArchiveOutputStream(out)) {
+            zipOut.setEncoding(this.charset.name());
+            zipOut.setLevel(Deflater.DEFAULT_COMPRESSION);
+            zipOut.setUseZip64(Zip64Mode.AsNeeded);
+
+            creator.writeTo(zipOut);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new IOException("Failed to compress entry of zip", cause);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Entries are written over the central directory, and then the central directory
+     * is written with the new entries. Entry whose name is the same as the existing one
+     * is appended as well, and it takes precedence over the existing one on extraction
+     * in order. Entries are deflated sequentially.
+     *
+     * <p> Names of entries are validated before writing. If appending is failed,
+     * the central directory of the existing entries is restored, so that the zip is left as it was.
+     */
+    @Override
+    protected void append(Path path, FileChannel channel, Iterable<? extends Resource> resources) throws IOException {
+        List<Resource> resourceList = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (Resource resource : resources) {
+            resourceList.add(resource);
+            names.add(getEntryName(resource));
+        }
+
+        ZipAppender appender = new ZipAppender(channel, this.charset);
+        appender.open();
+
+        try {
+            for (int i = 0; i < resourceList.size(); i++) {
+                Resource resource = resourceList.get(i);
+                appender.append(names.get(i), getLastModifiedMilliTime(resource), resource);
+            }
+
+            appender.finish();
+        } catch (IOException | RuntimeException e) {
+            try {
+                appender.restore();
+            } catch (IOException ex) {
+                e.addSuppressed(ex);
+            }
+
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,492 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.model.graph;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import io.github.imsejin.common.assertion.Asserts;
+
+/**
+ * Immutable snapshot of graph, which stores adjacency in compressed sparse row.
+ *
+ * <p> Vertices are interned to indexes from {@code 0} to {@code vertexSize - 1},
+ * and adjacent vertices of all the vertices are stored in a single {@code int[]}
+ * with offset of each vertex, instead of a set per vertex. Adjacent vertices are
+ * sorted by index, so that {@link Set#contains(Object)} on them is a binary search.
+ *
+ * <p> Graph which is changed while it is frozen, such as concurrent graph, is copied vertex by vertex:
+ * adjacent vertices of each vertex are as of when they are read, and edges to vertices
+ * which are added after all the vertices are read are left out.
+ *
+ * <pre>{@code
+ *     Graph<String> graph = new DirectedGraph<>();
+ *     // ...
+ *     CompactGraph<String> snapshot = graph.freeze();
+ * }</pre>
+ *
+ * @param <E> type of vertex
+ * @see Graph#freeze()
+ */
+public final class CompactGraph<E> implements Graph<E> {
+
+    private final Object[] vertices;
+
+    /**
+     * Open addressing table of vertex, whose slot has its index plus one.
+     */
+    private final int[] table;
+
+    /**
+     * Offsets of adjacent vertices in {@link #adjacentIndexes}, whose length is {@code vertexSize + 1}.
+     */
+    private final int[] offsets;
+
+    private final int[] adjacentIndexes;
+
+    private final int pathLength;
+
+    /**
+     * Reverse index of {@link #offsets} and {@link #adjacentIndexes}, which is built on demand.
+     */
+    private volatile int[][] incomingIndexes;
+
+    public CompactGraph(Graph<E> graph) {
+        Asserts.that(graph)
+                .describedAs("CompactGraph.graph is not allowed to be null")
+                .isNotNull();
+
+        this.vertices = graph.getAllVertices().toArray();
+        this.table = new int[tableSizeFor(this.vertices.length)];
+        for (int i = 0; i < this.vertices.length; i++) {
+            int slot = slotOf(this.vertices[i]);
+            this.table[slot] = i + 1;
+        }
+
+        // Reads adjacency of each vertex only once as a snapshot, so that changes of concurrent graph
+        // between reads don't make the sizes disagree with the adjacent vertices.
+        int vertexSize = this.vertices.length;
+        this.offsets = new int[vertexSize + 1];
+        int[] adjacentIndexes = new int[Math.max(vertexSize, 16)];
+        int position = 0;
+        for (int i = 0; i < vertexSize; i++) {
+            @SuppressWarnings("unchecked")
+            Set<E> adjacentVertices = graph.getAdjacentVertices((E) this.vertices[i]);
+            // Vertex removed after the vertices are read has no adjacent vertices.
+            Object[] snapshot = adjacentVertices == null ? new Object[0] : adjacentVertices.toArray();
+
+            long capacity = (long) position + snapshot.length;
+            Asserts.that(capacity)
+                    .describedAs("CompactGraph cannot have adjacent vertices more than {0}", Integer.MAX_VALUE)
+                    .isLessThanOrEqualTo((long) Integer.MAX_VALUE);
+            if (capacity > adjacentIndexes.length) {
+                adjacentIndexes = Arrays.copyOf(adjacentIndexes,
+                        (int) Math.min(Math.max(capacity, adjacentIndexes.length * 3L / 2), Integer.MAX_VALUE));
+            }
+
+            int start = position;
+            for (Object vertex : snapshot) {
+                @SuppressWarnings("unchecked")
+                int index = indexOf((E) vertex);
+                // Leaves out edge to vertex which is added after the vertices are read.
+                if (index >= 0) {
+                    adjacentIndexes[position++] = index;
+                }
+            }
+
+            Arrays.sort(adjacentIndexes, start, position);
+            this.offsets[i + 1] = position;
+        }
+
+        this.adjacentIndexes = position == adjacentIndexes.length
+                ? adjacentIndexes : Arrays.copyOf(adjacentIndexes, position);
+        this.pathLength = graph.getPathLength();
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean addVertex(E e) {
+        throw new UnsupportedOperationException("CompactGraph is immutable");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeVertex(E e) {
+        throw new UnsupportedOperationException("CompactGraph is immutable");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean addEdge(E e1, E e2) {
+        throw new UnsupportedOperationException("CompactGraph is immutable");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeEdge(E e1, E e2) {
+        throw new UnsupportedOperationException("CompactGraph is immutable");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean addAll(Graph<E> graph) {
+        throw new UnsupportedOperationException("CompactGraph is immutable");
+    }
+
+    @Override
+    public boolean containsVertex(E e) {
+        return indexOf(e) >= 0;
+    }
+
+    @Override
+    public int getVertexSize() {
+        return this.vertices.length;
+    }
+
+    @Override
+    public int getPathLength() {
+        return this.pathLength;
+    }
+
+    /**
+     * Returns unmodifiable set of all the vertices, which iterates them in order of index.
+     *
+     * @return all the vertices
+     */
+    @Override
+    public Set<E> getAllVertices() {
+        return new VertexSet(0, this.vertices.length, null);
+    }
+
+    /**
+     * Returns unmodifiable set of adjacent vertices, which iterates them in order of index.
+     *
+     * @param e vertex
+     * @return adjacent vertices, or {@code null} if the vertex is not in graph
+     */
+    @Override
+    public Set<E> getAdjacentVertices(E e) {
+        int index = indexOf(e);
+        if (index < 0) {
+            return null;
+        }
+
+        return new VertexSet(this.offsets[index], this.offsets[index + 1], this.adjacentIndexes);
+    }
+
+    /**
+     * Returns unmodifiable set of incoming vertices, which iterates them in order of index.
+     *
+     * <p> Reverse index of adjacency is built on the first call, which costs as much as the adjacency.
+     *
+     * @param e vertex
+     * @return incoming vertices, or {@code null} if the vertex is not in graph
+     */
+    @Override
+    public Set<E> getIncomingVertices(E e) {
+        int index = indexOf(e);
+        if (index < 0) {
+            return null;
+        }
+
+        int[][] incomingIndexes = getIncomingIndexes();
+        int[] incomingOffsets = incomingIndexes[0];
+        return new VertexSet(incomingOffsets[index], incomingOffsets[index + 1], incomingIndexes[1]);
+    }
+
+    @Override
+    public int inDegree(E e) {
+        int index = indexOf(e);
+        if (index < 0) {
+            return -1;
+        }
+
+        int[] incomingOffsets = getIncomingIndexes()[0];
+        return incomingOffsets[index + 1] - incomingOffsets[index];
+    }
+
+    /**
+     * Returns itself, because it is already immutable.
+     *
+     * @return this graph
+     */
+    @Override
+    public CompactGraph<E> freeze() {
+        return this;
+    }
+
+    /**
+     * Returns index of the vertex.
+     *
+     * @param e vertex
+     * @return index of the vertex, or {@code -1} if it is not in graph
+     */
+    public int indexOf(E e) {
+        if (e == null) {
+            return -1;
+        }
+
+        int mask = this.table.length - 1;
+        for (int slot = hash(e) & mask; ; slot = (slot + 1) & mask) {
+            int index = this.table[slot] - 1;
+            if (index < 0) {
+                return -1;
+            }
+            if (this.vertices[index].equals(e)) {
+                return index;
+            }
+        }
+    }
+
+    /**
+     * Returns vertex of the index.
+     *
+     * @param index index of vertex
+     * @return vertex
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public E getVertex(int index) {
+        return (E) this.vertices[index];
+    }
+
+    /**
+     * Returns the number of adjacent vertices of the vertex.
+     *
+     * @param index index of vertex
+     * @return the number of adjacent vertices
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public int getAdjacentSize(int index) {
+        return this.offsets[index + 1] - this.offsets[index];
+    }
+
+    /**
+     * Returns index of the n-th adjacent vertex of the vertex,
+     * which lets traversal visit vertices without boxing and iterator.
+     *
+     * @param index index of vertex
+     * @param n     order of adjacent vertex, from {@code 0} to {@code getAdjacentSize(index) - 1}
+     * @return index of adjacent vertex
+     * @throws IndexOutOfBoundsException if index or n is out of range
+     */
+    public int getAdjacentIndex(int index, int n) {
+        int size = getAdjacentSize(index);
+        if (n < 0 || n >= size) {
+            throw new IndexOutOfBoundsException("Index: " + n + ", Size: " + size);
+        }
+
+        return this.adjacentIndexes[this.offsets[index] + n];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("CompactGraph {");
+        if (this.vertices.length == 0) {
+            return sb.append("}").toString();
+        }
+        sb.append('\n');
+
+        for (int i = 0; i < this.vertices.length; i++) {
+            sb.append("  ").append(this.vertices[i]).append(": ")
+                    .append(new VertexSet(this.offsets[i], this.offsets[i + 1], this.adjacentIndexes));
+
+            if (i == this.vertices.length - 1) {
+                sb.append("\n");
+            } else {
+                sb.append(",\n");
+            }
+        }
+
+        return sb.append('}').toString();
+    }
+
+    @Override
+    public int hashCode() {
+        // The same as hash code of map whose key is vertex and value is its adjacent vertices.
+        int hash = 0;
+        for (int i = 0; i < this.vertices.length; i++) {
+            hash += this.vertices[i].hashCode()
+                    ^ new VertexSet(this.offsets[i], this.offsets[i + 1], this.adjacentIndexes).hashCode();
+        }
+
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompactGraph)) {
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        CompactGraph<Object> that = (CompactGraph<Object>) o;
+        if (this.vertices.length != that.vertices.length || this.pathLength != that.pathLength) {
+            return false;
+        }
+
+        for (int i = 0; i < this.vertices.length; i++) {
+            Set<Object> adjacentVertices = that.getAdjacentVertices(this.vertices[i]);
+            if (adjacentVertices == null || !adjacentVertices.equals(
+                    new VertexSet(this.offsets[i], this.offsets[i + 1], this.adjacentIndexes))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns offsets and indexes of incoming vertices, building them on the first call.
+     * Incoming vertices are sorted by index, because vertices are scanned in order of index.
+     */
+    private int[][] getIncomingIndexes() {
+        int[][] incomingIndexes = this.incomingIndexes;
+        if (incomingIndexes != null) {
+            return incomingIndexes;
+        }
+
+        synchronized (this) {
+            if (this.incomingIndexes != null) {
+                return this.incomingIndexes;
+            }
+
+            int vertexSize = this.vertices.length;
+            int[] offsets = new int[vertexSize + 1];
+            for (int index : this.adjacentIndexes) {
+                offsets[index + 1]++;
+            }
+            for (int i = 0; i < vertexSize; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+
+            int[] positions = Arrays.copyOf(offsets, vertexSize);
+            int[] indexes = new int[this.adjacentIndexes.length];
+            for (int i = 0; i < vertexSize; i++) {
+                for (int j = this.offsets[i]; j < this.offsets[i + 1]; j++) {
+                    indexes[positions[this.adjacentIndexes[j]]++] = i;
+                }
+            }
+
+            this.incomingIndexes = new int[][]{offsets, indexes};
+            return this.incomingIndexes;
+        }
+    }
+
+    private static int hash(Object o) {
+        int h = o.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns power of two which keeps load factor of table under 0.5.
+     */
+    private static int tableSizeFor(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size, 1)) << 2;
+        Asserts.that(capacity)
+                .describedAs("CompactGraph cannot have vertices more than {0}", 1 << 29)
+                .isPositive();
+
+        return capacity;
+    }
+
+    /**
+     * Returns empty slot for the vertex to be put into.
+     */
+    private int slotOf(Object vertex) {
+        int mask = this.table.length - 1;
+        int slot = hash(vertex) & mask;
+        while (this.table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Unmodifiable view of vertices whose indexes are in range of array,
+     * or all the vertices if the array is {@code null}.
+     */
+    private final class VertexSet extends AbstractSet<E> {
+        private final int from;
+        private final int to;
+        private final int[] indexes;
+
+        private VertexSet(int from, int to, int[] indexes) {
+            this.from = from;
+            this.to = to;
+            this.indexes = indexes;
+        }
+
+        @Override
+        public int size() {
+            return this.to - this.from;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            int index = indexOf((E) o);
+            if (index < 0) {
+                return false;
+            }
+
+            return this.indexes == null || Arrays.binarySearch(this.indexes, this.from, this.to, index) >= 0;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private int position = from;
+
+                @Override
+                public boolean hasNext() {
+                    return this.position < to;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException("CompactGraph has no more vertices");
+                    }
+
+                    int position = this.position++;
+                    return getVertex(indexes == null ? position : indexes[position]);
+                }
+            };
+        }
+    }
+
+}
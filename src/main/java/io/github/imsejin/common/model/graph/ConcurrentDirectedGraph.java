@@ -0,0 +1,270 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.model.graph;
+
+import java.util.Collections;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe directed graph, which can be built by many threads at the same time.
+ *
+ * <p> Adjacency is stored in {@link ConcurrentHashMap} and its concurrent sets.
+ * Edge is added or removed atomically under one of striped locks for the pair of vertices,
+ * so that edges of different pairs are changed in parallel. There is no lock over the whole graph:
+ * {@link #removeVertex(Object)} marks the vertex as removed, waits for the edges being changed
+ * by passing through the striped locks, and then removes the edges of the vertex one by one.
+ * Adding vertex waits only for removing the same vertex.
+ *
+ * <p> Returned sets are unmodifiable views, which are weakly consistent: they never throw
+ * {@link java.util.ConcurrentModificationException}, but may not reflect the changes
+ * after they are iterated.
+ *
+ * @param <E> type of vertex
+ */
+public class ConcurrentDirectedGraph<E> implements Graph<E> {
+
+    private final ConcurrentMap<E, Set<E>> adjacentVertexMap = new ConcurrentHashMap<>();
+
+    /**
+     * Reverse index of {@link #adjacentVertexMap}, whose value is vertices that have edge to the key.
+     */
+    private final ConcurrentMap<E, Set<E>> incomingVertexMap = new ConcurrentHashMap<>();
+
+    private final LongAdder pathLength = new LongAdder();
+
+    /**
+     * Vertices which are being removed, to which edge cannot be added.
+     */
+    private final Set<E> removedVertices = ConcurrentHashMap.newKeySet();
+
+    private final Object[] edgeLocks = EdgeLocks.create();
+
+    private final Object[] vertexLocks = EdgeLocks.create();
+
+    public ConcurrentDirectedGraph() {
+    }
+
+    public ConcurrentDirectedGraph(Graph<E> graph) {
+        addAll(graph);
+    }
+
+    @Override
+    public boolean addVertex(E e) {
+        if (e == null) {
+            return false;
+        }
+
+        synchronized (EdgeLocks.get(this.vertexLocks, e)) {
+            // Reverse index is put first, so that vertex is visible with it.
+            this.incomingVertexMap.putIfAbsent(e, ConcurrentHashMap.newKeySet());
+            return this.adjacentVertexMap.putIfAbsent(e, ConcurrentHashMap.newKeySet()) == null;
+        }
+    }
+
+    @Override
+    public boolean removeVertex(E e) {
+        if (e == null) {
+            return false;
+        }
+
+        synchronized (EdgeLocks.get(this.vertexLocks, e)) {
+            Set<E> adjacentVertices = this.adjacentVertexMap.get(e);
+            if (adjacentVertices == null) {
+                return false;
+            }
+
+            // Edges which have seen the vertex before it is marked are done after passing through the locks.
+            this.removedVertices.add(e);
+            EdgeLocks.passThrough(this.edgeLocks);
+
+            Set<E> incomingVertices = this.incomingVertexMap.get(e);
+            for (E it : adjacentVertices) {
+                synchronized (EdgeLocks.get(this.edgeLocks, e, it, false)) {
+                    if (adjacentVertices.remove(it)) {
+                        this.incomingVertexMap.get(it).remove(e);
+                        this.pathLength.decrement();
+                    }
+                }
+            }
+            for (E it : incomingVertices) {
+                synchronized (EdgeLocks.get(this.edgeLocks, it, e, false)) {
+                    // Vertex which has been removed at the same time has already removed its edge.
+                    Set<E> v = this.adjacentVertexMap.get(it);
+                    if (v != null && v.remove(e)) {
+                        incomingVertices.remove(it);
+                        this.pathLength.decrement();
+                    }
+                }
+            }
+
+            this.adjacentVertexMap.remove(e);
+            this.incomingVertexMap.remove(e);
+            this.removedVertices.remove(e);
+
+            return true;
+        }
+    }
+
+    @Override
+    public boolean addEdge(E e1, E e2) {
+        if (e1 == null || e2 == null || e1.equals(e2)) {
+            return false;
+        }
+
+        synchronized (EdgeLocks.get(this.edgeLocks, e1, e2, false)) {
+            // Vertices are checked under the lock, which removing vertex passes through after marking it.
+            Set<E> v1 = this.adjacentVertexMap.get(e1);
+            if (v1 == null || !this.adjacentVertexMap.containsKey(e2)
+                    || this.removedVertices.contains(e1) || this.removedVertices.contains(e2)) {
+                return false;
+            }
+
+            if (!v1.add(e2)) {
+                return false;
+            }
+
+            this.incomingVertexMap.get(e2).add(e1);
+            this.pathLength.increment();
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean removeEdge(E e1, E e2) {
+        if (e1 == null || e2 == null || e1.equals(e2)) {
+            return false;
+        }
+
+        synchronized (EdgeLocks.get(this.edgeLocks, e1, e2, false)) {
+            Set<E> v1 = this.adjacentVertexMap.get(e1);
+            if (v1 == null || !this.adjacentVertexMap.containsKey(e2)) {
+                return false;
+            }
+
+            if (!v1.remove(e2)) {
+                return false;
+            }
+
+            this.incomingVertexMap.get(e2).remove(e1);
+            this.pathLength.decrement();
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Graph<E> graph) {
+        Set<E> vertices = graph.getAllVertices();
+
+        // Graph don't need to add the empty one.
+        if (vertices.isEmpty()) {
+            return false;
+        }
+
+        for (E e : vertices) {
+            addVertex(e);
+        }
+        for (E e : vertices) {
+            for (E it : graph.getAdjacentVertices(e)) {
+                addEdge(e, it);
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean containsVertex(E e) {
+        return e != null && this.adjacentVertexMap.containsKey(e);
+    }
+
+    @Override
+    public int getVertexSize() {
+        return this.adjacentVertexMap.size();
+    }
+
+    @Override
+    public int getPathLength() {
+        return this.pathLength.intValue();
+    }
+
+    @Override
+    public Set<E> getAllVertices() {
+        return Collections.unmodifiableSet(this.adjacentVertexMap.keySet());
+    }
+
+    @Override
+    public Set<E> getAdjacentVertices(E e) {
+        Set<E> adjacentVertices = e == null ? null : this.adjacentVertexMap.get(e);
+        return adjacentVertices == null ? null : Collections.unmodifiableSet(adjacentVertices);
+    }
+
+    @Override
+    public Set<E> getIncomingVertices(E e) {
+        Set<E> incomingVertices = e == null ? null : this.incomingVertexMap.get(e);
+        return incomingVertices == null || !containsVertex(e) ? null : Collections.unmodifiableSet(incomingVertices);
+    }
+
+    @Override
+    public int inDegree(E e) {
+        Set<E> incomingVertices = getIncomingVertices(e);
+        return incomingVertices == null ? -1 : incomingVertices.size();
+    }
+
+    @Override
+    public String toString() {
+        Set<Entry<E, Set<E>>> entries = this.adjacentVertexMap.entrySet();
+
+        StringBuilder sb = new StringBuilder("ConcurrentDirectedGraph {");
+        if (entries.isEmpty()) {
+            return sb.append("}").toString();
+        }
+        sb.append('\n');
+
+        for (Entry<E, Set<E>> entry : entries) {
+            sb.append("  ").append(entry.getKey()).append(": ").append(entry.getValue()).append(",\n");
+        }
+        sb.setLength(sb.length() - 2);
+
+        return sb.append("\n}").toString();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(adjacentVertexMap);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConcurrentDirectedGraph)) {
+            return false;
+        }
+
+        ConcurrentDirectedGraph<?> that = (ConcurrentDirectedGraph<?>) o;
+        return this.adjacentVertexMap.equals(that.adjacentVertexMap);
+    }
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.model.graph;
+
+import java.util.Collections;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe undirected graph, which can be built by many threads at the same time.
+ *
+ * <p> Adjacency is stored in {@link ConcurrentHashMap} and its concurrent sets.
+ * Edge is added or removed atomically in both directions under one of striped locks for the pair of vertices,
+ * so that edges of different pairs are changed in parallel. There is no lock over the whole graph:
+ * {@link #removeVertex(Object)} marks the vertex as removed, waits for the edges being changed
+ * by passing through the striped locks, and then removes the edges of the vertex one by one.
+ * Adding vertex waits only for removing the same vertex.
+ *
+ * <p> Returned sets are unmodifiable views, which are weakly consistent: they never throw
+ * {@link java.util.ConcurrentModificationException}, but may not reflect the changes
+ * after they are iterated.
+ *
+ * @param <E> type of vertex
+ */
+public class ConcurrentUndirectedGraph<E> implements Graph<E> {
+
+    private final ConcurrentMap<E, Set<E>> adjacentVertexMap = new ConcurrentHashMap<>();
+
+    private final LongAdder pathLength = new LongAdder();
+
+    /**
+     * Vertices which are being removed, to which edge cannot be added.
+     */
+    private final Set<E> removedVertices = ConcurrentHashMap.newKeySet();
+
+    private final Object[] edgeLocks = EdgeLocks.create();
+
+    private final Object[] vertexLocks = EdgeLocks.create();
+
+    public ConcurrentUndirectedGraph() {
+    }
+
+    public ConcurrentUndirectedGraph(Graph<E> graph) {
+        addAll(graph);
+    }
+
+    @Override
+    public boolean addVertex(E e) {
+        if (e == null) {
+            return false;
+        }
+
+        synchronized (EdgeLocks.get(this.vertexLocks, e)) {
+            return this.adjacentVertexMap.putIfAbsent(e, ConcurrentHashMap.newKeySet()) == null;
+        }
+    }
+
+    @Override
+    public boolean removeVertex(E e) {
+        if (e == null) {
+            return false;
+        }
+
+        synchronized (EdgeLocks.get(this.vertexLocks, e)) {
+            Set<E> adjacentVertices = this.adjacentVertexMap.get(e);
+            if (adjacentVertices == null) {
+                return false;
+            }
+
+            // Edges which have seen the vertex before it is marked are done after passing through the locks.
+            this.removedVertices.add(e);
+            EdgeLocks.passThrough(this.edgeLocks);
+
+            // Adjacency is symmetric, so that only the neighbors have the vertex.
+            for (E it : adjacentVertices) {
+                synchronized (EdgeLocks.get(this.edgeLocks, e, it, true)) {
+                    if (adjacentVertices.remove(it)) {
+                        this.adjacentVertexMap.get(it).remove(e);
+                        this.pathLength.decrement();
+                    }
+                }
+            }
+
+            this.adjacentVertexMap.remove(e);
+            this.removedVertices.remove(e);
+
+            return true;
+        }
+    }
+
+    @Override
+    public boolean addEdge(E e1, E e2) {
+        if (e1 == null || e2 == null || e1.equals(e2)) {
+            return false;
+        }
+
+        synchronized (EdgeLocks.get(this.edgeLocks, e1, e2, true)) {
+            // Vertices are checked under the lock, which removing vertex passes through after marking it.
+            Set<E> v1 = this.adjacentVertexMap.get(e1);
+            Set<E> v2 = this.adjacentVertexMap.get(e2);
+            if (v1 == null || v2 == null || this.removedVertices.contains(e1) || this.removedVertices.contains(e2)) {
+                return false;
+            }
+
+            if (!v1.add(e2)) {
+                return false;
+            }
+
+            v2.add(e1);
+            this.pathLength.increment();
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean removeEdge(E e1, E e2) {
+        if (e1 == null || e2 == null || e1.equals(e2)) {
+            return false;
+        }
+
+        synchronized (EdgeLocks.get(this.edgeLocks, e1, e2, true)) {
+            Set<E> v1 = this.adjacentVertexMap.get(e1);
+            Set<E> v2 = this.adjacentVertexMap.get(e2);
+            if (v1 == null || v2 == null) {
+                return false;
+            }
+
+            if (!v1.remove(e2)) {
+                return false;
+            }
+
+            v2.remove(e1);
+            this.pathLength.decrement();
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Graph<E> graph) {
+        Set<E> vertices = graph.getAllVertices();
+
+        // Graph don't need to add the empty one.
+        if (vertices.isEmpty()) {
+            return false;
+        }
+
+        for (E e : vertices) {
+            addVertex(e);
+        }
+        for (E e : vertices) {
+            for (E it : graph.getAdjacentVertices(e)) {
+                addEdge(e, it);
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean containsVertex(E e) {
+        return e != null && this.adjacentVertexMap.containsKey(e);
+    }
+
+    @Override
+    public int getVertexSize() {
+        return this.adjacentVertexMap.size();
+    }
+
+    @Override
+    public int getPathLength() {
+        return this.pathLength.intValue();
+    }
+
+    @Override
+    public Set<E> getAllVertices() {
+        return Collections.unmodifiableSet(this.adjacentVertexMap.keySet());
+    }
+
+    @Override
+    public Set<E> getAdjacentVertices(E e) {
+        Set<E> adjacentVertices = e == null ? null : this.adjacentVertexMap.get(e);
+        return adjacentVertices == null ? null : Collections.unmodifiableSet(adjacentVertices);
+    }
+
+    @Override
+    public Set<E> getIncomingVertices(E e) {
+        return getAdjacentVertices(e);
+    }
+
+    @Override
+    public int inDegree(E e) {
+        Set<E> adjacentVertices = e == null ? null : this.adjacentVertexMap.get(e);
+        return adjacentVertices == null ? -1 : adjacentVertices.size();
+    }
+
+    @Override
+    public String toString() {
+        Set<Entry<E, Set<E>>> entries = this.adjacentVertexMap.entrySet();
+
+        StringBuilder sb = new StringBuilder("ConcurrentUndirectedGraph {");
+        if (entries.isEmpty()) {
+            return sb.append("}").toString();
+        }
+        sb.append('\n');
+
+        for (Entry<E, Set<E>> entry : entries) {
+            sb.append("  ").append(entry.getKey()).append(": ").append(entry.getValue()).append(",\n");
+        }
+        sb.setLength(sb.length() - 2);
+
+        return sb.append("\n}").toString();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(adjacentVertexMap);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConcurrentUndirectedGraph)) {
+            return false;
+        }
+
+        ConcurrentUndirectedGraph<?> that = (ConcurrentUndirectedGraph<?>) o;
+        return this.adjacentVertexMap.equals(that.adjacentVertexMap);
+    }
+
+}
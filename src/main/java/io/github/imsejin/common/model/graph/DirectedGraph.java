@@ -27,11 +27,19 @@ public class DirectedGraph<E> implements Graph<E> {
 
     private final Map<E, Set<E>> adjacentVertexMap;
 
-    private final Set<Edge<E>> edges;
+    /**
+     * Reverse index of {@link #adjacentVertexMap}, whose value is vertices that have edge to the key.
+     */
+    private final Map<E, Set<E>> incomingVertexMap;
+
+    /**
+     * The number of edges, which is maintained instead of keeping object for each edge.
+     */
+    private int pathLength;
 
     public DirectedGraph() {
         this.adjacentVertexMap = new HashMap<>();
-        this.edges = new HashSet<>();
+        this.incomingVertexMap = new HashMap<>();
     }
 
     public DirectedGraph(Graph<E> graph) {
@@ -46,6 +54,7 @@ public class DirectedGraph<E> implements Graph<E> {
         }
 
         this.adjacentVertexMap.put(e, new HashSet<>());
+        this.incomingVertexMap.put(e, new HashSet<>());
         return true;
     }
 
@@ -55,11 +64,16 @@ public class DirectedGraph<E> implements Graph<E> {
             return false;
         }
 
-        this.adjacentVertexMap.remove(e);
-        for (Set<E> them : this.adjacentVertexMap.values()) {
-            them.remove(e);
+        // Touches only the neighbors instead of all the vertices.
+        Set<E> adjacentVertices = this.adjacentVertexMap.remove(e);
+        for (E it : adjacentVertices) {
+            this.incomingVertexMap.get(it).remove(e);
+        }
+        Set<E> incomingVertices = this.incomingVertexMap.remove(e);
+        for (E it : incomingVertices) {
+            this.adjacentVertexMap.get(it).remove(e);
         }
-        this.edges.removeIf(edge -> edge.vertex1.equals(e) || edge.vertex2.equals(e));
+        this.pathLength -= adjacentVertices.size() + incomingVertices.size();
 
         return true;
     }
@@ -77,13 +91,13 @@ public class DirectedGraph<E> implements Graph<E> {
             return false;
         }
 
-        Edge<E> edge = new Edge<>(e1, e2);
-        if (this.edges.contains(edge)) {
+        // Adjacent vertices answer whether the edge exists.
+        if (!v1.add(e2)) {
             return false;
         }
 
-        v1.add(e2);
-        this.edges.add(edge);
+        this.incomingVertexMap.get(e2).add(e1);
+        this.pathLength++;
 
         return true;
     }
@@ -101,8 +115,10 @@ public class DirectedGraph<E> implements Graph<E> {
             return false;
         }
 
-        v1.remove(e2);
-        this.edges.remove(new Edge<>(e1, e2));
+        if (v1.remove(e2)) {
+            this.incomingVertexMap.get(e2).remove(e1);
+            this.pathLength--;
+        }
 
         return true;
     }
@@ -116,21 +132,15 @@ public class DirectedGraph<E> implements Graph<E> {
             return false;
         }
 
+        // Adds new vertices first, so that edges to them can be added.
         for (E e : vertices) {
-            Set<E> oldbie = this.adjacentVertexMap.get(e);
-            Set<E> newbie = graph.getAdjacentVertices(e);
-
-            if (oldbie == null) {
-                // Adds new vertex and its edges.
-                this.adjacentVertexMap.put(e, newbie);
-            } else {
-                // Adds new edges to the existing vertex.
-                oldbie.addAll(newbie);
-            }
+            addVertex(e);
+        }
 
-            // Adds new edges.
-            for (E it : newbie) {
-                this.edges.add(new Edge<>(e, it));
+        // Adds new edges, which keeps the reverse index and doesn't share the sets with the other graph.
+        for (E e : vertices) {
+            for (E it : graph.getAdjacentVertices(e)) {
+                addEdge(e, it);
             }
         }
 
@@ -149,7 +159,7 @@ public class DirectedGraph<E> implements Graph<E> {
 
     @Override
     public int getPathLength() {
-        return this.edges.size();
+        return this.pathLength;
     }
 
     @Override
@@ -162,6 +172,17 @@ public class DirectedGraph<E> implements Graph<E> {
         return this.adjacentVertexMap.get(e);
     }
 
+    @Override
+    public Set<E> getIncomingVertices(E e) {
+        return this.incomingVertexMap.get(e);
+    }
+
+    @Override
+    public int inDegree(E e) {
+        Set<E> incomingVertices = this.incomingVertexMap.get(e);
+        return incomingVertices == null ? -1 : incomingVertices.size();
+    }
+
     @Override
     public String toString() {
         Set<Entry<E, Set<E>>> entries = this.adjacentVertexMap.entrySet();
@@ -206,41 +227,4 @@ public class DirectedGraph<E> implements Graph<E> {
         return this.adjacentVertexMap.equals(that.adjacentVertexMap);
     }
 
-    // -------------------------------------------------------------------------------------------------
-
-    /**
-     * Edge for directed graph.
-     * <p>
-     * {@link #equals(Object)}
-     *
-     * @param <E> element
-     */
-    private static class Edge<E> {
-        private final E vertex1;
-        private final E vertex2;
-
-        public Edge(E vertex1, E vertex2) {
-            this.vertex1 = vertex1;
-            this.vertex2 = vertex2;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
-            }
-            if (!(o instanceof Edge)) {
-                return false;
-            }
-
-            Edge<?> that = (Edge<?>) o;
-            return this.vertex1.equals(that.vertex1) && this.vertex2.equals(that.vertex2);
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(this.vertex1.hashCode(), this.vertex2.hashCode());
-        }
-    }
-
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.model.graph;
+
+/**
+ * Striped locks for edges and vertices of concurrent graph.
+ *
+ * <p> Pair of vertices is mapped to one of locks, so that changes of the same edge
+ * are serialized while changes of different edges rarely wait for each other.
+ * Removing vertex doesn't hold all the locks at once, but passes through them
+ * to wait for the changes which have seen the vertex before it is marked as removed.
+ */
+final class EdgeLocks {
+
+    private EdgeLocks() {
+    }
+
+    /**
+     * Returns locks as many as power of two over four times the number of processors.
+     *
+     * @return striped locks
+     */
+    static Object[] create() {
+        int size = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors(), 4) * 4 - 1) << 1;
+
+        Object[] locks = new Object[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new Object();
+        }
+
+        return locks;
+    }
+
+    /**
+     * Returns lock for the edge.
+     *
+     * @param locks      striped locks
+     * @param e1         vertex
+     * @param e2         vertex
+     * @param undirected whether the edge is the same regardless of the order of vertices
+     * @return lock for the edge
+     */
+    static Object get(Object[] locks, Object e1, Object e2, boolean undirected) {
+        int h1 = e1.hashCode();
+        int h2 = e2.hashCode();
+
+        int h = undirected ? h1 + h2 : h1 * 31 + h2;
+        h ^= h >>> 16;
+
+        return locks[h & (locks.length - 1)];
+    }
+
+    /**
+     * Returns lock for the vertex.
+     *
+     * @param locks striped locks
+     * @param e     vertex
+     * @return lock for the vertex
+     */
+    static Object get(Object[] locks, Object e) {
+        int h = e.hashCode();
+        h ^= h >>> 16;
+
+        return locks[h & (locks.length - 1)];
+    }
+
+    /**
+     * Acquires and releases the locks one by one, which waits for the changes holding them to be done.
+     *
+     * @param locks striped locks
+     */
+    static void passThrough(Object[] locks) {
+        for (Object lock : locks) {
+            synchronized (lock) {
+                // Nothing to do, because the change which has held the lock is done.
+            }
+        }
+    }
+
+}
@@ -16,6 +16,7 @@
 
 package io.github.imsejin.common.model.graph;
 
+import java.util.HashSet;
 import java.util.Set;
 
 public interface Graph<E> {
@@ -40,4 +41,52 @@ public interface Graph<E> {
 
     Set<E> getAdjacentVertices(E e);
 
+    /**
+     * Returns vertices that have edge to the vertex.
+     * In undirected graph, they are the same as the adjacent vertices.
+     *
+     * <p> This scans adjacent vertices of all the vertices by default,
+     * so graph that keeps incoming vertices should override it.
+     *
+     * @param e vertex
+     * @return incoming vertices, or {@code null} if the vertex is not in graph
+     */
+    default Set<E> getIncomingVertices(E e) {
+        if (!containsVertex(e)) {
+            return null;
+        }
+
+        Set<E> incomingVertices = new HashSet<>();
+        for (E vertex : getAllVertices()) {
+            Set<E> adjacentVertices = getAdjacentVertices(vertex);
+            if (adjacentVertices != null && adjacentVertices.contains(e)) {
+                incomingVertices.add(vertex);
+            }
+        }
+
+        return incomingVertices;
+    }
+
+    /**
+     * Returns the number of vertices that have edge to the vertex.
+     *
+     * @param e vertex
+     * @return the number of incoming vertices, or {@code -1} if the vertex is not in graph
+     */
+    default int inDegree(E e) {
+        Set<E> incomingVertices = getIncomingVertices(e);
+        return incomingVertices == null ? -1 : incomingVertices.size();
+    }
+
+    /**
+     * Returns immutable snapshot of this graph, which takes much less memory
+     * and is traversed faster by storing adjacency in primitive arrays.
+     *
+     * @return immutable snapshot of this graph
+     * @see CompactGraph
+     */
+    default CompactGraph<E> freeze() {
+        return new CompactGraph<>(this);
+    }
+
 }
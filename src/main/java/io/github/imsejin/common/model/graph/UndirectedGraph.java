@@ -27,11 +27,13 @@ public class UndirectedGraph<E> implements Graph<E> {
 
     private final Map<E, Set<E>> adjacentVertexMap;
 
-    private final Set<Edge<E>> edges;
+    /**
+     * The number of edges, which is maintained instead of keeping object for each edge.
+     */
+    private int pathLength;
 
     public UndirectedGraph() {
         this.adjacentVertexMap = new HashMap<>();
-        this.edges = new HashSet<>();
     }
 
     public UndirectedGraph(Graph<E> graph) {
@@ -55,11 +57,12 @@ public class UndirectedGraph<E> implements Graph<E> {
             return false;
         }
 
-        this.adjacentVertexMap.remove(e);
-        for (Set<E> them : this.adjacentVertexMap.values()) {
-            them.remove(e);
+        // Adjacency is symmetric, so that only the neighbors have the vertex.
+        Set<E> adjacentVertices = this.adjacentVertexMap.remove(e);
+        for (E it : adjacentVertices) {
+            this.adjacentVertexMap.get(it).remove(e);
         }
-        this.edges.removeIf(edge -> edge.vertex1.equals(e) || edge.vertex2.equals(e));
+        this.pathLength -= adjacentVertices.size();
 
         return true;
     }
@@ -77,14 +80,13 @@ public class UndirectedGraph<E> implements Graph<E> {
             return false;
         }
 
-        Edge<E> edge = new Edge<>(e1, e2);
-        if (this.edges.contains(edge)) {
+        // Adjacent vertices answer whether the edge exists even if the vertex order is reversed.
+        if (!v1.add(e2)) {
             return false;
         }
 
-        v1.add(e2);
         v2.add(e1);
-        this.edges.add(edge);
+        this.pathLength++;
 
         return true;
     }
@@ -102,9 +104,10 @@ public class UndirectedGraph<E> implements Graph<E> {
             return false;
         }
 
-        v1.remove(e2);
-        v2.remove(e1);
-        this.edges.remove(new Edge<>(e1, e2));
+        if (v1.remove(e2)) {
+            v2.remove(e1);
+            this.pathLength--;
+        }
 
         return true;
     }
@@ -118,21 +121,15 @@ public class UndirectedGraph<E> implements Graph<E> {
             return false;
         }
 
+        // Adds new vertices first, so that edges to them can be added.
         for (E e : vertices) {
-            Set<E> oldbie = this.adjacentVertexMap.get(e);
-            Set<E> newbie = graph.getAdjacentVertices(e);
-
-            if (oldbie == null) {
-                // Adds new vertex and its edges.
-                this.adjacentVertexMap.put(e, newbie);
-            } else {
-                // Adds new edges to the existing vertex.
-                oldbie.addAll(newbie);
-            }
+            addVertex(e);
+        }
 
-            // Adds new edges.
-            for (E it : newbie) {
-                this.edges.add(new Edge<>(e, it));
+        // Adds new edges, which keeps the number of edges and doesn't share the sets with the other graph.
+        for (E e : vertices) {
+            for (E it : graph.getAdjacentVertices(e)) {
+                addEdge(e, it);
             }
         }
 
@@ -151,7 +148,7 @@ public class UndirectedGraph<E> implements Graph<E> {
 
     @Override
     public int getPathLength() {
-        return this.edges.size();
+        return this.pathLength;
     }
 
     @Override
@@ -164,6 +161,17 @@ public class UndirectedGraph<E> implements Graph<E> {
         return this.adjacentVertexMap.get(e);
     }
 
+    @Override
+    public Set<E> getIncomingVertices(E e) {
+        return this.adjacentVertexMap.get(e);
+    }
+
+    @Override
+    public int inDegree(E e) {
+        Set<E> adjacentVertices = this.adjacentVertexMap.get(e);
+        return adjacentVertices == null ? -1 : adjacentVertices.size();
+    }
+
     @Override
     public String toString() {
         Set<Entry<E, Set<E>>> entries = this.adjacentVertexMap.entrySet();
@@ -208,38 +216,4 @@ public class UndirectedGraph<E> implements Graph<E> {
         return this.adjacentVertexMap.equals(that.adjacentVertexMap);
     }
 
-    // -------------------------------------------------------------------------------------------------
-
-    private static class Edge<E> {
-        private final E vertex1;
-        private final E vertex2;
-
-        public Edge(E vertex1, E vertex2) {
-            this.vertex1 = vertex1;
-            this.vertex2 = vertex2;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
-            }
-            if (!(o instanceof Edge)) {
-                return false;
-            }
-
-            Edge<?> that = (Edge<?>) o;
-
-            // Considers as the same even if the vertex order of edge is reversed.
-            return (this.vertex1.equals(that.vertex1) && this.vertex2.equals(that.vertex2)) ||
-                    (this.vertex1.equals(that.vertex2) && this.vertex2.equals(that.vertex1));
-        }
-
-        @Override
-        public int hashCode() {
-            // Considers as the same even if the vertex order of edge is reversed.
-            return Objects.hash(this.vertex1.hashCode() + this.vertex2.hashCode());
-        }
-    }
-
 }
@@ -17,6 +17,8 @@
 package io.github.imsejin.common.model.graph.traverse;
 
 import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -26,6 +28,7 @@ import java.util.Set;
 import java.util.function.Consumer;
 
 import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.model.graph.CompactGraph;
 import io.github.imsejin.common.model.graph.Graph;
 
 public class BreadthFirstIterator<E> implements Iterator<E> {
@@ -37,6 +40,17 @@ public class BreadthFirstIterator<E> implements Iterator<E> {
 
     private final Graph<E> graph;
 
+    /**
+     * Queue of vertex indexes for {@link CompactGraph}, in which each vertex is offered at most once.
+     */
+    private int[] indexQueue;
+
+    private int head;
+
+    private int tail;
+
+    private BitSet visitedIndexes;
+
     public BreadthFirstIterator(Graph<E> graph, E root) {
         Asserts.that(graph)
                 .describedAs("BreadthFirstIterator.graph is not allowed to be null")
@@ -48,11 +62,26 @@ public class BreadthFirstIterator<E> implements Iterator<E> {
                 .is(graph::containsVertex);
 
         this.graph = graph;
-        this.queue.offer(root);
+
+        if (graph instanceof CompactGraph) {
+            CompactGraph<E> compactGraph = (CompactGraph<E>) graph;
+            int index = compactGraph.indexOf(root);
+
+            this.indexQueue = new int[compactGraph.getVertexSize()];
+            this.indexQueue[this.tail++] = index;
+            this.visitedIndexes = new BitSet(compactGraph.getVertexSize());
+            this.visitedIndexes.set(index);
+        } else {
+            this.queue.offer(root);
+        }
     }
 
     @Override
     public boolean hasNext() {
+        if (this.indexQueue != null) {
+            return this.head < this.tail;
+        }
+
         return !this.queue.isEmpty();
     }
 
@@ -62,10 +91,25 @@ public class BreadthFirstIterator<E> implements Iterator<E> {
             throw new NoSuchElementException("BreadthFirstIterator has no more elements");
         }
 
+        if (this.indexQueue != null) {
+            CompactGraph<E> compactGraph = (CompactGraph<E>) this.graph;
+            int index = this.indexQueue[this.head++];
+
+            for (int i = 0, size = compactGraph.getAdjacentSize(index); i < size; i++) {
+                int adjacentIndex = compactGraph.getAdjacentIndex(index, i);
+                if (!this.visitedIndexes.get(adjacentIndex)) {
+                    this.indexQueue[this.tail++] = adjacentIndex;
+                    this.visitedIndexes.set(adjacentIndex);
+                }
+            }
+
+            return compactGraph.getVertex(index);
+        }
+
         E vertex = this.queue.poll();
 
         this.visited.add(vertex);
-        for (E v : this.graph.getAdjacentVertices(vertex)) {
+        for (E v : adjacentVerticesOf(this.graph, vertex)) {
             if (this.visited.contains(v)) {
                 continue;
             }
@@ -86,6 +130,11 @@ public class BreadthFirstIterator<E> implements Iterator<E> {
                 .describedAs("BreadthFirstIterator.root must be in graph as a vertex: '{0}'", root)
                 .is(graph::containsVertex);
 
+        if (graph instanceof CompactGraph) {
+            traverse((CompactGraph<E>) graph, root, consumer);
+            return;
+        }
+
         Set<E> visited = new LinkedHashSet<>();
         Queue<E> queue = new ArrayDeque<>();
 
@@ -100,7 +149,7 @@ public class BreadthFirstIterator<E> implements Iterator<E> {
 
             visited.add(vertex);
             // queue.addAll(graph.getAdjacentVertices(vertex));
-            for (E v : graph.getAdjacentVertices(vertex)) {
+            for (E v : adjacentVerticesOf(graph, vertex)) {
                 if (!visited.contains(v)) {
                     queue.offer(v);
                 }
@@ -108,4 +157,40 @@ public class BreadthFirstIterator<E> implements Iterator<E> {
         }
     }
 
+    /**
+     * Traverses {@link CompactGraph} with indexes of vertices, which marks vertex as visited
+     * when it is offered to the queue. It visits vertices in the same order as the other.
+     */
+    private static <E> void traverse(CompactGraph<E> graph, E root, Consumer<E> consumer) {
+        BitSet visited = new BitSet(graph.getVertexSize());
+        int[] queue = new int[graph.getVertexSize()];
+        int head = 0;
+        int tail = 0;
+
+        int rootIndex = graph.indexOf(root);
+        queue[tail++] = rootIndex;
+        visited.set(rootIndex);
+
+        while (head < tail) {
+            int index = queue[head++];
+            consumer.accept(graph.getVertex(index));
+
+            for (int i = 0, size = graph.getAdjacentSize(index); i < size; i++) {
+                int adjacentIndex = graph.getAdjacentIndex(index, i);
+                if (!visited.get(adjacentIndex)) {
+                    queue[tail++] = adjacentIndex;
+                    visited.set(adjacentIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns adjacent vertices, which are empty if the vertex is removed from concurrent graph.
+     */
+    private static <E> Set<E> adjacentVerticesOf(Graph<E> graph, E vertex) {
+        Set<E> adjacentVertices = graph.getAdjacentVertices(vertex);
+        return adjacentVertices == null ? Collections.emptySet() : adjacentVertices;
+    }
+
 }
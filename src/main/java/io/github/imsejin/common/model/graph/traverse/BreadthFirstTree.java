@@ -0,0 +1,123 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.model.graph.traverse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.imsejin.common.model.graph.CompactGraph;
+
+/**
+ * Result of breadth-first search, which has depth and parent of each vertex
+ * on the shortest path from the root.
+ *
+ * @param <E> type of vertex
+ * @see ParallelBreadthFirstSearch
+ */
+public final class BreadthFirstTree<E> {
+
+    private final CompactGraph<E> graph;
+
+    private final int rootIndex;
+
+    /**
+     * Depths of vertices by index, which is {@code -1} for unreachable vertex.
+     */
+    private final int[] depths;
+
+    /**
+     * Indexes of parents of vertices by index, which is {@code -1} for root and unreachable vertex.
+     */
+    private final int[] parents;
+
+    private final int reachableSize;
+
+    BreadthFirstTree(CompactGraph<E> graph, int rootIndex, int[] depths, int[] parents, int reachableSize) {
+        this.graph = graph;
+        this.rootIndex = rootIndex;
+        this.depths = depths;
+        this.parents = parents;
+        this.reachableSize = reachableSize;
+    }
+
+    public E getRoot() {
+        return this.graph.getVertex(this.rootIndex);
+    }
+
+    /**
+     * Returns the number of vertices reachable from the root, including the root.
+     *
+     * @return the number of reachable vertices
+     */
+    public int getReachableSize() {
+        return this.reachableSize;
+    }
+
+    public boolean isReachable(E e) {
+        return getDepth(e) >= 0;
+    }
+
+    /**
+     * Returns the number of edges on the shortest path from the root to the vertex.
+     *
+     * @param e vertex
+     * @return depth of the vertex, or {@code -1} if it is unreachable or not in graph
+     */
+    public int getDepth(E e) {
+        int index = this.graph.indexOf(e);
+        return index < 0 ? -1 : this.depths[index];
+    }
+
+    /**
+     * Returns the previous vertex on the shortest path from the root to the vertex.
+     *
+     * @param e vertex
+     * @return parent of the vertex, or {@code null} if it is the root, unreachable or not in graph
+     */
+    public E getParent(E e) {
+        int index = this.graph.indexOf(e);
+        if (index < 0 || this.parents[index] < 0) {
+            return null;
+        }
+
+        return this.graph.getVertex(this.parents[index]);
+    }
+
+    /**
+     * Returns the shortest path from the root to the vertex.
+     *
+     * @param e vertex
+     * @return vertices on the path which starts with the root and ends with the vertex,
+     * or empty list if it is unreachable or not in graph
+     */
+    public List<E> getPath(E e) {
+        int index = this.graph.indexOf(e);
+        if (index < 0 || this.depths[index] < 0) {
+            return Collections.emptyList();
+        }
+
+        List<E> path = new ArrayList<>(this.depths[index] + 1);
+        for (int i = index; i >= 0; i = this.parents[i]) {
+            path.add(this.graph.getVertex(i));
+        }
+        Collections.reverse(path);
+
+        return path;
+    }
+
+}
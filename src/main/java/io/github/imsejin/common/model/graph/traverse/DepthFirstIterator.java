@@ -16,6 +16,9 @@
 
 package io.github.imsejin.common.model.graph.traverse;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -25,6 +28,7 @@ import java.util.Stack;
 import java.util.function.Consumer;
 
 import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.model.graph.CompactGraph;
 import io.github.imsejin.common.model.graph.Graph;
 
 public class DepthFirstIterator<E> implements Iterator<E> {
@@ -39,6 +43,22 @@ public class DepthFirstIterator<E> implements Iterator<E> {
 
     private E next;
 
+    /**
+     * Stack of vertex indexes for {@link CompactGraph}, in which each vertex is pushed at most once.
+     */
+    private int[] indexStack;
+
+    /**
+     * Order of the next adjacent vertex to visit, for each vertex in {@link #indexStack}.
+     */
+    private int[] adjacentOrders;
+
+    private int depth;
+
+    private int nextIndex;
+
+    private BitSet visitedIndexes;
+
     public DepthFirstIterator(Graph<E> graph, E root) {
         Asserts.that(graph)
                 .describedAs("DepthFirstIterator.graph is not allowed to be null")
@@ -50,13 +70,29 @@ public class DepthFirstIterator<E> implements Iterator<E> {
                 .is(graph::containsVertex);
 
         this.graph = graph;
+
+        if (graph instanceof CompactGraph) {
+            CompactGraph<E> compactGraph = (CompactGraph<E>) graph;
+
+            this.indexStack = new int[compactGraph.getVertexSize()];
+            this.adjacentOrders = new int[compactGraph.getVertexSize()];
+            this.visitedIndexes = new BitSet(compactGraph.getVertexSize());
+            this.nextIndex = compactGraph.indexOf(root);
+            this.indexStack[this.depth++] = this.nextIndex;
+            return;
+        }
+
         //        this.stack.push(root);
-        this.stack.push(graph.getAdjacentVertices(root).iterator());
+        this.stack.push(adjacentVerticesOf(graph, root).iterator());
         this.next = root;
     }
 
     @Override
     public boolean hasNext() {
+        if (this.indexStack != null) {
+            return this.depth > 0;
+        }
+
         return !this.stack.isEmpty();
     }
 
@@ -83,6 +119,14 @@ public class DepthFirstIterator<E> implements Iterator<E> {
             throw new NoSuchElementException("DepthFirstIterator has no more elements");
         }
 
+        if (this.indexStack != null) {
+            this.visitedIndexes.set(this.nextIndex);
+            E vertex = ((CompactGraph<E>) this.graph).getVertex(this.nextIndex);
+            advanceIndex();
+
+            return vertex;
+        }
+
         try {
             this.visited.add(this.next);
             return this.next;
@@ -108,7 +152,33 @@ public class DepthFirstIterator<E> implements Iterator<E> {
             this.next = neighbors.next();
         } while (this.visited.contains(this.next));
 
-        this.stack.push(this.graph.getAdjacentVertices(this.next).iterator());
+        this.stack.push(adjacentVerticesOf(this.graph, this.next).iterator());
+    }
+
+    private void advanceIndex() {
+        CompactGraph<E> compactGraph = (CompactGraph<E>) this.graph;
+
+        while (this.depth > 0) {
+            int top = this.depth - 1;
+            int index = this.indexStack[top];
+
+            // No more nodes -> back out a level
+            if (this.adjacentOrders[top] == compactGraph.getAdjacentSize(index)) {
+                this.depth--;
+                continue;
+            }
+
+            int adjacentIndex = compactGraph.getAdjacentIndex(index, this.adjacentOrders[top]++);
+            if (!this.visitedIndexes.get(adjacentIndex)) {
+                this.nextIndex = adjacentIndex;
+                this.adjacentOrders[this.depth] = 0;
+                this.indexStack[this.depth++] = adjacentIndex;
+                return;
+            }
+        }
+
+        // All done!
+        this.nextIndex = -1;
     }
 
     public static <E> void traverse(Graph<E> graph, E root, Consumer<E> consumer) {
@@ -121,6 +191,11 @@ public class DepthFirstIterator<E> implements Iterator<E> {
                 .describedAs("DepthFirstIterator.root must be in graph as a vertex: '{0}'", root)
                 .is(graph::containsVertex);
 
+        if (graph instanceof CompactGraph) {
+            traverse((CompactGraph<E>) graph, root, consumer);
+            return;
+        }
+
         Set<E> visited = new LinkedHashSet<>();
         Stack<E> stack = new Stack<>();
 
@@ -134,10 +209,47 @@ public class DepthFirstIterator<E> implements Iterator<E> {
             consumer.accept(vertex);
 
             visited.add(vertex);
-            for (E v : graph.getAdjacentVertices(vertex)) {
+            for (E v : adjacentVerticesOf(graph, vertex)) {
                 stack.push(v);
             }
         }
     }
 
+    /**
+     * Traverses {@link CompactGraph} with indexes of vertices,
+     * which visits vertices in the same order as the other.
+     */
+    private static <E> void traverse(CompactGraph<E> graph, E root, Consumer<E> consumer) {
+        BitSet visited = new BitSet(graph.getVertexSize());
+        int[] stack = new int[Math.max(graph.getVertexSize(), 16)];
+        int size = 0;
+
+        stack[size++] = graph.indexOf(root);
+        while (size > 0) {
+            int index = stack[--size];
+            if (visited.get(index)) {
+                continue;
+            }
+
+            consumer.accept(graph.getVertex(index));
+
+            visited.set(index);
+            int adjacentSize = graph.getAdjacentSize(index);
+            if (size + adjacentSize > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, size + adjacentSize));
+            }
+            for (int i = 0; i < adjacentSize; i++) {
+                stack[size++] = graph.getAdjacentIndex(index, i);
+            }
+        }
+    }
+
+    /**
+     * Returns adjacent vertices, which are empty if the vertex is removed from concurrent graph.
+     */
+    private static <E> Set<E> adjacentVerticesOf(Graph<E> graph, E vertex) {
+        Set<E> adjacentVertices = graph.getAdjacentVertices(vertex);
+        return adjacentVertices == null ? Collections.emptySet() : adjacentVertices;
+    }
+
 }
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.model.graph.traverse;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.github.imsejin.common.annotation.ExcludeFromGeneratedJacocoReport;
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.model.graph.CompactGraph;
+import io.github.imsejin.common.model.graph.Graph;
+
+/**
+ * Level-synchronous breadth-first search on multiple threads.
+ *
+ * <p> Vertices of each level, called frontier, are split into tasks of {@link ForkJoinPool},
+ * which claim their unvisited adjacent vertices on a bitset with compare-and-set
+ * and gather them into the next frontier. Each vertex is claimed by a single task,
+ * so that depth and parent of it are written only once. The next level starts
+ * after all the tasks of the current level are done.
+ *
+ * <p> Graph other than {@link CompactGraph} is frozen before search,
+ * so freeze it in advance when it is searched many times.
+ */
+public final class ParallelBreadthFirstSearch {
+
+    /**
+     * The number of vertices in frontier, under which a task doesn't split.
+     */
+    private static final int SPLIT_THRESHOLD = 1024;
+
+    @ExcludeFromGeneratedJacocoReport
+    private ParallelBreadthFirstSearch() {
+        throw new UnsupportedOperationException(getClass().getName() + " is not allowed to instantiate");
+    }
+
+    /**
+     * Searches the graph from the root on the common pool.
+     *
+     * @param graph graph
+     * @param root  vertex to start from
+     * @param <E>   type of vertex
+     * @return depth and parent of each vertex
+     */
+    public static <E> BreadthFirstTree<E> search(Graph<E> graph, E root) {
+        return search(graph, root, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Searches the graph from the root on the pool.
+     *
+     * @param graph graph
+     * @param root  vertex to start from
+     * @param pool  pool to run tasks of each level
+     * @param <E>   type of vertex
+     * @return depth and parent of each vertex
+     */
+    public static <E> BreadthFirstTree<E> search(Graph<E> graph, E root, ForkJoinPool pool) {
+        Asserts.that(graph)
+                .describedAs("ParallelBreadthFirstSearch.graph is not allowed to be null")
+                .isNotNull();
+        Asserts.that(root)
+                .describedAs("ParallelBreadthFirstSearch.root is not allowed to be null")
+                .isNotNull()
+                .describedAs("ParallelBreadthFirstSearch.root must be in graph as a vertex: '{0}'", root)
+                .is(graph::containsVertex);
+        Asserts.that(pool)
+                .describedAs("ParallelBreadthFirstSearch.pool is not allowed to be null")
+                .isNotNull();
+
+        CompactGraph<E> compactGraph = graph.freeze();
+        int vertexSize = compactGraph.getVertexSize();
+
+        int[] depths = new int[vertexSize];
+        int[] parents = new int[vertexSize];
+        Arrays.fill(depths, -1);
+        Arrays.fill(parents, -1);
+        AtomicLongArray visited = new AtomicLongArray((vertexSize + 63) >>> 6);
+
+        int rootIndex = compactGraph.indexOf(root);
+        claim(visited, rootIndex);
+        depths[rootIndex] = 0;
+
+        int reachableSize = 1;
+        int[] frontier = {rootIndex};
+        for (int depth = 1; frontier.length > 0; depth++) {
+            Level level = new Level(compactGraph, visited, depths, parents, depth);
+            frontier = pool.invoke(new FrontierTask(level, frontier, 0, frontier.length));
+            reachableSize += frontier.length;
+        }
+
+        return new BreadthFirstTree<>(compactGraph, rootIndex, depths, parents, reachableSize);
+    }
+
+    /**
+     * Marks the vertex as visited.
+     *
+     * @return whether the vertex is marked by this call
+     */
+    private static boolean claim(AtomicLongArray visited, int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+
+        long bits;
+        do {
+            bits = visited.get(word);
+            if ((bits & mask) != 0) {
+                return false;
+            }
+        } while (!visited.compareAndSet(word, bits, bits | mask));
+
+        return true;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * State shared by tasks of a level.
+     */
+    private static final class Level {
+        private final CompactGraph<?> graph;
+        private final AtomicLongArray visited;
+        private final int[] depths;
+        private final int[] parents;
+        private final int depth;
+
+        private Level(CompactGraph<?> graph, AtomicLongArray visited, int[] depths, int[] parents, int depth) {
+            this.graph = graph;
+            this.visited = visited;
+            this.depths = depths;
+            this.parents = parents;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * Task that visits adjacent vertices of range of frontier, and returns the ones claimed by it.
+     */
+    @SuppressWarnings("serial")
+    private static final class FrontierTask extends RecursiveTask<int[]> {
+        private final Level level;
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+
+        private FrontierTask(Level level, int[] frontier, int from, int to) {
+            this.level = level;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (this.to - this.from > SPLIT_THRESHOLD) {
+                int middle = (this.from + this.to) >>> 1;
+                FrontierTask left = new FrontierTask(this.level, this.frontier, this.from, middle);
+                FrontierTask right = new FrontierTask(this.level, this.frontier, middle, this.to);
+
+                left.fork();
+                int[] rightVertices = right.compute();
+                int[] leftVertices = left.join();
+
+                int[] vertices = Arrays.copyOf(leftVertices, leftVertices.length + rightVertices.length);
+                System.arraycopy(rightVertices, 0, vertices, leftVertices.length, rightVertices.length);
+                return vertices;
+            }
+
+            CompactGraph<?> graph = this.level.graph;
+            int[] vertices = new int[16];
+            int size = 0;
+
+            for (int i = this.from; i < this.to; i++) {
+                int index = this.frontier[i];
+                for (int j = 0, adjacentSize = graph.getAdjacentSize(index); j < adjacentSize; j++) {
+                    int adjacentIndex = graph.getAdjacentIndex(index, j);
+                    if (!claim(this.level.visited, adjacentIndex)) {
+                        continue;
+                    }
+
+                    this.level.depths[adjacentIndex] = this.level.depth;
+                    this.level.parents[adjacentIndex] = index;
+
+                    if (size == vertices.length) {
+                        vertices = Arrays.copyOf(vertices, size * 2);
+                    }
+                    vertices[size++] = adjacentIndex;
+                }
+            }
+
+            return Arrays.copyOf(vertices, size);
+        }
+    }
+
+}
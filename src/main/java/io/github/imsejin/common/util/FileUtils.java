@@ -18,20 +18,43 @@ package io.github.imsejin.common.util;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemLoopException;
 import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributeView;
+import java.nio.file.attribute.DosFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.jetbrains.annotations.Nullable;
 
 import io.github.imsejin.common.annotation.ExcludeFromGeneratedJacocoReport;
 
-import static java.util.Comparator.*;
 import static java.util.stream.Collectors.*;
 
 /**
@@ -107,6 +130,9 @@ public final class FileUtils {
     /**
      * Deletes all directories and files recursively.
      *
+     * <p> Each directory is deleted right after its entries are deleted while walking the tree,
+     * so this doesn't hold paths of the whole tree in memory.
+     *
      * @param path    path
      * @param options options for visiting paths
      */
@@ -117,15 +143,277 @@ public final class FileUtils {
                 return;
             }
 
-            // Sorts as reverse order to delete directory that contains file.
-            Path[] paths = Files.walk(path, options).sorted(reverseOrder()).toArray(Path[]::new);
+            Set<FileVisitOption> visitOptions = EnumSet.noneOf(FileVisitOption.class);
+            visitOptions.addAll(Arrays.asList(options));
+
+            Files.walkFileTree(path, visitOptions, Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, @Nullable IOException e) throws IOException {
+                    if (e != null) {
+                        throw e;
+                    }
+
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Copies directory and its descendants, or a file.
+     *
+     * <p> Subdirectories are copied in parallel on {@link ForkJoinPool#commonPool()},
+     * and each file is copied by {@link Files#copy(Path, Path, CopyOption...)} with the options.
+     *
+     * <ul>
+     *     <li>{@link StandardCopyOption#REPLACE_EXISTING}: overwrites existing files and merges into existing directories</li>
+     *     <li>{@link StandardCopyOption#COPY_ATTRIBUTES}: copies attributes as {@link Files#copy(Path, Path, CopyOption...)}
+     *     does, such as the last modified time and POSIX permissions. Attributes of directory are copied
+     *     after its entries, so that they are not changed by creating the entries.</li>
+     *     <li>{@link LinkOption#NOFOLLOW_LINKS}: copies symbolic links as they are instead of their targets</li>
+     * </ul>
+     *
+     * <p> When symbolic links are followed, link to a directory being copied is rejected
+     * with {@link FileSystemLoopException}, which would make endless copies.
+     *
+     * @param source  source directory or file
+     * @param target  target, which must not exist unless {@link StandardCopyOption#REPLACE_EXISTING} is given
+     * @param options options for copying
+     */
+    public static void copyRecursively(Path source, Path target, CopyOption... options) {
+        CopyOptions copyOptions = new CopyOptions(options);
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class,
+                    copyOptions.linkOptions);
+            if (!attributes.isDirectory()) {
+                Files.copy(source, target, options);
+                return;
+            }
+
+            ForkJoinPool.commonPool().invoke(new CopyTask(source, target, copyOptions, null, attributes.fileKey()));
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        } catch (UncheckedIOException e) {
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Moves directory and its descendants, or a file.
+     *
+     * <p> This renames the source if possible, which is done at once on the same file store.
+     * Otherwise, it copies the source with its attributes by {@link #copyRecursively(Path, Path, CopyOption...)}
+     * and then deletes the source, unless {@link StandardCopyOption#ATOMIC_MOVE} is given.
+     *
+     * @param source  source directory or file
+     * @param target  target, which must not exist unless {@link StandardCopyOption#REPLACE_EXISTING} is given
+     * @param options options for moving
+     */
+    public static void moveRecursively(Path source, Path target, CopyOption... options) {
+        // Directory can't be renamed to other file system, and moving it creates target before failing.
+        boolean renamable = source.getFileSystem().equals(target.getFileSystem())
+                || !Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS);
+
+        try {
+            if (renamable) {
+                Files.move(source, target, options);
+                return;
+            }
 
-            for (Path p : paths) {
-                Files.delete(p);
+            if (Arrays.asList(options).contains(StandardCopyOption.ATOMIC_MOVE)) {
+                throw new AtomicMoveNotSupportedException(source.toString(), target.toString(),
+                        "Directory cannot be moved to other file system atomically");
+            }
+        } catch (AtomicMoveNotSupportedException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        } catch (DirectoryNotEmptyException e) {
+            // Directory is not empty on the other file store, so it can't be renamed.
+            if (Files.isDirectory(target) || !Files.isDirectory(source)) {
+                throw new RuntimeException(e.getMessage(), e);
             }
         } catch (IOException e) {
             throw new RuntimeException(e.getMessage(), e);
         }
+
+        Set<CopyOption> copyOptions = new HashSet<>(Arrays.asList(options));
+        copyOptions.add(StandardCopyOption.COPY_ATTRIBUTES);
+        copyOptions.add(LinkOption.NOFOLLOW_LINKS);
+
+        copyRecursively(source, target, copyOptions.toArray(new CopyOption[0]));
+        deleteRecursively(source);
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Copies attributes of the source directory to the target,
+     * as {@link Files#copy(Path, Path, CopyOption...)} does with {@link StandardCopyOption#COPY_ATTRIBUTES}.
+     * Only failure to copy the basic attributes is thrown.
+     */
+    private static void copyDirectoryAttributes(Path source, Path target, LinkOption[] linkOptions)
+            throws IOException {
+        // Other attributes than the basic ones can't be given to other file system.
+        if (source.getFileSystem().provider() == target.getFileSystem().provider()) {
+            PosixFileAttributeView sourcePosix = Files.getFileAttributeView(source,
+                    PosixFileAttributeView.class, linkOptions);
+            PosixFileAttributeView targetPosix = Files.getFileAttributeView(target,
+                    PosixFileAttributeView.class, linkOptions);
+            if (sourcePosix != null && targetPosix != null) {
+                PosixFileAttributes attributes = sourcePosix.readAttributes();
+                try {
+                    targetPosix.setOwner(attributes.owner());
+                    targetPosix.setGroup(attributes.group());
+                } catch (IOException ignored) {
+                    // Owner can be changed only by privileged user.
+                }
+                try {
+                    targetPosix.setPermissions(attributes.permissions());
+                } catch (IOException ignored) {
+                    // Permissions are copied as far as possible, like Files.copy does.
+                }
+            }
+
+            DosFileAttributeView sourceDos = Files.getFileAttributeView(source, DosFileAttributeView.class, linkOptions);
+            DosFileAttributeView targetDos = Files.getFileAttributeView(target, DosFileAttributeView.class, linkOptions);
+            if (sourcePosix == null && sourceDos != null && targetDos != null) {
+                DosFileAttributes attributes = sourceDos.readAttributes();
+                try {
+                    targetDos.setArchive(attributes.isArchive());
+                    targetDos.setHidden(attributes.isHidden());
+                    targetDos.setReadOnly(attributes.isReadOnly());
+                    targetDos.setSystem(attributes.isSystem());
+                } catch (IOException ignored) {
+                    // Attributes of DOS are copied as far as possible, like Files.copy does.
+                }
+            }
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class, linkOptions);
+        Files.getFileAttributeView(target, BasicFileAttributeView.class, linkOptions)
+                .setTimes(attributes.lastModifiedTime(), attributes.lastAccessTime(), attributes.creationTime());
+    }
+
+    /**
+     * Options for {@link #copyRecursively(Path, Path, CopyOption...)}.
+     */
+    private static final class CopyOptions {
+        private final CopyOption[] options;
+
+        private final boolean replaceExisting;
+
+        private final boolean copyAttributes;
+
+        private final LinkOption[] linkOptions;
+
+        private CopyOptions(CopyOption... options) {
+            List<CopyOption> list = Arrays.asList(options);
+            this.options = options.clone();
+            this.replaceExisting = list.contains(StandardCopyOption.REPLACE_EXISTING);
+            this.copyAttributes = list.contains(StandardCopyOption.COPY_ATTRIBUTES);
+            this.linkOptions = list.contains(LinkOption.NOFOLLOW_LINKS)
+                    ? new LinkOption[]{LinkOption.NOFOLLOW_LINKS} : new LinkOption[0];
+        }
+    }
+
+    /**
+     * Task that copies entries of directory, and forks tasks for its subdirectories.
+     */
+    @SuppressWarnings("serial")
+    private static final class CopyTask extends RecursiveAction {
+        private final Path source;
+
+        private final Path target;
+
+        private final CopyOptions options;
+
+        /**
+         * Task of the parent directory, or {@code null} if this is the root.
+         */
+        @Nullable
+        private final CopyTask parent;
+
+        /**
+         * Key of the source directory, or {@code null} if it is unavailable.
+         */
+        @Nullable
+        private final Object fileKey;
+
+        private CopyTask(Path source, Path target, CopyOptions options,
+                         @Nullable CopyTask parent, @Nullable Object fileKey) {
+            this.source = source;
+            this.target = target;
+            this.options = options;
+            this.parent = parent;
+            this.fileKey = fileKey;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (!this.options.replaceExisting || !Files.isDirectory(this.target)) {
+                    Files.createDirectory(this.target);
+                }
+
+                List<CopyTask> subtasks = new ArrayList<>();
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(this.source)) {
+                    for (Path child : children) {
+                        Path target = this.target.resolve(child.getFileName().toString());
+                        BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class,
+                                this.options.linkOptions);
+
+                        if (attributes.isDirectory()) {
+                            if (this.options.linkOptions.length == 0 && isAncestor(child, attributes.fileKey())) {
+                                throw new FileSystemLoopException(child.toString());
+                            }
+
+                            CopyTask subtask = new CopyTask(child, target, this.options, this, attributes.fileKey());
+                            subtask.fork();
+                            subtasks.add(subtask);
+                        } else {
+                            Files.copy(child, target, this.options.options);
+                        }
+                    }
+                }
+
+                for (CopyTask subtask : subtasks) {
+                    subtask.join();
+                }
+
+                // Copies attributes of directory at last, because creating entries in it changes
+                // the time, and its permissions may not allow them to be created.
+                if (this.options.copyAttributes) {
+                    copyDirectoryAttributes(this.source, this.target, this.options.linkOptions);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Returns whether the directory is this or ancestor of this, which is reached by symbolic link.
+         */
+        private boolean isAncestor(Path directory, @Nullable Object fileKey) throws IOException {
+            for (CopyTask task = this; task != null; task = task.parent) {
+                boolean same = fileKey != null && task.fileKey != null
+                        ? fileKey.equals(task.fileKey)
+                        : Files.isSameFile(directory, task.source);
+                if (same) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
     }
 
 }
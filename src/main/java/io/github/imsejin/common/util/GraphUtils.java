@@ -0,0 +1,287 @@
+/*
+ * Copyright 2021 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.imsejin.common.annotation.ExcludeFromGeneratedJacocoReport;
+import io.github.imsejin.common.assertion.Asserts;
+import io.github.imsejin.common.model.graph.CompactGraph;
+import io.github.imsejin.common.model.graph.Graph;
+
+/**
+ * Graph utilities
+ *
+ * <p> Edge is regarded as directed from a vertex to its adjacent vertex,
+ * so that each edge of undirected graph is a cycle of two vertices.
+ * Algorithms run in linear time without recursion on {@link Graph#freeze() snapshot} of graph,
+ * so that they don't overflow the stack on deep graph.
+ */
+public final class GraphUtils {
+
+    @ExcludeFromGeneratedJacocoReport
+    private GraphUtils() {
+        throw new UnsupportedOperationException(getClass().getName() + " is not allowed to instantiate");
+    }
+
+    /**
+     * Returns vertices in topological order, in which each vertex comes before its adjacent vertices.
+     * This uses Kahn's algorithm.
+     *
+     * <pre><code>
+     *     // A -&gt; B, A -&gt; C, C -&gt; B
+     *     topologicalSort(graph); // [A, C, B]
+     *
+     *     // A -&gt; B, B -&gt; A
+     *     topologicalSort(graph); // IllegalArgumentException: Graph has a cycle: [A, B, A]
+     * </code></pre>
+     *
+     * @param graph graph
+     * @param <E>   type of vertex
+     * @return vertices in topological order
+     * @throws IllegalArgumentException if graph has a cycle
+     */
+    public static <E> List<E> topologicalSort(Graph<E> graph) {
+        Asserts.that(graph)
+                .describedAs("GraphUtils.graph is not allowed to be null")
+                .isNotNull();
+
+        CompactGraph<E> compactGraph = graph.freeze();
+        int vertexSize = compactGraph.getVertexSize();
+
+        int[] inDegrees = new int[vertexSize];
+        for (int i = 0; i < vertexSize; i++) {
+            for (int j = 0, size = compactGraph.getAdjacentSize(i); j < size; j++) {
+                inDegrees[compactGraph.getAdjacentIndex(i, j)]++;
+            }
+        }
+
+        int[] queue = new int[vertexSize];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < vertexSize; i++) {
+            if (inDegrees[i] == 0) {
+                queue[tail++] = i;
+            }
+        }
+
+        while (head < tail) {
+            int index = queue[head++];
+            for (int j = 0, size = compactGraph.getAdjacentSize(index); j < size; j++) {
+                int adjacentIndex = compactGraph.getAdjacentIndex(index, j);
+                if (--inDegrees[adjacentIndex] == 0) {
+                    queue[tail++] = adjacentIndex;
+                }
+            }
+        }
+
+        if (tail < vertexSize) {
+            throw new IllegalArgumentException("Graph has a cycle: " + findCycle(compactGraph));
+        }
+
+        List<E> vertices = new ArrayList<>(vertexSize);
+        for (int index : queue) {
+            vertices.add(compactGraph.getVertex(index));
+        }
+
+        return vertices;
+    }
+
+    /**
+     * Checks whether the graph has a cycle.
+     *
+     * @param graph graph
+     * @return whether the graph has a cycle
+     */
+    public static boolean hasCycle(Graph<?> graph) {
+        return !findCycle(graph).isEmpty();
+    }
+
+    /**
+     * Returns a cycle in the graph, which starts and ends with the same vertex.
+     *
+     * <pre><code>
+     *     // A -&gt; B, B -&gt; C, C -&gt; A, C -&gt; D
+     *     findCycle(graph); // [A, B, C, A]
+     *
+     *     // A -&gt; B, B -&gt; C
+     *     findCycle(graph); // []
+     * </code></pre>
+     *
+     * @param graph graph
+     * @param <E>   type of vertex
+     * @return vertices on a cycle, or empty list if graph doesn't have any cycle
+     */
+    public static <E> List<E> findCycle(Graph<E> graph) {
+        Asserts.that(graph)
+                .describedAs("GraphUtils.graph is not allowed to be null")
+                .isNotNull();
+
+        CompactGraph<E> compactGraph = graph.freeze();
+        int vertexSize = compactGraph.getVertexSize();
+
+        // Vertex is on the stack if it is visited but not finished.
+        BitSet visited = new BitSet(vertexSize);
+        BitSet finished = new BitSet(vertexSize);
+        int[] stack = new int[vertexSize];
+        int[] adjacentOrders = new int[vertexSize];
+
+        for (int root = 0; root < vertexSize; root++) {
+            if (visited.get(root)) {
+                continue;
+            }
+
+            int depth = 0;
+            stack[depth] = root;
+            adjacentOrders[depth++] = 0;
+            visited.set(root);
+
+            while (depth > 0) {
+                int top = depth - 1;
+                int index = stack[top];
+
+                if (adjacentOrders[top] == compactGraph.getAdjacentSize(index)) {
+                    finished.set(index);
+                    depth--;
+                    continue;
+                }
+
+                int adjacentIndex = compactGraph.getAdjacentIndex(index, adjacentOrders[top]++);
+                if (!visited.get(adjacentIndex)) {
+                    visited.set(adjacentIndex);
+                    stack[depth] = adjacentIndex;
+                    adjacentOrders[depth++] = 0;
+                } else if (!finished.get(adjacentIndex)) {
+                    // Back edge to the vertex on the stack closes a cycle.
+                    int from = top;
+                    while (stack[from] != adjacentIndex) {
+                        from--;
+                    }
+
+                    List<E> cycle = new ArrayList<>(top - from + 2);
+                    for (int i = from; i <= top; i++) {
+                        cycle.add(compactGraph.getVertex(stack[i]));
+                    }
+                    cycle.add(compactGraph.getVertex(adjacentIndex));
+
+                    return cycle;
+                }
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns strongly connected components of the graph, in which every vertex is reachable
+     * from each other. This uses Tarjan's algorithm.
+     *
+     * <p> Components are in reverse topological order, in which each component comes after
+     * the components reachable from it. Vertex on no cycle is a component by itself.
+     *
+     * <pre><code>
+     *     // A -&gt; B, B -&gt; A, B -&gt; C
+     *     getStronglyConnectedComponents(graph); // [[C], [A, B]]
+     * </code></pre>
+     *
+     * @param graph graph
+     * @param <E>   type of vertex
+     * @return strongly connected components
+     */
+    public static <E> List<List<E>> getStronglyConnectedComponents(Graph<E> graph) {
+        Asserts.that(graph)
+                .describedAs("GraphUtils.graph is not allowed to be null")
+                .isNotNull();
+
+        CompactGraph<E> compactGraph = graph.freeze();
+        int vertexSize = compactGraph.getVertexSize();
+
+        // Order of discovery, and the lowest one reachable through the vertices on the component stack.
+        int[] discoveries = new int[vertexSize];
+        int[] lowLinks = new int[vertexSize];
+        Arrays.fill(discoveries, -1);
+
+        BitSet onComponentStack = new BitSet(vertexSize);
+        int[] componentStack = new int[vertexSize];
+        int componentStackSize = 0;
+
+        int[] callStack = new int[vertexSize];
+        int[] adjacentOrders = new int[vertexSize];
+
+        List<List<E>> components = new ArrayList<>();
+        int discovery = 0;
+
+        for (int root = 0; root < vertexSize; root++) {
+            if (discoveries[root] != -1) {
+                continue;
+            }
+
+            int depth = 0;
+            discoveries[root] = lowLinks[root] = discovery++;
+            componentStack[componentStackSize++] = root;
+            onComponentStack.set(root);
+            callStack[depth] = root;
+            adjacentOrders[depth++] = 0;
+
+            while (depth > 0) {
+                int top = depth - 1;
+                int index = callStack[top];
+
+                if (adjacentOrders[top] < compactGraph.getAdjacentSize(index)) {
+                    int adjacentIndex = compactGraph.getAdjacentIndex(index, adjacentOrders[top]++);
+
+                    if (discoveries[adjacentIndex] == -1) {
+                        discoveries[adjacentIndex] = lowLinks[adjacentIndex] = discovery++;
+                        componentStack[componentStackSize++] = adjacentIndex;
+                        onComponentStack.set(adjacentIndex);
+                        callStack[depth] = adjacentIndex;
+                        adjacentOrders[depth++] = 0;
+                    } else if (onComponentStack.get(adjacentIndex)) {
+                        lowLinks[index] = Math.min(lowLinks[index], discoveries[adjacentIndex]);
+                    }
+                    continue;
+                }
+
+                // Returns from the vertex.
+                depth--;
+                if (lowLinks[index] == discoveries[index]) {
+                    List<E> component = new ArrayList<>();
+                    int member;
+                    do {
+                        member = componentStack[--componentStackSize];
+                        onComponentStack.clear(member);
+                        component.add(compactGraph.getVertex(member));
+                    } while (member != index);
+
+                    Collections.reverse(component);
+                    components.add(component);
+                }
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[index]);
+                }
+            }
+        }
+
+        return components;
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.model.graph
+
+import spock.lang.Specification
+
+class CompactGraphSpec extends Specification {
+
+    def "Freezes graph"() {
+        given:
+        def graph = type.newInstance() as Graph<?>
+        vertices.forEach(graph.&addVertex)
+        edges.forEach({ edge -> graph.addEdge(edge[0], edge[1]) })
+
+        when:
+        def compactGraph = graph.freeze()
+
+        then: """
+            1. CompactGraph has the same vertices and pathLength as the graph.
+            2. CompactGraph has the same adjacent vertices as the graph.
+            3. CompactGraph doesn't have vertex that is not in the graph.
+        """
+        compactGraph.vertexSize == graph.vertexSize
+        compactGraph.pathLength == graph.pathLength
+        compactGraph.allVertices == graph.allVertices
+        vertices.every { compactGraph.getAdjacentVertices(it) == graph.getAdjacentVertices(it) }
+        vertices.every { v -> graph.allVertices.every { compactGraph.getAdjacentVertices(v).contains(it) == graph.getAdjacentVertices(v).contains(it) } }
+        vertices.every { compactGraph.getIncomingVertices(it) == graph.getIncomingVertices(it) }
+        vertices.every { compactGraph.inDegree(it) == graph.inDegree(it) }
+        compactGraph.inDegree(Object) == -1
+        compactGraph.getIncomingVertices(Object) == null
+        !compactGraph.containsVertex(null)
+        !compactGraph.containsVertex(Object)
+        compactGraph.getAdjacentVertices(Object) == null
+
+        where:
+        type            | vertices                                         | edges
+        DirectedGraph   | []                                               | []
+        DirectedGraph   | [0, 1, 2, 3, 4, 5]                               | [[0, 1], [1, 2], [2, 3], [3, 4], [4, 0], [5, 0], [5, 1], [5, 2], [5, 3], [5, 4]]
+        DirectedGraph   | [String, Serializable, Comparable, CharSequence] | [[String, Serializable], [String, Comparable], [String, CharSequence]]
+        UndirectedGraph | [false, true]                                    | []
+        UndirectedGraph | [0, 1, 2, 3, 4, 5]                               | [[0, 1], [1, 2], [2, 3], [3, 4], [4, 0], [5, 0], [5, 1], [5, 2], [5, 3], [5, 4]]
+        UndirectedGraph | ["A", "B", "C", "D", "E", "F"]                   | [["A", "B"], ["B", "C"], ["A", "D"], ["D", "E"], ["E", "F"]]
+    }
+
+    def "Accesses vertices with index"() {
+        given:
+        def graph = new DirectedGraph<String>()
+        ["A", "B", "C", "D"].forEach(graph.&addVertex)
+        [["A", "D"], ["A", "B"], ["A", "C"], ["C", "A"]].forEach({ edge -> graph.addEdge(edge[0], edge[1]) })
+
+        when:
+        def compactGraph = graph.freeze()
+        def index = compactGraph.indexOf("A")
+
+        then: """
+            1. Index of vertex is in range of vertexSize, and it points the vertex.
+            2. Adjacent vertices are sorted by index.
+            3. Index of vertex that is not in graph is -1.
+        """
+        (0..<compactGraph.vertexSize).collect(compactGraph.&getVertex) as Set == ["A", "B", "C", "D"] as Set
+        compactGraph.getVertex(index) == "A"
+        compactGraph.getAdjacentSize(index) == 3
+        def adjacentIndexes = (0..<3).collect { compactGraph.getAdjacentIndex(index, it) }
+        adjacentIndexes == adjacentIndexes.sort(false)
+        adjacentIndexes.collect(compactGraph.&getVertex) as Set == ["B", "C", "D"] as Set
+        compactGraph.getAdjacentSize(compactGraph.indexOf("B")) == 0
+        compactGraph.indexOf("E") == -1
+        compactGraph.indexOf(null) == -1
+
+        when:
+        compactGraph.getAdjacentIndex(index, 3)
+
+        then:
+        thrown IndexOutOfBoundsException
+    }
+
+    def "Cannot be modified"() {
+        given:
+        def graph = new UndirectedGraph<String>()
+        ["A", "B"].forEach(graph.&addVertex)
+        graph.addEdge("A", "B")
+        def compactGraph = graph.freeze()
+
+        when:
+        action(compactGraph)
+
+        then:
+        thrown UnsupportedOperationException
+
+        where:
+        action << [
+                { it.addVertex("C") },
+                { it.removeVertex("A") },
+                { it.addEdge("A", "B") },
+                { it.removeEdge("A", "B") },
+                { it.addAll(new UndirectedGraph<String>()) },
+                { it.allVertices.remove("A") },
+                { it.getAdjacentVertices("A").clear() },
+        ]
+    }
+
+    def "Equality and hash code"() {
+        given:
+        def graph = new DirectedGraph<Class<?>>()
+        [String, Serializable, Comparable, CharSequence].forEach(graph.&addVertex)
+        [[String, Serializable], [String, Comparable], [String, CharSequence]].forEach({ edge -> graph.addEdge(edge[0], edge[1]) })
+
+        when:
+        def compactGraph = graph.freeze()
+
+        then: """
+            1. CompactGraph is equal to another snapshot of the same graph.
+            2. CompactGraph is not equal to snapshot of the other graph.
+            3. Snapshot of CompactGraph is itself.
+        """
+        compactGraph == new DirectedGraph<>(graph).freeze()
+        compactGraph.hashCode() == new DirectedGraph<>(graph).freeze().hashCode()
+        compactGraph != new DirectedGraph<>().freeze()
+        compactGraph != new DirectedGraph<>(graph).tap { addEdge(Comparable, CharSequence) }.freeze()
+        compactGraph.freeze().is(compactGraph)
+        compactGraph.toString().startsWith("CompactGraph {\n")
+    }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.model.graph
+
+import io.github.imsejin.common.model.graph.traverse.BreadthFirstIterator
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class ConcurrentDirectedGraphSpec extends Specification {
+
+    private static final int THREADS = 8
+
+    /**
+     * Runs the action on threads at the same time, and waits for them to be done.
+     */
+    private static void runConcurrently(int threads, Closure<?> action) {
+        def executor = Executors.newFixedThreadPool(threads)
+        def start = new CountDownLatch(1)
+        try {
+            def futures = (0..<threads).collect { i -> executor.submit({ start.await(); action(i) }) }
+            start.countDown()
+            futures.each { it.get(30, TimeUnit.SECONDS) }
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    /**
+     * Checks that adjacency, reverse index and pathLength of the graph agree with each other.
+     */
+    private static boolean isConsistent(Graph<Integer> graph) {
+        def vertices = graph.allVertices
+        def edgeCount = vertices.sum(0) { graph.getAdjacentVertices(it).size() }
+
+        graph.pathLength == edgeCount &&
+                vertices.every { v -> graph.getAdjacentVertices(v).every { vertices.contains(it) && graph.getIncomingVertices(it).contains(v) } } &&
+                vertices.every { v -> graph.getIncomingVertices(v).every { vertices.contains(it) && graph.getAdjacentVertices(it).contains(v) } }
+    }
+
+    def "Adds vertices and edges from many threads"() {
+        given:
+        def random = new Random(0)
+        def edges = (0..<20_000).collect { [random.nextInt(1000), random.nextInt(1000)] }
+        def expected = new DirectedGraph<Integer>()
+        (0..<1000).each(expected.&addVertex)
+        edges.each { expected.addEdge(it[0], it[1]) }
+
+        def graph = new ConcurrentDirectedGraph<Integer>()
+
+        when:
+        runConcurrently(THREADS) { int i ->
+            (0..<1000).each(graph.&addVertex)
+            edges.eachWithIndex { edge, j -> if (j % THREADS == i) graph.addEdge(edge[0], edge[1]) }
+        }
+
+        then: """
+            1. ConcurrentDirectedGraph has the same vertices and edges as the one built sequentially.
+            2. Reverse index and pathLength agree with adjacency.
+        """
+        graph.vertexSize == expected.vertexSize
+        graph.pathLength == expected.pathLength
+        (0..<1000).every { graph.getAdjacentVertices(it) == expected.getAdjacentVertices(it) }
+        (0..<1000).every { graph.getIncomingVertices(it) == expected.getIncomingVertices(it) }
+        isConsistent(graph)
+    }
+
+    def "Adds and removes the same edges from many threads"() {
+        given:
+        def graph = new ConcurrentDirectedGraph<Integer>()
+        (0..<20).each(graph.&addVertex)
+
+        when:
+        runConcurrently(THREADS) { int i ->
+            def random = new Random(i)
+            20_000.times {
+                def e1 = random.nextInt(20)
+                def e2 = random.nextInt(20)
+                random.nextBoolean() ? graph.addEdge(e1, e2) : graph.removeEdge(e1, e2)
+            }
+        }
+
+        then:
+        isConsistent(graph)
+    }
+
+    def "Removes vertices while adding edges"() {
+        given:
+        def graph = new ConcurrentDirectedGraph<Integer>()
+        (0..<200).each(graph.&addVertex)
+
+        when:
+        runConcurrently(THREADS) { int i ->
+            def random = new Random(i)
+            if (i == 0) {
+                (0..<200).step(2) { graph.removeVertex(it) }
+            } else {
+                20_000.times { graph.addEdge(random.nextInt(200), random.nextInt(200)) }
+            }
+        }
+
+        then: "ConcurrentDirectedGraph doesn't have edge to the removed vertices"
+        graph.vertexSize == 100
+        (0..<200).step(2).every { !graph.containsVertex(it) }
+        isConsistent(graph)
+    }
+
+    def "Adds and removes vertices and edges from many threads"() {
+        given:
+        def graph = new ConcurrentDirectedGraph<Integer>()
+        (0..<50).each(graph.&addVertex)
+
+        when:
+        runConcurrently(THREADS) { int i ->
+            def random = new Random(i)
+            20_000.times {
+                def e1 = random.nextInt(50)
+                def e2 = random.nextInt(50)
+                switch (random.nextInt(8)) {
+                    case 0: graph.removeVertex(e1); break
+                    case 1: graph.addVertex(e1); break
+                    case 2: graph.removeEdge(e1, e2); break
+                    default: graph.addEdge(e1, e2)
+                }
+            }
+        }
+
+        then: "Adjacency and pathLength agree with each other without lock over the whole graph"
+        isConsistent(graph)
+    }
+
+    def "Traverses while vertices are removed"() {
+        given:
+        def graph = new ConcurrentDirectedGraph<Integer>()
+        (0..<2000).each(graph.&addVertex)
+        (1..<2000).each { graph.addEdge(it - 1, it); graph.addEdge(it, it - 1) }
+
+        when:
+        def visited = []
+        runConcurrently(2) { int i ->
+            if (i == 0) {
+                new BreadthFirstIterator<>(graph, 0).forEachRemaining(visited.&add)
+            } else {
+                (1000..<2000).each(graph.&removeVertex)
+            }
+        }
+
+        then: "Traversal is done without exception"
+        visited.size() >= 1000
+        visited.first() == 0
+    }
+
+    def "Freezes while vertices and edges are changed"() {
+        given:
+        def graph = new ConcurrentDirectedGraph<Integer>()
+        (0..<200).each(graph.&addVertex)
+
+        when:
+        def snapshots = Collections.synchronizedList([])
+        runConcurrently(THREADS) { int i ->
+            def random = new Random(i)
+            if (i == 0) {
+                200.times { snapshots << graph.freeze() }
+            } else {
+                20_000.times {
+                    def e = random.nextInt(400)
+                    switch (random.nextInt(4)) {
+                        case 0: graph.addVertex(e); break
+                        case 1: graph.removeVertex(e); break
+                        default: graph.addEdge(e, random.nextInt(400))
+                    }
+                }
+            }
+        }
+
+        then: "Every snapshot has adjacent vertices only in itself"
+        snapshots.size() == 200
+        snapshots.every { snapshot ->
+            snapshot.allVertices.every { v -> snapshot.getAdjacentVertices(v).every(snapshot.&containsVertex) }
+        }
+        isConsistent(graph)
+    }
+
+    def "Follows contract of graph"() {
+        given:
+        def graph = new ConcurrentDirectedGraph<String>()
+
+        expect: """
+            1. ConcurrentDirectedGraph doesn't allow null or the same vertices.
+            2. ConcurrentDirectedGraph doesn't allow to add edge with vertex that is not added.
+        """
+        !graph.addVertex(null)
+        graph.addVertex("A") && graph.addVertex("B") && !graph.addVertex("A")
+        !graph.addEdge(null, "A") && !graph.addEdge("A", null) && !graph.addEdge("A", "A")
+        !graph.addEdge("A", "C")
+        graph.addEdge("A", "B") && !graph.addEdge("A", "B")
+        graph.addEdge("B", "A")
+        graph.pathLength == 2
+        graph.inDegree("A") == 1 && graph.inDegree("C") == -1
+        graph.getAdjacentVertices("C") == null && graph.getIncomingVertices(null) == null
+        !graph.removeEdge("A", "C") && !graph.removeVertex("C") && !graph.removeVertex(null)
+
+        when:
+        graph.getAdjacentVertices("A").add("C")
+
+        then: "Returned sets are unmodifiable"
+        thrown UnsupportedOperationException
+
+        when:
+        def copy = new ConcurrentDirectedGraph<>(graph)
+        def removed = graph.removeEdge("A", "B")
+
+        then:
+        removed
+        !graph.removeEdge("A", "B")
+        graph.pathLength == 1
+        copy.pathLength == 2
+        copy != graph
+        copy == new ConcurrentDirectedGraph<>(copy)
+        copy.hashCode() == new ConcurrentDirectedGraph<>(copy).hashCode()
+        copy.toString() == "ConcurrentDirectedGraph {\n  A: [B],\n  B: [A]\n}"
+        new ConcurrentDirectedGraph<>().toString() == "ConcurrentDirectedGraph {}"
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.model.graph
+
+import spock.lang.Specification
+
+class DirectedGraphSpec extends Specification {
+
+    def "Gets incoming vertices"() {
+        given:
+        def graph = new DirectedGraph<>() as Graph<?>
+        vertices.forEach(graph.&addVertex)
+        edges.forEach({ edge -> graph.addEdge(edge[0], edge[1]) })
+
+        expect: """
+            1. Incoming vertices of each vertex are the ones that have edge to it.
+            2. DirectedGraph.inDegree is the number of incoming vertices.
+            3. Vertex that is not added doesn't have incoming vertices.
+        """
+        vertices.every { v -> graph.getIncomingVertices(v) == edges.findAll { it[1] == v }.collect { it[0] } as Set }
+        vertices.every { v -> graph.inDegree(v) == edges.count { it[1] == v } }
+        graph.getIncomingVertices(Object) == null
+        graph.inDegree(Object) == -1
+
+        where:
+        vertices                                         | edges
+        [false, true]                                    | []
+        [0, 1, 2, 3, 4, 5]                               | [[0, 1], [1, 2], [2, 3], [3, 4], [4, 0], [5, 0], [5, 1], [5, 2], [5, 3], [5, 4]]
+        ["A", "B", "C", "D", "E", "F"]                   | [["A", "B"], ["B", "C"], ["A", "D"], ["D", "E"], ["E", "F"], ["F", "A"]]
+        [String, Serializable, Comparable, CharSequence] | [[String, Serializable], [String, Comparable], [String, CharSequence]]
+    }
+
+    def "Gets incoming vertices of graph which doesn't override them"() {
+        given:
+        def graph = new AdjacencyOnlyGraph<>() as Graph<?>
+        vertices.forEach(graph.&addVertex)
+        edges.forEach({ edge -> graph.addEdge(edge[0], edge[1]) })
+
+        expect: """
+            1. Graph.getIncomingVertices finds the vertices that have edge to the vertex by default.
+            2. Graph.inDegree is the number of them by default.
+            3. Vertex that is not added doesn't have incoming vertices.
+        """
+        vertices.every { v -> graph.getIncomingVertices(v) == edges.findAll { it[1] == v }.collect { it[0] } as Set }
+        vertices.every { v -> graph.inDegree(v) == edges.count { it[1] == v } }
+        graph.getIncomingVertices(Object) == null
+        graph.inDegree(Object) == -1
+
+        where:
+        vertices                       | edges
+        [false, true]                  | []
+        [0, 1, 2, 3, 4, 5]             | [[0, 1], [1, 2], [2, 3], [3, 4], [4, 0], [5, 0], [5, 1], [5, 2], [5, 3], [5, 4]]
+        ["A", "B", "C", "D", "E", "F"] | [["A", "B"], ["B", "C"], ["A", "D"], ["D", "E"], ["E", "F"], ["F", "A"]]
+    }
+
+    def "Removes vertices"() {
+        given:
+        def graph = new DirectedGraph<>() as Graph<?>
+        vertices.forEach(graph.&addVertex)
+        edges.forEach({ edge -> graph.addEdge(edge[0], edge[1]) })
+
+        expect: """
+            1. DirectedGraph doesn't allow to remove null as vertex.
+            2. DirectedGraph doesn't allow to remove vertex that is not added.
+        """
+        !graph.removeVertex(null)
+        !graph.removeVertex(Object)
+        graph.vertexSize == vertices.size()
+        graph.pathLength == edges.size()
+
+        when:
+        def removed = graph.removeVertex vertex
+
+        then: """
+            1. DirectedGraph removed the vertex and its incoming and outgoing edges.
+            2. Neighbors of the removed vertex don't have it as adjacent or incoming vertex.
+        """
+        removed
+        !graph.containsVertex(vertex)
+        graph.vertexSize == vertices.size() - 1
+        graph.pathLength == edges.count { !it.contains(vertex) }
+        graph.allVertices.every { !graph.getAdjacentVertices(it).contains(vertex) && !graph.getIncomingVertices(it).contains(vertex) }
+        graph.allVertices.every { v -> graph.inDegree(v) == edges.count { it[1] == v && it[0] != vertex } }
+
+        where:
+        vertices                                         | edges                                                                            | vertex
+        [false, true]                                    | [[false, true]]                                                                  | true
+        [0, 1, 2, 3, 4, 5]                               | [[0, 1], [1, 2], [2, 3], [3, 4], [4, 0], [5, 0], [5, 1], [5, 2], [5, 3], [5, 4]] | 0
+        ["A", "B", "C", "D", "E", "F"]                   | [["A", "B"], ["B", "C"], ["A", "D"], ["D", "E"], ["E", "F"], ["F", "A"]]         | "A"
+        [String, Serializable, Comparable, CharSequence] | [[String, Serializable], [String, Comparable], [String, CharSequence]]           | Comparable
+    }
+
+    def "Removes edges"() {
+        given:
+        def graph = new DirectedGraph<String>()
+        ["A", "B", "C"].forEach(graph.&addVertex)
+        [["A", "B"], ["B", "A"], ["C", "A"]].forEach({ edge -> graph.addEdge(edge[0], edge[1]) })
+
+        when:
+        def removed = graph.removeEdge("A", "B")
+
+        then: "Edge of the other direction remains"
+        removed
+        graph.pathLength == 2
+        graph.getAdjacentVertices("A").isEmpty()
+        graph.getIncomingVertices("B").isEmpty()
+        graph.getIncomingVertices("A") == ["B", "C"] as Set
+        graph.inDegree("A") == 2
+    }
+
+    def "Adds the other graph without sharing its adjacency"() {
+        given:
+        def other = new DirectedGraph<String>()
+        ["A", "B", "C"].forEach(other.&addVertex)
+        [["A", "B"], ["B", "C"]].forEach({ edge -> other.addEdge(edge[0], edge[1]) })
+
+        when:
+        def graph = new DirectedGraph<>(other)
+        graph.addEdge("C", "A")
+
+        then: """
+            1. DirectedGraph has the same edges as the other graph.
+            2. Change of DirectedGraph doesn't affect the other graph.
+        """
+        graph.pathLength == 3
+        graph.getIncomingVertices("B") == ["A"] as Set
+        graph.getIncomingVertices("A") == ["C"] as Set
+        other.pathLength == 2
+        other.getAdjacentVertices("C").isEmpty()
+        other.inDegree("A") == 0
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Graph implemented outside of this library, which knows only adjacent vertices.
+     */
+    private static class AdjacencyOnlyGraph<E> implements Graph<E> {
+        @Delegate(excludes = ["getIncomingVertices", "inDegree"], interfaces = false)
+        private final DirectedGraph<E> graph = new DirectedGraph<>()
+    }
+
+}
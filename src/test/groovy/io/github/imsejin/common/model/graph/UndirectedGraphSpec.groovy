@@ -211,6 +211,37 @@ class UndirectedGraphSpec extends Specification {
         [String, Serializable] | [[String, Serializable]]                 || [String, Comparable, CharSequence] | [[String, Comparable], [String, CharSequence]]
     }
 
+    def "Gets incoming vertices"() {
+        given:
+        def graph = new UndirectedGraph<>() as Graph<?>
+        vertices.forEach(graph.&addVertex)
+        edges.forEach({ edge -> graph.addEdge(edge[0], edge[1]) })
+
+        expect: """
+            1. Incoming vertices of each vertex are the same as its adjacent vertices.
+            2. UndirectedGraph.inDegree is the number of adjacent vertices.
+            3. Vertex that is not added doesn't have incoming vertices.
+        """
+        vertices.every { graph.getIncomingVertices(it) == graph.getAdjacentVertices(it) }
+        vertices.every { v -> graph.inDegree(v) == edges.count { it.contains(v) } }
+        graph.getIncomingVertices(Object) == null
+        graph.inDegree(Object) == -1
+
+        when:
+        def vertex = vertices[0]
+        graph.removeVertex vertex
+
+        then: "Neighbors of the removed vertex don't have it as adjacent vertex"
+        graph.allVertices.every { !graph.getAdjacentVertices(it).contains(vertex) }
+        graph.pathLength == edges.count { !it.contains(vertex) }
+
+        where:
+        vertices                                         | edges
+        [false, true]                                    | []
+        [0, 1, 2, 3, 4, 5]                               | [[0, 1], [1, 2], [2, 3], [3, 4], [4, 0], [5, 0], [5, 1], [5, 2], [5, 3], [5, 4]]
+        [String, Serializable, Comparable, CharSequence] | [[String, Serializable], [String, Comparable], [String, CharSequence]]
+    }
+
     def "Equality and hash code"() {
         given:
         def graph = new UndirectedGraph<>() as Graph<?>
@@ -89,4 +89,69 @@ class DepthFirstIteratorSpec extends Specification {
         RandomAccess       | [Iterable, List, AbstractList, Cloneable, Serializable]
     }
 
+    def "Iterate over compact graph"() {
+        given: "Add vertices and its edges"
+        def graph = new UndirectedGraph<>() as Graph<Class<?>>
+        [Iterable, Collection, List, AbstractCollection, AbstractList, ArrayList, RandomAccess, Cloneable, Serializable].forEach(graph.&addVertex)
+        def edges = [[Iterable, Collection], [Collection, List], [Collection, AbstractCollection], [AbstractCollection, AbstractList],
+                     [ArrayList, List], [ArrayList, AbstractList], [ArrayList, RandomAccess], [ArrayList, Cloneable], [ArrayList, Serializable]]
+        edges.forEach(graph.&addEdge)
+        graph = graph.freeze()
+
+        when:
+        def iterator = new DepthFirstIterator<>(graph, root)
+        def vertices = StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED), false).collect toList()
+
+        then:
+        graph.vertexSize == vertices.size()
+        graph.allVertices == vertices as Set
+        root == vertices.first()
+        last.contains vertices.last()
+
+        where:
+        root               | last
+        ArrayList          | [Iterable, List, AbstractList, Cloneable, Serializable, RandomAccess]
+        AbstractList       | [Iterable, AbstractCollection, Cloneable, Serializable, RandomAccess]
+        AbstractCollection | [Iterable, AbstractList, Cloneable, Serializable, RandomAccess]
+        List               | [Iterable, Cloneable, Serializable, RandomAccess]
+        Collection         | [Iterable, List, AbstractCollection, Cloneable, Serializable, RandomAccess]
+        Iterable           | [Cloneable, Serializable, RandomAccess, List, AbstractCollection]
+        Cloneable          | [Iterable, List, AbstractList, Serializable, RandomAccess]
+        Serializable       | [Iterable, List, AbstractList, Cloneable, RandomAccess]
+        RandomAccess       | [Iterable, List, AbstractList, Cloneable, Serializable]
+    }
+
+    def "Traverse compact graph"() {
+        given: "Add vertices and its edges"
+        def graph = new UndirectedGraph<>() as Graph<Class<?>>
+        [Iterable, Collection, List, AbstractCollection, AbstractList, ArrayList, RandomAccess, Cloneable, Serializable].forEach(graph.&addVertex)
+        def edges = [[Iterable, Collection], [Collection, List], [Collection, AbstractCollection], [AbstractCollection, AbstractList],
+                     [ArrayList, List], [ArrayList, AbstractList], [ArrayList, RandomAccess], [ArrayList, Cloneable], [ArrayList, Serializable]]
+        edges.forEach(graph.&addEdge)
+        graph = graph.freeze()
+
+        when:
+        def vertices = []
+        DepthFirstIterator.traverse(graph, root, vertices.&add)
+
+        then:
+        graph.vertexSize == vertices.size()
+        graph.allVertices == vertices as Set
+        root == vertices.first()
+        last.contains vertices.last()
+
+        where:
+        root               | last
+        ArrayList          | [Iterable, List, AbstractList, Cloneable, Serializable, RandomAccess]
+        AbstractList       | [Iterable, AbstractCollection, Cloneable, Serializable, RandomAccess]
+        AbstractCollection | [Iterable, AbstractList, Cloneable, Serializable, RandomAccess]
+        List               | [Iterable, Cloneable, Serializable, RandomAccess]
+        Collection         | [Iterable, List, AbstractCollection, Cloneable, Serializable, RandomAccess]
+        Iterable           | [Cloneable, Serializable, RandomAccess, List, AbstractCollection]
+        Cloneable          | [Iterable, List, AbstractList, Serializable, RandomAccess]
+        Serializable       | [Iterable, List, AbstractList, Cloneable, RandomAccess]
+        RandomAccess       | [Iterable, List, AbstractList, Cloneable, Serializable]
+    }
+
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.model.graph.traverse
+
+import io.github.imsejin.common.model.graph.DirectedGraph
+import io.github.imsejin.common.model.graph.Graph
+import io.github.imsejin.common.model.graph.UndirectedGraph
+import spock.lang.Specification
+
+import java.util.concurrent.ForkJoinPool
+
+class ParallelBreadthFirstSearchSpec extends Specification {
+
+    /**
+     * Returns depths of vertices reachable from the root, by sequential breadth-first search.
+     */
+    private static <E> Map<E, Integer> depthsOf(Graph<E> graph, E root) {
+        def depths = [(root): 0] as Map<E, Integer>
+        def queue = new ArrayDeque<E>([root])
+        while (!queue.isEmpty()) {
+            def vertex = queue.poll()
+            graph.getAdjacentVertices(vertex).each {
+                if (!depths.containsKey(it)) {
+                    depths[it] = depths[vertex] + 1
+                    queue.offer(it)
+                }
+            }
+        }
+        depths
+    }
+
+    def "Searches graph"() {
+        given: "Add vertices and its edges"
+        def graph = new UndirectedGraph<>() as Graph<Class<?>>
+        [Iterable, Collection, List, AbstractCollection, AbstractList, ArrayList, RandomAccess, Cloneable, Serializable].forEach(graph.&addVertex)
+        def edges = [[Iterable, Collection], [Collection, List], [Collection, AbstractCollection], [AbstractCollection, AbstractList],
+                     [ArrayList, List], [ArrayList, AbstractList], [ArrayList, RandomAccess], [ArrayList, Cloneable], [ArrayList, Serializable]]
+        edges.forEach(graph.&addEdge)
+
+        when:
+        def tree = ParallelBreadthFirstSearch.search(graph, root)
+
+        then: """
+            1. All the vertices are reachable from the root.
+            2. Depth of each vertex is the number of edges on the shortest path.
+            3. Parent of each vertex is adjacent to it, and one level closer to the root.
+        """
+        tree.root == root
+        tree.reachableSize == graph.vertexSize
+        tree.getDepth(root) == 0
+        tree.getParent(root) == null
+        tree.getDepth(Iterable) == depthOfIterable
+        graph.allVertices.every { tree.getDepth(it) == depthsOf(graph, root)[it] }
+        graph.allVertices.findAll { it != root }.every {
+            def parent = tree.getParent(it)
+            graph.getAdjacentVertices(parent).contains(it) && tree.getDepth(parent) == tree.getDepth(it) - 1
+        }
+        tree.getPath(Iterable).first() == root
+        tree.getPath(Iterable).last() == Iterable
+        tree.getPath(Iterable).size() == depthOfIterable + 1
+
+        where:
+        root               | depthOfIterable
+        ArrayList          | 3
+        AbstractList       | 3
+        AbstractCollection | 2
+        Iterable           | 0
+        Cloneable          | 4
+    }
+
+    def "Searches large graph on multiple threads"() {
+        given:
+        def random = new Random(seed)
+        def graph = new DirectedGraph<Integer>()
+        (0..<vertexSize).each(graph.&addVertex)
+        (vertexSize * 4).times { graph.addEdge(random.nextInt(vertexSize), random.nextInt(vertexSize)) }
+        def pool = new ForkJoinPool(4)
+
+        when:
+        def tree = ParallelBreadthFirstSearch.search(graph.freeze(), 0, pool)
+
+        then: "Depths are the same as the ones of sequential search"
+        def expected = depthsOf(graph, 0)
+        tree.reachableSize == expected.size()
+        (0..<vertexSize).every { tree.getDepth(it) == expected.getOrDefault(it, -1) }
+        (1..<vertexSize).every { !tree.isReachable(it) || tree.getDepth(tree.getParent(it)) == tree.getDepth(it) - 1 }
+
+        cleanup:
+        pool.shutdown()
+
+        where:
+        seed | vertexSize
+        0    | 10_000
+        1    | 50_000
+    }
+
+    def "Cannot reach vertices against direction of edges"() {
+        given:
+        def graph = new DirectedGraph<String>()
+        ["A", "B", "C", "D"].forEach(graph.&addVertex)
+        [["A", "B"], ["B", "C"], ["D", "A"]].forEach({ edge -> graph.addEdge(edge[0], edge[1]) })
+
+        when:
+        def tree = ParallelBreadthFirstSearch.search(graph, "A")
+
+        then:
+        tree.reachableSize == 3
+        tree.getPath("C") == ["A", "B", "C"]
+        !tree.isReachable("D")
+        tree.getDepth("D") == -1
+        tree.getParent("D") == null
+        tree.getPath("D").isEmpty()
+        tree.getDepth("E") == -1
+    }
+
+    def "Throws exception with invalid arguments"() {
+        given:
+        def graph = new DirectedGraph<String>()
+        graph.addVertex("A")
+
+        when:
+        ParallelBreadthFirstSearch.search(g, root)
+
+        then:
+        thrown IllegalArgumentException
+
+        where:
+        g                           | root
+        null                        | "A"
+        new DirectedGraph<String>() | null
+        new DirectedGraph<String>() | "A"
+    }
+
+}
@@ -16,11 +16,21 @@
 
 package io.github.imsejin.common.util
 
+import com.github.marschall.memoryfilesystem.MemoryFileSystemBuilder
+import spock.lang.Requires
 import spock.lang.Specification
 import spock.lang.TempDir
 
+import java.nio.file.FileAlreadyExistsException
+import java.nio.file.FileSystemLoopException
+import java.nio.file.FileSystems
 import java.nio.file.Files
+import java.nio.file.LinkOption
 import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.nio.file.attribute.FileTime
+import java.nio.file.attribute.PosixFilePermissions
+import java.util.stream.Collectors
 
 class FileUtilsSpec extends Specification {
 
@@ -41,4 +51,167 @@ class FileUtilsSpec extends Specification {
         files.size() == count
     }
 
+    def "Deletes directory and its descendants"() {
+        given:
+        def root = createTree(tempPath.resolve("root"))
+
+        when:
+        FileUtils.deleteRecursively root
+
+        then:
+        Files.notExists root
+        Files.exists tempPath
+    }
+
+    def "Copies directory and its descendants with attributes"() {
+        given:
+        def source = createTree(tempPath.resolve("source"))
+        def target = tempPath.resolve("target")
+
+        when:
+        FileUtils.copyRecursively(source, target, StandardCopyOption.COPY_ATTRIBUTES)
+
+        then:
+        relativize(source) == relativize(target)
+        Files.readAllBytes(target.resolve("dir-1/dir-1-1/file.bin")) == content(1)
+        Files.getLastModifiedTime(target.resolve("dir-0/file.bin")).toMillis() == MODIFIED_TIME
+        Files.getLastModifiedTime(target.resolve("dir-0")).toMillis() == MODIFIED_TIME
+        Files.exists source
+    }
+
+    @Requires({ FileSystems.default.supportedFileAttributeViews().contains("posix") })
+    def "Copies POSIX permissions of files and directories, even if directory is read-only"() {
+        given:
+        def source = createTree(tempPath.resolve("source"))
+        Files.setPosixFilePermissions(source.resolve("dir-0/file.bin"), PosixFilePermissions.fromString("rwx------"))
+        Files.setPosixFilePermissions(source.resolve("dir-1"), PosixFilePermissions.fromString("r-xr-x---"))
+        def target = tempPath.resolve("target")
+
+        when:
+        FileUtils.copyRecursively(source, target, StandardCopyOption.COPY_ATTRIBUTES)
+
+        then:
+        PosixFilePermissions.toString(Files.getPosixFilePermissions(target.resolve("dir-0/file.bin"))) == "rwx------"
+        PosixFilePermissions.toString(Files.getPosixFilePermissions(target.resolve("dir-1"))) == "r-xr-x---"
+        Files.readAllBytes(target.resolve("dir-1/dir-1-1/file.bin")) == content(1)
+        Files.getLastModifiedTime(target.resolve("dir-1")).toMillis() == MODIFIED_TIME
+
+        cleanup:
+        [source, target].each { Files.setPosixFilePermissions(it.resolve("dir-1"), PosixFilePermissions.fromString("rwx------")) }
+    }
+
+    def "Rejects symbolic link to directory being copied when links are followed"() {
+        given:
+        def source = createTree(tempPath.resolve("source"))
+        Files.createSymbolicLink(source.resolve("dir-0/dir-0-1/loop"), source)
+
+        when:
+        FileUtils.copyRecursively(source, tempPath.resolve("following"))
+
+        then:
+        def e = thrown RuntimeException
+        e.cause instanceof FileSystemLoopException
+
+        when:
+        FileUtils.copyRecursively(source, tempPath.resolve("not-following"), LinkOption.NOFOLLOW_LINKS)
+
+        then:
+        Files.isSymbolicLink tempPath.resolve("not-following/dir-0/dir-0-1/loop")
+        Files.readSymbolicLink(tempPath.resolve("not-following/dir-0/dir-0-1/loop")) == source
+
+        cleanup:
+        Files.deleteIfExists source.resolve("dir-0/dir-0-1/loop")
+        Files.deleteIfExists tempPath.resolve("not-following/dir-0/dir-0-1/loop")
+    }
+
+    def "Copies into existing directory only if replacing existing is allowed"() {
+        given:
+        def source = createTree(tempPath.resolve("source"))
+        def target = createTree(tempPath.resolve("target"))
+        Files.write(source.resolve("dir-0/file.bin"), [9] as byte[])
+
+        when:
+        FileUtils.copyRecursively(source, target)
+
+        then:
+        def e = thrown RuntimeException
+        e.cause instanceof FileAlreadyExistsException
+
+        when:
+        FileUtils.copyRecursively(source, target, StandardCopyOption.REPLACE_EXISTING)
+
+        then:
+        Files.readAllBytes(target.resolve("dir-0/file.bin")) == [9] as byte[]
+    }
+
+    def "Moves directory and its descendants"() {
+        given:
+        def source = createTree(tempPath.resolve("source"))
+        def expected = relativize(source)
+        def target = tempPath.resolve("target")
+
+        when:
+        FileUtils.moveRecursively(source, target)
+
+        then:
+        Files.notExists source
+        relativize(target) == expected
+    }
+
+    def "Moves directory and its descendants to other file system"() {
+        given:
+        def source = createTree(tempPath.resolve("source"))
+        def expected = relativize(source)
+        def fileSystem = MemoryFileSystemBuilder.newEmpty().build()
+        def target = fileSystem.getPath("/target")
+
+        when:
+        FileUtils.moveRecursively(source, target)
+
+        then:
+        Files.notExists source
+        relativize(target) == expected
+        Files.getLastModifiedTime(target.resolve("dir-0/file.bin")).toMillis() == MODIFIED_TIME
+
+        cleanup:
+        fileSystem.close()
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private static final long MODIFIED_TIME = 1_600_000_000_000L
+
+    private static byte[] content(int i) {
+        def bytes = new byte[100_000 * (i + 1)]
+        new Random(i).nextBytes(bytes)
+        bytes
+    }
+
+    /**
+     * Creates directories of depth 2, each of which has a file.
+     */
+    private static Path createTree(Path root) {
+        Files.createDirectory(root)
+        for (i in 0..<3) {
+            def dir = Files.createDirectory(root.resolve("dir-$i"))
+            Files.write(dir.resolve("file.bin"), content(i))
+            Files.setLastModifiedTime(dir.resolve("file.bin"), FileTime.fromMillis(MODIFIED_TIME))
+
+            def subDir = Files.createDirectory(dir.resolve("dir-$i-1"))
+            Files.write(subDir.resolve("file.bin"), content(i))
+            Files.createDirectory(subDir.resolve("empty"))
+            Files.setLastModifiedTime(dir, FileTime.fromMillis(MODIFIED_TIME))
+        }
+
+        root
+    }
+
+    private static Map<String, Long> relativize(Path root) {
+        Files.walk(root).withCloseable { stream ->
+            stream.collect(Collectors.toMap({ root.relativize(it).toString() }, {
+                Files.isDirectory(it) ? -1L : Files.size(it)
+            }))
+        }
+    }
+
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2021 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.util
+
+import io.github.imsejin.common.model.graph.DirectedGraph
+import io.github.imsejin.common.model.graph.Graph
+import io.github.imsejin.common.model.graph.UndirectedGraph
+import spock.lang.Specification
+
+class GraphUtilsSpec extends Specification {
+
+    private static <E> Graph<E> directedGraph(List<E> vertices, List<List<E>> edges) {
+        def graph = new DirectedGraph<E>()
+        vertices.forEach(graph.&addVertex)
+        edges.forEach({ edge -> graph.addEdge(edge[0], edge[1]) })
+        graph
+    }
+
+    /**
+     * Returns graph which is a path of vertices from 0 to size - 1.
+     */
+    private static Graph<Integer> pathGraph(int size) {
+        def graph = new DirectedGraph<Integer>()
+        (0..<size).each(graph.&addVertex)
+        (1..<size).each { graph.addEdge(it - 1, it) }
+        graph
+    }
+
+    def "Sorts vertices topologically"() {
+        given:
+        def graph = directedGraph(vertices, edges)
+
+        when:
+        def actual = GraphUtils.topologicalSort graph
+
+        then: "Each vertex comes before its adjacent vertices"
+        actual as Set == vertices as Set
+        actual.size() == vertices.size()
+        edges.every { actual.indexOf(it[0]) < actual.indexOf(it[1]) }
+        !GraphUtils.hasCycle(graph)
+        GraphUtils.findCycle(graph).isEmpty()
+
+        where:
+        vertices                                         | edges
+        []                                               | []
+        ["A"]                                            | []
+        ["A", "B", "C"]                                  | [["A", "B"], ["A", "C"], ["C", "B"]]
+        [0, 1, 2, 3, 4, 5]                               | [[5, 0], [5, 2], [4, 0], [4, 1], [2, 3], [3, 1]]
+        [String, Serializable, Comparable, CharSequence] | [[String, Serializable], [String, Comparable], [String, CharSequence]]
+    }
+
+    def "Sorts types topologically"() {
+        given:
+        def graph = ClassUtils.getAllExtendedOrImplementedTypesAsGraph(ArrayList)
+
+        when:
+        def actual = GraphUtils.topologicalSort graph
+
+        then:
+        actual.first() == ArrayList
+        actual.indexOf(AbstractList) < actual.indexOf(AbstractCollection)
+        actual.indexOf(List) < actual.indexOf(Collection)
+        actual.indexOf(Collection) < actual.indexOf(Iterable)
+    }
+
+    def "Finds cycle"() {
+        given:
+        def graph = directedGraph(vertices, edges)
+
+        when:
+        def cycle = GraphUtils.findCycle graph
+
+        then: """
+            1. Cycle starts and ends with the same vertex.
+            2. Each vertex on the cycle has an edge to the next one.
+            3. Topological sort is failed with the cycle.
+        """
+        GraphUtils.hasCycle graph
+        cycle.size() == length + 1
+        cycle.first() == cycle.last()
+        (1..<cycle.size()).every { graph.getAdjacentVertices(cycle[it - 1]).contains(cycle[it]) }
+
+        when:
+        GraphUtils.topologicalSort graph
+
+        then:
+        def e = thrown IllegalArgumentException
+        e.message.startsWith "Graph has a cycle: "
+
+        where:
+        vertices             | edges                                                                 || length
+        ["A", "B"]           | [["A", "B"], ["B", "A"]]                                              || 2
+        ["A", "B", "C", "D"] | [["A", "B"], ["B", "C"], ["C", "A"], ["C", "D"]]                      || 3
+        [0, 1, 2, 3, 4]      | [[0, 1], [1, 2], [2, 3], [3, 4], [4, 2]]                              || 3
+        [0, 1, 2, 3, 4]      | [[0, 1], [0, 2], [1, 3], [2, 3], [3, 4], [4, 0]]                      || 4
+    }
+
+    def "Regards each edge of undirected graph as a cycle"() {
+        given:
+        def graph = new UndirectedGraph<String>()
+        ["A", "B"].forEach(graph.&addVertex)
+        graph.addEdge("A", "B")
+
+        expect:
+        GraphUtils.findCycle(graph).size() == 3
+    }
+
+    def "Gets strongly connected components"() {
+        given:
+        def graph = directedGraph(vertices, edges)
+
+        when:
+        def actual = GraphUtils.getStronglyConnectedComponents graph
+
+        then: """
+            1. Each vertex belongs to a single component.
+            2. Components are in reverse topological order.
+        """
+        actual.collect { it as Set } as Set == expected.collect { it as Set } as Set
+        actual.sum([]).size() == vertices.size()
+        edges.every { edge ->
+            actual.findIndexOf { it.contains(edge[0]) } >= actual.findIndexOf { it.contains(edge[1]) }
+        }
+
+        where:
+        vertices                       | edges                                                                                                || expected
+        []                             | []                                                                                                   || []
+        ["A", "B", "C"]                | [["A", "B"], ["B", "A"], ["B", "C"]]                                                                 || [["C"], ["A", "B"]]
+        [1, 2, 3, 4, 5, 6, 7, 8]       | [[1, 2], [2, 3], [3, 1], [4, 2], [4, 3], [4, 5], [5, 4], [5, 6], [6, 3], [6, 7], [7, 6], [8, 7], [8, 5], [8, 8]] || [[1, 2, 3], [6, 7], [4, 5], [8]]
+        ["A", "B", "C", "D", "E", "F"] | [["A", "B"], ["B", "C"], ["C", "D"], ["D", "E"], ["E", "F"]]                                         || [["A"], ["B"], ["C"], ["D"], ["E"], ["F"]]
+    }
+
+    def "Handles deep graph without overflowing the stack"() {
+        given:
+        def graph = pathGraph(200_000)
+        graph.addEdge(199_999, 100_000)
+
+        when:
+        def cycle = GraphUtils.findCycle graph
+        def components = GraphUtils.getStronglyConnectedComponents graph
+
+        then:
+        cycle.size() == 100_001
+        components.size() == 100_001
+        components.first().size() == 100_000
+
+        when:
+        def sorted = GraphUtils.topologicalSort pathGraph(200_000)
+
+        then:
+        sorted == (0..<200_000).toList()
+    }
+
+    def "Throws exception with null"() {
+        when:
+        GraphUtils."$method"(null)
+
+        then:
+        thrown IllegalArgumentException
+
+        where:
+        method << ["topologicalSort", "findCycle", "getStronglyConnectedComponents"]
+    }
+
+}
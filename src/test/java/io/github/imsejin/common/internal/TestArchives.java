@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorOutputStream;
+
+/**
+ * Creates archives in memory for tests.
+ */
+public final class TestArchives {
+
+    public static byte[] zip(Map<String, byte[]> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(bytes)) {
+            for (Entry<String, byte[]> entry : entries.entrySet()) {
+                out.putArchiveEntry(new ZipArchiveEntry(entry.getKey()));
+                out.write(entry.getValue());
+                out.closeArchiveEntry();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    public static byte[] tar(Map<String, byte[]> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream out = new TarArchiveOutputStream(bytes)) {
+            out.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            for (Entry<String, byte[]> entry : entries.entrySet()) {
+                TarArchiveEntry tarEntry = new TarArchiveEntry(entry.getKey());
+                tarEntry.setSize(entry.getValue().length);
+                out.putArchiveEntry(tarEntry);
+                out.write(entry.getValue());
+                out.closeArchiveEntry();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    public static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GzipCompressorOutputStream out = new GzipCompressorOutputStream(bytes)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    public static byte[] bzip2(byte[] content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BZip2CompressorOutputStream out = new BZip2CompressorOutputStream(bytes)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    public static byte[] lz4(byte[] content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (FramedLZ4CompressorOutputStream out = new FramedLZ4CompressorOutputStream(bytes)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    public static byte[] snappy(byte[] content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (FramedSnappyCompressorOutputStream out = new FramedSnappyCompressorOutputStream(bytes)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Compresses content into BGZF, which is multi-member gzip with block sizes in extra field.
+     */
+    public static byte[] bgzip(byte[] content, int blockSize) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[blockSize + 1024];
+
+        int offset = 0;
+        do {
+            int length = Math.min(blockSize, content.length - offset);
+
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            deflater.setInput(content, offset, length);
+            deflater.finish();
+            int compressedSize = deflater.deflate(buffer);
+            deflater.end();
+
+            CRC32 crc = new CRC32();
+            crc.update(content, offset, length);
+
+            // ID1, ID2, CM, FLG(FEXTRA), MTIME, XFL, OS, XLEN, "BC", SLEN and BSIZE.
+            int totalSize = 18 + compressedSize + 8;
+            bytes.write(new byte[]{0x1F, (byte) 0x8B, 8, 4, 0, 0, 0, 0, 0, (byte) 0xFF, 6, 0, 'B', 'C', 2, 0,
+                    (byte) (totalSize - 1), (byte) ((totalSize - 1) >>> 8)}, 0, 18);
+            bytes.write(buffer, 0, compressedSize);
+            writeInt(bytes, crc.getValue());
+            writeInt(bytes, length);
+
+            offset += length;
+        } while (offset < content.length);
+
+        return bytes.toByteArray();
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, long value) {
+        for (int i = 0; i < 4; i++) {
+            out.write((int) (value >>> (i * 8)));
+        }
+    }
+
+}
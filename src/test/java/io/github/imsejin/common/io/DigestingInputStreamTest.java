@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.github.imsejin.common.internal.TestUtils;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("DigestingInputStream")
+class DigestingInputStreamTest {
+
+    @Test
+    @DisplayName("computes digests of well-known check input")
+    void test0() throws IOException {
+        // given
+        byte[] bytes = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+        // when
+        Map<DigestAlgorithm, String> digests = DigestingInputStream.digest(new ByteArrayInputStream(bytes),
+                EnumSet.allOf(DigestAlgorithm.class));
+
+        // then
+        assertThat(digests)
+                .containsEntry(DigestAlgorithm.CRC32C, "e3069283")
+                .containsEntry(DigestAlgorithm.MD5, "25f9e794323b453885f5181f1b624d0b")
+                .containsEntry(DigestAlgorithm.SHA_256,
+                        "15e2b0d3c33891ebb0f1ef609ec419420c20e320ce94c65fbc8c3312448eb225");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 7, 8, 9, 4095, 65537})
+    @DisplayName("computes the same digests regardless of how the stream is read")
+    void test1(int size) throws IOException {
+        // given
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        EnumSet<DigestAlgorithm> algorithms = EnumSet.allOf(DigestAlgorithm.class);
+        Map<DigestAlgorithm, String> expected = DigestingInputStream.digest(new ByteArrayInputStream(bytes), algorithms);
+
+        // when
+        DigestingInputStream in = new DigestingInputStream(new ByteArrayInputStream(bytes), algorithms);
+        int half = size / 2;
+        for (int i = 0; i < half / 2; i++) {
+            assertThat(in.read()).isNotEqualTo(-1);
+        }
+        assertThat(in.skip(half - half / 2)).isEqualTo(half - half / 2);
+        byte[] rest = TestUtils.readAllBytes(in);
+
+        // then
+        assertThat(rest).hasSize(size - half);
+        assertThat(in.getDigests()).isEqualTo(expected);
+        assertThat(in.markSupported()).isFalse();
+    }
+
+    @Test
+    @DisplayName("computes no digest without algorithms")
+    void test2() throws IOException {
+        // given
+        byte[] bytes = "alpha".getBytes(StandardCharsets.UTF_8);
+
+        // when
+        DigestingInputStream in = new DigestingInputStream(new ByteArrayInputStream(bytes),
+                EnumSet.noneOf(DigestAlgorithm.class));
+
+        // then
+        assertThat(TestUtils.readAllBytes(in)).isEqualTo(bytes);
+        assertThat(in.getDigests()).isEmpty();
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("DirectorySnapshot")
+class DirectorySnapshotTest {
+
+    private static final FileTime MODIFIED_TIME = FileTime.fromMillis(1_600_000_000_000L);
+
+    private static Path createTree(Path tempPath) throws IOException {
+        Path root = Files.createDirectory(tempPath.resolve("root"));
+        Files.createDirectories(root.resolve("docs/old"));
+        Files.write(root.resolve("docs/a.txt"), new byte[]{1});
+        Files.write(root.resolve("docs/old/b.txt"), new byte[]{2});
+        Files.write(root.resolve("docs-c.txt"), new byte[]{3});
+        Files.write(root.resolve("d.txt"), new byte[]{4});
+
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Files.setLastModifiedTime(path, MODIFIED_TIME);
+            }
+        }
+
+        return root;
+    }
+
+    @Nested
+    @DisplayName("when snapshot is taken and compared successfully")
+    class Success {
+        @Test
+        @DisplayName("finds added, removed and modified files")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            Path root = createTree(tempPath);
+            DirectorySnapshot previous = DirectorySnapshot.take(root);
+
+            Files.write(root.resolve("docs/a.txt"), new byte[]{1, 1});
+            Files.delete(root.resolve("docs/old/b.txt"));
+            Files.write(root.resolve("docs/old/e.txt"), new byte[]{5});
+            Files.setLastModifiedTime(root.resolve("d.txt"), FileTime.fromMillis(0));
+
+            // when
+            DirectorySnapshot.Diff diff = DirectorySnapshot.take(root).diff(previous);
+
+            // then
+            assertThat(previous.size()).isEqualTo(4);
+            assertThat(diff.getAdded()).containsExactly(Paths.get("docs/old/e.txt"));
+            assertThat(diff.getRemoved()).containsExactly(Paths.get("docs/old/b.txt"));
+            assertThat(diff.getModified()).containsExactly(Paths.get("d.txt"), Paths.get("docs/a.txt"));
+            assertThat(diff.isEmpty()).isFalse();
+            assertThat(previous.diff(previous).isEmpty()).isTrue();
+        }
+
+        @Test
+        @DisplayName("compares only digests when both snapshots have them")
+        void test1(@TempDir Path tempPath) throws IOException {
+            // given
+            Path root = createTree(tempPath);
+            DirectorySnapshot previous = DirectorySnapshot.take(root, DigestAlgorithm.CRC32C);
+
+            // Content is changed, but size and last modified time are not.
+            Files.write(root.resolve("docs/a.txt"), new byte[]{9});
+            Files.setLastModifiedTime(root.resolve("docs/a.txt"), MODIFIED_TIME);
+            // Touched, but content is not changed.
+            Files.setLastModifiedTime(root.resolve("d.txt"), FileTime.fromMillis(0));
+
+            // when
+            DirectorySnapshot.Diff withDigest = DirectorySnapshot.take(root, DigestAlgorithm.CRC32C).diff(previous);
+            DirectorySnapshot.Diff withoutDigest = DirectorySnapshot.take(root).diff(previous);
+
+            // then
+            assertThat(withDigest.getModified()).containsExactly(Paths.get("docs/a.txt"));
+            assertThat(withoutDigest.getModified()).containsExactly(Paths.get("d.txt"));
+        }
+
+        @Test
+        @DisplayName("writes and reads snapshot in binary format")
+        void test2(@TempDir Path tempPath) throws IOException {
+            // given
+            Path root = createTree(tempPath);
+            DirectorySnapshot snapshot = DirectorySnapshot.take(root, DigestAlgorithm.SHA_256);
+            Path file = tempPath.resolve("snapshot.bin");
+
+            // when
+            snapshot.writeTo(file);
+            DirectorySnapshot actual = DirectorySnapshot.readFrom(file);
+
+            // then
+            assertThat(actual.getRoot()).isEqualTo(root);
+            assertThat(actual.getDigestAlgorithm()).isEqualTo(DigestAlgorithm.SHA_256);
+            assertThat(actual.size()).isEqualTo(snapshot.size());
+            assertThat(actual.diff(snapshot).isEmpty()).isTrue();
+            assertThat(DirectorySnapshot.take(root).diff(actual).isEmpty()).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("when snapshot is failed")
+    class Failure {
+        @Test
+        @DisplayName("throws exception when file is not a snapshot")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            Path file = Files.write(tempPath.resolve("snapshot.bin"), new byte[]{1, 2, 3, 4, 5});
+
+            // expect
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> DirectorySnapshot.readFrom(file))
+                    .withMessageStartingWith("Invalid format of directory snapshot: ");
+        }
+
+        @Test
+        @DisplayName("throws exception when path is not a directory")
+        void test1(@TempDir Path tempPath) throws IOException {
+            // given
+            Path file = Files.write(tempPath.resolve("a.txt"), new byte[]{1});
+
+            // expect
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> DirectorySnapshot.take(file))
+                    .withMessageStartingWith("It is not a directory: ");
+        }
+    }
+
+}
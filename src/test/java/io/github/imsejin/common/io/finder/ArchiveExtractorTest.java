@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ArchiveExtractor")
+class ArchiveExtractorTest {
+
+    private static final long MODIFIED_TIME = 1_600_000_000_000L;
+
+    @Nested
+    @DisplayName("when method 'write' is done successfully")
+    class Success {
+        @Test
+        @DisplayName("writes entries of the same target one after another")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            byte[] large = new byte[4 * 1024 * 1024];
+            new Random(0).nextBytes(large);
+            byte[] small = "updated".getBytes(StandardCharsets.UTF_8);
+            Path target = tempPath.resolve("data.bin");
+
+            for (int i = 0; i < 10; i++) {
+                // when
+                try (ArchiveExtractor extractor = new ArchiveExtractor(1)) {
+                    extractor.write(new ByteArrayInputStream(large), target, MODIFIED_TIME);
+                    extractor.write(new ByteArrayInputStream(small), target, MODIFIED_TIME + 1000);
+                    extractor.await();
+                }
+
+                // then
+                assertThat(Files.size(target)).isEqualTo(small.length);
+                assertThat(Files.readAllBytes(target)).isEqualTo(small);
+                assertThat(Files.getLastModifiedTime(target).toMillis()).isEqualTo(MODIFIED_TIME + 1000);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,585 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.imsejin.common.internal.TestArchives;
+import io.github.imsejin.common.internal.TestUtils;
+import io.github.imsejin.common.io.DigestAlgorithm;
+import io.github.imsejin.common.io.DigestingInputStream;
+import io.github.imsejin.common.io.Resource;
+import io.github.imsejin.common.io.TarResource;
+import io.github.imsejin.common.io.ZipResource;
+
+import static java.util.stream.Collectors.*;
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ArchiveResourceFinder")
+class ArchiveResourceFinderTest {
+
+    private static final long MODIFIED_TIME = 1_600_000_000_000L;
+
+    private Path path;
+
+    /**
+     * Creates tar.gz that contains zip which contains tar.
+     *
+     * <pre>
+     * bundle.tar.gz
+     * ├── a.txt
+     * └── inner.zip
+     *     ├── b.txt
+     *     └── deep.tar
+     *         └── c.txt
+     * </pre>
+     */
+    @BeforeEach
+    void createNestedArchive(@TempDir Path tempPath) throws IOException {
+        Map<String, byte[]> deepEntries = new LinkedHashMap<>();
+        deepEntries.put("c.txt", "charlie".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, byte[]> innerEntries = new LinkedHashMap<>();
+        innerEntries.put("b.txt", "bravo".getBytes(StandardCharsets.UTF_8));
+        innerEntries.put("deep.tar", TestArchives.tar(deepEntries));
+
+        Map<String, byte[]> outerEntries = new LinkedHashMap<>();
+        outerEntries.put("a.txt", "alpha".getBytes(StandardCharsets.UTF_8));
+        outerEntries.put("inner.zip", TestArchives.zip(innerEntries));
+
+        this.path = Files.write(tempPath.resolve("bundle.tar.gz"), TestArchives.gzip(TestArchives.tar(outerEntries)));
+    }
+
+    @Nested
+    @DisplayName("when method 'getResources' is done successfully")
+    class Success {
+        @Test
+        @DisplayName("doesn't expand nested archives when it is not recursive")
+        void test0() {
+            // when
+            List<Resource> resources = new TarGzipResourceFinder(false).getResources(path);
+
+            // then
+            assertThat(resources)
+                    .extracting(Resource::getPath)
+                    .containsExactly("a.txt", "inner.zip");
+        }
+
+        @Test
+        @DisplayName("expands nested archives when it is recursive")
+        void test1() {
+            // when
+            List<Resource> resources = new TarGzipResourceFinder(true).getResources(path);
+
+            // then
+            assertThat(resources)
+                    .extracting(Resource::getPath)
+                    .containsExactly("a.txt", "inner.zip/b.txt", "inner.zip/deep.tar/c.txt");
+            assertThat(resources)
+                    .extracting(Resource::getName)
+                    .containsExactly("a.txt", "b.txt", "c.txt");
+            assertThat(resources)
+                    .extracting(it -> new String(TestUtils.readAllBytes(it.getInputStream()), StandardCharsets.UTF_8))
+                    .containsExactly("alpha", "bravo", "charlie");
+            assertThat(resources.get(1)).isExactlyInstanceOf(ZipResource.class);
+            assertThat(resources.get(2)).isExactlyInstanceOf(TarResource.class);
+        }
+
+        @Test
+        @DisplayName("doesn't expand nested archives deeper than the maximum depth")
+        void test2() {
+            // given
+            TarGzipResourceFinder resourceFinder = new TarGzipResourceFinder(true);
+            resourceFinder.setMaxNestedDepth(1);
+
+            // when
+            List<Resource> resources = resourceFinder.getResources(path);
+
+            // then
+            assertThat(resources)
+                    .extracting(Resource::getPath)
+                    .containsExactly("a.txt", "inner.zip/b.txt", "inner.zip/deep.tar");
+            assertThat(resources.get(2).getSize()).isEqualTo(TestUtils.readAllBytes(resources.get(2).getInputStream()).length);
+        }
+
+        @Test
+        @DisplayName("applies filter to entries in nested archives")
+        void test3() {
+            // given
+            ResourceFinder resourceFinder = new TarGzipResourceFinder(true, it -> !it.getName().startsWith("b"));
+
+            // when
+            List<Resource> resources = resourceFinder.getResources(path);
+
+            // then
+            assertThat(resources.stream().map(Resource::getPath).collect(toList()))
+                    .containsExactly("a.txt", "inner.zip/deep.tar/c.txt");
+        }
+
+        @Test
+        @DisplayName("computes digests of entries while reading them")
+        void test4() throws IOException {
+            // given
+            TarGzipResourceFinder resourceFinder = new TarGzipResourceFinder(true);
+            resourceFinder.setDigestAlgorithms(DigestAlgorithm.CRC32C, DigestAlgorithm.SHA_256);
+
+            // when
+            List<Resource> resources = resourceFinder.getResources(path);
+
+            // then
+            assertThat(resources).hasSize(3);
+            for (Resource resource : resources) {
+                byte[] bytes = TestUtils.readAllBytes(resource.getInputStream());
+                assertThat(resource.getDigests())
+                        .containsOnlyKeys(DigestAlgorithm.CRC32C, DigestAlgorithm.SHA_256)
+                        .isEqualTo(DigestingInputStream.digest(new ByteArrayInputStream(bytes),
+                                EnumSet.of(DigestAlgorithm.CRC32C, DigestAlgorithm.SHA_256)));
+            }
+            assertThat(new TarGzipResourceFinder(true).getResources(path))
+                    .allMatch(it -> it.getDigests().isEmpty());
+        }
+
+        @Test
+        @DisplayName("spools entries larger than the memory threshold to temporary files")
+        void test5(@TempDir Path tempPath) throws IOException {
+            // given
+            Path spillDirectory = Files.createDirectory(tempPath.resolve("spill"));
+            TarGzipResourceFinder resourceFinder = new TarGzipResourceFinder(true);
+            resourceFinder.setMemoryThreshold(5);
+            resourceFinder.setSpillDirectory(spillDirectory);
+
+            // when
+            List<Resource> resources = resourceFinder.getResources(path);
+
+            // then
+            assertThat(resources)
+                    .extracting(it -> new String(TestUtils.readAllBytes(it.getInputStream()), StandardCharsets.UTF_8))
+                    .containsExactly("alpha", "bravo", "charlie");
+            assertThat(resources.get(2).getSize()).isEqualTo(7);
+            try (Stream<Path> files = Files.list(spillDirectory)) {
+                assertThat(files).hasSize(1);
+            }
+
+            // when
+            resources.forEach(Resource::close);
+
+            // then
+            try (Stream<Path> files = Files.list(spillDirectory)) {
+                assertThat(files).isEmpty();
+            }
+            assertThat(TestUtils.readAllBytes(resources.get(0).getInputStream())).hasSize(5);
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> resources.get(2).getInputStream())
+                    .withMessageStartingWith("Content is already released: ");
+        }
+
+        @Test
+        @DisplayName("expands nested tar.gz and keeps nested gzip as it is, in zip and tar")
+        void test6(@TempDir Path tempPath) throws IOException {
+            // given
+            byte[] gzipped = TestArchives.gzip("compressed but not archived".getBytes(StandardCharsets.UTF_8));
+            Map<String, byte[]> deepEntries = new LinkedHashMap<>();
+            deepEntries.put("d.txt", "delta".getBytes(StandardCharsets.UTF_8));
+            Map<String, byte[]> entries = new LinkedHashMap<>();
+            entries.put("inner.tar.gz", TestArchives.gzip(TestArchives.tar(deepEntries)));
+            entries.put("plain.gz", gzipped);
+            entries.put("e.txt", "echo".getBytes(StandardCharsets.UTF_8));
+            Path zipPath = Files.write(tempPath.resolve("bundle.zip"), TestArchives.zip(entries));
+            Path tarPath = Files.write(tempPath.resolve("bundle.tar"), TestArchives.tar(entries));
+
+            // when
+            List<Resource> zipResources = new ZipResourceFinder(true).getResources(zipPath);
+            List<Resource> tarResources = new TarResourceFinder(true).getResources(tarPath);
+
+            // then
+            for (List<Resource> resources : Arrays.asList(zipResources, tarResources)) {
+                assertThat(resources)
+                        .extracting(Resource::getPath)
+                        .containsExactly("inner.tar.gz/d.txt", "plain.gz", "e.txt");
+                assertThat(TestUtils.readAllBytes(resources.get(0).getInputStream()))
+                        .isEqualTo("delta".getBytes(StandardCharsets.UTF_8));
+                assertThat(TestUtils.readAllBytes(resources.get(1).getInputStream())).isEqualTo(gzipped);
+                assertThat(resources.get(1).getSize()).isEqualTo(gzipped.length);
+                assertThat(TestUtils.readAllBytes(resources.get(2).getInputStream()))
+                        .isEqualTo("echo".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        @Test
+        @DisplayName("deletes temporary files of resources which become unreachable without being closed")
+        void test7(@TempDir Path tempPath) throws IOException, InterruptedException {
+            // given
+            Path spillDirectory = Files.createDirectory(tempPath.resolve("spill"));
+            TarGzipResourceFinder resourceFinder = new TarGzipResourceFinder(true);
+            resourceFinder.setMemoryThreshold(0);
+            resourceFinder.setSpillDirectory(spillDirectory);
+            resourceFinder.getResources(path);
+
+            // when
+            List<Resource> resources = null;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (true) {
+                System.gc();
+                // Temporary files of unreachable resources are deleted on the next spill.
+                resources = resourceFinder.getResources(path);
+                try (Stream<Path> files = Files.list(spillDirectory)) {
+                    if (files.count() == resources.size()) {
+                        break;
+                    }
+                }
+
+                assertThat(System.nanoTime()).as("Temporary files are not deleted in time").isLessThan(deadline);
+                TimeUnit.MILLISECONDS.sleep(50);
+            }
+
+            // then
+            resources.forEach(Resource::close);
+            try (Stream<Path> files = Files.list(spillDirectory)) {
+                assertThat(files).isEmpty();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("when method 'getResources' is failed")
+    class Failure {
+        @Test
+        @DisplayName("throws exception when entries in nested archives exceed the maximum size")
+        void test0() {
+            // given
+            TarGzipResourceFinder resourceFinder = new TarGzipResourceFinder(true);
+            resourceFinder.setMaxNestedSize(8);
+
+            // expect
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> resourceFinder.getResources(path))
+                    .withMessageStartingWith("Entries in nested archives exceed the maximum size");
+        }
+
+        @Test
+        @DisplayName("throws exception when the maximum depth or size is negative")
+        void test1() {
+            // given
+            TarGzipResourceFinder resourceFinder = new TarGzipResourceFinder(true);
+
+            // expect
+            assertThatIllegalArgumentException().isThrownBy(() -> resourceFinder.setMaxNestedDepth(-1));
+            assertThatIllegalArgumentException().isThrownBy(() -> resourceFinder.setMaxNestedSize(-1));
+        }
+
+        @Test
+        @DisplayName("deletes temporary files of resources which are already found on failure")
+        void test2(@TempDir Path tempPath) throws IOException {
+            // given
+            Path spillDirectory = Files.createDirectory(tempPath.resolve("spill"));
+            TarGzipResourceFinder resourceFinder = new TarGzipResourceFinder(true);
+            resourceFinder.setMemoryThreshold(0);
+            resourceFinder.setSpillDirectory(spillDirectory);
+            resourceFinder.setMaxNestedSize(8);
+
+            // expect
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> resourceFinder.getResources(path))
+                    .withMessageStartingWith("Entries in nested archives exceed the maximum size");
+            try (Stream<Path> files = Files.list(spillDirectory)) {
+                assertThat(files).isEmpty();
+            }
+            assertThatIllegalArgumentException().isThrownBy(() -> resourceFinder.setMemoryThreshold(-1));
+        }
+    }
+
+
+    @Nested
+    @DisplayName("when method 'listResources' is done successfully")
+    class ListingSuccess {
+        @Test
+        @DisplayName("lists entries of tar and zip without their content")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            byte[] large = randomContent(300_000);
+            Path tarPath = Files.write(tempPath.resolve("bundle.tar"), tar(large));
+            Path zipPath = Files.write(tempPath.resolve("bundle.zip"), zip(large));
+
+            // when
+            List<TarResource> tarResources = new TarResourceFinder(true).listResources(tarPath);
+            List<ZipResource> zipResources = new ZipResourceFinder(true).listResources(zipPath);
+
+            // then
+            assertThat(tarResources)
+                    .extracting(Resource::getPath, Resource::getSize, Resource::isDirectory)
+                    .containsExactly(tuple("docs/", 0L, true), tuple("docs/a.txt", 5L, false),
+                            tuple("large.bin", 300_000L, false));
+            assertThat(tarResources)
+                    .allMatch(it -> it.getInputStream() == null)
+                    .allMatch(it -> it.getLastModifiedTime().toEpochMilli() == MODIFIED_TIME);
+            assertThat(zipResources)
+                    .extracting(Resource::getPath, Resource::getSize)
+                    .containsExactly(tuple("stored.bin", 300_000L), tuple("deflated.bin", 300_000L));
+            assertThat(zipResources).allMatch(it -> it.getInputStream() == null);
+        }
+
+        @Test
+        @DisplayName("lists entries of compressed tar as the same as finding them, and applies filter")
+        void test1() {
+            // given
+            TarGzipResourceFinder resourceFinder = new TarGzipResourceFinder(true, it -> !it.getName().startsWith("a"));
+
+            // when
+            List<TarResource> resources = resourceFinder.listResources(path);
+
+            // then
+            assertThat(resources)
+                    .extracting(Resource::getPath)
+                    .containsExactly("inner.zip");
+            assertThat(resources.get(0).getSize()).isPositive();
+            assertThat(resources.get(0).getInputStream()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("when method 'extractTo' is done successfully")
+    class ExtractionSuccess {
+        @Test
+        @DisplayName("extracts entries of tar with their last modified time")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            byte[] large = randomContent(300_000);
+            Path tarPath = Files.write(tempPath.resolve("bundle.tar"), tar(large));
+            TarResourceFinder resourceFinder = new TarResourceFinder(false);
+            resourceFinder.setExtractionWriterCount(3);
+
+            // when
+            List<Path> paths = resourceFinder.extractTo(tarPath, tempPath.resolve("out"));
+
+            // then
+            Path out = tempPath.resolve("out").toAbsolutePath().normalize();
+            assertThat(paths).containsExactly(out.resolve("docs"), out.resolve("docs/a.txt"), out.resolve("large.bin"));
+            assertThat(out.resolve("docs/a.txt")).hasContent("alpha");
+            assertThat(Files.readAllBytes(out.resolve("large.bin"))).isEqualTo(large);
+            assertThat(Files.getLastModifiedTime(out.resolve("docs/a.txt")).toMillis()).isEqualTo(MODIFIED_TIME);
+            assertThat(Files.getLastModifiedTime(out.resolve("large.bin")).toMillis()).isEqualTo(MODIFIED_TIME);
+            assertThat(Files.getLastModifiedTime(out.resolve("docs")).toMillis()).isEqualTo(MODIFIED_TIME);
+        }
+
+        @Test
+        @DisplayName("extracts entries of zip, which are stored or deflated")
+        void test1(@TempDir Path tempPath) throws IOException {
+            // given
+            byte[] large = randomContent(200_000);
+            Path zipPath = Files.write(tempPath.resolve("bundle.zip"), zip(large));
+
+            // when
+            List<Path> paths = new ZipResourceFinder(false).extractTo(zipPath, tempPath.resolve("out"));
+
+            // then
+            Path out = tempPath.resolve("out").toAbsolutePath().normalize();
+            assertThat(paths).containsExactly(out.resolve("stored.bin"), out.resolve("deflated.bin"));
+            assertThat(Files.readAllBytes(out.resolve("stored.bin"))).isEqualTo(large);
+            assertThat(Files.readAllBytes(out.resolve("deflated.bin"))).isEqualTo(large);
+            assertThat(Files.getLastModifiedTime(out.resolve("stored.bin")).toMillis()).isEqualTo(MODIFIED_TIME);
+            assertThat(Files.getLastModifiedTime(out.resolve("deflated.bin")).toMillis()).isEqualTo(MODIFIED_TIME);
+        }
+
+        @Test
+        @DisplayName("extracts nested archives as regular files and applies filter")
+        void test2(@TempDir Path tempPath) throws IOException {
+            // given
+            List<Resource> resources = new TarGzipResourceFinder(false).getResources(path);
+            ArchiveResourceFinder<?, ?, ?> resourceFinder = new TarGzipResourceFinder(true,
+                    it -> !it.getName().startsWith("a"));
+
+            // when
+            List<Path> paths = resourceFinder.extractTo(path, tempPath.resolve("out"));
+
+            // then
+            assertThat(paths).extracting(Path::getFileName).extracting(String::valueOf).containsExactly("inner.zip");
+            assertThat(Files.readAllBytes(paths.get(0)))
+                    .isEqualTo(TestUtils.readAllBytes(resources.get(1).getInputStream()));
+        }
+
+        @Test
+        @DisplayName("overwrites duplicate entry after the earlier one is written, and skips links")
+        void test3(@TempDir Path tempPath) throws IOException {
+            // given
+            byte[] large = randomContent(2_000_000);
+            byte[] small = "updated".getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (TarArchiveOutputStream out = new TarArchiveOutputStream(bytes)) {
+                TarArchiveEntry entry = new TarArchiveEntry("data.bin");
+                entry.setSize(large.length);
+                out.putArchiveEntry(entry);
+                out.write(large);
+                out.closeArchiveEntry();
+
+                TarArchiveEntry symbolicLink = new TarArchiveEntry("symbolic", TarConstants.LF_SYMLINK);
+                symbolicLink.setLinkName("../../outside.txt");
+                out.putArchiveEntry(symbolicLink);
+                out.closeArchiveEntry();
+
+                TarArchiveEntry hardLink = new TarArchiveEntry("hard", TarConstants.LF_LINK);
+                hardLink.setLinkName("data.bin");
+                out.putArchiveEntry(hardLink);
+                out.closeArchiveEntry();
+
+                TarArchiveEntry duplicate = new TarArchiveEntry("data.bin");
+                duplicate.setSize(small.length);
+                out.putArchiveEntry(duplicate);
+                out.write(small);
+                out.closeArchiveEntry();
+            }
+            Path tarPath = Files.write(tempPath.resolve("bundle.tar"), bytes.toByteArray());
+            Path tarGzipPath = Files.write(tempPath.resolve("bundle.tar.gz"), TestArchives.gzip(bytes.toByteArray()));
+            TarResourceFinder tarFinder = new TarResourceFinder(false);
+            tarFinder.setExtractionWriterCount(4);
+            TarGzipResourceFinder tarGzipFinder = new TarGzipResourceFinder(false);
+            tarGzipFinder.setExtractionWriterCount(4);
+
+            // when
+            List<Path> tarPaths = tarFinder.extractTo(tarPath, tempPath.resolve("tar"));
+            List<Path> tarGzipPaths = tarGzipFinder.extractTo(tarGzipPath, tempPath.resolve("tar-gz"));
+
+            // then
+            for (Path out : Arrays.asList(tempPath.resolve("tar"), tempPath.resolve("tar-gz"))) {
+                Path root = out.toAbsolutePath().normalize();
+                assertThat(Files.readAllBytes(root.resolve("data.bin"))).isEqualTo(small);
+                assertThat(root.resolve("symbolic")).doesNotExist();
+                assertThat(root.resolve("hard")).doesNotExist();
+            }
+            assertThat(tarPaths).extracting(Path::getFileName).extracting(String::valueOf)
+                    .containsExactly("data.bin", "data.bin");
+            assertThat(tarGzipPaths).extracting(Path::getFileName).extracting(String::valueOf)
+                    .containsExactly("data.bin", "data.bin");
+        }
+    }
+
+    @Nested
+    @DisplayName("when method 'extractTo' is failed")
+    class ExtractionFailure {
+        @Test
+        @DisplayName("throws exception when entry escapes the target directory")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            Map<String, byte[]> entries = new LinkedHashMap<>();
+            entries.put("safe.txt", "safe".getBytes(StandardCharsets.UTF_8));
+            entries.put("../evil.txt", "evil".getBytes(StandardCharsets.UTF_8));
+            Path zipPath = Files.write(tempPath.resolve("evil.zip"), TestArchives.zip(entries));
+            Path out = Files.createDirectory(tempPath.resolve("out"));
+
+            // expect
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> new ZipResourceFinder(false).extractTo(zipPath, out))
+                    .withMessage("Entry is outside of the target directory: ../evil.txt");
+            assertThat(tempPath.resolve("evil.txt")).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("throws exception when the number of writers is not positive")
+        void test1() {
+            // expect
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new TarResourceFinder(false).setExtractionWriterCount(0));
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private static byte[] randomContent(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] tar(byte[] large) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream out = new TarArchiveOutputStream(bytes)) {
+            TarArchiveEntry directory = new TarArchiveEntry("docs/");
+            directory.setModTime(MODIFIED_TIME);
+            out.putArchiveEntry(directory);
+            out.closeArchiveEntry();
+
+            byte[] alpha = "alpha".getBytes(StandardCharsets.UTF_8);
+            TarArchiveEntry file = new TarArchiveEntry("docs/a.txt");
+            file.setModTime(MODIFIED_TIME);
+            file.setSize(alpha.length);
+            out.putArchiveEntry(file);
+            out.write(alpha);
+            out.closeArchiveEntry();
+
+            TarArchiveEntry largeFile = new TarArchiveEntry("large.bin");
+            largeFile.setModTime(MODIFIED_TIME);
+            largeFile.setSize(large.length);
+            out.putArchiveEntry(largeFile);
+            out.write(large);
+            out.closeArchiveEntry();
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static byte[] zip(byte[] large) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(large);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(bytes)) {
+            ZipArchiveEntry stored = new ZipArchiveEntry("stored.bin");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(large.length);
+            stored.setCrc(crc.getValue());
+            stored.setTime(MODIFIED_TIME);
+            out.putArchiveEntry(stored);
+            out.write(large);
+            out.closeArchiveEntry();
+
+            ZipArchiveEntry deflated = new ZipArchiveEntry("deflated.bin");
+            deflated.setTime(MODIFIED_TIME);
+            out.putArchiveEntry(deflated);
+            out.write(large);
+            out.closeArchiveEntry();
+        }
+
+        return bytes.toByteArray();
+    }
+
+}
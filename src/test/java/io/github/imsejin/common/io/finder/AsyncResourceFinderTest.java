@@ -0,0 +1,357 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.imsejin.common.io.Resource;
+import io.github.imsejin.common.io.finder.AsyncResourceFinder.Subscriber;
+import io.github.imsejin.common.io.finder.AsyncResourceFinder.Subscription;
+
+import static java.util.stream.Collectors.*;
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AsyncResourceFinder")
+class AsyncResourceFinderTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void beforeEach() {
+        this.executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void afterEach() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Creates directories, each of which has 3 files.
+     */
+    private static List<Path> createDirectories(Path tempPath, int count) throws IOException {
+        List<Path> directories = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Path directory = Files.createDirectory(tempPath.resolve("dir-" + i));
+            for (int j = 0; j < 3; j++) {
+                Files.write(directory.resolve("file-" + j + ".txt"), new byte[]{(byte) j});
+            }
+            directories.add(directory);
+        }
+
+        return directories;
+    }
+
+    @Nested
+    @DisplayName("when resources are found successfully")
+    class Success {
+        @Test
+        @DisplayName("finds resources of a path asynchronously")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            Path directory = createDirectories(tempPath, 1).get(0);
+            ResourceFinder delegate = new DiskFileResourceFinder(false);
+            AsyncResourceFinder resourceFinder = new AsyncResourceFinder(delegate, executor);
+
+            // when
+            List<Resource> resources = resourceFinder.findAsync(directory).join();
+
+            // then
+            assertThat(resources).containsExactlyInAnyOrderElementsOf(delegate.getResources(directory));
+        }
+
+        @Test
+        @DisplayName("finds resources of paths without exceeding the maximum concurrency")
+        void test1(@TempDir Path tempPath) throws IOException {
+            // given
+            List<Path> directories = createDirectories(tempPath, 20);
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            ResourceFinder delegate = path -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(20);
+                    return new DiskFileResourceFinder(false).getResources(path);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+            };
+
+            // when
+            Map<Path, List<Resource>> resources = new AsyncResourceFinder(delegate, executor, 3)
+                    .findAllAsync(directories).join();
+
+            // then
+            assertThat(resources).containsOnlyKeys(directories);
+            assertThat(resources.keySet()).containsExactlyElementsOf(directories);
+            assertThat(resources.values()).allSatisfy(it -> assertThat(it).hasSize(4));
+            assertThat(maxRunning.get()).isBetween(1, 3);
+        }
+
+        @Test
+        @DisplayName("streams resources without scanning ahead of demand more than buffer")
+        void test2(@TempDir Path tempPath) throws Exception {
+            // given
+            List<Path> directories = createDirectories(tempPath, 20);
+            AtomicInteger scanCount = new AtomicInteger();
+            ResourceFinder delegate = path -> {
+                scanCount.incrementAndGet();
+                return new DiskFileResourceFinder(false).getResources(path);
+            };
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+
+            // when
+            new AsyncResourceFinder(delegate, executor, 2).subscribe(directories, 4, subscriber);
+            TimeUnit.MILLISECONDS.sleep(200);
+
+            // then
+            assertThat(subscriber.resources).isEmpty();
+            assertThat(scanCount.get()).as("Only initial scans are done without demand").isEqualTo(2);
+
+            subscriber.subscription.request(5);
+            TimeUnit.MILLISECONDS.sleep(200);
+            assertThat(subscriber.resources).hasSize(5);
+            assertThat(subscriber.completed.getCount()).isOne();
+
+            subscriber.subscription.request(Long.MAX_VALUE);
+            assertThat(subscriber.completed.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(subscriber.error.get()).isNull();
+            assertThat(subscriber.resources).hasSize(20 * 4);
+            assertThat(scanCount.get()).isEqualTo(20);
+        }
+    }
+
+    @Nested
+    @DisplayName("when resources are failed to be found")
+    class Failure {
+        @Test
+        @DisplayName("completes future exceptionally when delegate fails")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            List<Path> directories = createDirectories(tempPath, 3);
+            ResourceFinder delegate = path -> {
+                if (path.endsWith("dir-1")) {
+                    throw new IllegalStateException("Failed to visit location: " + path);
+                }
+                return Collections.emptyList();
+            };
+
+            // when
+            AsyncResourceFinder resourceFinder = new AsyncResourceFinder(delegate, executor);
+
+            // then
+            assertThatExceptionOfType(CompletionException.class)
+                    .isThrownBy(() -> resourceFinder.findAllAsync(directories).join())
+                    .withCauseExactlyInstanceOf(IllegalStateException.class);
+        }
+
+        @Test
+        @DisplayName("signals error to subscriber when delegate fails or demand is not positive")
+        void test1(@TempDir Path tempPath) throws Exception {
+            // given
+            List<Path> directories = createDirectories(tempPath, 3);
+            ResourceFinder delegate = path -> {
+                throw new IllegalStateException("Failed to visit location: " + path);
+            };
+            AsyncResourceFinder resourceFinder = new AsyncResourceFinder(delegate, executor);
+            RecordingSubscriber failed = new RecordingSubscriber();
+            RecordingSubscriber invalid = new RecordingSubscriber();
+
+            // when
+            resourceFinder.subscribe(directories, 4, failed);
+            new AsyncResourceFinder(new DiskFileResourceFinder(false), executor).subscribe(directories, 4, invalid);
+            invalid.subscription.request(0);
+
+            // then
+            assertThat(failed.completed.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(failed.error.get()).isExactlyInstanceOf(IllegalStateException.class);
+            assertThat(invalid.completed.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(invalid.error.get()).isExactlyInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        @DisplayName("throws exception with invalid arguments")
+        void test2() {
+            // expect
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new AsyncResourceFinder(null, executor));
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new AsyncResourceFinder(new DiskFileResourceFinder(false), executor, 0));
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new AsyncResourceFinder(new DiskFileResourceFinder(false), executor)
+                            .subscribe(Collections.emptyList(), 0, new RecordingSubscriber()));
+        }
+
+        @Test
+        @DisplayName("releases resources which are not emitted on cancellation or failure")
+        void test3(@TempDir Path tempPath) throws Exception {
+            // given
+            List<Path> directories = createDirectories(tempPath, 6);
+            List<ReleasableResource> created = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch gate = new CountDownLatch(1);
+            ResourceFinder delegate = path -> {
+                if (path.endsWith("dir-1")) {
+                    // Finishes scan after cancellation or failure.
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                } else if (path.endsWith("dir-5")) {
+                    throw new IllegalStateException("Failed to visit location: " + path);
+                }
+
+                List<Resource> resources = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    ReleasableResource resource = new ReleasableResource(path.resolve("resource-" + i).toString());
+                    created.add(resource);
+                    resources.add(resource);
+                }
+                return resources;
+            };
+            RecordingSubscriber cancelled = new RecordingSubscriber();
+            RecordingSubscriber failed = new RecordingSubscriber();
+
+            // when
+            new AsyncResourceFinder(delegate, executor, 2).subscribe(directories.subList(0, 3), 4, cancelled);
+            cancelled.subscription.request(1);
+            TimeUnit.MILLISECONDS.sleep(200);
+            cancelled.subscription.cancel();
+            new AsyncResourceFinder(delegate, executor, 2).subscribe(directories.subList(3, 6), 12, failed);
+            assertThat(failed.completed.await(10, TimeUnit.SECONDS)).isTrue();
+            gate.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+            // then
+            assertThat(cancelled.resources).hasSize(1);
+            assertThat(failed.error.get()).isExactlyInstanceOf(IllegalStateException.class);
+            assertThat(created).filteredOn(it -> it.released.get() == 0)
+                    .as("Only emitted resources are left to subscriber")
+                    .containsExactlyElementsOf(cancelled.resources.stream()
+                            .map(ReleasableResource.class::cast).collect(toList()));
+            assertThat(created).allSatisfy(it -> assertThat(it.released.get()).isLessThanOrEqualTo(1));
+            assertThat(created).hasSize(5 * 3);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private static final class ReleasableResource implements Resource {
+        private final AtomicInteger released = new AtomicInteger();
+
+        private final String path;
+
+        private ReleasableResource(String path) {
+            this.path = path;
+        }
+
+        @Override
+        public String getPath() {
+            return this.path;
+        }
+
+        @Override
+        public String getName() {
+            return this.path;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public long getSize() {
+            return 0;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return false;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            this.released.incrementAndGet();
+        }
+    }
+
+    private static class RecordingSubscriber implements Subscriber {
+        private final List<Resource> resources = Collections.synchronizedList(new ArrayList<>());
+
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        /**
+         * Counted down on completion or error.
+         */
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private volatile Subscription subscription;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Resource resource) {
+            this.resources.add(resource);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error.set(throwable);
+            this.completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import io.github.imsejin.common.internal.TestArchives;
+import io.github.imsejin.common.internal.TestUtils;
+import io.github.imsejin.common.io.CompressedResource;
+import io.github.imsejin.common.io.DiskFileResource;
+import io.github.imsejin.common.io.Resource;
+import io.github.imsejin.common.io.TarResource;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AutoDetectingResourceFinder")
+class AutoDetectingResourceFinderTest {
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "gzip/macos-14.4.1.gz       | GZIP",
+            "gzip/macos-14.4.1.tar.gz   | TAR_GZIP",
+            "gzip/macos-14.4.1.tgz      | TAR_GZIP",
+            "gzip/ubuntu-18.04.1.gz     | GZIP",
+            "gzip/ubuntu-18.04.1.tgz    | TAR_GZIP",
+            "gzip/windows10-pro.gz      | GZIP",
+            "gzip/windows10-pro.tar.gz  | TAR_GZIP",
+            "zip/macos-14.4.1.zip       | ZIP",
+            "zip/ubuntu-18.04.3.zip     | ZIP",
+            "zip/windows10-pro.zip      | ZIP",
+    }, delimiterString = "|")
+    @DisplayName("finds resources as the same as the finder of detected format, regardless of extension")
+    void test0(String fileName, ArchiveFormat format, @TempDir Path tempPath) throws URISyntaxException, IOException {
+        // given
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Path source = Paths.get(classLoader.getResource("archiver/" + fileName).toURI());
+        Path path = Files.copy(source, tempPath.resolve("upload.bin"));
+
+        ResourceFinder expectedFinder;
+        switch (format) {
+            case ZIP:
+                expectedFinder = new ZipResourceFinder(false);
+                break;
+            case TAR_GZIP:
+                expectedFinder = new TarGzipResourceFinder(false);
+                break;
+            default:
+                expectedFinder = new GzipResourceFinder();
+                break;
+        }
+        List<Resource> expected = expectedFinder.getResources(path);
+
+        // when
+        List<Resource> resources = new AutoDetectingResourceFinder(false).getResources(path);
+
+        // then
+        assertThat(resources).isEqualTo(expected);
+        for (int i = 0; i < resources.size(); i++) {
+            if (!resources.get(i).isDirectory()) {
+                assertThat(resources.get(i).getInputStream()).hasSameContentAs(expected.get(i).getInputStream());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("finds resources of tar and plain file")
+    void test1(@TempDir Path tempPath) throws IOException {
+        // given
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("a.txt", "alpha".getBytes(StandardCharsets.UTF_8));
+        entries.put("b.txt", "bravo".getBytes(StandardCharsets.UTF_8));
+        Path tarPath = Files.write(tempPath.resolve("bundle.zip"), TestArchives.tar(entries));
+        Path plainPath = Files.write(tempPath.resolve("notes.tar.gz"), "plain text".getBytes(StandardCharsets.UTF_8));
+        ResourceFinder resourceFinder = new AutoDetectingResourceFinder(false);
+
+        // when
+        List<Resource> tarResources = resourceFinder.getResources(tarPath);
+        List<Resource> plainResources = resourceFinder.getResources(plainPath);
+
+        // then
+        assertThat(tarResources)
+                .hasOnlyElementsOfType(TarResource.class)
+                .extracting(Resource::getPath)
+                .containsExactly("a.txt", "b.txt");
+        assertThat(plainResources).containsExactly(DiskFileResource.from(plainPath));
+    }
+
+    @Test
+    @DisplayName("throws exception when path is not a regular file")
+    void test2(@TempDir Path tempPath) {
+        // expect
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new AutoDetectingResourceFinder(false).getResources(tempPath))
+                .withMessageStartingWith("It is not a regular file: ");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ArchiveFormat.class, names = {"TAR_LZ4", "TAR_BZIP2", "LZ4", "SNAPPY", "BZIP2"})
+    @DisplayName("detects lz4, snappy and bzip2, and tar compressed by them")
+    void test3(ArchiveFormat format, @TempDir Path tempPath) throws IOException {
+        // given
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("a.txt", "alpha".getBytes(StandardCharsets.UTF_8));
+        entries.put("b.txt", "bravo".getBytes(StandardCharsets.UTF_8));
+        byte[] tar = TestArchives.tar(entries);
+
+        byte[] bytes;
+        switch (format) {
+            case TAR_LZ4:
+                bytes = TestArchives.lz4(tar);
+                break;
+            case TAR_BZIP2:
+                bytes = TestArchives.bzip2(tar);
+                break;
+            case LZ4:
+                bytes = TestArchives.lz4("plain text".getBytes(StandardCharsets.UTF_8));
+                break;
+            case SNAPPY:
+                bytes = TestArchives.snappy("plain text".getBytes(StandardCharsets.UTF_8));
+                break;
+            default:
+                bytes = TestArchives.bzip2("plain text".getBytes(StandardCharsets.UTF_8));
+                break;
+        }
+        Path path = Files.write(tempPath.resolve("upload.bin"), bytes);
+
+        // when
+        List<Resource> resources = new AutoDetectingResourceFinder(false).getResources(path);
+
+        // then
+        if (format.isArchive()) {
+            assertThat(resources)
+                    .hasOnlyElementsOfType(TarResource.class)
+                    .extracting(Resource::getPath)
+                    .containsExactly("a.txt", "b.txt");
+        } else {
+            assertThat(resources)
+                    .hasOnlyElementsOfType(CompressedResource.class)
+                    .extracting(Resource::getName)
+                    .containsExactly("upload");
+            assertThat(TestUtils.readAllBytes(resources.get(0).getInputStream()))
+                    .isEqualTo("plain text".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.imsejin.common.internal.TestArchives;
+import io.github.imsejin.common.internal.TestUtils;
+import io.github.imsejin.common.io.Resource;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CachingResourceFinder")
+class CachingResourceFinderTest {
+
+    private static Path createTarGzip(Path directory, String fileName, String content) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("a.txt", content.getBytes(StandardCharsets.UTF_8));
+        entries.put("b.txt", (content + content).getBytes(StandardCharsets.UTF_8));
+
+        return Files.write(directory.resolve(fileName), TestArchives.gzip(TestArchives.tar(entries)));
+    }
+
+    private static ResourceFinder counting(ResourceFinder resourceFinder, AtomicInteger counter) {
+        return path -> {
+            counter.incrementAndGet();
+            return resourceFinder.getResources(path);
+        };
+    }
+
+    @Nested
+    @DisplayName("when method 'getResources' is done successfully")
+    class Success {
+        @Test
+        @DisplayName("reuses resources of unchanged file, which hand out independent streams")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            Path path = createTarGzip(tempPath, "bundle.tar.gz", "alpha");
+            AtomicInteger counter = new AtomicInteger();
+            CachingResourceFinder resourceFinder = new CachingResourceFinder(
+                    counting(new TarGzipResourceFinder(false), counter), 1024 * 1024);
+
+            // when
+            List<Resource> first = resourceFinder.getResources(path);
+            List<Resource> second = resourceFinder.getResources(path);
+
+            // then
+            assertThat(counter).hasValue(1);
+            assertThat(second).isSameAs(first);
+            assertThat(resourceFinder.getWeight()).isPositive();
+
+            Resource resource = second.get(0);
+            try (InputStream in1 = resource.getInputStream(); InputStream in2 = resource.getInputStream()) {
+                assertThat(in1).isNotSameAs(in2);
+                assertThat(in1.read()).isEqualTo('a');
+                assertThat(new String(TestUtils.readAllBytes(in2), StandardCharsets.UTF_8)).isEqualTo("alpha");
+                assertThat(new String(TestUtils.readAllBytes(in1), StandardCharsets.UTF_8)).isEqualTo("lpha");
+            }
+        }
+
+        @Test
+        @DisplayName("finds resources again when file is changed")
+        void test1(@TempDir Path tempPath) throws IOException {
+            // given
+            Path path = createTarGzip(tempPath, "bundle.tar.gz", "alpha");
+            AtomicInteger counter = new AtomicInteger();
+            CachingResourceFinder resourceFinder = new CachingResourceFinder(
+                    counting(new TarGzipResourceFinder(false), counter), 1024 * 1024);
+            resourceFinder.getResources(path);
+
+            // when
+            createTarGzip(tempPath, "bundle.tar.gz", "bravo");
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+            List<Resource> resources = resourceFinder.getResources(path);
+
+            // then
+            assertThat(counter).hasValue(2);
+            assertThat(new String(TestUtils.readAllBytes(resources.get(0).getInputStream()), StandardCharsets.UTF_8))
+                    .isEqualTo("bravo");
+        }
+
+        @Test
+        @DisplayName("evicts the least recently used resources when it exceeds the maximum weight")
+        void test2(@TempDir Path tempPath) throws IOException {
+            // given
+            Path path0 = createTarGzip(tempPath, "0.tar.gz", "alpha");
+            Path path1 = createTarGzip(tempPath, "1.tar.gz", "bravo");
+            Path path2 = createTarGzip(tempPath, "2.tar.gz", "delta");
+            AtomicInteger counter = new AtomicInteger();
+            ResourceFinder delegate = counting(new TarGzipResourceFinder(false), counter);
+
+            // Weight of each file: 2 resources * overhead(128) + 15 bytes of content.
+            CachingResourceFinder resourceFinder = new CachingResourceFinder(delegate, 2 * (2 * 128 + 15));
+
+            // when
+            resourceFinder.getResources(path0);
+            resourceFinder.getResources(path1);
+            resourceFinder.getResources(path0);
+            resourceFinder.getResources(path2);
+
+            // then
+            assertThat(counter).hasValue(3);
+            resourceFinder.getResources(path0);
+            assertThat(counter).as("path0 is recently used").hasValue(3);
+            resourceFinder.getResources(path1);
+            assertThat(counter).as("path1 is evicted").hasValue(4);
+            assertThat(resourceFinder.getWeight()).isLessThanOrEqualTo(2 * (2 * 128 + 15));
+        }
+
+        @Test
+        @DisplayName("discards cached resources on invalidation")
+        void test3(@TempDir Path tempPath) throws IOException {
+            // given
+            Path path = createTarGzip(tempPath, "bundle.tar.gz", "alpha");
+            AtomicInteger counter = new AtomicInteger();
+            CachingResourceFinder resourceFinder = new CachingResourceFinder(
+                    counting(new TarGzipResourceFinder(false), counter), 1024 * 1024);
+            resourceFinder.getResources(path);
+
+            // when
+            resourceFinder.invalidate(path);
+            resourceFinder.getResources(path);
+            resourceFinder.invalidateAll();
+
+            // then
+            assertThat(counter).hasValue(2);
+            assertThat(resourceFinder.getWeight()).isZero();
+        }
+
+        @Test
+        @DisplayName("doesn't cache resources of directory, whose nested file can be changed")
+        void test4(@TempDir Path tempPath) throws IOException {
+            // given
+            Path directory = Files.createDirectories(tempPath.resolve("docs/nested"));
+            Path file = Files.write(directory.resolve("a.txt"), "alpha".getBytes(StandardCharsets.UTF_8));
+            FileTime directoryTime = Files.getLastModifiedTime(tempPath.resolve("docs"));
+            AtomicInteger counter = new AtomicInteger();
+            CachingResourceFinder resourceFinder = new CachingResourceFinder(
+                    counting(new DiskFileResourceFinder(true), counter), 1024 * 1024);
+            resourceFinder.getResources(tempPath.resolve("docs"));
+
+            // when
+            Files.write(file, "alpha bravo".getBytes(StandardCharsets.UTF_8));
+            Files.setLastModifiedTime(tempPath.resolve("docs"), directoryTime);
+            List<Resource> resources = resourceFinder.getResources(tempPath.resolve("docs"));
+
+            // then
+            assertThat(counter).hasValue(2);
+            assertThat(resources)
+                    .filteredOn(it -> it.getName().equals("a.txt"))
+                    .singleElement()
+                    .returns(11L, Resource::getSize);
+            assertThat(resourceFinder.getWeight()).isZero();
+        }
+
+        @Test
+        @DisplayName("doesn't cache releasable resources, and cached ones survive being closed")
+        void test5(@TempDir Path tempPath) throws IOException {
+            // given
+            Path path = createTarGzip(tempPath, "bundle.tar.gz", "alpha");
+            Path spillDirectory = Files.createDirectory(tempPath.resolve("spill"));
+            TarGzipResourceFinder spillingFinder = new TarGzipResourceFinder(false);
+            spillingFinder.setMemoryThreshold(0);
+            spillingFinder.setSpillDirectory(spillDirectory);
+            AtomicInteger spillingCounter = new AtomicInteger();
+            CachingResourceFinder spillingCache = new CachingResourceFinder(
+                    counting(spillingFinder, spillingCounter), 1024 * 1024);
+            AtomicInteger counter = new AtomicInteger();
+            CachingResourceFinder resourceFinder = new CachingResourceFinder(
+                    counting(new TarGzipResourceFinder(false), counter), 1024 * 1024);
+
+            // when
+            List<Resource> spilled = spillingCache.getResources(path);
+            spilled.forEach(Resource::close);
+            List<Resource> respilled = spillingCache.getResources(path);
+            resourceFinder.getResources(path).forEach(Resource::close);
+            List<Resource> cached = resourceFinder.getResources(path);
+
+            // then
+            assertThat(spillingCounter).hasValue(2);
+            assertThat(spillingCache.getWeight()).isZero();
+            assertThat(respilled).allMatch(Resource::isReleasable);
+            assertThat(new String(TestUtils.readAllBytes(respilled.get(0).getInputStream()), StandardCharsets.UTF_8))
+                    .isEqualTo("alpha");
+            respilled.forEach(Resource::close);
+            try (Stream<Path> files = Files.list(spillDirectory)) {
+                assertThat(files).isEmpty();
+            }
+            assertThat(counter).hasValue(1);
+            assertThat(cached).noneMatch(Resource::isReleasable);
+            assertThat(new String(TestUtils.readAllBytes(cached.get(0).getInputStream()), StandardCharsets.UTF_8))
+                    .isEqualTo("alpha");
+        }
+    }
+
+    @Nested
+    @DisplayName("when method 'getResources' is failed")
+    class Failure {
+        @Test
+        @DisplayName("throws exception with invalid arguments")
+        void test0(@TempDir Path tempPath) {
+            // expect
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new CachingResourceFinder(null, 1024));
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new CachingResourceFinder(new TarGzipResourceFinder(false), -1));
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new CachingResourceFinder(new TarGzipResourceFinder(false), 1024)
+                            .getResources(tempPath.resolve("no-such-file.tar.gz")))
+                    .withMessageStartingWith("No such path exists: ");
+        }
+    }
+
+}
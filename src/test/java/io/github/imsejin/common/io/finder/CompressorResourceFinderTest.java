@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.github.imsejin.common.internal.TestArchives;
+import io.github.imsejin.common.internal.TestUtils;
+import io.github.imsejin.common.io.CompressedResource;
+import io.github.imsejin.common.io.DigestAlgorithm;
+import io.github.imsejin.common.io.DigestingInputStream;
+import io.github.imsejin.common.io.Resource;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CompressorResourceFinder")
+class CompressorResourceFinderTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"bz2", "lz4", "sz"})
+    @DisplayName("decompresses content and computes its digests")
+    void test0(String extension, @TempDir Path tempPath) throws IOException {
+        // given
+        byte[] content = new byte[300_000];
+        new Random(0).nextBytes(content);
+        byte[] compressed = compressor(extension).apply(content);
+        Path path = Files.write(tempPath.resolve("data.bin." + extension), compressed);
+
+        CompressorResourceFinder<?> resourceFinder = finder(extension);
+        resourceFinder.setDigestAlgorithms(DigestAlgorithm.CRC32C);
+
+        // when
+        List<Resource> resources = resourceFinder.getResources(path);
+
+        // then
+        assertThat(resources).hasSize(1).hasOnlyElementsOfType(CompressedResource.class);
+        CompressedResource resource = (CompressedResource) resources.get(0);
+        assertThat(resource.getName()).isEqualTo("data.bin");
+        assertThat(resource.getPath()).isEqualTo("data.bin");
+        assertThat(resource.getSize()).isEqualTo(content.length);
+        assertThat(resource.getCompressedSize()).isEqualTo(compressed.length);
+        assertThat(TestUtils.readAllBytes(resource.getInputStream())).isEqualTo(content);
+        assertThat(resource.getDigests()).isEqualTo(DigestingInputStream.digest(
+                new ByteArrayInputStream(content), EnumSet.of(DigestAlgorithm.CRC32C)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"bz2", "lz4"})
+    @DisplayName("decompresses concatenated streams as a content")
+    void test1(String extension, @TempDir Path tempPath) throws IOException {
+        // given
+        byte[] first = "alpha".getBytes();
+        byte[] second = "bravo".getBytes();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        compressed.write(compressor(extension).apply(first));
+        compressed.write(compressor(extension).apply(second));
+        Path path = Files.write(tempPath.resolve("data." + extension), compressed.toByteArray());
+
+        // when
+        List<Resource> resources = finder(extension).getResources(path);
+
+        // then
+        assertThat(TestUtils.readAllBytes(resources.get(0).getInputStream())).isEqualTo("alphabravo".getBytes());
+    }
+
+    @Test
+    @DisplayName("throws exception when file is not compressed by the format")
+    void test2(@TempDir Path tempPath) throws IOException {
+        // given
+        Path path = Files.write(tempPath.resolve("data.bz2"), "plain text".getBytes());
+
+        // expect
+        assertThatIllegalStateException()
+                .isThrownBy(() -> new BZip2ResourceFinder().getResources(path))
+                .withMessageStartingWith("Failed to read compressor: ");
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private static Function<byte[], byte[]> compressor(String extension) {
+        switch (extension) {
+            case "bz2":
+                return TestArchives::bzip2;
+            case "lz4":
+                return TestArchives::lz4;
+            default:
+                return TestArchives::snappy;
+        }
+    }
+
+    private static CompressorResourceFinder<?> finder(String extension) {
+        switch (extension) {
+            case "bz2":
+                return new BZip2ResourceFinder();
+            case "lz4":
+                return new Lz4ResourceFinder();
+            default:
+                return new SnappyResourceFinder();
+        }
+    }
+
+}
@@ -1,12 +1,16 @@
 package io.github.imsejin.common.io.finder;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.DisplayName;
@@ -20,11 +24,14 @@ import org.junit.jupiter.api.io.TempDir;
 import io.github.imsejin.common.internal.TestFileSystemCreator;
 import io.github.imsejin.common.internal.TestFileSystemCreator.PathType;
 import io.github.imsejin.common.internal.TestUtils;
+import io.github.imsejin.common.io.DigestAlgorithm;
+import io.github.imsejin.common.io.DigestingInputStream;
 import io.github.imsejin.common.io.DiskFileResource;
 import io.github.imsejin.common.io.Resource;
 import io.github.imsejin.common.tool.RandomString;
 import io.github.imsejin.common.util.FilenameUtils;
 
+import static java.util.stream.Collectors.*;
 import static org.assertj.core.api.Assertions.*;
 
 @FileSystemSource
@@ -216,6 +223,54 @@ class DiskFileResourceFinderTest {
                     .allMatch(it -> TestUtils.readAllBytes(it.getInputStream()).length == it.getSize())
                     .allMatch(it -> it.getSize() == bytes.length);
         }
+
+        @Test
+        @DisplayName("computes digests of files in parallel as the same as sequentially")
+        void test5(@TempDir Path path) throws IOException {
+            // given
+            TestFileSystemCreator.builder()
+                    .minimumFileCount(5)
+                    .maximumFileCount(20)
+                    .minimumDirectoryCount(1)
+                    .maximumDirectoryCount(5)
+                    .minimumFileLength(512)
+                    .maximumFileLength(4096)
+                    .fileSuffixes(".log", ".txt")
+                    .build().create(path);
+            DiskFileResourceFinder sequentialFinder = new DiskFileResourceFinder(true);
+            sequentialFinder.setDigestAlgorithms(DigestAlgorithm.CRC32C, DigestAlgorithm.MD5);
+            DiskFileResourceFinder parallelFinder = new DiskFileResourceFinder(true);
+            parallelFinder.setDigestAlgorithms(DigestAlgorithm.CRC32C, DigestAlgorithm.MD5);
+
+            // when
+            List<Resource> sequential = sequentialFinder.getResources(path);
+            List<Resource> parallel;
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                parallelFinder.setDigestExecutor(executor);
+                parallel = parallelFinder.getResources(path);
+            } finally {
+                executor.shutdown();
+            }
+
+            // then
+            assertThat(parallel)
+                    .isEqualTo(sequential)
+                    .extracting(Resource::getDigests)
+                    .isEqualTo(sequential.stream().map(Resource::getDigests).collect(toList()));
+            assertThat(parallel)
+                    .filteredOn(Resource::isDirectory)
+                    .allMatch(it -> it.getDigests().isEmpty());
+            for (Resource resource : parallel) {
+                if (resource.isDirectory()) {
+                    continue;
+                }
+
+                byte[] bytes = TestUtils.readAllBytes(resource.getInputStream());
+                assertThat(resource.getDigests()).isEqualTo(DigestingInputStream.digest(
+                        new ByteArrayInputStream(bytes), EnumSet.of(DigestAlgorithm.CRC32C, DigestAlgorithm.MD5)));
+            }
+        }
     }
 
     // -------------------------------------------------------------------------------------------------
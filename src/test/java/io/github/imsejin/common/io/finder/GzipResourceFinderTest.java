@@ -16,16 +16,38 @@
 
 package io.github.imsejin.common.io.finder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import io.github.imsejin.common.internal.TestArchives;
 import io.github.imsejin.common.internal.TestUtils;
+import io.github.imsejin.common.io.DigestAlgorithm;
+import io.github.imsejin.common.io.DigestingInputStream;
 import io.github.imsejin.common.io.GzipResource;
 import io.github.imsejin.common.io.Resource;
 
@@ -34,6 +56,18 @@ import static org.assertj.core.api.Assertions.*;
 @DisplayName("GzipResourceFinder")
 class GzipResourceFinderTest {
 
+    private static ExecutorService executor;
+
+    @BeforeAll
+    static void beforeAll() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    static void afterAll() {
+        executor.shutdown();
+    }
+
     @ParameterizedTest
     @CsvSource(value = {
             "macos-14.4.1.gz       | catalina.out-20210123",
@@ -46,7 +80,7 @@ class GzipResourceFinderTest {
             "windows10-pro.tar.gz  | windows10-pro.tar",
             "windows10-pro.tgz     | windows10-pro",
     }, delimiterString = "|")
-    void test(String fileName, String resourceName) throws URISyntaxException {
+    void test0(String fileName, String resourceName) throws URISyntaxException {
         // given
         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         Path path = Paths.get(classLoader.getResource("archiver/gzip/" + fileName).toURI());
@@ -75,4 +109,217 @@ class GzipResourceFinderTest {
                 .returns((long) TestUtils.readAllBytes(gzipResource.getInputStream()).length, Resource::getSize);
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "macos-14.4.1.gz", "macos-14.4.1.tar.gz", "macos-14.4.1.tgz",
+            "ubuntu-18.04.1.gz", "ubuntu-18.04.1.tar.gz", "ubuntu-18.04.1.tgz",
+            "windows10-pro.gz", "windows10-pro.tar.gz", "windows10-pro.tgz",
+    })
+    @DisplayName("decompresses single-member gzip in parallel mode as the same as sequential mode")
+    void test1(String fileName) throws URISyntaxException {
+        // given
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Path path = Paths.get(classLoader.getResource("archiver/gzip/" + fileName).toURI());
+        GzipResource expected = (GzipResource) new GzipResourceFinder().getResources(path).get(0);
+
+        // when
+        List<Resource> resources = new GzipResourceFinder(executor).getResources(path);
+
+        // then
+        assertThat(resources).hasSize(1);
+        GzipResource actual = (GzipResource) resources.get(0);
+        assertThat(actual)
+                .returns(expected.getName(), Resource::getName)
+                .returns(expected.getSize(), Resource::getSize)
+                .returns(expected.getCompressedSize(), GzipResource::getCompressedSize)
+                .returns(expected.getLastModifiedTime(), GzipResource::getLastModifiedTime);
+        assertThat(actual.getInputStream()).hasSameContentAs(expected.getInputStream());
+    }
+
+    @Test
+    @DisplayName("decompresses BGZF in parallel")
+    void test2(@TempDir Path tempPath) throws IOException {
+        // given
+        byte[] content = randomContent(1024 * 1024 + 12345);
+        Path path = Files.write(tempPath.resolve("content.dat.gz"), TestArchives.bgzip(content, 60 * 1024));
+
+        // when
+        List<Resource> resources = new GzipResourceFinder(executor).getResources(path);
+
+        // then
+        assertThat(resources).hasSize(1);
+        Resource resource = resources.get(0);
+        assertThat(resource)
+                .returns("content.dat", Resource::getName)
+                .returns((long) content.length, Resource::getSize);
+        assertThat(TestUtils.readAllBytes(resource.getInputStream())).isEqualTo(content);
+    }
+
+    @Test
+    @DisplayName("decompresses multi-member gzip without block sizes in parallel")
+    void test3(@TempDir Path tempPath) throws IOException {
+        // given
+        byte[] content = randomContent(1024 * 1024 + 54321);
+        ByteArrayOutputStream multiMember = new ByteArrayOutputStream();
+        for (int offset = 0; offset < content.length; offset += 100 * 1024) {
+            byte[] member = TestArchives.gzip(Arrays.copyOfRange(content, offset,
+                    Math.min(offset + 100 * 1024, content.length)));
+            multiMember.write(member, 0, member.length);
+        }
+        Path path = Files.write(tempPath.resolve("content.dat.gz"), multiMember.toByteArray());
+
+        // when
+        List<Resource> parallel = new GzipResourceFinder(executor).getResources(path);
+        List<Resource> sequential = new GzipResourceFinder().getResources(path);
+
+        // then
+        assertThat(TestUtils.readAllBytes(parallel.get(0).getInputStream())).isEqualTo(content);
+        assertThat(TestUtils.readAllBytes(sequential.get(0).getInputStream())).isEqualTo(content);
+    }
+
+    @Test
+    @DisplayName("throws exception when member of gzip is corrupted")
+    void test4(@TempDir Path tempPath) throws IOException {
+        // given
+        byte[] bytes = TestArchives.bgzip(randomContent(256 * 1024), 60 * 1024);
+        // Breaks CRC32 in trailer of the first block.
+        int firstBlockSize = (bytes[16] & 0xFF | (bytes[17] & 0xFF) << 8) + 1;
+        bytes[firstBlockSize - 8] ^= 0xFF;
+        Path path = Files.write(tempPath.resolve("corrupted.gz"), bytes);
+
+        // expect
+        assertThatIllegalStateException()
+                .isThrownBy(() -> new GzipResourceFinder(executor).getResources(path))
+                .withMessageStartingWith("Failed to read gzip compressor: ");
+    }
+
+    @Test
+    @DisplayName("computes digests while decompressing in both modes")
+    void test5(@TempDir Path tempPath) throws IOException {
+        // given
+        byte[] content = randomContent(300 * 1024);
+        Path path = Files.write(tempPath.resolve("content.dat.gz"), TestArchives.bgzip(content, 60 * 1024));
+        Map<DigestAlgorithm, String> expected = DigestingInputStream.digest(new ByteArrayInputStream(content),
+                EnumSet.of(DigestAlgorithm.MD5, DigestAlgorithm.SHA_256));
+
+        // when
+        GzipResourceFinder sequentialFinder = new GzipResourceFinder();
+        sequentialFinder.setDigestAlgorithms(DigestAlgorithm.MD5, DigestAlgorithm.SHA_256);
+        GzipResourceFinder parallelFinder = new GzipResourceFinder(executor);
+        parallelFinder.setDigestAlgorithms(DigestAlgorithm.MD5, DigestAlgorithm.SHA_256);
+
+        // then
+        assertThat(sequentialFinder.getResources(path).get(0).getDigests()).isEqualTo(expected);
+        assertThat(parallelFinder.getResources(path).get(0).getDigests()).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 1000})
+    @DisplayName("ignores zeros after the last member in both modes, and reports the same compressed size")
+    void test6(int paddingSize, @TempDir Path tempPath) throws IOException {
+        // given
+        byte[] content = randomContent(300 * 1024);
+        byte[] single = TestArchives.gzip(content);
+        byte[] multiMember = concat(TestArchives.gzip(Arrays.copyOfRange(content, 0, 1000)),
+                TestArchives.gzip(Arrays.copyOfRange(content, 1000, content.length)));
+        byte[] bgzf = TestArchives.bgzip(content, 60 * 1024);
+
+        for (byte[] gzip : Arrays.asList(single, multiMember, bgzf)) {
+            Path path = Files.write(tempPath.resolve("content.dat.gz"), concat(gzip, new byte[paddingSize]));
+
+            // when
+            GzipResource sequential = (GzipResource) new GzipResourceFinder().getResources(path).get(0);
+            GzipResource parallel = (GzipResource) new GzipResourceFinder(executor).getResources(path).get(0);
+
+            // then
+            assertThat(TestUtils.readAllBytes(sequential.getInputStream())).isEqualTo(content);
+            assertThat(TestUtils.readAllBytes(parallel.getInputStream())).isEqualTo(content);
+            assertThat(sequential.getCompressedSize()).isEqualTo(gzip.length);
+            assertThat(parallel.getCompressedSize()).isEqualTo(gzip.length);
+        }
+    }
+
+    @Test
+    @DisplayName("throws exception when garbage follows the last member in both modes")
+    void test7(@TempDir Path tempPath) throws IOException {
+        // given
+        byte[] gzip = TestArchives.gzip(randomContent(1024));
+        Path path = Files.write(tempPath.resolve("garbage.gz"), concat(gzip, new byte[]{0, 0, 'x'}));
+
+        // expect
+        assertThatIllegalStateException()
+                .isThrownBy(() -> new GzipResourceFinder().getResources(path))
+                .withMessageStartingWith("Failed to read gzip compressor: ")
+                .havingCause()
+                .withMessage("Garbage after a valid gzip stream at offset: " + gzip.length);
+        assertThatIllegalStateException()
+                .isThrownBy(() -> new GzipResourceFinder(executor).getResources(path))
+                .withMessageStartingWith("Failed to read gzip compressor: ")
+                .havingCause()
+                .withMessage("Garbage after a valid gzip stream at offset: " + gzip.length);
+    }
+
+    @Test
+    @DisplayName("inflates only a few members ahead in parallel mode")
+    void test8(@TempDir Path tempPath) throws IOException, InterruptedException {
+        // given
+        byte[] content = randomContent(64 * 16 * 1024);
+        ByteArrayOutputStream multiMember = new ByteArrayOutputStream();
+        for (int offset = 0; offset < content.length; offset += 16 * 1024) {
+            byte[] member = TestArchives.gzip(Arrays.copyOfRange(content, offset, offset + 16 * 1024));
+            multiMember.write(member, 0, member.length);
+        }
+        Path path = Files.write(tempPath.resolve("content.dat.gz"), multiMember.toByteArray());
+
+        AtomicInteger outstanding = new AtomicInteger();
+        AtomicInteger maxOutstanding = new AtomicInteger();
+        ThreadPoolExecutor countingExecutor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>()) {
+            @Override
+            public void execute(Runnable command) {
+                maxOutstanding.accumulateAndGet(outstanding.incrementAndGet(), Math::max);
+                super.execute(command);
+            }
+
+            @Override
+            protected void afterExecute(Runnable r, Throwable t) {
+                outstanding.decrementAndGet();
+            }
+        };
+
+        try {
+            // when
+            List<Resource> resources = new GzipResourceFinder(countingExecutor).getResources(path);
+
+            // then
+            assertThat(TestUtils.readAllBytes(resources.get(0).getInputStream())).isEqualTo(content);
+            // Task which is awaited may not be counted down yet.
+            assertThat(maxOutstanding.get()).isBetween(1, 4);
+        } finally {
+            countingExecutor.shutdown();
+            assertThat(countingExecutor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private static byte[] randomContent(int size) {
+        Random random = new Random(size);
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ('a' + random.nextInt(random.nextBoolean() ? 4 : 26));
+        }
+
+        return bytes;
+    }
+
+    private static byte[] concat(byte[]... arrays) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] array : arrays) {
+            out.write(array, 0, array.length);
+        }
+
+        return out.toByteArray();
+    }
+
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.imsejin.common.internal.TestArchives;
+import io.github.imsejin.common.io.finder.ResourceSearcher.Match;
+
+import static java.util.Comparator.*;
+import static java.util.stream.Collectors.*;
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ResourceSearcher")
+class ResourceSearcherTest {
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Nested
+    @DisplayName("when method 'search' is done successfully")
+    class Success {
+        @Test
+        @DisplayName("finds literal in entries of archives with offset and line number")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            Map<String, byte[]> entries = new LinkedHashMap<>();
+            entries.put("a.log", utf8("INFO start\nERROR disk\nINFO ERROR twice ERROR\n"));
+            entries.put("b.log", utf8("nothing here"));
+            entries.put("c.log", utf8("한글 ERROR"));
+            Path first = Files.write(tempPath.resolve("first.tar"), TestArchives.tar(entries));
+            Path second = Files.write(tempPath.resolve("second.zip"), TestArchives.zip(entries));
+
+            ResourceSearcher searcher = new ResourceSearcher(new AutoDetectingResourceFinder(false), 4);
+
+            // when
+            List<Match> matches = searcher.search(Arrays.asList(first, second), "ERROR", 100);
+
+            // then
+            assertThat(matches).hasSize(8);
+            assertThat(matches.stream().filter(it -> it.getPath().equals(first))
+                    .sorted(comparing(Match::getResourcePath).thenComparingLong(Match::getOffset)))
+                    .extracting(Match::getResourcePath, Match::getOffset, Match::getLineNumber)
+                    .containsExactly(
+                            tuple("a.log", 11L, 2L),
+                            tuple("a.log", 27L, 3L),
+                            tuple("a.log", 39L, 3L),
+                            tuple("c.log", 7L, 1L));
+        }
+
+        @Test
+        @DisplayName("finds literal across the boundary of buffer")
+        void test1(@TempDir Path tempPath) throws IOException {
+            // given
+            byte[] content = new byte[200_000];
+            Arrays.fill(content, (byte) 'x');
+            List<Long> offsets = Arrays.asList(0L, 65_534L, 65_535L + 10, 131_070L, 199_993L);
+            for (long offset : offsets) {
+                System.arraycopy(utf8("needle\n"), 0, content, (int) offset, 7);
+            }
+            Path path = Files.write(tempPath.resolve("large.txt"), content);
+
+            ResourceSearcher searcher = new ResourceSearcher(new DiskFileResourceFinder(false), 1);
+
+            // when
+            List<Match> literalMatches = searcher.search(Collections.singletonList(path), "needle", 100);
+            List<Match> regexMatches = searcher.search(Collections.singletonList(path), Pattern.compile("ne+dle$"), 100);
+
+            // then
+            assertThat(literalMatches)
+                    .extracting(Match::getOffset, Match::getLineNumber)
+                    .containsExactly(tuple(0L, 1L), tuple(65_534L, 2L), tuple(65_545L, 3L),
+                            tuple(131_070L, 4L), tuple(199_993L, 5L));
+            assertThat(regexMatches).isEqualTo(literalMatches);
+        }
+
+        @Test
+        @DisplayName("matches regular expression on each line")
+        void test2(@TempDir Path tempPath) throws IOException {
+            // given
+            Path dir = Files.createDirectory(tempPath.resolve("logs"));
+            Files.write(dir.resolve("a.log"), utf8("id=12\r\nname=x\r\nid=345 id=6\r\n"));
+
+            ResourceSearcher searcher = new ResourceSearcher(new DiskFileResourceFinder(true), 2);
+
+            // when
+            List<Match> matches = searcher.search(Collections.singletonList(dir), Pattern.compile("id=\\d+$"), 100);
+
+            // then
+            assertThat(matches)
+                    .extracting(Match::getOffset, Match::getLineNumber)
+                    .containsExactly(tuple(0L, 1L), tuple(22L, 3L));
+        }
+
+        @Test
+        @DisplayName("stops searching after the maximum number of matches")
+        void test3(@TempDir Path tempPath) throws IOException {
+            // given
+            List<Path> paths = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                paths.add(Files.write(tempPath.resolve(i + ".txt"), utf8(String.join("\n",
+                        Collections.nCopies(1000, "hit")))));
+            }
+            ResourceSearcher searcher = new ResourceSearcher(new DiskFileResourceFinder(false), 4);
+            List<Match> notified = new ArrayList<>();
+
+            // when
+            searcher.search(paths, "hit", 5, notified::add);
+
+            // then
+            assertThat(notified).hasSize(5).doesNotHaveDuplicates();
+            assertThat(searcher.search(paths, "miss", 5)).isEmpty();
+            assertThat(searcher.search(paths, Pattern.compile("h.t"), 2500).stream()
+                    .map(Match::getPath).distinct().collect(toList())).hasSizeGreaterThanOrEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("closes resources after searching them, even if searching is stopped")
+        void test4(@TempDir Path tempPath) throws IOException, InterruptedException {
+            // given
+            Map<String, byte[]> entries = new LinkedHashMap<>();
+            for (int i = 0; i < 50; i++) {
+                entries.put(i + ".log", utf8("hit\nhit\n"));
+            }
+            Path path = Files.write(tempPath.resolve("logs.tar"), TestArchives.tar(entries));
+            Path spillDirectory = Files.createDirectory(tempPath.resolve("spill"));
+            TarResourceFinder resourceFinder = new TarResourceFinder(false);
+            resourceFinder.setMemoryThreshold(0);
+            resourceFinder.setSpillDirectory(spillDirectory);
+            ResourceSearcher searcher = new ResourceSearcher(resourceFinder, 2);
+
+            // when
+            List<Match> all = searcher.search(Collections.singletonList(path), "hit", 1000);
+            List<Match> first = searcher.search(Collections.singletonList(path), "hit", 1);
+
+            // then
+            assertThat(all).hasSize(100);
+            assertThat(first).hasSize(1);
+            // Tasks which are running when searching is stopped close their resources on their own.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (countFiles(spillDirectory) > 0) {
+                assertThat(System.nanoTime()).as("Temporary files are not deleted in time").isLessThan(deadline);
+                TimeUnit.MILLISECONDS.sleep(50);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("when method 'search' is failed")
+    class Failure {
+        @Test
+        @DisplayName("throws exception when arguments are invalid")
+        void test0() {
+            // given
+            ResourceSearcher searcher = new ResourceSearcher(new DiskFileResourceFinder(false), 1);
+
+            // expect
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new ResourceSearcher(new DiskFileResourceFinder(false), 0))
+                    .withMessageStartingWith("ResourceSearcher.parallelism must be positive, but it is 0");
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> searcher.search(Collections.emptyList(), "", 1));
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> searcher.search(Collections.emptyList(), "a", 0))
+                    .withMessageStartingWith("ResourceSearcher.maxMatches must be positive, but it is 0");
+        }
+
+        @Test
+        @DisplayName("throws exception when resources of path cannot be found")
+        void test1(@TempDir Path tempPath) throws IOException {
+            // given
+            Path path = Files.write(tempPath.resolve("broken.tar.gz"), new byte[]{0x1F, (byte) 0x8B, 1, 2});
+            ResourceSearcher searcher = new ResourceSearcher(new TarGzipResourceFinder(false), 2);
+
+            // expect
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> searcher.search(Collections.singletonList(path), "a", 1))
+                    .withMessageStartingWith("Failed to read archive file: ");
+        }
+    }
+
+}
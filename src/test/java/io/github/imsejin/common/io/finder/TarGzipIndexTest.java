@@ -0,0 +1,172 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.github.imsejin.common.internal.TestArchives;
+import io.github.imsejin.common.internal.TestUtils;
+import io.github.imsejin.common.io.Resource;
+import io.github.imsejin.common.io.TarResource;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TarGzipIndex")
+class TarGzipIndexTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "macos-14.4.1.tar.gz", "macos-14.4.1.tgz",
+            "ubuntu-18.04.1.tar.gz", "ubuntu-18.04.1.tgz",
+            "windows10-pro.tar.gz", "windows10-pro.tgz",
+    })
+    @DisplayName("reads every entry with index as the same as sequential reading")
+    void test0(String fileName, @TempDir Path tempPath) throws URISyntaxException {
+        // given
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Path path = Paths.get(classLoader.getResource("archiver/gzip/" + fileName).toURI());
+        TarGzipResourceFinder resourceFinder = new TarGzipResourceFinder(false);
+        List<Resource> expected = resourceFinder.getResources(path);
+
+        // when
+        Path indexPath = tempPath.resolve(fileName + ".idx");
+        TarGzipIndex.build(path, 16 * 1024, StandardCharsets.UTF_8).write(indexPath);
+        TarGzipIndex index = TarGzipIndex.read(indexPath);
+
+        // then
+        assertThat(index.getCheckpointCount()).isPositive();
+        assertThat(index.getEntryPaths()).hasSameSizeAs(expected);
+        for (Resource it : expected) {
+            TarResource actual = resourceFinder.getResource(path, index, it.getPath());
+            assertThat(actual)
+                    .isNotNull()
+                    .isEqualTo(it);
+            if (!it.isDirectory()) {
+                assertThat(actual.getInputStream()).hasSameContentAs(it.getInputStream());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("reads entries in multi-member gzip with stored and compressed blocks")
+    void test1(@TempDir Path tempPath) throws IOException {
+        // given
+        Random random = new Random(42);
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 8; i++) {
+            byte[] bytes = new byte[64 * 1024 + random.nextInt(64 * 1024)];
+            if (i % 2 == 0) {
+                // Incompressible data makes deflate use stored blocks.
+                random.nextBytes(bytes);
+            } else {
+                for (int j = 0; j < bytes.length; j++) {
+                    bytes[j] = (byte) ('a' + random.nextInt(4));
+                }
+            }
+            entries.put("dir/entry-" + i + ".dat", bytes);
+        }
+
+        byte[] tar = TestArchives.tar(entries);
+        int half = tar.length / 2;
+        byte[] first = TestArchives.gzip(Arrays.copyOfRange(tar, 0, half));
+        byte[] second = TestArchives.gzip(Arrays.copyOfRange(tar, half, tar.length));
+        byte[] multiMember = new byte[first.length + second.length];
+        System.arraycopy(first, 0, multiMember, 0, first.length);
+        System.arraycopy(second, 0, multiMember, first.length, second.length);
+        Path path = Files.write(tempPath.resolve("multi-member.tar.gz"), multiMember);
+
+        // when
+        TarGzipIndex index = TarGzipIndex.build(path, 32 * 1024, StandardCharsets.UTF_8);
+
+        // then
+        assertThat(index.getCheckpointCount()).isGreaterThan(2);
+        assertThat(index.getEntryPaths()).containsExactlyElementsOf(entries.keySet());
+        TarGzipResourceFinder resourceFinder = new TarGzipResourceFinder(false);
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            TarResource resource = resourceFinder.getResource(path, index, entry.getKey());
+            assertThat(resource).isNotNull();
+            assertThat(TestUtils.readAllBytes(resource.getInputStream())).isEqualTo(entry.getValue());
+        }
+        assertThat(resourceFinder.getResource(path, index, "no-such-entry")).isNull();
+    }
+
+    @Test
+    @DisplayName("refuses index which is out of date with file")
+    void test2(@TempDir Path tempPath) throws IOException {
+        // given
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("a.txt", "alpha".getBytes(StandardCharsets.UTF_8));
+        Path path = Files.write(tempPath.resolve("bundle.tar.gz"), TestArchives.gzip(TestArchives.tar(entries)));
+        TarGzipIndex index = TarGzipIndex.build(path);
+
+        // when
+        Files.setLastModifiedTime(path, FileTime.fromMillis(0));
+
+        // then
+        assertThat(index.isUpToDate(path)).isFalse();
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new TarGzipResourceFinder(false).getResource(path, index, "a.txt"))
+                .withMessageStartingWith("TarGzipIndex is out of date with file");
+    }
+
+    @Test
+    @DisplayName("writes and reads entry whose name is longer than 65535 bytes in UTF-8")
+    void test3(@TempDir Path tempPath) throws IOException {
+        // given
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 25_000; i++) {
+            sb.append('\uAC00');
+        }
+        String longName = sb.append(".txt").toString();
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put(longName, "alpha".getBytes(StandardCharsets.UTF_8));
+        entries.put("b.txt", "bravo".getBytes(StandardCharsets.UTF_8));
+        Path path = Files.write(tempPath.resolve("bundle.tar.gz"), TestArchives.gzip(TestArchives.tar(entries)));
+        Path indexPath = tempPath.resolve("bundle.tar.gz.idx");
+
+        // when
+        TarGzipIndex.build(path).write(indexPath);
+        TarGzipIndex index = TarGzipIndex.read(indexPath);
+
+        // then
+        TarGzipResourceFinder resourceFinder = new TarGzipResourceFinder(false);
+        TarResource resource = resourceFinder.getResource(path, index, longName);
+        assertThat(resource).isNotNull();
+        assertThat(resource.getPath()).isEqualTo(longName);
+        assertThat(TestUtils.readAllBytes(resource.getInputStream())).isEqualTo("alpha".getBytes(StandardCharsets.UTF_8));
+        assertThat(TestUtils.readAllBytes(resourceFinder.getResource(path, index, "b.txt").getInputStream()))
+                .isEqualTo("bravo".getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.imsejin.common.internal.TestArchives;
+import io.github.imsejin.common.internal.TestUtils;
+import io.github.imsejin.common.io.DigestAlgorithm;
+import io.github.imsejin.common.io.Resource;
+import io.github.imsejin.common.io.TarResource;
+
+import static java.util.stream.Collectors.*;
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TarResourceFinder")
+class TarResourceFinderTest {
+
+    private Path path;
+
+    private byte[] large;
+
+    @BeforeEach
+    void createArchive(@TempDir Path tempPath) throws IOException {
+        this.large = new byte[100_000];
+        new Random(0).nextBytes(this.large);
+
+        Map<String, byte[]> innerEntries = new LinkedHashMap<>();
+        innerEntries.put("b.txt", "bravo".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("a.txt", "alpha".getBytes(StandardCharsets.UTF_8));
+        entries.put("empty.txt", new byte[0]);
+        entries.put("docs/large.bin", this.large);
+        entries.put("inner.zip", TestArchives.zip(innerEntries));
+
+        this.path = Files.write(tempPath.resolve("bundle.tar"), TestArchives.tar(entries));
+    }
+
+    @Nested
+    @DisplayName("when memory-mapped mode is enabled")
+    class MemoryMapped {
+        @Test
+        @DisplayName("finds the same resources as copying mode")
+        void test0() {
+            // given
+            TarResourceFinder resourceFinder = new TarResourceFinder(false);
+            resourceFinder.setMemoryMapped(true);
+            resourceFinder.setDigestAlgorithms(DigestAlgorithm.CRC32C);
+            TarResourceFinder copyingFinder = new TarResourceFinder(false);
+            copyingFinder.setDigestAlgorithms(DigestAlgorithm.CRC32C);
+
+            // when
+            List<Resource> resources = resourceFinder.getResources(path);
+
+            // then
+            List<Resource> expected = copyingFinder.getResources(path);
+            assertThat(resources).isEqualTo(expected);
+            for (int i = 0; i < resources.size(); i++) {
+                Resource resource = resources.get(i);
+                assertThat(TestUtils.readAllBytes(resource.getInputStream()))
+                        .isEqualTo(TestUtils.readAllBytes(expected.get(i).getInputStream()));
+                assertThat(resource.getDigests()).isEqualTo(expected.get(i).getDigests());
+                // Content can be read repeatedly.
+                assertThat(TestUtils.readAllBytes(resource.getInputStream())).hasSize((int) resource.getSize());
+            }
+        }
+
+        @Test
+        @DisplayName("gives content as read-only slice of the mapping")
+        void test1() {
+            // given
+            TarResourceFinder resourceFinder = new TarResourceFinder(false);
+            resourceFinder.setMemoryMapped(true);
+
+            // when
+            List<Resource> resources = resourceFinder.getResources(path);
+
+            // then
+            TarResource resource = (TarResource) resources.get(2);
+            assertThat(resource.getPath()).isEqualTo("docs/large.bin");
+            ByteBuffer content = resource.getContent();
+            assertThat(content).isNotNull();
+            assertThat(content.isReadOnly()).isTrue();
+            assertThat(content.isDirect()).isTrue();
+            assertThat(content.remaining()).isEqualTo(large.length);
+            byte[] bytes = new byte[content.remaining()];
+            content.get(bytes);
+            assertThat(bytes).isEqualTo(large);
+            assertThat(resource.getContent().position()).isZero();
+            assertThatExceptionOfType(ReadOnlyBufferException.class)
+                    .isThrownBy(() -> resource.getContent().put((byte) 0));
+            assertThat(new TarResourceFinder(false).getResources(path))
+                    .allMatch(it -> ((TarResource) it).getContent() == null);
+        }
+
+        @Test
+        @DisplayName("expands nested archives when it is recursive")
+        void test2() {
+            // given
+            TarResourceFinder resourceFinder = new TarResourceFinder(true, it -> !it.getName().startsWith("e"));
+            resourceFinder.setMemoryMapped(true);
+
+            // when
+            List<Resource> resources = resourceFinder.getResources(path);
+
+            // then
+            assertThat(resources)
+                    .extracting(Resource::getPath)
+                    .containsExactly("a.txt", "docs/large.bin", "inner.zip/b.txt");
+            assertThat(TestUtils.readAllBytes(resources.get(2).getInputStream()))
+                    .isEqualTo("bravo".getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("ignores memory-mapped mode for compressed tar")
+        void test3(@TempDir Path tempPath) throws IOException {
+            // given
+            Path compressedPath = Files.write(tempPath.resolve("bundle.tar.bz2"),
+                    TestArchives.bzip2(Files.readAllBytes(path)));
+            TarResourceFinder resourceFinder = new TarBZip2ResourceFinder(false);
+            resourceFinder.setMemoryMapped(true);
+
+            // when
+            List<Resource> resources = resourceFinder.getResources(compressedPath);
+
+            // then
+            assertThat(resources).isEqualTo(new TarResourceFinder(false).getResources(path));
+            assertThat(resources).allMatch(it -> ((TarResource) it).getContent() == null);
+        }
+
+        @Test
+        @DisplayName("ignores memory-mapped mode for tar.gz")
+        void test4(@TempDir Path tempPath) throws IOException {
+            // given
+            Path compressedPath = Files.write(tempPath.resolve("bundle.tar.gz"),
+                    TestArchives.gzip(Files.readAllBytes(path)));
+            TarResourceFinder resourceFinder = new TarGzipResourceFinder(false);
+            resourceFinder.setMemoryMapped(true);
+
+            // when
+            List<Resource> resources = resourceFinder.getResources(compressedPath);
+
+            // then
+            assertThat(resources).isEqualTo(new TarResourceFinder(false).getResources(path));
+            assertThat(resources).allMatch(it -> ((TarResource) it).getContent() == null);
+            assertThat(TestUtils.readAllBytes(resources.get(2).getInputStream())).isEqualTo(large);
+        }
+
+        @Test
+        @DisplayName("ignores memory-mapped mode for compressed file given to finder of plain tar")
+        void test5(@TempDir Path tempPath) throws IOException {
+            // given
+            Path compressedPath = Files.write(tempPath.resolve("bundle.tar"),
+                    TestArchives.gzip(Files.readAllBytes(path)));
+            TarResourceFinder resourceFinder = new TarResourceFinder(false) {
+                @Override
+                protected TarArchiveInputStream getArchiveInputStream(InputStream in) throws IOException {
+                    return super.getArchiveInputStream(new GzipCompressorInputStream(in));
+                }
+            };
+            resourceFinder.setMemoryMapped(true);
+
+            // when
+            List<Resource> resources = resourceFinder.getResources(compressedPath);
+
+            // then
+            assertThat(resources).isEqualTo(new TarResourceFinder(false).getResources(path));
+            assertThat(resources).allMatch(it -> ((TarResource) it).getContent() == null);
+        }
+    }
+
+
+    @Nested
+    @DisplayName("when subclass reads tar compressed with its own codec")
+    class CompressedBySubclass {
+        private Path compressedPath;
+
+        private TarResourceFinder resourceFinder;
+
+        @BeforeEach
+        void compress(@TempDir Path tempPath) throws IOException {
+            this.compressedPath = Files.write(tempPath.resolve("bundle.tar.gz"),
+                    TestArchives.gzip(Files.readAllBytes(path)));
+            this.resourceFinder = new TarResourceFinder(false) {
+                @Override
+                protected TarArchiveInputStream getArchiveInputStream(InputStream in) throws IOException {
+                    return super.getArchiveInputStream(new GzipCompressorInputStream(in));
+                }
+            };
+        }
+
+        @Test
+        @DisplayName("lists entries by decompressing the file")
+        void test0() {
+            // when
+            List<TarResource> resources = resourceFinder.listResources(compressedPath);
+
+            // then
+            assertThat(resources)
+                    .extracting(Resource::getPath)
+                    .containsExactly("a.txt", "empty.txt", "docs/large.bin", "inner.zip");
+            assertThat(resources)
+                    .extracting(Resource::getSize)
+                    .isEqualTo(new TarResourceFinder(false).listResources(path).stream()
+                            .map(Resource::getSize).collect(toList()))
+                    .startsWith(5L, 0L, (long) large.length);
+        }
+
+        @Test
+        @DisplayName("extracts entries by decompressing the file")
+        void test1(@TempDir Path targetDir) throws IOException {
+            // when
+            resourceFinder.extractTo(compressedPath, targetDir);
+
+            // then
+            assertThat(targetDir.resolve("a.txt")).hasBinaryContent("alpha".getBytes(StandardCharsets.UTF_8));
+            assertThat(targetDir.resolve("empty.txt")).isEmptyFile();
+            assertThat(targetDir.resolve("docs/large.bin")).hasBinaryContent(large);
+        }
+    }
+
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.finder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.imsejin.common.io.DiskFileResource;
+import io.github.imsejin.common.io.Resource;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("WatchingResourceIndex")
+class WatchingResourceIndexTest {
+
+    /**
+     * Waits for the condition, because events of file system are delivered asynchronously.
+     * Some platforms poll file system every few seconds.
+     */
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("Condition is not satisfied in time").isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+    }
+
+    private static Path createTree(Path tempPath) throws IOException {
+        Path root = Files.createDirectory(tempPath.resolve("root"));
+        Files.write(root.resolve("a.txt"), new byte[]{1});
+        Files.createDirectory(root.resolve("b"));
+        Files.write(root.resolve("b/c.txt"), new byte[]{1, 2});
+        Files.createDirectory(root.resolve("b-c"));
+
+        return root;
+    }
+
+    @Nested
+    @DisplayName("when index is built and watched successfully")
+    class Success {
+        @Test
+        @DisplayName("indexes the same resources as DiskFileResourceFinder")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            Path root = createTree(tempPath);
+
+            // when
+            try (WatchingResourceIndex recursive = new WatchingResourceIndex(root, true);
+                 WatchingResourceIndex flat = new WatchingResourceIndex(root, false)) {
+                // then
+                assertThat(recursive.getResources())
+                        .containsExactlyInAnyOrderElementsOf(new DiskFileResourceFinder(true).getResources(root))
+                        .extracting(it -> root.relativize(((DiskFileResource) it).getRealPath()).toString())
+                        .containsExactly("", "a.txt", "b", "b/c.txt", "b-c");
+                assertThat(flat.getResources())
+                        .containsExactlyInAnyOrderElementsOf(new DiskFileResourceFinder(false).getResources(root));
+                assertThat(recursive.getResources(root.resolve("b")))
+                        .containsExactly(DiskFileResource.from(root.resolve("b")),
+                                DiskFileResource.from(root.resolve("b/c.txt")));
+            }
+        }
+
+        @Test
+        @DisplayName("returns the same snapshot until the index is changed")
+        void test1(@TempDir Path tempPath) throws Exception {
+            // given
+            Path root = createTree(tempPath);
+
+            try (WatchingResourceIndex index = new WatchingResourceIndex(root, true)) {
+                List<Resource> snapshot = index.getResources();
+
+                // expect
+                assertThat(index.getResources()).isSameAs(snapshot);
+
+                long version = index.getVersion();
+                Files.write(root.resolve("d.txt"), new byte[]{1});
+                await(() -> index.getVersion() != version);
+                assertThat(index.getResources()).isNotSameAs(snapshot);
+            }
+        }
+
+        @Test
+        @DisplayName("reflects created, modified and deleted files including new directories")
+        void test2(@TempDir Path tempPath) throws Exception {
+            // given
+            Path root = createTree(tempPath);
+
+            try (WatchingResourceIndex index = new WatchingResourceIndex(root, true)) {
+                // when
+                Files.write(root.resolve("a.txt"), new byte[100]);
+                Path newDir = Files.createDirectories(root.resolve("new/deep"));
+                Files.write(newDir.resolve("e.txt"), new byte[]{1});
+                deleteRecursively(root.resolve("b"));
+
+                // then
+                await(() -> index.getResources().contains(DiskFileResource.from(root.resolve("a.txt")))
+                        && index.getResources().stream().anyMatch(it -> it.getPath().endsWith("e.txt"))
+                        && index.getResources(root.resolve("b")).isEmpty());
+                assertThat(index.getResources()).filteredOn(it -> it.getName().equals("a.txt"))
+                        .singleElement().extracting(Resource::getSize).isEqualTo(100L);
+                assertThat(index.getResources(root.resolve("b-c"))).hasSize(1);
+
+                // Files in the new directory are watched as well.
+                Files.delete(newDir.resolve("e.txt"));
+                await(() -> index.getResources().stream().noneMatch(it -> it.getPath().endsWith("e.txt")));
+            }
+        }
+
+        @Test
+        @DisplayName("reconciles the index with a full scan")
+        void test3(@TempDir Path tempPath) throws Exception {
+            // given
+            Path root = createTree(tempPath);
+
+            try (WatchingResourceIndex index = new WatchingResourceIndex(root, true,
+                    it -> !it.toString().endsWith(".tmp"), Duration.ofMillis(100))) {
+                // when
+                Files.write(root.resolve("f.tmp"), new byte[]{1});
+                Files.write(root.resolve("f.txt"), new byte[]{1});
+                index.reconcile();
+
+                // then
+                assertThat(index.getResources())
+                        .containsExactlyInAnyOrderElementsOf(new DiskFileResourceFinder(true,
+                                it -> !it.toString().endsWith(".tmp")).getResources(root));
+            }
+        }
+        @Test
+        @DisplayName("reflects file which is rewritten at the same size")
+        void test4(@TempDir Path tempPath) throws Exception {
+            // given
+            Path root = createTree(tempPath);
+            Path path = root.resolve("a.txt");
+            FileTime modifiedTime = FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() + 60_000);
+
+            try (WatchingResourceIndex index = new WatchingResourceIndex(root, true)) {
+                long version = index.getVersion();
+
+                // when
+                Files.write(path, new byte[]{2});
+                Files.setLastModifiedTime(path, modifiedTime);
+                index.reconcile();
+
+                // then
+                await(() -> index.getVersion() != version);
+                assertThat(index.getResources())
+                        .filteredOn(it -> it.getName().equals("a.txt"))
+                        .singleElement()
+                        .returns(1L, Resource::getSize)
+                        .extracting(it -> ((DiskFileResource) it).getLastModifiedTime())
+                        .isEqualTo(modifiedTime.toInstant());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("when index is failed")
+    class Failure {
+        @Test
+        @DisplayName("throws exception with invalid arguments or after closed")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            Path root = createTree(tempPath);
+            WatchingResourceIndex index = new WatchingResourceIndex(root, true);
+            index.close();
+
+            // expect
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new WatchingResourceIndex(root.resolve("a.txt"), true))
+                    .withMessageStartingWith("It is not a directory: ");
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new WatchingResourceIndex(root, true, it -> true, Duration.ZERO));
+            assertThatIllegalArgumentException()
+                    .isThrownBy(index::getResources)
+                    .withMessageStartingWith("WatchingResourceIndex is already closed: ");
+            try (WatchingResourceIndex another = new WatchingResourceIndex(root, true)) {
+                assertThatIllegalArgumentException()
+                        .isThrownBy(() -> another.getResources(tempPath))
+                        .withMessageStartingWith("Path is not in the indexed directory");
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> children = Files.list(path)) {
+                for (Path child : (Iterable<Path>) children::iterator) {
+                    deleteRecursively(child);
+                }
+            }
+        }
+        Files.delete(path);
+    }
+
+}
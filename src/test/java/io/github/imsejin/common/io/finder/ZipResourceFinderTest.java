@@ -16,20 +16,32 @@
 
 package io.github.imsejin.common.io.finder;
 
+import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import io.github.imsejin.common.internal.TestArchives;
 import io.github.imsejin.common.internal.TestUtils;
 import io.github.imsejin.common.io.Resource;
 import io.github.imsejin.common.io.ZipResource;
 import io.github.imsejin.common.util.FilenameUtils;
 
+import static java.util.stream.Collectors.*;
 import static org.assertj.core.api.Assertions.*;
 
 @DisplayName("ZipResourceFinder")
@@ -75,4 +87,104 @@ class ZipResourceFinderTest {
                 .allMatch(it -> it.getSize() >= 0);
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"macos-14.4.1.zip", "ubuntu-18.04.3.zip", "windows10-pro.zip"})
+    @DisplayName("finds the same resources in the same order when entries are inflated in parallel")
+    void test1(String fileName) throws URISyntaxException {
+        // given
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Path path = Paths.get(classLoader.getResource("archiver/zip/" + fileName).toURI());
+        ZipResourceFinder resourceFinder = new ZipResourceFinder(false);
+        resourceFinder.setParallelism(4);
+
+        // when
+        List<Resource> resources = resourceFinder.getResources(path);
+
+        // then
+        // Last modified time can differ, because central directory may have extra field of time
+        // which local file header doesn't have.
+        List<Resource> expected = new ZipResourceFinder(false).getResources(path);
+        assertThat(resources)
+                .extracting(Resource::getPath, Resource::getSize, Resource::isDirectory)
+                .containsExactlyElementsOf(expected.stream()
+                        .map(it -> tuple(it.getPath(), it.getSize(), it.isDirectory())).collect(toList()));
+        for (int i = 0; i < resources.size(); i++) {
+            if (resources.get(i).isDirectory()) {
+                continue;
+            }
+            assertThat(TestUtils.readAllBytes(resources.get(i).getInputStream()))
+                    .isEqualTo(TestUtils.readAllBytes(expected.get(i).getInputStream()));
+        }
+    }
+
+    @Test
+    @DisplayName("throws exception when parallelism is not positive")
+    void test2() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new ZipResourceFinder(false).setParallelism(0))
+                .withMessageStartingWith("ZipResourceFinder.parallelism must be positive, but it is 0");
+    }
+
+
+    @Test
+    @DisplayName("reads whole content of entries which are not archives when it is recursive in parallel")
+    void test3(@TempDir Path tempPath) throws IOException {
+        // given
+        byte[] large = new byte[100_000];
+        new Random(0).nextBytes(large);
+        Map<String, byte[]> innerEntries = new LinkedHashMap<>();
+        innerEntries.put("b.txt", "bravo".getBytes(StandardCharsets.UTF_8));
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("a.txt", "alpha".getBytes(StandardCharsets.UTF_8));
+        entries.put("docs/", new byte[0]);
+        entries.put("docs/large.bin", large);
+        entries.put("inner.zip", TestArchives.zip(innerEntries));
+        Path path = Files.write(tempPath.resolve("bundle.zip"), TestArchives.zip(entries));
+        ZipResourceFinder resourceFinder = new ZipResourceFinder(true);
+        resourceFinder.setParallelism(4);
+
+        // when
+        List<Resource> resources = resourceFinder.getResources(path);
+
+        // then
+        assertThat(resources)
+                .extracting(Resource::getPath)
+                .containsExactly("a.txt", "docs/", "docs/large.bin", "inner.zip/b.txt");
+        assertThat(TestUtils.readAllBytes(resources.get(0).getInputStream()))
+                .isEqualTo("alpha".getBytes(StandardCharsets.UTF_8));
+        assertThat(TestUtils.readAllBytes(resources.get(2).getInputStream())).isEqualTo(large);
+        assertThat(TestUtils.readAllBytes(resources.get(3).getInputStream()))
+                .isEqualTo("bravo".getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    @Test
+    @DisplayName("deletes temporary files of resources which are already found when inflating in parallel fails")
+    void test4(@TempDir Path tempPath) throws IOException {
+        // given
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 40; i++) {
+            entries.put((i == 20 ? "failure" : i) + ".txt", ("entry-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        Path path = Files.write(tempPath.resolve("bundle.zip"), TestArchives.zip(entries));
+        Path spillDirectory = Files.createDirectory(tempPath.resolve("spill"));
+        ZipResourceFinder resourceFinder = new ZipResourceFinder(false, entry -> {
+            if (entry.getName().startsWith("failure")) {
+                throw new IllegalStateException("Failed to filter entry: " + entry.getName());
+            }
+            return true;
+        });
+        resourceFinder.setParallelism(4);
+        resourceFinder.setMemoryThreshold(0);
+        resourceFinder.setSpillDirectory(spillDirectory);
+
+        // expect
+        assertThatIllegalStateException()
+                .isThrownBy(() -> resourceFinder.getResources(path))
+                .withMessage("Failed to filter entry: failure.txt");
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
 }
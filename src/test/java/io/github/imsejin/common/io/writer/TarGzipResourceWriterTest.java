@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.writer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.imsejin.common.internal.TestUtils;
+import io.github.imsejin.common.io.Resource;
+import io.github.imsejin.common.io.TarResource;
+import io.github.imsejin.common.io.finder.TarGzipResourceFinder;
+
+import static java.util.Collections.*;
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TarGzipResourceWriter")
+class TarGzipResourceWriterTest {
+
+    private static final long MODIFIED_TIME = 1_600_000_000_000L;
+
+    /**
+     * Returns content which is partly compressible, over many blocks.
+     */
+    private static byte[] content(int size) {
+        byte[] bytes = new byte[size];
+        Random random = new Random(size);
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) ('a' + random.nextInt(8));
+        }
+        return bytes;
+    }
+
+    private static TarResource resource(String path, byte[] bytes) {
+        return new TarResource(path, path.substring(path.lastIndexOf('/') + 1), () -> new ByteArrayInputStream(bytes),
+                bytes.length, false, MODIFIED_TIME, emptyMap());
+    }
+
+    @Nested
+    @DisplayName("when method 'write' is done successfully")
+    class Success {
+        @Test
+        @DisplayName("compresses resources into tar.gz which is read by finder")
+        void test0(@TempDir Path tempPath) {
+            // given
+            List<Resource> resources = new ArrayList<>();
+            resources.add(new TarResource("docs", "docs", () -> null, 0, true, MODIFIED_TIME, emptyMap()));
+            for (int i = 0; i < 5; i++) {
+                resources.add(resource("docs/" + i + ".txt", content(50_000 * i)));
+            }
+            TarGzipResourceWriter writer = new TarGzipResourceWriter(4);
+            writer.setBlockSize(32 * 1024);
+            Path path = tempPath.resolve("bundle.tar.gz");
+
+            // when
+            writer.write(path, resources);
+
+            // then
+            List<Resource> actual = new TarGzipResourceFinder(false).getResources(path);
+            assertThat(actual)
+                    .extracting(Resource::getPath)
+                    .containsExactly("docs/", "docs/0.txt", "docs/1.txt", "docs/2.txt", "docs/3.txt", "docs/4.txt");
+            for (int i = 1; i < actual.size(); i++) {
+                assertThat(TestUtils.readAllBytes(actual.get(i).getInputStream()))
+                        .isEqualTo(TestUtils.readAllBytes(resources.get(i).getInputStream()));
+            }
+            assertThat(actual).extracting(it -> ((TarResource) it).getLastModifiedTime())
+                    .containsOnly(Instant.ofEpochMilli(MODIFIED_TIME));
+        }
+
+        @Test
+        @DisplayName("compresses blocks into a single gzip member as small as sequential compression")
+        void test1() throws IOException {
+            // given
+            byte[] content = content(1_000_000);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+
+            // when
+            ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+            try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(parallel, executor, 4, 64 * 1024, 6)) {
+                out.write(content, 0, 1000);
+                out.write(content, 1000, content.length - 1000);
+            } finally {
+                executor.shutdownNow();
+            }
+
+            // then
+            ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(sequential)) {
+                out.write(content);
+            }
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(parallel.toByteArray()))) {
+                assertThat(TestUtils.readAllBytes(in)).isEqualTo(content);
+            }
+            assertThat((double) parallel.size()).isLessThan(sequential.size() * 1.02);
+        }
+
+        @Test
+        @DisplayName("compresses empty content into valid gzip")
+        void test2() throws IOException {
+            // given
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+            // when
+            new ParallelGzipOutputStream(bytes, executor, 1, 64 * 1024, 6).close();
+            executor.shutdownNow();
+
+            // then
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                assertThat(in.read()).isEqualTo(-1);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("when method 'write' is failed")
+    class Failure {
+        @Test
+        @DisplayName("throws exception when size of resource is different from its content")
+        void test0(@TempDir Path tempPath) {
+            // given
+            List<Resource> resources = singletonList(new TarResource("a.txt", "a.txt",
+                    () -> new ByteArrayInputStream(new byte[10]), 5, false, MODIFIED_TIME, emptyMap()));
+
+            // expect
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> new TarGzipResourceWriter(2).write(tempPath.resolve("a.tar.gz"), resources))
+                    .withMessageStartingWith("Failed to write archive file: ");
+        }
+
+        @Test
+        @DisplayName("throws exception when block size is too small")
+        void test1() {
+            // expect
+            assertThatIllegalArgumentException().isThrownBy(() -> new TarGzipResourceWriter().setBlockSize(1024));
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.writer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.imsejin.common.internal.TestUtils;
+import io.github.imsejin.common.io.Resource;
+import io.github.imsejin.common.io.TarResource;
+import io.github.imsejin.common.io.finder.TarResourceFinder;
+
+import static java.util.Collections.*;
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TarResourceWriter")
+class TarResourceWriterTest {
+
+    private static final long MODIFIED_TIME = 1_600_000_000_000L;
+
+    private static TarResource resource(String path, byte[] bytes) {
+        return new TarResource(path, path.substring(path.lastIndexOf('/') + 1), () -> new ByteArrayInputStream(bytes),
+                bytes.length, false, MODIFIED_TIME, emptyMap());
+    }
+
+    @Nested
+    @DisplayName("when method 'write' is done successfully")
+    class Success {
+        @Test
+        @DisplayName("writes resources in order with their last modified time")
+        void test0(@TempDir Path tempPath) {
+            // given
+            byte[] random = new byte[100_000];
+            new Random(0).nextBytes(random);
+            List<Resource> resources = Arrays.asList(
+                    new TarResource("docs", "docs", () -> null, 0, true, MODIFIED_TIME, emptyMap()),
+                    resource("docs/random.bin", random),
+                    resource("empty.txt", new byte[0]));
+            Path path = tempPath.resolve("bundle.tar");
+
+            // when
+            new TarResourceWriter().write(path, resources);
+
+            // then
+            List<Resource> actual = new TarResourceFinder(false).getResources(path);
+            assertThat(actual)
+                    .extracting(Resource::getPath)
+                    .containsExactly("docs/", "docs/random.bin", "empty.txt");
+            assertThat(actual.get(0).isDirectory()).isTrue();
+            assertThat(TestUtils.readAllBytes(actual.get(1).getInputStream())).isEqualTo(random);
+            assertThat(actual.get(2).getSize()).isZero();
+            assertThat(actual).extracting(it -> ((TarResource) it).getLastModifiedTime())
+                    .containsOnly(Instant.ofEpochMilli(MODIFIED_TIME));
+        }
+    }
+
+    @Nested
+    @DisplayName("when method 'append' is done successfully")
+    class AppendingSuccess {
+        @Test
+        @DisplayName("appends resources over the end-of-archive marker without rewriting the existing entries")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            byte[] random = new byte[100_001];
+            new Random(0).nextBytes(random);
+            Path path = tempPath.resolve("bundle.tar");
+            new TarResourceWriter().write(path, Arrays.asList(
+                    resource("a.txt", "alpha".getBytes(StandardCharsets.UTF_8)),
+                    resource("random.bin", random)));
+            byte[] before = Files.readAllBytes(path);
+
+            // when
+            new TarResourceWriter().append(path, Arrays.asList(
+                    resource("b.txt", "bravo".getBytes(StandardCharsets.UTF_8)),
+                    resource("a.txt", "updated".getBytes(StandardCharsets.UTF_8))));
+
+            // then
+            // Header and padded content of each entry take 512 bytes at least.
+            int endOfEntries = 512 + 512 + 512 + (random.length + 511) / 512 * 512;
+            byte[] after = Files.readAllBytes(path);
+            assertThat(Arrays.copyOf(after, endOfEntries)).isEqualTo(Arrays.copyOf(before, endOfEntries));
+            List<Resource> actual = new TarResourceFinder(false).getResources(path);
+            assertThat(actual)
+                    .extracting(Resource::getPath)
+                    .containsExactly("a.txt", "random.bin", "b.txt", "a.txt");
+            assertThat(TestUtils.readAllBytes(actual.get(1).getInputStream())).isEqualTo(random);
+            assertThat(TestUtils.readAllBytes(actual.get(2).getInputStream()))
+                    .isEqualTo("bravo".getBytes(StandardCharsets.UTF_8));
+            assertThat(TestUtils.readAllBytes(actual.get(3).getInputStream()))
+                    .isEqualTo("updated".getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("appends resources to empty tar")
+        void test1(@TempDir Path tempPath) throws IOException {
+            // given
+            Path path = tempPath.resolve("empty.tar");
+            new TarResourceWriter().write(path, emptyList());
+
+            // when
+            new TarResourceWriter().append(path, singletonList(resource("a.txt", new byte[3])));
+            new TarResourceWriter().append(path, singletonList(resource("b.txt", new byte[0])));
+
+            // then
+            List<Resource> actual = new TarResourceFinder(false).getResources(path);
+            assertThat(actual).extracting(Resource::getPath).containsExactly("a.txt", "b.txt");
+            assertThat(actual).extracting(Resource::getSize).containsExactly(3L, 0L);
+        }
+    }
+
+    @Nested
+    @DisplayName("when method 'append' is failed")
+    class AppendingFailure {
+        @Test
+        @DisplayName("doesn't provide appending for format which cannot be appended")
+        void test0() {
+            // expect
+            assertThat(new TarResourceWriter()).isInstanceOf(AppendableArchiveResourceWriter.class);
+            assertThat(new ZipResourceWriter()).isInstanceOf(AppendableArchiveResourceWriter.class);
+            assertThat(new TarGzipResourceWriter(2))
+                    .isNotInstanceOf(AppendableArchiveResourceWriter.class)
+                    .isNotInstanceOf(TarResourceWriter.class);
+        }
+
+        @Test
+        @DisplayName("leaves tar with the existing entries when resource is failed to be read or its name is invalid")
+        void test1(@TempDir Path tempPath) throws IOException {
+            // given
+            byte[] random = new byte[100_001];
+            new Random(0).nextBytes(random);
+            Path path = tempPath.resolve("bundle.tar");
+            new TarResourceWriter().write(path, Arrays.asList(
+                    resource("a.txt", "alpha".getBytes(StandardCharsets.UTF_8)),
+                    resource("random.bin", random)));
+            byte[] before = Files.readAllBytes(path);
+            TarResource unreadable = new TarResource("c.txt", "c.txt", () -> {
+                throw new IllegalStateException("Unreadable resource");
+            }, 1, false, MODIFIED_TIME, emptyMap());
+
+            // expect
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new TarResourceWriter().append(path, Arrays.asList(
+                            resource("b.txt", random), resource("../c.txt", new byte[1]))))
+                    .withMessageStartingWith("Entry name of resource is not allowed to contain '..': ");
+            assertThat(Files.readAllBytes(path)).isEqualTo(before);
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> new TarResourceWriter().append(path, Arrays.asList(
+                            resource("b.txt", random), unreadable)))
+                    .withMessage("Unreadable resource");
+            List<Resource> actual = new TarResourceFinder(false).getResources(path);
+            assertThat(actual).extracting(Resource::getPath).containsExactly("a.txt", "random.bin");
+            assertThat(TestUtils.readAllBytes(actual.get(1).getInputStream())).isEqualTo(random);
+        }
+    }
+
+}
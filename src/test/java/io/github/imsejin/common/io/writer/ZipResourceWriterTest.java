@@ -0,0 +1,294 @@
+/*
+ * Copyright 2022 Sejin Im
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.imsejin.common.io.writer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.imsejin.common.internal.TestUtils;
+import io.github.imsejin.common.io.DiskFileResource;
+import io.github.imsejin.common.io.Resource;
+import io.github.imsejin.common.io.TarResource;
+import io.github.imsejin.common.io.ZipResource;
+import io.github.imsejin.common.io.finder.ZipResourceFinder;
+
+import static java.util.Collections.*;
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ZipResourceWriter")
+class ZipResourceWriterTest {
+
+    private static final long MODIFIED_TIME = 1_600_000_000_000L;
+
+    private static TarResource resource(String path, byte[] bytes) {
+        return new TarResource(path, path.substring(path.lastIndexOf('/') + 1), () -> new ByteArrayInputStream(bytes),
+                bytes.length, false, MODIFIED_TIME, emptyMap());
+    }
+
+    @Nested
+    @DisplayName("when method 'write' is done successfully")
+    class Success {
+        @Test
+        @DisplayName("compresses resources in order with their last modified time")
+        void test0(@TempDir Path tempPath) {
+            // given
+            byte[] random = new byte[300_000];
+            new Random(0).nextBytes(random);
+            byte[] text = String.join("\n", nCopies(10_000, "lorem ipsum")).getBytes(StandardCharsets.UTF_8);
+            List<Resource> resources = Arrays.asList(
+                    new TarResource("docs", "docs", () -> null, 0, true, MODIFIED_TIME, emptyMap()),
+                    resource("docs/text.txt", text),
+                    resource("random.bin", random),
+                    resource("empty.txt", new byte[0]));
+            Path path = tempPath.resolve("bundle.zip");
+
+            // when
+            new ZipResourceWriter(4).write(path, resources);
+
+            // then
+            List<Resource> actual = new ZipResourceFinder(false).getResources(path);
+            assertThat(actual)
+                    .hasOnlyElementsOfType(ZipResource.class)
+                    .extracting(Resource::getPath)
+                    .containsExactly("docs/", "docs/text.txt", "random.bin", "empty.txt");
+            assertThat(actual.get(0).isDirectory()).isTrue();
+            assertThat(TestUtils.readAllBytes(actual.get(1).getInputStream())).isEqualTo(text);
+            assertThat(TestUtils.readAllBytes(actual.get(2).getInputStream())).isEqualTo(random);
+            assertThat(actual.get(3).getSize()).isZero();
+            assertThat(actual).extracting(it -> ((ZipResource) it).getLastModifiedTime())
+                    .containsOnly(Instant.ofEpochMilli(MODIFIED_TIME));
+        }
+
+        @Test
+        @DisplayName("names entries of files on disk with mapper")
+        void test1(@TempDir Path tempPath) throws IOException {
+            // given
+            Path baseDir = Files.createDirectories(tempPath.resolve("base/sub"));
+            Path file = Files.write(baseDir.resolve("a.txt"), "alpha".getBytes(StandardCharsets.UTF_8));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(MODIFIED_TIME));
+            ZipResourceWriter writer = new ZipResourceWriter(2);
+            writer.setEntryNameMapper(it -> tempPath.resolve("base").relativize(tempPath.resolve(it.getPath())).toString());
+            Path path = tempPath.resolve("bundle.zip");
+
+            // when
+            writer.write(path, singletonList(DiskFileResource.from(file)));
+
+            // then
+            List<Resource> actual = new ZipResourceFinder(false).getResources(path);
+            assertThat(actual).extracting(Resource::getPath).containsExactly("sub/a.txt");
+            assertThat(((ZipResource) actual.get(0)).getLastModifiedTime()).isEqualTo(Instant.ofEpochMilli(MODIFIED_TIME));
+        }
+    }
+
+    @Nested
+    @DisplayName("when method 'write' is failed")
+    class Failure {
+        @Test
+        @DisplayName("throws exception when entry name escapes the directory of extraction")
+        void test0(@TempDir Path tempPath) {
+            // given
+            List<Resource> resources = singletonList(resource("../evil.txt", new byte[1]));
+
+            // expect
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new ZipResourceWriter(2).write(tempPath.resolve("evil.zip"), resources))
+                    .withMessageStartingWith("Entry name of resource is not allowed to contain '..'");
+        }
+
+        @Test
+        @DisplayName("throws exception with invalid arguments")
+        void test1(@TempDir Path tempPath) {
+            // expect
+            assertThatIllegalArgumentException().isThrownBy(() -> new ZipResourceWriter(0));
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new ZipResourceWriter().write(tempPath, emptyList()))
+                    .withMessageStartingWith("It is a directory: ");
+        }
+    }
+
+    @Nested
+    @DisplayName("when method 'append' is done successfully")
+    class AppendingSuccess {
+        @Test
+        @DisplayName("appends resources without rewriting the existing entries")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            byte[] random = new byte[300_000];
+            new Random(0).nextBytes(random);
+            Path path = tempPath.resolve("bundle.zip");
+            new ZipResourceWriter(2).write(path, Arrays.asList(
+                    resource("a.txt", "alpha".getBytes(StandardCharsets.UTF_8)),
+                    resource("random.bin", random)));
+            long endOfEntries;
+            try (org.apache.commons.compress.archivers.zip.ZipFile zipFile =
+                         org.apache.commons.compress.archivers.zip.ZipFile.builder().setPath(path).get()) {
+                ZipArchiveEntry entry = zipFile.getEntry("random.bin");
+                endOfEntries = entry.getDataOffset() + entry.getCompressedSize();
+            }
+            byte[] before = Files.readAllBytes(path);
+
+            // when
+            new ZipResourceWriter().append(path, Arrays.asList(
+                    new TarResource("docs", "docs", () -> null, 0, true, MODIFIED_TIME, emptyMap()),
+                    resource("docs/b.txt", "bravo".getBytes(StandardCharsets.UTF_8)),
+                    resource("a.txt", "updated".getBytes(StandardCharsets.UTF_8))));
+
+            // then
+            byte[] after = Files.readAllBytes(path);
+            assertThat(Arrays.copyOf(after, (int) endOfEntries)).isEqualTo(Arrays.copyOf(before, (int) endOfEntries));
+            List<Resource> actual = new ZipResourceFinder(false).getResources(path);
+            assertThat(actual)
+                    .extracting(Resource::getPath)
+                    .containsExactly("a.txt", "random.bin", "docs/", "docs/b.txt", "a.txt");
+            assertThat(TestUtils.readAllBytes(actual.get(1).getInputStream())).isEqualTo(random);
+            assertThat(actual.get(2).isDirectory()).isTrue();
+            assertThat(TestUtils.readAllBytes(actual.get(3).getInputStream()))
+                    .isEqualTo("bravo".getBytes(StandardCharsets.UTF_8));
+            assertThat(TestUtils.readAllBytes(actual.get(4).getInputStream()))
+                    .isEqualTo("updated".getBytes(StandardCharsets.UTF_8));
+            try (ZipFile zipFile = new ZipFile(path.toFile())) {
+                assertThat(zipFile.size()).isEqualTo(5);
+                assertThat(zipFile.getEntry("docs/b.txt").getTime()).isEqualTo(MODIFIED_TIME);
+            }
+        }
+
+        @Test
+        @DisplayName("keeps comment of zip, which is written by other library")
+        void test1(@TempDir Path tempPath) throws IOException {
+            // given
+            Path path = tempPath.resolve("bundle.zip");
+            try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(path))) {
+                out.setComment("comment");
+                out.putNextEntry(new ZipEntry("a.txt"));
+                out.write("alpha".getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+
+            // when
+            new ZipResourceWriter().append(path, singletonList(resource("b.txt", new byte[0])));
+
+            // then
+            try (ZipFile zipFile = new ZipFile(path.toFile())) {
+                assertThat(zipFile.getComment()).isEqualTo("comment");
+                assertThat(zipFile.stream()).extracting(ZipEntry::getName).containsExactly("a.txt", "b.txt");
+                assertThat(zipFile.getEntry("b.txt").getSize()).isZero();
+            }
+        }
+
+        @Test
+        @DisplayName("appends resources to zip which has zip64 end of central directory")
+        void test2(@TempDir Path tempPath) throws IOException {
+            // given
+            Path path = tempPath.resolve("bundle.zip");
+            try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(path)) {
+                out.setUseZip64(Zip64Mode.Always);
+                out.putArchiveEntry(new ZipArchiveEntry("a.txt"));
+                out.write("alpha".getBytes(StandardCharsets.UTF_8));
+                out.closeArchiveEntry();
+            }
+
+            // when
+            new ZipResourceWriter().append(path, singletonList(resource("b.txt", "bravo".getBytes(StandardCharsets.UTF_8))));
+
+            // then
+            List<Resource> actual = new ZipResourceFinder(false).getResources(path);
+            assertThat(actual).extracting(Resource::getPath).containsExactly("a.txt", "b.txt");
+            assertThat(TestUtils.readAllBytes(actual.get(1).getInputStream()))
+                    .isEqualTo("bravo".getBytes(StandardCharsets.UTF_8));
+            try (ZipFile zipFile = new ZipFile(path.toFile())) {
+                assertThat(zipFile.size()).isEqualTo(2);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("when method 'append' is failed")
+    class AppendingFailure {
+        @Test
+        @DisplayName("throws exception when file is not zip")
+        void test0(@TempDir Path tempPath) throws IOException {
+            // given
+            Path path = Files.write(tempPath.resolve("fake.zip"), new byte[100]);
+            List<Resource> resources = singletonList(resource("a.txt", new byte[1]));
+
+            // expect
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> new ZipResourceWriter().append(path, resources))
+                    .withMessageStartingWith("Failed to append to archive file: ");
+        }
+
+        @Test
+        @DisplayName("throws exception when file doesn't exist")
+        void test1(@TempDir Path tempPath) {
+            // expect
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new ZipResourceWriter().append(tempPath.resolve("none.zip"), emptyList()))
+                    .withMessageStartingWith("It is not a regular file: ");
+        }
+
+        @Test
+        @DisplayName("leaves zip as it was when resource is failed to be read or its name is invalid")
+        void test2(@TempDir Path tempPath) throws IOException {
+            // given
+            byte[] random = new byte[300_000];
+            new Random(0).nextBytes(random);
+            Path path = tempPath.resolve("bundle.zip");
+            new ZipResourceWriter(2).write(path, Arrays.asList(
+                    resource("a.txt", "alpha".getBytes(StandardCharsets.UTF_8)),
+                    resource("random.bin", random)));
+            byte[] before = Files.readAllBytes(path);
+            TarResource unreadable = new TarResource("c.txt", "c.txt", () -> {
+                throw new IllegalStateException("Unreadable resource");
+            }, 1, false, MODIFIED_TIME, emptyMap());
+
+            // expect
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> new ZipResourceWriter().append(path, Arrays.asList(
+                            resource("b.txt", random), unreadable)))
+                    .withMessage("Unreadable resource");
+            assertThat(Files.readAllBytes(path)).isEqualTo(before);
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new ZipResourceWriter().append(path, Arrays.asList(
+                            resource("b.txt", random), resource("../c.txt", new byte[1]))))
+                    .withMessageStartingWith("Entry name of resource is not allowed to contain '..': ");
+            assertThat(Files.readAllBytes(path)).isEqualTo(before);
+            List<Resource> actual = new ZipResourceFinder(false).getResources(path);
+            assertThat(actual).extracting(Resource::getPath).containsExactly("a.txt", "random.bin");
+            assertThat(TestUtils.readAllBytes(actual.get(1).getInputStream())).isEqualTo(random);
+        }
+    }
+
+}